@@ -194,6 +194,7 @@ CREATE TABLE if not exists `wedpr_dataset` (
     `dataset_size` bigint DEFAULT 0 COMMENT '数据集大小',
     `dataset_record_count` bigint DEFAULT 0 COMMENT '数据集记录数目',
     `dataset_column_count` int DEFAULT 0 COMMENT '数据集列数目',
+    `dataset_stats` TEXT COMMENT '数据集列统计信息(空值数、去重数估计)，JSON字符串',
     `dataset_storage_type` VARCHAR(255) DEFAULT '' COMMENT '数据集存储类型',
     `dataset_storage_path` VARCHAR(1024) DEFAULT '' COMMENT '数据集存储路径',
     `owner_agency_name` VARCHAR(255) NOT NULL COMMENT '数据集所属机构名称',
@@ -2,62 +2,61 @@ package com.webank.wedpr.components.crypto;
 
 import com.webank.wedpr.common.utils.WeDPRException;
 import java.nio.charset.StandardCharsets;
-import java.security.NoSuchAlgorithmException;
 import java.security.SecureRandom;
 import java.util.Base64;
 import javax.crypto.Cipher;
-import javax.crypto.KeyGenerator;
-import javax.crypto.SecretKey;
 import javax.crypto.spec.GCMParameterSpec;
-import javax.crypto.spec.SecretKeySpec;
 
 public class AESHelper {
-    private static final String AES_ALGORITHM = "AES/GCM/NoPadding";
-    private static final String KEY_ALGORITHM = "AES";
+    private static final int IV_LENGTH = 12;
+    private static final int TAG_LENGTH = 16;
     private static final SecureRandom secureRandom = new SecureRandom();
 
     public static String encrypt(String plaintext, String key) throws WeDPRException {
+        return Base64.getEncoder()
+                .encodeToString(encrypt(plaintext.getBytes(StandardCharsets.UTF_8), key));
+    }
+
+    public static String decrypt(String ciphertext, String key) throws WeDPRException {
+        byte[] content;
+        try {
+            content = Base64.getDecoder().decode(ciphertext);
+        } catch (Exception e) {
+            throw new WeDPRException(e.getMessage());
+        }
+        return new String(decrypt(content, key), StandardCharsets.UTF_8);
+    }
+
+    /** encrypt with random iv, return iv | ciphertext | tag */
+    public static byte[] encrypt(byte[] contentBytes, String key) throws WeDPRException {
         try {
-            byte[] iv = new byte[12];
+            byte[] iv = new byte[IV_LENGTH];
             secureRandom.nextBytes(iv);
-            byte[] contentBytes = plaintext.getBytes(StandardCharsets.UTF_8);
-            Cipher cipher = Cipher.getInstance(AES_ALGORITHM);
+            Cipher cipher = AESKeyHelper.getGcmCipher();
             GCMParameterSpec params = new GCMParameterSpec(128, iv);
-            cipher.init(Cipher.ENCRYPT_MODE, getSecretKey(key), params);
-            byte[] encryptData = cipher.doFinal(contentBytes);
-            assert encryptData.length == contentBytes.length + 16;
-            byte[] message = new byte[12 + contentBytes.length + 16];
-            System.arraycopy(iv, 0, message, 0, 12);
-            System.arraycopy(encryptData, 0, message, 12, encryptData.length);
-            return Base64.getEncoder().encodeToString(message);
+            cipher.init(Cipher.ENCRYPT_MODE, AESKeyHelper.getSecretKey(key), params);
+            byte[] message = new byte[IV_LENGTH + contentBytes.length + TAG_LENGTH];
+            System.arraycopy(iv, 0, message, 0, IV_LENGTH);
+            int encryptedLength =
+                    cipher.doFinal(contentBytes, 0, contentBytes.length, message, IV_LENGTH);
+            assert encryptedLength == contentBytes.length + TAG_LENGTH;
+            return message;
         } catch (Exception e) {
             throw new WeDPRException(e.getMessage());
         }
     }
 
-    public static String decrypt(String ciphertext, String key) throws WeDPRException {
+    public static byte[] decrypt(byte[] content, String key) throws WeDPRException {
         try {
-            byte[] content = Base64.getDecoder().decode(ciphertext);
-            if (content.length < 12 + 16) {
+            if (content.length < IV_LENGTH + TAG_LENGTH) {
                 throw new IllegalArgumentException();
             }
-            GCMParameterSpec params = new GCMParameterSpec(128, content, 0, 12);
-            Cipher cipher = Cipher.getInstance(AES_ALGORITHM);
-            cipher.init(Cipher.DECRYPT_MODE, getSecretKey(key), params);
-            byte[] decryptData = cipher.doFinal(content, 12, content.length - 12);
-            return new String(decryptData, StandardCharsets.UTF_8);
+            GCMParameterSpec params = new GCMParameterSpec(128, content, 0, IV_LENGTH);
+            Cipher cipher = AESKeyHelper.getGcmCipher();
+            cipher.init(Cipher.DECRYPT_MODE, AESKeyHelper.getSecretKey(key), params);
+            return cipher.doFinal(content, IV_LENGTH, content.length - IV_LENGTH);
         } catch (Exception e) {
             throw new WeDPRException(e.getMessage());
         }
     }
-
-    private static SecretKeySpec getSecretKey(String key) throws NoSuchAlgorithmException {
-        KeyGenerator kg = KeyGenerator.getInstance(KEY_ALGORITHM);
-        // 初始化密钥生成器，AES要求密钥长度为128位、192位、256位
-        SecureRandom secureRandom = SecureRandom.getInstance("SHA1PRNG");
-        secureRandom.setSeed(key.getBytes(StandardCharsets.UTF_8));
-        kg.init(128, secureRandom);
-        SecretKey secretKey = kg.generateKey();
-        return new SecretKeySpec(secretKey.getEncoded(), KEY_ALGORITHM);
-    }
 }
@@ -0,0 +1,97 @@
+/*
+ * Copyright 2017-2025  [webank-wedpr]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+package com.webank.wedpr.components.crypto;
+
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import com.webank.wedpr.common.utils.WeDPRException;
+import com.webank.wedpr.components.crypto.config.CryptoConfig;
+import java.nio.charset.StandardCharsets;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import javax.crypto.Cipher;
+import javax.crypto.KeyGenerator;
+import javax.crypto.NoSuchPaddingException;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.SecretKeySpec;
+
+/**
+ * derive the AES key from the key string(the same as KeyGenerator with the seeded SHA1PRNG), the
+ * derived keys are cached, and the KeyGenerator and the Cipher are reused per thread
+ */
+public class AESKeyHelper {
+    public static final String AES_GCM_ALGORITHM = "AES/GCM/NoPadding";
+
+    private static final ThreadLocal<KeyGenerator> KEY_GENERATOR =
+            ThreadLocal.withInitial(
+                    () -> {
+                        try {
+                            return KeyGenerator.getInstance(CryptoConfig.AES_ALGORITHM);
+                        } catch (NoSuchAlgorithmException e) {
+                            throw new IllegalStateException(e);
+                        }
+                    });
+    private static final ThreadLocal<Cipher> GCM_CIPHER =
+            ThreadLocal.withInitial(
+                    () -> {
+                        try {
+                            return Cipher.getInstance(AES_GCM_ALGORITHM);
+                        } catch (NoSuchAlgorithmException | NoSuchPaddingException e) {
+                            throw new IllegalStateException(e);
+                        }
+                    });
+
+    // key string => derived AES key
+    private static final LoadingCache<String, SecretKeySpec> KEY_CACHE =
+            CacheBuilder.newBuilder()
+                    .maximumSize(CryptoConfig.getAesKeyCacheSize())
+                    .build(
+                            new CacheLoader<String, SecretKeySpec>() {
+                                @Override
+                                public SecretKeySpec load(String key)
+                                        throws NoSuchAlgorithmException {
+                                    return deriveSecretKey(key);
+                                }
+                            });
+
+    public static SecretKeySpec getSecretKey(String key) throws WeDPRException {
+        try {
+            return KEY_CACHE.get(key);
+        } catch (Exception e) {
+            throw new WeDPRException("derive the AES key failed for " + e.getMessage(), e);
+        }
+    }
+
+    // derive the key without caching, for the one-time random keys
+    public static SecretKeySpec deriveSecretKey(String key) throws NoSuchAlgorithmException {
+        KeyGenerator kg = KEY_GENERATOR.get();
+        // 初始化密钥生成器，AES要求密钥长度为128位、192位、256位
+        // Note: the SHA1PRNG must be created for every key, since setSeed supplements the seed of
+        // an used SHA1PRNG instead of replacing it
+        SecureRandom secureRandom = SecureRandom.getInstance("SHA1PRNG");
+        secureRandom.setSeed(key.getBytes(StandardCharsets.UTF_8));
+        kg.init(128, secureRandom);
+        SecretKey secretKey = kg.generateKey();
+        return new SecretKeySpec(secretKey.getEncoded(), CryptoConfig.AES_ALGORITHM);
+    }
+
+    // the AES/GCM/NoPadding cipher of the current thread, must be initialized before used; only
+    // reuse it for encryption when the iv changes per call, GCM refuses a repeated key and iv
+    public static Cipher getGcmCipher() {
+        return GCM_CIPHER.get();
+    }
+}
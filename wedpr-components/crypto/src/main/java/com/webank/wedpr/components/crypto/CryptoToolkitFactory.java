@@ -43,6 +43,11 @@ public class CryptoToolkitFactory {
         return new AESCrypto(key, iv);
     }
 
+    // for the one-time random keys, which are derived without the shared key cache
+    public static SymmetricCrypto buildOneTimeAESSymmetricCrypto(String key, byte[] iv) {
+        return new AESCrypto(key, iv, false);
+    }
+
     public static HashCrypto buildHashCrypto() {
         return CryptoToolkitFactory.buildHashCrypto(CryptoConfig.getHashAlgorithmType());
     }
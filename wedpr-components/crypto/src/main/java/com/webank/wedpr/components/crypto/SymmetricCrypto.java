@@ -18,4 +18,8 @@ public interface SymmetricCrypto {
     String encrypt(String plain) throws Exception;
 
     String decrypt(String cipher) throws Exception;
+
+    byte[] encrypt(byte[] plain) throws Exception;
+
+    byte[] decrypt(byte[] cipher) throws Exception;
 }
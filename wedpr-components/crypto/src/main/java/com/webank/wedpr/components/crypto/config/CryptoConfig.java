@@ -29,6 +29,9 @@ public class CryptoConfig {
             WeDPRConfig.apply("wedpr.crypto.symmetric.key", null);
     private static String SYMMETRIC_ALGORITHM_IV =
             WeDPRConfig.apply("wedpr.crypto.symmetric.iv", null);
+    // the max derived AES keys cached
+    private static Integer AES_KEY_CACHE_SIZE =
+            WeDPRConfig.apply("wedpr.crypto.aes.key.cache.size", 10000);
 
     public static String getSymmetricAlgorithmType() {
         return SYMMETRIC_ALGORITHM_TYPE;
@@ -45,4 +48,8 @@ public class CryptoConfig {
     public static String getHashAlgorithmType() {
         return HASH_ALGORITHM_TYPE;
     }
+
+    public static Integer getAesKeyCacheSize() {
+        return AES_KEY_CACHE_SIZE;
+    }
 }
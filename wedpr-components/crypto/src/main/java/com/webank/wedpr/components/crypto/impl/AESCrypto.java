@@ -15,62 +15,90 @@
 package com.webank.wedpr.components.crypto.impl;
 
 import com.webank.wedpr.common.utils.WeDPRException;
+import com.webank.wedpr.components.crypto.AESKeyHelper;
 import com.webank.wedpr.components.crypto.SymmetricCrypto;
-import com.webank.wedpr.components.crypto.config.CryptoConfig;
 import java.nio.charset.StandardCharsets;
-import java.security.NoSuchAlgorithmException;
-import java.security.SecureRandom;
 import java.util.Base64;
 import javax.crypto.Cipher;
-import javax.crypto.KeyGenerator;
-import javax.crypto.SecretKey;
 import javax.crypto.spec.GCMParameterSpec;
 import javax.crypto.spec.SecretKeySpec;
 
 public class AESCrypto implements SymmetricCrypto {
     private final String key;
     private final byte[] iv;
+    // derive the key through the shared key cache, false for the one-time keys
+    private final boolean cacheKey;
+    // the derived key, lazily initialized
+    private SecretKeySpec secretKey;
     // TODO: support more algorithms
-    private static final String algorithm = "AES/GCM/NoPadding";
+    private static final String algorithm = AESKeyHelper.AES_GCM_ALGORITHM;
 
     public AESCrypto(String key, byte[] iv) {
+        this(key, iv, true);
+    }
+
+    public AESCrypto(String key, byte[] iv, boolean cacheKey) {
         this.key = key;
         this.iv = iv;
+        this.cacheKey = cacheKey;
     }
 
     @Override
     public String encrypt(String plaintext) throws Exception {
+        return Base64.getEncoder()
+                .encodeToString(encrypt(plaintext.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Override
+    public String decrypt(String ciphertext) throws Exception {
+        byte[] content;
         try {
-            byte[] contentBytes = plaintext.getBytes(StandardCharsets.UTF_8);
-            Cipher cipher = Cipher.getInstance(this.algorithm);
+            content = Base64.getDecoder().decode(ciphertext);
+        } catch (Exception e) {
+            throw new WeDPRException(e.getMessage());
+        }
+        return new String(decrypt(content), StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public byte[] encrypt(byte[] plaintext) throws Exception {
+        try {
+            // the iv is fixed, and GCM refuses to encrypt twice with the same key and iv on one
+            // Cipher instance, so a fresh Cipher is used for every encryption
+            Cipher cipher = Cipher.getInstance(algorithm);
             GCMParameterSpec params = new GCMParameterSpec(128, this.iv);
-            cipher.init(Cipher.ENCRYPT_MODE, getSecretKey(key), params);
-            return Base64.getEncoder().encodeToString(cipher.doFinal(contentBytes));
+            cipher.init(Cipher.ENCRYPT_MODE, getSecretKey(), params);
+            return cipher.doFinal(plaintext);
         } catch (Exception e) {
             throw new WeDPRException(e.getMessage());
         }
     }
 
     @Override
-    public String decrypt(String ciphertext) throws Exception {
+    public byte[] decrypt(byte[] ciphertext) throws Exception {
         try {
-            byte[] content = Base64.getDecoder().decode(ciphertext);
             GCMParameterSpec params = new GCMParameterSpec(128, iv, 0, iv.length);
-            Cipher cipher = Cipher.getInstance(this.algorithm);
-            cipher.init(Cipher.DECRYPT_MODE, getSecretKey(key), params);
-            return new String(cipher.doFinal(content), StandardCharsets.UTF_8);
+            Cipher cipher = AESKeyHelper.getGcmCipher();
+            cipher.init(Cipher.DECRYPT_MODE, getSecretKey(), params);
+            return cipher.doFinal(ciphertext);
         } catch (Exception e) {
             throw new WeDPRException(e.getMessage());
         }
     }
 
-    private static SecretKeySpec getSecretKey(String key) throws NoSuchAlgorithmException {
-        KeyGenerator kg = KeyGenerator.getInstance(CryptoConfig.AES_ALGORITHM);
-        // 初始化密钥生成器，AES要求密钥长度为128位、192位、256位
-        SecureRandom secureRandom = SecureRandom.getInstance("SHA1PRNG");
-        secureRandom.setSeed(key.getBytes(StandardCharsets.UTF_8));
-        kg.init(128, secureRandom);
-        SecretKey secretKey = kg.generateKey();
-        return new SecretKeySpec(secretKey.getEncoded(), CryptoConfig.AES_ALGORITHM);
+    private SecretKeySpec getSecretKey() throws WeDPRException {
+        if (secretKey != null) {
+            return secretKey;
+        }
+        if (cacheKey) {
+            secretKey = AESKeyHelper.getSecretKey(key);
+            return secretKey;
+        }
+        try {
+            secretKey = AESKeyHelper.deriveSecretKey(key);
+        } catch (Exception e) {
+            throw new WeDPRException("derive the AES key failed for " + e.getMessage(), e);
+        }
+        return secretKey;
     }
 }
@@ -50,6 +50,11 @@ public class DatasetConfig {
     @Value("${wedpr.storage.download.shardSize: 20971520}")
     int shardSize;
 
+    // transfer the local file shards straight from the file, the shard digests come from the
+    // shard index instead of hashing the shard data
+    @Value("${wedpr.storage.download.zeroCopy.enabled:true}")
+    boolean zeroCopyDownloadEnabled;
+
     @Value("${wedpr.dataset.status.update.timer.period:3600}")
     int datasetStatusUpdateTimerPeriodSec;
 
@@ -59,6 +64,28 @@ public class DatasetConfig {
     @Value("${wedpr.dataset.status.update.limit.count:100}")
     int datasetStatusUpdateLimitCount;
 
+    @Value("${wedpr.dataset.db.export.fetchSize:1000}")
+    int dbExportFetchSize;
+
+    @Value("${wedpr.dataset.db.export.maxParallelism:8}")
+    int dbExportMaxParallelism;
+
+    @Value("${wedpr.dataset.jdbc.pool.maxPools:64}")
+    int jdbcPoolMaxPools;
+
+    @Value("${wedpr.dataset.jdbc.pool.maxActive:16}")
+    int jdbcPoolMaxActive;
+
+    @Value("${wedpr.dataset.jdbc.pool.idleTimeoutMs:600000}")
+    long jdbcPoolIdleTimeoutMs;
+
+    @Value("${wedpr.dataset.jdbc.pool.maxWaitMs:60000}")
+    long jdbcPoolMaxWaitMs;
+
+    // write the chunks into the merged file directly when the chunkSize is specified
+    @Value("${wedpr.dataset.chunk.assembly.enabled:true}")
+    boolean chunkAssemblyEnabled;
+
     @Value("${wedpr.dataset.sql.validation.pattern: ^(SELECT.*?)(?<!\\G)(;|$)}")
     String sqlValidationPattern;
 
@@ -0,0 +1,28 @@
+package com.webank.wedpr.components.dataset.config;
+
+import com.webank.wedpr.components.dataset.sqlutils.JdbcConnectionPools;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class JdbcConnectionPoolConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(JdbcConnectionPoolConfig.class);
+
+    @Autowired DatasetConfig datasetConfig;
+
+    @Bean(name = "jdbcConnectionPools", destroyMethod = "close")
+    public JdbcConnectionPools newJdbcConnectionPools() {
+        logger.info("## Create JdbcConnectionPools");
+        JdbcConnectionPools jdbcConnectionPools = JdbcConnectionPools.getInstance();
+        jdbcConnectionPools.configure(
+                datasetConfig.getJdbcPoolMaxPools(),
+                datasetConfig.getJdbcPoolMaxActive(),
+                datasetConfig.getJdbcPoolIdleTimeoutMs(),
+                datasetConfig.getJdbcPoolMaxWaitMs());
+        return jdbcConnectionPools;
+    }
+}
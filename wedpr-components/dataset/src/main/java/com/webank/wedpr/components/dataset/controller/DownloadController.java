@@ -4,6 +4,7 @@ import com.webank.wedpr.common.utils.Common;
 import com.webank.wedpr.common.utils.Constant;
 import com.webank.wedpr.common.utils.WeDPRResponse;
 import com.webank.wedpr.components.dataset.config.DatasetConfig;
+import com.webank.wedpr.components.dataset.dao.LocalFileShard;
 import com.webank.wedpr.components.dataset.message.DownloadFileShardRequest;
 import com.webank.wedpr.components.dataset.message.GetFileShardsInfoResponse;
 import com.webank.wedpr.components.dataset.service.DownloadServiceApi;
@@ -36,6 +37,14 @@ public class DownloadController {
 
     private static final Logger logger = LoggerFactory.getLogger(DownloadController.class);
 
+    public static final String SHARD_HASH_HEADER = "X-Shard-MD5";
+
+    // the request attributes of the tomcat sendfile
+    private static final String SENDFILE_SUPPORT_ATTR = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME_ATTR = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START_ATTR = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END_ATTR = "org.apache.tomcat.sendfile.end";
+
     @Autowired private DatasetConfig datasetConfig;
 
     @Qualifier("downloadService")
@@ -113,8 +122,30 @@ public class DownloadController {
             httpServletResponse.setHeader("content-type", "application/octet-stream");
             httpServletResponse.setHeader("Content-Disposition", "attachment;fileName=" + fileName);
 
-            downloadService.downloadFileShardData(
-                    userInfo, filePath, shardCount, shardIndex, outputStream);
+            LocalFileShard localFileShard =
+                    downloadService.getLocalFileShard(userInfo, filePath, shardIndex);
+            if (localFileShard == null) {
+                downloadService.downloadFileShardData(
+                        userInfo, filePath, shardCount, shardIndex, outputStream);
+            } else {
+                // the md5 precomputed into the shard index
+                if (localFileShard.getShardHash() != null) {
+                    httpServletResponse.setHeader(SHARD_HASH_HEADER, localFileShard.getShardHash());
+                }
+                httpServletResponse.setContentLengthLong(localFileShard.getLength());
+                if (Boolean.TRUE.equals(httpServletRequest.getAttribute(SENDFILE_SUPPORT_ATTR))) {
+                    // send the file from the kernel by the connector after the request returns
+                    httpServletRequest.setAttribute(
+                            SENDFILE_FILENAME_ATTR, localFileShard.getFilePath());
+                    httpServletRequest.setAttribute(
+                            SENDFILE_START_ATTR, localFileShard.getOffset());
+                    httpServletRequest.setAttribute(
+                            SENDFILE_END_ATTR,
+                            localFileShard.getOffset() + localFileShard.getLength());
+                } else {
+                    downloadService.transferLocalFileShard(localFileShard, outputStream);
+                }
+            }
 
             long endTimeMillis = System.currentTimeMillis();
             logger.info(
@@ -0,0 +1,20 @@
+package com.webank.wedpr.components.dataset.dao;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/** the sidecar digest of the uploaded chunk, or of the whole uploaded file */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class ChunkManifest {
+    // the hash algorithm
+    private String hashAlgorithm;
+    // the data size
+    private long size;
+    // the hex digest
+    private String hash;
+}
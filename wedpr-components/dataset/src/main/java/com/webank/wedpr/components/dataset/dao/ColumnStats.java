@@ -0,0 +1,19 @@
+package com.webank.wedpr.components.dataset.dao;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class ColumnStats {
+    // the field name
+    private String field;
+    // count of the empty values
+    private long nullCount;
+    // the distinct count estimated by HyperLogLog
+    private long distinctCount;
+}
@@ -0,0 +1,20 @@
+package com.webank.wedpr.components.dataset.dao;
+
+import java.util.List;
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class CsvAnalysisResult {
+    // csv header fields
+    private List<String> fieldList;
+    // record count, without the header
+    private int recordCount;
+    // csv file size
+    private long datasetSize;
+    // hex digest of the csv file, null if not calculated
+    private String datasetHash;
+    // the stats of each column
+    private List<ColumnStats> columnStats;
+}
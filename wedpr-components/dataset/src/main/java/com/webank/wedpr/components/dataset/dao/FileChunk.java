@@ -15,6 +15,8 @@ public class FileChunk {
     private Integer index;
     /** 分块总数 */
     private Integer totalCount;
+    /** 分块大小(除最后一个分块), 指定时分块直接写入合并文件 */
+    private Integer chunkSize;
 
     @Override
     public String toString() {
@@ -29,6 +31,8 @@ public class FileChunk {
                 + index
                 + ", totalCount="
                 + totalCount
+                + ", chunkSize="
+                + chunkSize
                 + ", filesChunk="
                 + filesChunk.getSize()
                 + '}';
@@ -0,0 +1,17 @@
+package com.webank.wedpr.components.dataset.dao;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class LocalFileShard {
+    // the absolute path of the local file
+    private String filePath;
+    // the offset of the shard in the file
+    private long offset;
+    // the shard data length
+    private long length;
+    // hex md5 of the shard data
+    private String shardHash;
+}
@@ -22,6 +22,12 @@ public class DBDataSource implements DataSourceMeta {
     // if userName and password field is encryped
     boolean encryptionModel = true;
 
+    // the numeric and non-null column of the sql result to split the sql into ranges exported in
+    // parallel, optional
+    private String splitKey;
+    // the number of the ranges exported in parallel
+    private Integer splitParallelism;
+
     @Override
     public boolean dynamicDataSource() {
         return dynamicDataSource;
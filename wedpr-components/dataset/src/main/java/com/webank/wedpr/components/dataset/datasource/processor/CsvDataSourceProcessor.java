@@ -4,19 +4,21 @@ import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.webank.wedpr.common.utils.Common;
 import com.webank.wedpr.common.utils.ObjectMapperFactory;
 import com.webank.wedpr.components.dataset.config.DatasetConfig;
+import com.webank.wedpr.components.dataset.dao.CsvAnalysisResult;
 import com.webank.wedpr.components.dataset.dao.MergeChunkResult;
 import com.webank.wedpr.components.dataset.datasource.DataSourceMeta;
 import com.webank.wedpr.components.dataset.datasource.category.UploadChunkDataSource;
 import com.webank.wedpr.components.dataset.message.MergeChunkRequest;
 import com.webank.wedpr.components.dataset.service.ChunkUploadApi;
+import com.webank.wedpr.components.dataset.service.ShardDigestIndex;
 import com.webank.wedpr.components.dataset.utils.CsvUtils;
-import com.webank.wedpr.components.dataset.utils.FileUtils;
 import com.webank.wedpr.components.dataset.utils.JsonUtils;
 import com.webank.wedpr.components.db.mapper.dataset.dao.Dataset;
 import com.webank.wedpr.components.db.mapper.dataset.dao.UserInfo;
 import com.webank.wedpr.components.db.mapper.dataset.exception.DatasetException;
 import com.webank.wedpr.components.storage.api.FileStorageInterface;
 import com.webank.wedpr.components.storage.api.StoragePath;
+import com.webank.wedpr.components.storage.impl.local.LocalStoragePath;
 import java.util.Arrays;
 import java.util.List;
 import lombok.Data;
@@ -124,8 +126,9 @@ public class CsvDataSourceProcessor implements DataSourceProcessor {
 
         long startTimeMillis = System.currentTimeMillis();
 
-        // read csv header field
-        List<String> fieldList = CsvUtils.readCsvHeader(cvsFilePath);
+        // read the header, count the records and collect the column stats in one pass
+        CsvAnalysisResult csvAnalysisResult = CsvUtils.analyzeCsv(cvsFilePath, null);
+        List<String> fieldList = csvAnalysisResult.getFieldList();
 
         // [ x, y ,z] => x,y,z
         String fieldListString = Arrays.toString(fieldList.toArray());
@@ -138,15 +141,14 @@ public class CsvDataSourceProcessor implements DataSourceProcessor {
                         .trim();
 
         int columnNum = fieldList.size();
-        int rowNum = FileUtils.getFileLinesNumber(cvsFilePath);
-        if (rowNum > 1) {
-            // Note: minus field header
-            rowNum -= 1;
-        }
+        int rowNum = csvAnalysisResult.getRecordCount();
 
         this.dataSourceProcessorContext.getDataset().setDatasetFields(fieldString);
         this.dataSourceProcessorContext.getDataset().setDatasetColumnCount(columnNum);
         this.dataSourceProcessorContext.getDataset().setDatasetRecordCount(rowNum);
+        this.dataSourceProcessorContext
+                .getDataset()
+                .setDatasetStats(JsonUtils.object2JsonString(csvAnalysisResult.getColumnStats()));
 
         String datasetId = dataset.getDatasetId();
 
@@ -193,6 +195,7 @@ public class CsvDataSourceProcessor implements DataSourceProcessor {
                     .setDatasetStorageType(fileStorage.type().toString());
             this.dataSourceProcessorContext.getDataset().setDatasetStoragePath(storagePathStr);
             this.dataSourceProcessorContext.setStoragePath(storagePath);
+            buildShardDigestIndex(storagePath);
 
             long endTimeMillis = System.currentTimeMillis();
             logger.info(
@@ -220,6 +223,24 @@ public class CsvDataSourceProcessor implements DataSourceProcessor {
                 endTimeMillis - startTimeMillis);
     }
 
+    // index the shard digests of the local dataset file for the direct shard download
+    protected void buildShardDigestIndex(StoragePath storagePath) {
+        if (!(storagePath instanceof LocalStoragePath)) {
+            return;
+        }
+        DatasetConfig datasetConfig = dataSourceProcessorContext.getDatasetConfig();
+        if (!datasetConfig.isZeroCopyDownloadEnabled()) {
+            return;
+        }
+        String filePath = storagePath.getFilePath();
+        try {
+            ShardDigestIndex.build(filePath, datasetConfig.getShardSize());
+        } catch (Exception e) {
+            // the index would be built when downloading
+            logger.warn("build shard digest index failed, filePath: {}, e: ", filePath, e);
+        }
+    }
+
     @Override
     public void cleanupData() throws DatasetException {
 
@@ -5,9 +5,11 @@ import com.webank.wedpr.common.utils.ObjectMapperFactory;
 import com.webank.wedpr.common.utils.WeDPRException;
 import com.webank.wedpr.components.crypto.PasswordHelper;
 import com.webank.wedpr.components.dataset.config.DatasetConfig;
+import com.webank.wedpr.components.dataset.dao.CsvAnalysisResult;
 import com.webank.wedpr.components.dataset.datasource.DBType;
 import com.webank.wedpr.components.dataset.datasource.DataSourceMeta;
 import com.webank.wedpr.components.dataset.datasource.category.DBDataSource;
+import com.webank.wedpr.components.dataset.sqlutils.JdbcConnectionPools;
 import com.webank.wedpr.components.dataset.sqlutils.SQLExecutor;
 import com.webank.wedpr.components.dataset.sqlutils.SQLUtils;
 import com.webank.wedpr.components.dataset.utils.CsvUtils;
@@ -22,6 +24,7 @@ import com.webank.wedpr.components.token.auth.model.UserJwtConfig;
 import java.io.File;
 import java.util.Arrays;
 import java.util.List;
+import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -118,12 +121,27 @@ public class DBDataSourceProcessor extends CsvDataSourceProcessor {
                         dbDataSource.getDatabase(),
                         null);
 
-        CsvUtils.convertDBDataToCsv(
-                jdbcUrl,
-                dbDataSource.getUserName(),
-                dbDataSource.getPassword(),
-                dbDataSource.getSql(),
-                cvsFilePath);
+        String splitKey = dbDataSource.getSplitKey();
+        Integer splitParallelism = dbDataSource.getSplitParallelism();
+        if (StringUtils.isNotBlank(splitKey) && splitParallelism != null && splitParallelism > 1) {
+            CsvUtils.convertDBDataToCsvInParallel(
+                    jdbcUrl,
+                    dbDataSource.getUserName(),
+                    dbDataSource.getPassword(),
+                    dbDataSource.getSql(),
+                    datasetConfig.getDbExportFetchSize(),
+                    splitKey.trim(),
+                    getExportParallelism(datasetConfig, splitParallelism),
+                    cvsFilePath);
+        } else {
+            CsvUtils.convertDBDataToCsv(
+                    jdbcUrl,
+                    dbDataSource.getUserName(),
+                    dbDataSource.getPassword(),
+                    dbDataSource.getSql(),
+                    datasetConfig.getDbExportFetchSize(),
+                    cvsFilePath);
+        }
 
         dataSourceProcessorContext.setCvsFilePath(cvsFilePath);
 
@@ -135,6 +153,15 @@ public class DBDataSourceProcessor extends CsvDataSourceProcessor {
                 endTimeMillis - startTimeMillis);
     }
 
+    // every export segment holds a pooled connection, keep some for the other users of the source
+    private static int getExportParallelism(DatasetConfig datasetConfig, int splitParallelism) {
+        return Math.min(
+                splitParallelism,
+                Math.min(
+                        datasetConfig.getDbExportMaxParallelism(),
+                        JdbcConnectionPools.getInstance().getMaxExportParallelism()));
+    }
+
     @Override
     public void analyzeData() throws DatasetException {
         String cvsFilePath = dataSourceProcessorContext.getCvsFilePath();
@@ -142,8 +169,9 @@ public class DBDataSourceProcessor extends CsvDataSourceProcessor {
 
         long startTimeMillis = System.currentTimeMillis();
 
-        // read csv header field
-        List<String> fieldList = CsvUtils.readCsvHeader(cvsFilePath);
+        // read the header, count the records and collect the column stats in one pass
+        CsvAnalysisResult csvAnalysisResult = CsvUtils.analyzeCsv(cvsFilePath, "MD5");
+        List<String> fieldList = csvAnalysisResult.getFieldList();
 
         // [ x, y ,z] => x,y,z
         String fieldListString = Arrays.toString(fieldList.toArray());
@@ -156,17 +184,16 @@ public class DBDataSourceProcessor extends CsvDataSourceProcessor {
                         .trim();
 
         int columnNum = fieldList.size();
-        int rowNum = FileUtils.getFileLinesNumber(cvsFilePath);
-        if (rowNum > 1) {
-            // Note: minus field header
-            rowNum -= 1;
-        }
-        String md5Hash = FileUtils.calculateFileHash(cvsFilePath, "MD5");
-        long fileSize = FileUtils.getFileSize(cvsFilePath);
+        int rowNum = csvAnalysisResult.getRecordCount();
+        String md5Hash = csvAnalysisResult.getDatasetHash();
+        long fileSize = csvAnalysisResult.getDatasetSize();
 
         this.dataSourceProcessorContext.getDataset().setDatasetFields(fieldString);
         this.dataSourceProcessorContext.getDataset().setDatasetColumnCount(columnNum);
         this.dataSourceProcessorContext.getDataset().setDatasetRecordCount(rowNum);
+        this.dataSourceProcessorContext
+                .getDataset()
+                .setDatasetStats(JsonUtils.object2JsonString(csvAnalysisResult.getColumnStats()));
         this.dataSourceProcessorContext.getDataset().setDatasetVersionHash(md5Hash);
         this.dataSourceProcessorContext.getDataset().setDatasetSize(fileSize);
 
@@ -216,6 +243,7 @@ public class DBDataSourceProcessor extends CsvDataSourceProcessor {
                     .setDatasetStorageType(fileStorage.type().toString());
             this.dataSourceProcessorContext.getDataset().setDatasetStoragePath(storagePathStr);
             this.dataSourceProcessorContext.setStoragePath(storagePath);
+            buildShardDigestIndex(storagePath);
 
             long endTimeMillis = System.currentTimeMillis();
             logger.info(
@@ -4,6 +4,7 @@ import com.webank.wedpr.common.protocol.StorageType;
 import com.webank.wedpr.common.utils.Common;
 import com.webank.wedpr.common.utils.ObjectMapperFactory;
 import com.webank.wedpr.components.dataset.config.DatasetConfig;
+import com.webank.wedpr.components.dataset.dao.CsvAnalysisResult;
 import com.webank.wedpr.components.dataset.datasource.DataSourceMeta;
 import com.webank.wedpr.components.dataset.datasource.category.HdfsDataSource;
 import com.webank.wedpr.components.dataset.utils.CsvUtils;
@@ -114,8 +115,9 @@ public class HdfsDataSourceProcessor implements DataSourceProcessor {
 
         long startTimeMillis = System.currentTimeMillis();
 
-        // read csv header field
-        List<String> fieldList = CsvUtils.readCsvHeader(cvsFilePath);
+        // read the header, count the records and collect the column stats in one pass
+        CsvAnalysisResult csvAnalysisResult = CsvUtils.analyzeCsv(cvsFilePath, "MD5");
+        List<String> fieldList = csvAnalysisResult.getFieldList();
 
         // [ x, y ,z] => x,y,z
         String fieldListString = Arrays.toString(fieldList.toArray());
@@ -128,17 +130,16 @@ public class HdfsDataSourceProcessor implements DataSourceProcessor {
                         .trim();
 
         int columnNum = fieldList.size();
-        int rowNum = FileUtils.getFileLinesNumber(cvsFilePath);
-        if (rowNum > 1) {
-            // Note: minus field header
-            rowNum -= 1;
-        }
-        String md5Hash = FileUtils.calculateFileHash(cvsFilePath, "MD5");
-        long fileSize = FileUtils.getFileSize(cvsFilePath);
+        int rowNum = csvAnalysisResult.getRecordCount();
+        String md5Hash = csvAnalysisResult.getDatasetHash();
+        long fileSize = csvAnalysisResult.getDatasetSize();
 
         this.dataSourceProcessorContext.getDataset().setDatasetFields(fieldString);
         this.dataSourceProcessorContext.getDataset().setDatasetColumnCount(columnNum);
         this.dataSourceProcessorContext.getDataset().setDatasetRecordCount(rowNum);
+        this.dataSourceProcessorContext
+                .getDataset()
+                .setDatasetStats(JsonUtils.object2JsonString(csvAnalysisResult.getColumnStats()));
         this.dataSourceProcessorContext.getDataset().setDatasetVersionHash(md5Hash);
         this.dataSourceProcessorContext.getDataset().setDatasetSize(fileSize);
 
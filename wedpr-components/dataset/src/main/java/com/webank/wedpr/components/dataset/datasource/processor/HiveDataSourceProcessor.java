@@ -70,6 +70,7 @@ public class HiveDataSourceProcessor extends DBDataSourceProcessor {
                 hiveJdbcUserName,
                 hiveJdbcUserPassword,
                 dataSourceMeta.getSql(),
+                datasetConfig.getDbExportFetchSize(),
                 cvsFilePath);
 
         dataSourceProcessorContext.setCvsFilePath(cvsFilePath);
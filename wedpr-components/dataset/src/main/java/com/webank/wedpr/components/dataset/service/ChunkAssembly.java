@@ -0,0 +1,70 @@
+package com.webank.wedpr.components.dataset.service;
+
+import java.util.BitSet;
+
+/**
+ * the chunks written into the preallocated merged file at index * chunkSize, tracked by a
+ * completion bitmap
+ */
+public class ChunkAssembly {
+    private final int totalCount;
+    // the size of all the chunks except the last one
+    private final long chunkSize;
+    // the completion bitmap of the chunks
+    private final BitSet completedChunks;
+    private long lastChunkSize = -1;
+
+    public ChunkAssembly(int totalCount, long chunkSize) {
+        this.totalCount = totalCount;
+        this.chunkSize = chunkSize;
+        this.completedChunks = new BitSet(totalCount);
+    }
+
+    public int getTotalCount() {
+        return totalCount;
+    }
+
+    public long getChunkSize() {
+        return chunkSize;
+    }
+
+    public long getOffset(int index) {
+        return index * chunkSize;
+    }
+
+    public boolean isLastChunk(int index) {
+        return index == totalCount - 1;
+    }
+
+    /** @return the length of the chunk, -1 if the last chunk has not been assembled */
+    public synchronized long getChunkLength(int index) {
+        return isLastChunk(index) ? lastChunkSize : chunkSize;
+    }
+
+    /** @return all the chunks are assembled or not */
+    public synchronized boolean markCompleted(int index, long length) {
+        if (isLastChunk(index)) {
+            lastChunkSize = length;
+        }
+        completedChunks.set(index);
+        return isCompleted();
+    }
+
+    /** the chunk is being written again, it's not assembled until marked completed again */
+    public synchronized void markIncomplete(int index) {
+        completedChunks.clear(index);
+    }
+
+    public synchronized boolean isCompleted() {
+        return completedChunks.cardinality() == totalCount;
+    }
+
+    /** @return the first chunk not assembled, totalCount if all assembled */
+    public synchronized int getFirstMissingChunk() {
+        return completedChunks.nextClearBit(0);
+    }
+
+    public synchronized long getAssembledSize() {
+        return getOffset(totalCount - 1) + lastChunkSize;
+    }
+}
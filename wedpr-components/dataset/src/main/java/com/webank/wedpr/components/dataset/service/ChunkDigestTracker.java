@@ -0,0 +1,163 @@
+package com.webank.wedpr.components.dataset.service;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import java.io.IOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Fold the uploaded chunks into the digest of the whole file in index order, the chunk uploaded in
+ * order is hashed while it streams in, and the chunk arrived early is read back once its
+ * predecessors are folded, so the merge can verify the identifier without reading the file again
+ */
+public class ChunkDigestTracker {
+    private static final Logger logger = LoggerFactory.getLogger(ChunkDigestTracker.class);
+
+    // the abandoned uploads are evicted
+    private static final long UPLOAD_DIGEST_EXPIRE_HOURS = 24;
+
+    /** read the uploaded chunk into the digest */
+    public interface ChunkReader {
+        /** @return the size of the chunk */
+        long read(int index, MessageDigest messageDigest) throws IOException;
+    }
+
+    public static class UploadDigest {
+        private final int totalCount;
+        private MessageDigest messageDigest;
+        // the digest before the chunk hashed inline, restored when the upload failed
+        private MessageDigest checkpoint;
+        private int nextIndex = 0;
+        private long size = 0;
+        // the chunk of nextIndex is hashed while it is uploaded
+        private boolean inlineHashing = false;
+        // the chunks uploaded but not folded yet
+        private final Set<Integer> completedChunks = new HashSet<>();
+        // the digest can't be trusted, e.g. a folded chunk has been uploaded again
+        private boolean broken = false;
+        private boolean finished = false;
+
+        public UploadDigest(String hashAlgorithm, int totalCount) throws NoSuchAlgorithmException {
+            this.messageDigest = MessageDigest.getInstance(hashAlgorithm);
+            this.totalCount = totalCount;
+        }
+
+        /** hash the chunk inline when it is the next chunk to fold */
+        public synchronized boolean tryBeginInline(int index) {
+            if (broken || finished) {
+                return false;
+            }
+            if (index < nextIndex) {
+                broken = true;
+                return false;
+            }
+            if (index != nextIndex || inlineHashing) {
+                return false;
+            }
+            try {
+                checkpoint = (MessageDigest) messageDigest.clone();
+            } catch (CloneNotSupportedException e) {
+                return false;
+            }
+            inlineHashing = true;
+            return true;
+        }
+
+        /** Note: only the thread that began the inline hashing can update */
+        public void update(byte[] data, int offset, int length) {
+            messageDigest.update(data, offset, length);
+        }
+
+        public synchronized void endInline(boolean success, long chunkSize) {
+            inlineHashing = false;
+            if (!success) {
+                messageDigest = checkpoint;
+                checkpoint = null;
+                return;
+            }
+            checkpoint = null;
+            nextIndex++;
+            size += chunkSize;
+        }
+
+        public synchronized void markCompleted(int index) {
+            if (index < nextIndex) {
+                broken = true;
+                return;
+            }
+            completedChunks.add(index);
+        }
+
+        public synchronized void markBroken() {
+            broken = true;
+        }
+
+        /**
+         * fold the completed chunks following the folded ones
+         *
+         * @return the digest of the whole file when all the chunks are folded, otherwise null
+         */
+        public synchronized byte[] fold(ChunkReader chunkReader) {
+            while (!broken && !inlineHashing && completedChunks.remove(nextIndex)) {
+                try {
+                    size += chunkReader.read(nextIndex, messageDigest);
+                } catch (IOException e) {
+                    logger.warn("fold the chunk digest failed, index: {}, e: ", nextIndex, e);
+                    broken = true;
+                    return null;
+                }
+                nextIndex++;
+            }
+            if (broken || finished || inlineHashing || nextIndex < totalCount) {
+                return null;
+            }
+            finished = true;
+            return messageDigest.digest();
+        }
+
+        public synchronized long getSize() {
+            return size;
+        }
+    }
+
+    private final Cache<String, UploadDigest> uploadDigests =
+            CacheBuilder.newBuilder()
+                    .expireAfterAccess(UPLOAD_DIGEST_EXPIRE_HOURS, TimeUnit.HOURS)
+                    .build();
+
+    private static String getUploadKey(String datasetId, String identifier, int totalCount) {
+        return String.format("%s/%s/%d", datasetId, identifier, totalCount);
+    }
+
+    /** @return the digest of the upload, null if the hash algorithm is not supported */
+    public UploadDigest getUploadDigest(
+            String datasetId, String identifier, int totalCount, String hashAlgorithm) {
+        try {
+            return uploadDigests.get(
+                    getUploadKey(datasetId, identifier, totalCount),
+                    () -> new UploadDigest(hashAlgorithm, totalCount));
+        } catch (ExecutionException e) {
+            logger.warn(
+                    "create the upload digest failed, datasetId: {}, identifier: {}, e: ",
+                    datasetId,
+                    identifier,
+                    e);
+            return null;
+        }
+    }
+
+    public void remove(String datasetId, String identifier, int totalCount) {
+        uploadDigests.invalidate(getUploadKey(datasetId, identifier, totalCount));
+    }
+
+    public void removeDataset(String datasetId) {
+        uploadDigests.asMap().keySet().removeIf(key -> key.startsWith(datasetId + "/"));
+    }
+}
@@ -1,7 +1,11 @@
 package com.webank.wedpr.components.dataset.service;
 
 import com.alibaba.druid.util.HexBin;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.webank.wedpr.common.utils.ObjectMapperFactory;
 import com.webank.wedpr.components.dataset.config.DatasetConfig;
+import com.webank.wedpr.components.dataset.dao.ChunkManifest;
 import com.webank.wedpr.components.dataset.dao.FileChunk;
 import com.webank.wedpr.components.dataset.dao.MergeChunkResult;
 import com.webank.wedpr.components.dataset.message.MergeChunkRequest;
@@ -10,16 +14,27 @@ import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
 import java.nio.channels.FileChannel;
 import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.security.DigestInputStream;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 import lombok.Data;
+import org.apache.commons.lang3.concurrent.BasicThreadFactory;
 import org.apache.tomcat.util.http.fileupload.FileUtils;
-import org.apache.tomcat.util.http.fileupload.IOUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -35,8 +50,31 @@ public class ChunkUploadImpl implements ChunkUploadApi {
     public static final String UPLOAD_CHUNK_FILE_NAME_PREFIX = "chunks";
     public static final String UPLOAD_MERGED_FILE_NAME_PREFIX = "merged";
 
+    public static final String MANIFEST_FILE_SUFFIX = ".manifest";
+    public static final String ASSEMBLY_FILE_SUFFIX = ".assembly";
+    // the chunks are hashed with the default identifierHash algorithm when uploaded
+    public static final String UPLOAD_HASH_ALGORITHM = "MD5";
+
+    private static final int HASH_BUFFER_SIZE = 1024 * 1024;
+    private static final int COPY_BUFFER_SIZE = 64 * 1024;
+    // hash the chunks while they are concatenated by the merge thread, the concurrent merges
+    // beyond the cpu count wait in the queue
+    private static final ExecutorService CHUNK_HASH_EXECUTOR =
+            Executors.newFixedThreadPool(
+                    Runtime.getRuntime().availableProcessors(),
+                    new BasicThreadFactory.Builder()
+                            .namingPattern("chunk-hash-%d")
+                            .daemon(true)
+                            .build());
+
     @Autowired private DatasetConfig datasetConfig;
 
+    private final ChunkDigestTracker chunkDigestTracker = new ChunkDigestTracker();
+
+    // ${datasetId}/${identifier}/${count} => the chunks assembled into the merged file
+    private final Cache<String, ChunkAssembly> chunkAssemblies =
+            CacheBuilder.newBuilder().expireAfterAccess(24, TimeUnit.HOURS).build();
+
     // ${dir}/chunks/${datasetId}/${identifier}
     public String getUploadFileDirPath(String datasetId, String identifier) {
         String datasetChunksDir = datasetConfig.getDatasetChunksDir(datasetId);
@@ -57,6 +95,25 @@ public class ChunkUploadImpl implements ChunkUploadApi {
         return String.format("%s/%d-%d", uploadFilePath, chunkCount, index);
     }
 
+    // ${dir}/chunks/${datasetId}/${identifier}/${count}-${index}.manifest
+    public String getUploadChunkManifestPath(
+            String datasetId, String identifier, int chunkCount, int index) {
+        return getUploadChunkFilePath(datasetId, identifier, chunkCount, index)
+                + MANIFEST_FILE_SUFFIX;
+    }
+
+    // ${dir}/chunks/${datasetId}/${identifier}/${count}.assembly
+    public String getUploadAssemblyPath(String datasetId, String identifier, int chunkCount) {
+        String uploadFilePath = getUploadFileDirPath(datasetId, identifier);
+        return String.format("%s/%d%s", uploadFilePath, chunkCount, ASSEMBLY_FILE_SUFFIX);
+    }
+
+    // ${dir}/chunks/${datasetId}/${identifier}/${count}.manifest
+    public String getUploadManifestPath(String datasetId, String identifier, int chunkCount) {
+        String uploadFilePath = getUploadFileDirPath(datasetId, identifier);
+        return String.format("%s/%d%s", uploadFilePath, chunkCount, MANIFEST_FILE_SUFFIX);
+    }
+
     /**
      * 检查文件是否存在
      *
@@ -111,28 +168,378 @@ public class ChunkUploadImpl implements ChunkUploadApi {
         String uploadChunkDataFilePath =
                 getUploadChunkFilePath(datasetId, identifier, totalCount, index);
 
+        // write the chunk into the merged file directly in the assembly mode
+        ChunkAssembly chunkAssembly = null;
+        if (isAssemblyMode(fileChunk)) {
+            if (index < 0 || index >= totalCount) {
+                throw new DatasetException(
+                        String.format(
+                                "invalid chunk index, identifier: %s, totalCount: %d, index: %d",
+                                identifier, totalCount, index));
+            }
+            chunkAssembly =
+                    getChunkAssembly(datasetId, identifier, totalCount, fileChunk.getChunkSize());
+        }
+        Path chunkDataPath =
+                Paths.get(
+                        chunkAssembly != null
+                                ? getMergedFilePath(datasetId, identifier)
+                                : uploadChunkDataFilePath);
+        long chunkOffset = chunkAssembly != null ? chunkAssembly.getOffset(index) : 0;
+
+        // the manifests no longer match the chunks once any chunk is written again, and the
+        // chunk is not assembled until it's written and synced
+        if (chunkAssembly != null) {
+            chunkAssembly.markIncomplete(index);
+        }
+        deleteManifest(getUploadChunkManifestPath(datasetId, identifier, totalCount, index));
+        deleteManifest(getUploadManifestPath(datasetId, identifier, totalCount));
+
+        // the digest of the whole file, the chunk is hashed inline when it arrives in order
+        ChunkDigestTracker.UploadDigest uploadDigest =
+                chunkDigestTracker.getUploadDigest(
+                        datasetId, identifier, totalCount, UPLOAD_HASH_ALGORITHM);
+        boolean inlineHashing = uploadDigest != null && uploadDigest.tryBeginInline(index);
+        MessageDigest chunkMessageDigest = newMessageDigest(UPLOAD_HASH_ALGORITHM);
+        long chunkSize = 0;
+        boolean success = false;
+
         // 写入分片
-        try (InputStream inputStream = fileChunk.getFilesChunk().getInputStream();
-                FileOutputStream outputStream = new FileOutputStream(uploadChunkDataFilePath)) {
-            IOUtils.copy(inputStream, outputStream);
+        try (InputStream inputStream =
+                        new DigestInputStream(
+                                fileChunk.getFilesChunk().getInputStream(), chunkMessageDigest);
+                FileChannel outputChannel = openChunkDataChannel(chunkDataPath, chunkAssembly)) {
+            byte[] buffer = new byte[COPY_BUFFER_SIZE];
+            int read;
+            while ((read = inputStream.read(buffer)) != -1) {
+                if (chunkAssembly != null && chunkSize + read > chunkAssembly.getChunkSize()) {
+                    throw new DatasetException(
+                            "the chunk data exceeds the chunkSize " + chunkAssembly.getChunkSize());
+                }
+                ByteBuffer byteBuffer = ByteBuffer.wrap(buffer, 0, read);
+                long position = chunkOffset + chunkSize;
+                while (byteBuffer.hasRemaining()) {
+                    position += outputChannel.write(byteBuffer, position);
+                }
+                if (inlineHashing) {
+                    uploadDigest.update(buffer, 0, read);
+                }
+                chunkSize += read;
+            }
+            if (chunkAssembly != null
+                    && !chunkAssembly.isLastChunk(index)
+                    && chunkSize != chunkAssembly.getChunkSize()) {
+                throw new DatasetException(
+                        "the chunk data size "
+                                + chunkSize
+                                + " mismatch with the chunkSize "
+                                + chunkAssembly.getChunkSize());
+            }
+            if (chunkAssembly != null) {
+                // the chunk manifest marks the chunk assembled, sync the data before writing it
+                outputChannel.force(false);
+            }
+            success = true;
             logger.info(
-                    "save the chunk data success, path: {},datasetId: {}, identifier: {}, totalCount: {}, index: {}",
-                    uploadChunkDataFilePath,
+                    "save the chunk data success, path: {},datasetId: {}, identifier: {}, totalCount: {}, index: {}, offset: {}, inlineHashing: {}",
+                    chunkDataPath,
                     datasetId,
                     identifier,
                     totalCount,
-                    index);
+                    index,
+                    chunkOffset,
+                    inlineHashing);
         } catch (Exception e) {
             logger.error(
                     "failed to chunk shard data, path: {}, datasetId: {},identifier: {}, totalCount: {}, index: {}, e: ",
-                    uploadChunkDataFilePath,
+                    chunkDataPath,
                     datasetId,
                     identifier,
                     totalCount,
                     index,
                     e);
             throw new DatasetException(e.getMessage());
+        } finally {
+            if (inlineHashing) {
+                uploadDigest.endInline(success, chunkSize);
+            }
+        }
+
+        // persist the chunk digest into the sidecar manifest
+        ChunkManifest chunkManifest =
+                new ChunkManifest(
+                        UPLOAD_HASH_ALGORITHM,
+                        chunkSize,
+                        HexBin.encode(chunkMessageDigest.digest(), false));
+        boolean manifestWritten =
+                writeManifest(
+                        getUploadChunkManifestPath(datasetId, identifier, totalCount, index),
+                        chunkManifest);
+        if (!manifestWritten && uploadDigest != null) {
+            uploadDigest.markBroken();
+        }
+        // the chunk manifest is the durable completion record of the assembled chunk
+        if (chunkAssembly != null && !manifestWritten) {
+            throw new DatasetException(
+                    String.format(
+                            "persist the chunk manifest failed, identifier: %s, totalCount: %d, index: %d",
+                            identifier, totalCount, index));
+        }
+        boolean assembled = chunkAssembly != null && chunkAssembly.markCompleted(index, chunkSize);
+        if (uploadDigest != null && manifestWritten) {
+            if (!inlineHashing) {
+                uploadDigest.markCompleted(index);
+            }
+            foldUploadDigest(uploadDigest, datasetId, identifier, totalCount, chunkAssembly);
+        }
+        if (assembled) {
+            finishAssembly(datasetId, identifier, chunkAssembly);
+        }
+    }
+
+    private boolean isAssemblyMode(FileChunk fileChunk) {
+        return datasetConfig.isChunkAssemblyEnabled()
+                && fileChunk.getChunkSize() != null
+                && fileChunk.getChunkSize() > 0;
+    }
+
+    private static FileChannel openChunkDataChannel(Path chunkDataPath, ChunkAssembly chunkAssembly)
+            throws IOException {
+        if (chunkAssembly != null) {
+            // the merged file has been preallocated
+            return FileChannel.open(chunkDataPath, StandardOpenOption.WRITE);
+        }
+        return FileChannel.open(
+                chunkDataPath,
+                StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+    }
+
+    /**
+     * get the assembly of the upload, the merged file is preallocated as a sparse file when the
+     * assembly begins, and the completion bitmap is recovered from the chunk manifests
+     */
+    private ChunkAssembly getChunkAssembly(
+            String datasetId, String identifier, int totalCount, long chunkSize)
+            throws DatasetException {
+        String uploadKey = String.format("%s/%s/%d", datasetId, identifier, totalCount);
+        try {
+            ChunkAssembly chunkAssembly =
+                    chunkAssemblies.get(
+                            uploadKey,
+                            () -> loadChunkAssembly(datasetId, identifier, totalCount, chunkSize));
+            if (chunkAssembly.getChunkSize() != chunkSize) {
+                throw new DatasetException(
+                        "the chunkSize "
+                                + chunkSize
+                                + " mismatch with the assembling chunkSize "
+                                + chunkAssembly.getChunkSize());
+            }
+            return chunkAssembly;
+        } catch (DatasetException e) {
+            throw e;
+        } catch (Exception e) {
+            logger.error(
+                    "begin the chunk assembly failed, datasetId: {}, identifier: {}, e: ",
+                    datasetId,
+                    identifier,
+                    e);
+            throw new DatasetException("begin the chunk assembly failed, e: " + e.getMessage());
+        }
+    }
+
+    private ChunkAssembly loadChunkAssembly(
+            String datasetId, String identifier, int totalCount, long chunkSize)
+            throws IOException {
+        Path assemblyPath = Paths.get(getUploadAssemblyPath(datasetId, identifier, totalCount));
+        if (Files.exists(assemblyPath)) {
+            chunkSize = readAssemblyChunkSize(assemblyPath);
+        } else {
+            // preallocate the sparse merged file
+            try (RandomAccessFile mergedFile =
+                    new RandomAccessFile(getMergedFilePath(datasetId, identifier), "rw")) {
+                mergedFile.setLength((totalCount - 1) * chunkSize);
+            }
+            Files.write(assemblyPath, String.valueOf(chunkSize).getBytes(StandardCharsets.UTF_8));
+        }
+        ChunkAssembly chunkAssembly = new ChunkAssembly(totalCount, chunkSize);
+        for (int index = 0; index < totalCount; ++index) {
+            ChunkManifest chunkManifest =
+                    readManifest(getUploadChunkManifestPath(datasetId, identifier, totalCount, index));
+            if (chunkManifest != null) {
+                chunkAssembly.markCompleted(index, chunkManifest.getSize());
+            }
+        }
+        return chunkAssembly;
+    }
+
+    private void finishAssembly(String datasetId, String identifier, ChunkAssembly chunkAssembly)
+            throws DatasetException {
+        String mergedFilePath = getMergedFilePath(datasetId, identifier);
+        // drop the data beyond the last chunk that written by the former uploads
+        try (FileChannel mergedFileChannel =
+                FileChannel.open(Paths.get(mergedFilePath), StandardOpenOption.WRITE)) {
+            mergedFileChannel.truncate(chunkAssembly.getAssembledSize());
+        } catch (IOException e) {
+            logger.error("finish the chunk assembly failed, path: {}, e: ", mergedFilePath, e);
+            throw new DatasetException("finish the chunk assembly failed, e: " + e.getMessage());
+        }
+        logger.info(
+                "all chunks assembled, datasetId: {}, identifier: {}, totalCount: {}, size: {}",
+                datasetId,
+                identifier,
+                chunkAssembly.getTotalCount(),
+                chunkAssembly.getAssembledSize());
+    }
+
+    private void foldUploadDigest(
+            ChunkDigestTracker.UploadDigest uploadDigest,
+            String datasetId,
+            String identifier,
+            int totalCount,
+            ChunkAssembly chunkAssembly) {
+        ChunkDigestTracker.ChunkReader chunkReader;
+        if (chunkAssembly != null) {
+            Path mergedFilePath = Paths.get(getMergedFilePath(datasetId, identifier));
+            chunkReader =
+                    (index, messageDigest) ->
+                            digestFileRegion(
+                                    mergedFilePath,
+                                    chunkAssembly.getOffset(index),
+                                    chunkAssembly.getChunkLength(index),
+                                    messageDigest);
+        } else {
+            chunkReader =
+                    (index, messageDigest) ->
+                            digestFileRegion(
+                                    Paths.get(
+                                            getUploadChunkFilePath(
+                                                    datasetId, identifier, totalCount, index)),
+                                    0,
+                                    Long.MAX_VALUE,
+                                    messageDigest);
+        }
+        byte[] digest = uploadDigest.fold(chunkReader);
+        if (digest == null) {
+            return;
+        }
+        ChunkManifest uploadManifest =
+                new ChunkManifest(
+                        UPLOAD_HASH_ALGORITHM,
+                        uploadDigest.getSize(),
+                        HexBin.encode(digest, false));
+        writeManifest(getUploadManifestPath(datasetId, identifier, totalCount), uploadManifest);
+        chunkDigestTracker.remove(datasetId, identifier, totalCount);
+        logger.info(
+                "all chunks hashed, datasetId: {}, identifier: {}, totalCount: {}, manifest: {}",
+                datasetId,
+                identifier,
+                totalCount,
+                uploadManifest);
+    }
+
+    /** digest at most length bytes of the file from the position, return the digested size */
+    private static long digestFileRegion(
+            Path path, long position, long length, MessageDigest messageDigest)
+            throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(HASH_BUFFER_SIZE);
+        long digestedSize = 0;
+        try (FileChannel fileChannel = FileChannel.open(path, StandardOpenOption.READ)) {
+            while (digestedSize < length) {
+                buffer.clear();
+                if (length - digestedSize < buffer.capacity()) {
+                    buffer.limit((int) (length - digestedSize));
+                }
+                int read = fileChannel.read(buffer, position + digestedSize);
+                if (read == -1) {
+                    break;
+                }
+                buffer.flip();
+                messageDigest.update(buffer);
+                digestedSize += read;
+            }
         }
+        return digestedSize;
+    }
+
+    private static MessageDigest newMessageDigest(String hashAlgorithm) throws DatasetException {
+        try {
+            return MessageDigest.getInstance(hashAlgorithm);
+        } catch (NoSuchAlgorithmException e) {
+            logger.error(hashAlgorithm + " algorithm is not supported, e: ", e);
+            throw new DatasetException(hashAlgorithm + " algorithm is not supported");
+        }
+    }
+
+    private static boolean writeManifest(String manifestPath, ChunkManifest manifest) {
+        try {
+            Files.write(
+                    Paths.get(manifestPath),
+                    ObjectMapperFactory.getObjectMapper().writeValueAsBytes(manifest));
+            return true;
+        } catch (Exception e) {
+            logger.warn("write the chunk manifest failed, path: {}, e: ", manifestPath, e);
+            return false;
+        }
+    }
+
+    private static void deleteManifest(String manifestPath) throws DatasetException {
+        try {
+            Files.deleteIfExists(Paths.get(manifestPath));
+        } catch (IOException e) {
+            logger.error("delete the chunk manifest failed, path: {}, e: ", manifestPath, e);
+            throw new DatasetException("delete the chunk manifest failed, e: " + e.getMessage());
+        }
+    }
+
+    private static ChunkManifest readManifest(String manifestPath) {
+        Path path = Paths.get(manifestPath);
+        if (!Files.exists(path)) {
+            return null;
+        }
+        try {
+            return ObjectMapperFactory.getObjectMapper()
+                    .readValue(Files.readAllBytes(path), ChunkManifest.class);
+        } catch (Exception e) {
+            logger.warn("read the chunk manifest failed, path: {}, e: ", manifestPath, e);
+            return null;
+        }
+    }
+
+    /**
+     * the hex digest hashed at upload time, null if not all the chunks are hashed or any chunk
+     * has been changed after hashed
+     */
+    private String loadUploadDigest(
+            String datasetId,
+            String identifier,
+            int totalChunkCount,
+            String hashAlgorithm,
+            List<Path> chunkFilePaths)
+            throws IOException {
+        ChunkManifest uploadManifest =
+                readManifest(getUploadManifestPath(datasetId, identifier, totalChunkCount));
+        if (uploadManifest == null
+                || !hashAlgorithm.equalsIgnoreCase(uploadManifest.getHashAlgorithm())) {
+            return null;
+        }
+        long totalSize = 0;
+        for (int index = 0; index < totalChunkCount; ++index) {
+            ChunkManifest chunkManifest =
+                    readManifest(
+                            getUploadChunkManifestPath(
+                                    datasetId, identifier, totalChunkCount, index));
+            if (chunkManifest == null
+                    || chunkManifest.getSize() != Files.size(chunkFilePaths.get(index))) {
+                return null;
+            }
+            totalSize += chunkManifest.getSize();
+        }
+        if (totalSize != uploadManifest.getSize()) {
+            return null;
+        }
+        return uploadManifest.getHash();
     }
 
     @Override
@@ -145,55 +552,53 @@ public class ChunkUploadImpl implements ChunkUploadApi {
         String identifier = mergeChunkRequest.getIdentifier();
         int totalChunkCount = mergeChunkRequest.getTotalCount();
         String hashAlgorithm = mergeChunkRequest.getIdentifierHash();
-        String datasetVersionHashAlg = mergeChunkRequest.getDatasetVersionHash();
 
-        long datasetSize = 0;
-        //  MessageDigest Instance
-        MessageDigest identifierMessageDigest = null;
-        try {
-            identifierMessageDigest = MessageDigest.getInstance(hashAlgorithm);
-        } catch (NoSuchAlgorithmException e) {
-            logger.error(hashAlgorithm + " algorithm is not supported, e: ", e);
-            throw new DatasetException(hashAlgorithm + " algorithm is not supported");
+        // the chunks have been assembled into the merged file at upload time
+        Path assemblyPath =
+                Paths.get(getUploadAssemblyPath(datasetId, identifier, totalChunkCount));
+        if (Files.exists(assemblyPath)) {
+            return mergeAssembledChunkData(
+                    datasetId, identifier, totalChunkCount, hashAlgorithm, assemblyPath);
         }
 
-        MessageDigest datasetVersionMessageDigest = null;
-        try {
-            datasetVersionMessageDigest = MessageDigest.getInstance(hashAlgorithm);
-        } catch (NoSuchAlgorithmException e) {
-            logger.error(datasetVersionHashAlg + " algorithm is not supported, e: ", e);
-            throw new DatasetException(datasetVersionHashAlg + " algorithm is not supported");
-        }
+        //  MessageDigest Instance
+        // Note: the datasetVersionHash shares the identifier digest(calculated with the
+        // identifierHash algorithm), so the merged data is only hashed once
+        MessageDigest identifierMessageDigest = newMessageDigest(hashAlgorithm);
 
         // 文件存储的目录
         String mergedFilePath = getMergedFilePath(datasetId, identifier);
 
+        // 检查分片是否完整
+        List<Path> chunkFilePaths = new ArrayList<>(totalChunkCount);
+        for (int index = 0; index < totalChunkCount; ++index) {
+            String chunkFilePath =
+                    getUploadChunkFilePath(datasetId, identifier, totalChunkCount, index);
+            if (!checkFileExistence(chunkFilePath)) {
+                logger.error(
+                        "missing upload chunk data, identifier:{}, totalCount: {}, index:{}",
+                        identifier,
+                        totalChunkCount,
+                        index);
+                throw new DatasetException(
+                        String.format(
+                                "missing upload chunk data, identifier: %s, totalCount: %d, index: %d",
+                                identifier, totalChunkCount, index));
+            }
+            chunkFilePaths.add(Paths.get(chunkFilePath));
+        }
+
+        long datasetSize = 0;
+        String hexDigest = null;
+        Future<byte[]> digestFuture = null;
         // 文件锁
         FileLock fileLock = null;
         // 合并文件
         try (FileOutputStream mergedFileOutputStream = new FileOutputStream(mergedFilePath)) {
-
-            // 检查分片是否完整
-            for (int index = 0; index < totalChunkCount; ++index) {
-                String chunkFilePath =
-                        getUploadChunkFilePath(datasetId, identifier, totalChunkCount, index);
-                if (!checkFileExistence(chunkFilePath)) {
-                    logger.error(
-                            "missing upload chunk data, identifier:{}, totalCount: {}, index:{}",
-                            identifier,
-                            totalChunkCount,
-                            index);
-                    throw new DatasetException(
-                            String.format(
-                                    "missing upload chunk data, identifier: %s, totalCount: %d, index: %d",
-                                    identifier, totalChunkCount, index));
-                }
-            }
-
+            FileChannel mergedFileChannel = mergedFileOutputStream.getChannel();
             try {
-                FileChannel channel = mergedFileOutputStream.getChannel();
                 // lock file for prevent duplicate operations
-                fileLock = channel.tryLock();
+                fileLock = mergedFileChannel.tryLock();
             } catch (Exception e) {
                 logger.error(
                         "failed to lock the file lock in merge chunk data operation, identifier: {}, totalCount: {}, e: ",
@@ -205,14 +610,23 @@ public class ChunkUploadImpl implements ChunkUploadApi {
                                 + e.getMessage());
             }
 
-            for (int index = 0; index < totalChunkCount; ++index) {
-                String uploadChunkDataFilePath =
-                        getUploadChunkFilePath(datasetId, identifier, totalChunkCount, index);
-                byte[] readBytes = Files.readAllBytes(Paths.get(uploadChunkDataFilePath));
-                identifierMessageDigest.update(readBytes);
-                datasetVersionMessageDigest.update(readBytes);
-                mergedFileOutputStream.write(readBytes);
-                datasetSize += readBytes.length;
+            // the chunks have been hashed at upload time
+            hexDigest =
+                    loadUploadDigest(
+                            datasetId, identifier, totalChunkCount, hashAlgorithm, chunkFilePaths);
+            if (hexDigest == null) {
+                // hash the chunks in parallel with the concatenation
+                MessageDigest messageDigest = identifierMessageDigest;
+                digestFuture =
+                        CHUNK_HASH_EXECUTOR.submit(
+                                () -> digestChunkFiles(messageDigest, chunkFilePaths));
+            }
+            // concatenate the chunks without copying into the heap
+            for (Path chunkFilePath : chunkFilePaths) {
+                datasetSize += transferChunkFile(chunkFilePath, mergedFileChannel);
+            }
+            if (digestFuture != null) {
+                hexDigest = HexBin.encode(digestFuture.get(), false);
             }
         } catch (DatasetException datasetException) {
             throw datasetException;
@@ -223,6 +637,10 @@ public class ChunkUploadImpl implements ChunkUploadApi {
                     totalChunkCount,
                     e);
             throw new DatasetException("merge chunk data exception, e: " + e.getMessage());
+        } finally {
+            if (digestFuture != null && !digestFuture.isDone()) {
+                digestFuture.cancel(true);
+            }
         }
         //        finally {
         //            if (fileLock != null) {
@@ -240,22 +658,41 @@ public class ChunkUploadImpl implements ChunkUploadApi {
             identifier = identifier.substring(2);
         }
 
+        // the digest hashed at upload time may be stale, hash the chunks again before rejecting
+        boolean hashedAtUpload = digestFuture == null;
+        if (hashedAtUpload && !hexDigest.equalsIgnoreCase(identifier)) {
+            hashedAtUpload = false;
+            logger.warn(
+                    "the upload digest mismatch, hash the chunks again, identifier: {}, hexDigest: {}",
+                    identifier,
+                    hexDigest);
+            try {
+                hexDigest =
+                        HexBin.encode(
+                                digestChunkFiles(identifierMessageDigest, chunkFilePaths), false);
+            } catch (IOException e) {
+                logger.error("hash the chunks failed, identifier: {}, e: ", identifier, e);
+                throw new DatasetException("hash the chunks failed, e: " + e.getMessage());
+            }
+        }
+
         // compare and verify MD5
-        String hexDigest = HexBin.encode(identifierMessageDigest.digest(), false);
         if (!hexDigest.equalsIgnoreCase(identifier)) {
             logger.error(
                     "hash value mismatch, identifier: {}, hexDigest: {}", identifier, hexDigest);
             throw new DatasetException("Hash value mismatch");
         }
 
-        String datasetVersionHexHash = HexBin.encode(datasetVersionMessageDigest.digest(), false);
+        String datasetVersionHexHash = hexDigest;
 
         long endTimeMillis = System.currentTimeMillis();
 
         logger.info(
-                "merge chunk data success, identifier: {}, totalCount: {}, cost(ms): {}",
+                "merge chunk data success, identifier: {}, totalCount: {}, datasetSize: {}, hashedAtUpload: {}, cost(ms): {}",
                 identifier,
                 totalChunkCount,
+                datasetSize,
+                hashedAtUpload,
                 (endTimeMillis - startTimeMillis));
 
         return MergeChunkResult.builder()
@@ -265,9 +702,159 @@ public class ChunkUploadImpl implements ChunkUploadApi {
                 .build();
     }
 
+    /** check the assembled file, no merge pass is required */
+    private MergeChunkResult mergeAssembledChunkData(
+            String datasetId,
+            String identifier,
+            int totalChunkCount,
+            String hashAlgorithm,
+            Path assemblyPath)
+            throws DatasetException {
+        long startTimeMillis = System.currentTimeMillis();
+        String mergedFilePath = getMergedFilePath(datasetId, identifier);
+        long datasetSize;
+        String hexDigest;
+        boolean hashedAtUpload;
+        try {
+            long chunkSize = readAssemblyChunkSize(assemblyPath);
+            ChunkAssembly chunkAssembly =
+                    getChunkAssembly(datasetId, identifier, totalChunkCount, chunkSize);
+            if (!chunkAssembly.isCompleted()) {
+                int index = chunkAssembly.getFirstMissingChunk();
+                logger.error(
+                        "missing upload chunk data, identifier:{}, totalCount: {}, index:{}",
+                        identifier,
+                        totalChunkCount,
+                        index);
+                throw new DatasetException(
+                        String.format(
+                                "missing upload chunk data, identifier: %s, totalCount: %d, index: %d",
+                                identifier, totalChunkCount, index));
+            }
+            datasetSize = Files.size(Paths.get(mergedFilePath));
+            if (datasetSize != chunkAssembly.getAssembledSize()) {
+                throw new DatasetException(
+                        "the assembled file size "
+                                + datasetSize
+                                + " mismatch with the chunks size "
+                                + chunkAssembly.getAssembledSize());
+            }
+            ChunkManifest uploadManifest =
+                    readManifest(getUploadManifestPath(datasetId, identifier, totalChunkCount));
+            hashedAtUpload =
+                    uploadManifest != null
+                            && hashAlgorithm.equalsIgnoreCase(uploadManifest.getHashAlgorithm())
+                            && uploadManifest.getSize() == datasetSize;
+            if (hashedAtUpload) {
+                hexDigest = uploadManifest.getHash();
+            } else {
+                hexDigest = digestAssembledFile(mergedFilePath, datasetSize, hashAlgorithm);
+            }
+            // the digest hashed at upload time may be stale, hash the file again before rejecting
+            if (hashedAtUpload && !hexDigest.equalsIgnoreCase(trimHexPrefix(identifier))) {
+                logger.warn(
+                        "the upload digest mismatch, hash the assembled file again, identifier: {}, hexDigest: {}",
+                        identifier,
+                        hexDigest);
+                hashedAtUpload = false;
+                hexDigest = digestAssembledFile(mergedFilePath, datasetSize, hashAlgorithm);
+            }
+        } catch (DatasetException datasetException) {
+            throw datasetException;
+        } catch (Exception e) {
+            logger.error(
+                    "check the assembled chunk data exception, identifier:{}, totalCount: {}, e: ",
+                    identifier,
+                    totalChunkCount,
+                    e);
+            throw new DatasetException(
+                    "check the assembled chunk data exception, e: " + e.getMessage());
+        }
+
+        identifier = trimHexPrefix(identifier);
+        // compare and verify MD5
+        if (!hexDigest.equalsIgnoreCase(identifier)) {
+            logger.error(
+                    "hash value mismatch, identifier: {}, hexDigest: {}", identifier, hexDigest);
+            throw new DatasetException("Hash value mismatch");
+        }
+        logger.info(
+                "check the assembled chunk data success, identifier: {}, totalCount: {}, datasetSize: {}, hashedAtUpload: {}, cost(ms): {}",
+                identifier,
+                totalChunkCount,
+                datasetSize,
+                hashedAtUpload,
+                (System.currentTimeMillis() - startTimeMillis));
+
+        return MergeChunkResult.builder()
+                .mergedFilePath(mergedFilePath)
+                .datasetSize(datasetSize)
+                .datasetVersionHash(hexDigest)
+                .build();
+    }
+
+    private static String digestAssembledFile(
+            String mergedFilePath, long datasetSize, String hashAlgorithm)
+            throws IOException, DatasetException {
+        MessageDigest messageDigest = newMessageDigest(hashAlgorithm);
+        digestFileRegion(Paths.get(mergedFilePath), 0, datasetSize, messageDigest);
+        return HexBin.encode(messageDigest.digest(), false);
+    }
+
+    private static String trimHexPrefix(String identifier) {
+        if (identifier.startsWith("0x") || identifier.startsWith("0X")) {
+            return identifier.substring(2);
+        }
+        return identifier;
+    }
+
+    private static long readAssemblyChunkSize(Path assemblyPath) throws IOException {
+        return Long.parseLong(
+                new String(Files.readAllBytes(assemblyPath), StandardCharsets.UTF_8).trim());
+    }
+
+    /** append the chunk file to the merged file by FileChannel.transferTo */
+    private static long transferChunkFile(Path chunkFilePath, FileChannel mergedFileChannel)
+            throws IOException {
+        try (FileChannel chunkFileChannel =
+                FileChannel.open(chunkFilePath, StandardOpenOption.READ)) {
+            long chunkSize = chunkFileChannel.size();
+            long position = 0;
+            while (position < chunkSize) {
+                long transferred =
+                        chunkFileChannel.transferTo(
+                                position, chunkSize - position, mergedFileChannel);
+                // no progress, e.g. the chunk file has been truncated while merging
+                if (transferred <= 0) {
+                    throw new IOException(
+                            "transfer the chunk file "
+                                    + chunkFilePath
+                                    + " made no progress at position "
+                                    + position
+                                    + ", size: "
+                                    + chunkSize);
+                }
+                position += transferred;
+            }
+            return chunkSize;
+        }
+    }
+
+    /** digest the chunk files in order with a fixed-size buffer */
+    private static byte[] digestChunkFiles(MessageDigest messageDigest, List<Path> chunkFilePaths)
+            throws IOException {
+        for (Path chunkFilePath : chunkFilePaths) {
+            digestFileRegion(chunkFilePath, 0, Long.MAX_VALUE, messageDigest);
+        }
+        return messageDigest.digest();
+    }
+
     @Override
     public void cleanChunkData(String datasetId, String identifier) {
 
+        chunkDigestTracker.removeDataset(datasetId);
+        chunkAssemblies.asMap().keySet().removeIf(key -> key.startsWith(datasetId + "/"));
+
         String dirPath = datasetConfig.getDatasetChunksDir(datasetId);
 
         try {
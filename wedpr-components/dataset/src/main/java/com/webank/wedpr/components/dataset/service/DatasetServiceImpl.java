@@ -37,6 +37,7 @@ import com.webank.wedpr.components.db.mapper.dataset.permission.DatasetUserPermi
 import com.webank.wedpr.components.storage.api.FileStorageInterface;
 import com.webank.wedpr.components.storage.api.StoragePath;
 import com.webank.wedpr.components.storage.builder.StoragePathBuilder;
+import com.webank.wedpr.components.storage.impl.local.LocalStoragePath;
 import com.webank.wedpr.components.token.auth.model.UserJwtConfig;
 import com.webank.wedpr.components.uuid.generator.WeDPRUuidGenerator;
 import java.util.ArrayList;
@@ -359,6 +360,9 @@ public class DatasetServiceImpl implements DatasetServiceApi {
             StoragePath storagePath =
                     StoragePathBuilder.getInstance(datasetStorageType, datasetStoragePath);
             fileStorage.delete(storagePath);
+            if (storagePath instanceof LocalStoragePath) {
+                ShardDigestIndex.remove(storagePath.getFilePath());
+            }
 
             long endTimeMillis = System.currentTimeMillis();
             logger.info(
@@ -1,6 +1,7 @@
 package com.webank.wedpr.components.dataset.service;
 
 import com.webank.wedpr.common.utils.WeDPRException;
+import com.webank.wedpr.components.dataset.dao.LocalFileShard;
 import com.webank.wedpr.components.db.mapper.dataset.dao.UserInfo;
 import java.io.OutputStream;
 
@@ -15,4 +16,16 @@ public interface DownloadServiceApi {
             int shardIndex,
             OutputStream outputStream)
             throws WeDPRException;
+
+    /**
+     * locate the shard of the file in the local storage for the direct transfer
+     *
+     * @return the local file shard, null if the file is not in the local storage or the direct
+     *     shard download is disabled
+     */
+    LocalFileShard getLocalFileShard(UserInfo userInfo, String filePath, int shardIndex)
+            throws WeDPRException;
+
+    void transferLocalFileShard(LocalFileShard localFileShard, OutputStream outputStream)
+            throws WeDPRException;
 }
@@ -4,15 +4,23 @@ import com.alibaba.druid.util.HexBin;
 import com.webank.wedpr.common.protocol.StorageType;
 import com.webank.wedpr.common.utils.WeDPRException;
 import com.webank.wedpr.components.dataset.config.DatasetConfig;
+import com.webank.wedpr.components.dataset.dao.LocalFileShard;
 import com.webank.wedpr.components.db.mapper.dataset.dao.UserInfo;
 import com.webank.wedpr.components.storage.api.FileStorageInterface;
 import com.webank.wedpr.components.storage.api.StorageMeta;
 import com.webank.wedpr.components.storage.api.StoragePath;
 import com.webank.wedpr.components.storage.api.StorageStreamApi;
 import com.webank.wedpr.components.storage.builder.StoragePathBuilder;
+import com.webank.wedpr.components.storage.impl.local.LocalStoragePath;
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import lombok.Data;
@@ -28,6 +36,8 @@ public class DownloadServiceImpl implements DownloadServiceApi {
 
     private static final Logger logger = LoggerFactory.getLogger(DownloadServiceImpl.class);
 
+    private static final int COPY_BUFFER_SIZE = 64 * 1024;
+
     @Autowired private DatasetConfig datasetConfig;
 
     @Qualifier("fileStorage")
@@ -103,6 +113,47 @@ public class DownloadServiceImpl implements DownloadServiceApi {
         return totalReadSize;
     }
 
+    /** copy the data in [offset, offset + shouldReadSize) with the positional read */
+    public int copyRange(
+            StorageStreamApi storageStreamApi,
+            long offset,
+            OutputStream outputStream,
+            int shouldReadSize,
+            MessageDigest messageDigest)
+            throws IOException {
+
+        byte[] buffer = new byte[COPY_BUFFER_SIZE];
+        int leftSize = shouldReadSize;
+        int totalReadSize = 0;
+
+        while (leftSize > 0) {
+            int readSize = Math.min(leftSize, buffer.length);
+            int ret = storageStreamApi.read(offset + totalReadSize, buffer, 0, readSize);
+            if (ret < 0) {
+                logger.info("read the end of the file, ret < 0, ret: {}", ret);
+                break;
+            }
+
+            if (messageDigest != null) {
+                messageDigest.update(buffer, 0, ret);
+            }
+
+            outputStream.write(buffer, 0, ret);
+            leftSize -= ret;
+            totalReadSize += ret;
+        }
+
+        if (logger.isInfoEnabled()) {
+            logger.info(
+                    "offset: {}, shouldReadSize: {}, totalReadSize: {}",
+                    offset,
+                    shouldReadSize,
+                    totalReadSize);
+        }
+
+        return totalReadSize;
+    }
+
     @Override
     public void downloadFileShardData(
             UserInfo userInfo,
@@ -122,6 +173,12 @@ public class DownloadServiceImpl implements DownloadServiceApi {
                 storageType,
                 shardIndex);
 
+        LocalFileShard localFileShard = getLocalFileShard(userInfo, filePath, shardIndex);
+        if (localFileShard != null) {
+            transferLocalFileShard(localFileShard, outputStream);
+            return;
+        }
+
         StoragePath storagePath =
                 StoragePathBuilder.getInstanceByFilePath(storageType.getName(), filePath);
         try (StorageStreamApi storageStreamApi = fileStorage.open(storagePath)) {
@@ -156,7 +213,6 @@ public class DownloadServiceImpl implements DownloadServiceApi {
 
             long fileReadOffset = (long) shardIndex * shardSize;
 
-            long skip = storageStreamApi.skip(fileReadOffset);
             MessageDigest messageDigest = null;
             try {
                 messageDigest = MessageDigest.getInstance("MD5");
@@ -164,8 +220,14 @@ public class DownloadServiceImpl implements DownloadServiceApi {
                 logger.warn("NoSuchAlgorithmException, e: ", e);
             }
 
+            // read the shard directly from the offset
             int totalReadSize =
-                    copyStream(storageStreamApi.stream(), outputStream, shardSize, messageDigest);
+                    copyRange(
+                            storageStreamApi,
+                            fileReadOffset,
+                            outputStream,
+                            shardSize,
+                            messageDigest);
 
             String hexHashValue = null;
             if (messageDigest != null) {
@@ -175,14 +237,14 @@ public class DownloadServiceImpl implements DownloadServiceApi {
             long endTimeMillis = System.currentTimeMillis();
 
             logger.info(
-                    "download transfer file data end, filePath: {}, fileLength: {}, shardSize: {}, shardCount: {}, shardIndex: {}, storageType: {}, skip: {}, totalReadSize: {}, hexHashValue: {}, cost(ms): {}",
+                    "download transfer file data end, filePath: {}, fileLength: {}, shardSize: {}, shardCount: {}, shardIndex: {}, storageType: {}, offset: {}, totalReadSize: {}, hexHashValue: {}, cost(ms): {}",
                     filePath,
                     fileLength,
                     shardSize,
                     shardCount,
                     shardIndex,
                     storageType,
-                    skip,
+                    fileReadOffset,
                     totalReadSize,
                     hexHashValue,
                     (endTimeMillis - startTimeMillis));
@@ -192,4 +254,88 @@ public class DownloadServiceImpl implements DownloadServiceApi {
             throw new WeDPRException(e.getMessage());
         }
     }
+
+    @Override
+    public LocalFileShard getLocalFileShard(UserInfo userInfo, String filePath, int shardIndex)
+            throws WeDPRException {
+        if (fileStorage.type() != StorageType.LOCAL || !datasetConfig.isZeroCopyDownloadEnabled()) {
+            return null;
+        }
+        LocalStoragePath localStoragePath =
+                (LocalStoragePath)
+                        StoragePathBuilder.getInstanceByFilePath(
+                                StorageType.LOCAL.getName(), filePath);
+        String localFilePath = localStoragePath.getFilePath();
+        File file = new File(localFilePath);
+        if (!file.isFile()) {
+            logger.error("file does not exist, filePath: {}", localFilePath);
+            throw new WeDPRException("file does not exist, path: " + localFilePath);
+        }
+
+        long fileLength = file.length();
+        int shardSize = datasetConfig.getShardSize();
+        int shardCount = calculateShardCount(fileLength, shardSize);
+        if (shardIndex < 0 || shardIndex >= shardCount) {
+            logger.error(
+                    "download file request shard index overflow, filePath: {}, fileLength: {}, shardIndex: {}, shardCount: {}",
+                    localFilePath,
+                    fileLength,
+                    shardIndex,
+                    shardCount);
+            throw new WeDPRException(
+                    "download file request shard index overflow, shardIndex: "
+                            + shardIndex
+                            + " , shardCount: "
+                            + shardCount);
+        }
+
+        String shardHash = null;
+        try {
+            shardHash = ShardDigestIndex.getShardHash(localFilePath, shardSize, shardIndex);
+        } catch (IOException e) {
+            logger.warn("get the shard hash failed, filePath: {}, e: ", localFilePath, e);
+        }
+        long offset = (long) shardIndex * shardSize;
+        return LocalFileShard.builder()
+                .filePath(localFilePath)
+                .offset(offset)
+                .length(Math.min(shardSize, fileLength - offset))
+                .shardHash(shardHash)
+                .build();
+    }
+
+    @Override
+    public void transferLocalFileShard(LocalFileShard localFileShard, OutputStream outputStream)
+            throws WeDPRException {
+        long startTimeMillis = System.currentTimeMillis();
+        long transferred = 0;
+        try (FileChannel fileChannel =
+                FileChannel.open(
+                        Paths.get(localFileShard.getFilePath()), StandardOpenOption.READ)) {
+            // transfer without hashing the shard. Note: the servlet stream is neither a file nor a
+            // socket channel, so transferTo falls back to a plain buffered copy instead of sendfile
+            WritableByteChannel outputChannel = Channels.newChannel(outputStream);
+            long length = localFileShard.getLength();
+            while (transferred < length) {
+                long ret =
+                        fileChannel.transferTo(
+                                localFileShard.getOffset() + transferred,
+                                length - transferred,
+                                outputChannel);
+                if (ret <= 0) {
+                    break;
+                }
+                transferred += ret;
+            }
+        } catch (IOException e) {
+            logger.debug("IOException, e: ", e);
+            throw new WeDPRException(e.getMessage());
+        }
+
+        logger.info(
+                "transfer local file shard end, shard: {}, transferred: {}, cost(ms): {}",
+                localFileShard,
+                transferred,
+                (System.currentTimeMillis() - startTimeMillis));
+    }
 }
@@ -0,0 +1,263 @@
+package com.webank.wedpr.components.dataset.service;
+
+import com.alibaba.druid.util.HexBin;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.google.common.util.concurrent.Striped;
+import com.webank.wedpr.common.utils.ObjectMapperFactory;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.locks.Lock;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.apache.commons.lang3.concurrent.BasicThreadFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * the digest of each download shard of the local file, cached in the sidecar ${file}.shards, so
+ * the download need not hash the shard data
+ */
+public class ShardDigestIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(ShardDigestIndex.class);
+
+    public static final String SHARD_INDEX_FILE_SUFFIX = ".shards";
+    public static final String SHARD_HASH_ALGORITHM = "MD5";
+
+    private static final int HASH_BUFFER_SIZE = 1024 * 1024;
+
+    // prevent building the index of the same file concurrently
+    private static final Striped<Lock> BUILD_LOCKS = Striped.lock(64);
+
+    // the index missed by the download is built in the background
+    private static final ExecutorService INDEX_BUILD_EXECUTOR =
+            Executors.newSingleThreadExecutor(
+                    new BasicThreadFactory.Builder()
+                            .namingPattern("shard-index-%d")
+                            .daemon(true)
+                            .build());
+    private static final Set<String> PENDING_BUILDS = ConcurrentHashMap.newKeySet();
+
+    @Data
+    @NoArgsConstructor
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class ShardIndex {
+        private String hashAlgorithm;
+        private int shardSize;
+        // the size and lastModified of the indexed file, to detect the stale index
+        private long fileSize;
+        private long lastModified;
+        private List<String> shardHashes;
+    }
+
+    private ShardDigestIndex() {}
+
+    public static String getIndexFilePath(String filePath) {
+        return filePath + SHARD_INDEX_FILE_SUFFIX;
+    }
+
+    /**
+     * get the hex digest of the shard, only the requested shard is hashed if the index not exists
+     * or stale, and the index is built in the background
+     *
+     * @param filePath
+     * @param shardSize
+     * @param shardIndex
+     * @return
+     * @throws IOException
+     */
+    public static String getShardHash(String filePath, int shardSize, int shardIndex)
+            throws IOException {
+        ShardIndex index = load(filePath, shardSize);
+        if (index != null) {
+            if (shardIndex < 0 || shardIndex >= index.getShardHashes().size()) {
+                return null;
+            }
+            return index.getShardHashes().get(shardIndex);
+        }
+        buildAsync(filePath, shardSize);
+        return hashShard(filePath, shardSize, shardIndex);
+    }
+
+    /** build the index in the background, skipped if the build of the file is pending */
+    public static void buildAsync(String filePath, int shardSize) {
+        if (!PENDING_BUILDS.add(filePath)) {
+            return;
+        }
+        try {
+            INDEX_BUILD_EXECUTOR.execute(
+                    () -> {
+                        try {
+                            build(filePath, shardSize);
+                        } catch (Exception e) {
+                            logger.warn(
+                                    "build shard digest index failed, filePath: {}, e: ",
+                                    filePath,
+                                    e);
+                        } finally {
+                            PENDING_BUILDS.remove(filePath);
+                        }
+                    });
+        } catch (RejectedExecutionException e) {
+            PENDING_BUILDS.remove(filePath);
+            logger.warn("submit the shard digest index build failed, filePath: {}", filePath);
+        }
+    }
+
+    /**
+     * hash the shards of the file and persist the index into the sidecar file, the build of the
+     * same file is serialized and skipped if the index is already up to date
+     */
+    public static ShardIndex build(String filePath, int shardSize) throws IOException {
+        Lock lock = BUILD_LOCKS.get(filePath);
+        lock.lock();
+        try {
+            ShardIndex index = load(filePath, shardSize);
+            if (index != null) {
+                return index;
+            }
+            return doBuild(filePath, shardSize);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static ShardIndex doBuild(String filePath, int shardSize) throws IOException {
+        long startTimeMillis = System.currentTimeMillis();
+        Path path = Paths.get(filePath);
+        MessageDigest messageDigest = newMessageDigest();
+
+        ShardIndex index = new ShardIndex();
+        index.setHashAlgorithm(SHARD_HASH_ALGORITHM);
+        index.setShardSize(shardSize);
+        index.setLastModified(Files.getLastModifiedTime(path).toMillis());
+        List<String> shardHashes = new ArrayList<>();
+        ByteBuffer buffer = ByteBuffer.allocateDirect(HASH_BUFFER_SIZE);
+        try (FileChannel fileChannel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long fileSize = fileChannel.size();
+            index.setFileSize(fileSize);
+            for (long shardOffset = 0; shardOffset < fileSize; shardOffset += shardSize) {
+                long shardEnd = Math.min(fileSize, shardOffset + shardSize);
+                digestRegion(fileChannel, shardOffset, shardEnd, buffer, messageDigest, filePath);
+                shardHashes.add(HexBin.encode(messageDigest.digest(), false));
+            }
+        }
+        index.setShardHashes(shardHashes);
+
+        // write the sidecar atomically, the temp file is unique to the build
+        Path indexPath = Paths.get(getIndexFilePath(filePath)).toAbsolutePath();
+        Path tmpIndexPath =
+                Files.createTempFile(
+                        indexPath.getParent(), indexPath.getFileName().toString() + ".", ".tmp");
+        try {
+            Files.write(tmpIndexPath, ObjectMapperFactory.getObjectMapper().writeValueAsBytes(index));
+            Files.move(tmpIndexPath, indexPath, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(tmpIndexPath);
+        }
+
+        logger.info(
+                "build shard digest index success, filePath: {}, fileSize: {}, shardSize: {}, shardCount: {}, cost(ms): {}",
+                filePath,
+                index.getFileSize(),
+                shardSize,
+                shardHashes.size(),
+                System.currentTimeMillis() - startTimeMillis);
+        return index;
+    }
+
+    /** hash the single shard of the file, null if the shard index overflow */
+    private static String hashShard(String filePath, int shardSize, int shardIndex)
+            throws IOException {
+        MessageDigest messageDigest = newMessageDigest();
+        try (FileChannel fileChannel =
+                FileChannel.open(Paths.get(filePath), StandardOpenOption.READ)) {
+            long fileSize = fileChannel.size();
+            long shardOffset = (long) shardIndex * shardSize;
+            if (shardIndex < 0 || shardOffset >= fileSize) {
+                return null;
+            }
+            long shardEnd = Math.min(fileSize, shardOffset + shardSize);
+            ByteBuffer buffer = ByteBuffer.allocateDirect(HASH_BUFFER_SIZE);
+            digestRegion(fileChannel, shardOffset, shardEnd, buffer, messageDigest, filePath);
+        }
+        return HexBin.encode(messageDigest.digest(), false);
+    }
+
+    private static void digestRegion(
+            FileChannel fileChannel,
+            long offset,
+            long end,
+            ByteBuffer buffer,
+            MessageDigest messageDigest,
+            String filePath)
+            throws IOException {
+        long position = offset;
+        while (position < end) {
+            buffer.clear();
+            buffer.limit((int) Math.min(buffer.capacity(), end - position));
+            int read = fileChannel.read(buffer, position);
+            if (read < 0) {
+                throw new IOException("the file is truncated while indexing: " + filePath);
+            }
+            buffer.flip();
+            messageDigest.update(buffer);
+            position += read;
+        }
+    }
+
+    private static MessageDigest newMessageDigest() throws IOException {
+        try {
+            return MessageDigest.getInstance(SHARD_HASH_ALGORITHM);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IOException("Unsupported hash algorithm: " + SHARD_HASH_ALGORITHM);
+        }
+    }
+
+    /** @return the index, null if not exists or stale */
+    public static ShardIndex load(String filePath, int shardSize) {
+        File indexFile = new File(getIndexFilePath(filePath));
+        if (!indexFile.exists()) {
+            return null;
+        }
+        try {
+            ShardIndex index =
+                    ObjectMapperFactory.getObjectMapper().readValue(indexFile, ShardIndex.class);
+            File file = new File(filePath);
+            if (index.getShardSize() != shardSize
+                    || index.getFileSize() != file.length()
+                    || index.getLastModified() != file.lastModified()
+                    || index.getShardHashes() == null) {
+                return null;
+            }
+            return index;
+        } catch (Exception e) {
+            logger.warn("load shard digest index failed, filePath: {}, e: ", filePath, e);
+            return null;
+        }
+    }
+
+    public static void remove(String filePath) {
+        try {
+            Files.deleteIfExists(Paths.get(getIndexFilePath(filePath)));
+        } catch (IOException e) {
+            logger.warn("remove shard digest index failed, filePath: {}, e: ", filePath, e);
+        }
+    }
+}
@@ -0,0 +1,199 @@
+package com.webank.wedpr.components.dataset.sqlutils;
+
+import com.alibaba.druid.pool.DruidDataSource;
+import com.alibaba.druid.util.JdbcUtils;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.RemovalListener;
+import com.webank.wedpr.components.db.mapper.dataset.exception.DatasetException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Objects;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import org.apache.commons.lang3.concurrent.BasicThreadFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * the bounded registry of the connection pools for the external db data sources, one pool per
+ * (jdbcUrl, user), the idle connections and the idle pools are evicted
+ */
+public class JdbcConnectionPools {
+
+    private static final Logger logger = LoggerFactory.getLogger(JdbcConnectionPools.class);
+
+    public static final int DEFAULT_MAX_POOLS = 64;
+    public static final int DEFAULT_MAX_ACTIVE = 16;
+    // the connections of each pool kept for the other users of the data source, the parallel
+    // export can't take them
+    public static final int RESERVED_CONNECTIONS = 4;
+    public static final long DEFAULT_IDLE_TIMEOUT_MS = 10 * 60 * 1000L;
+    public static final long DEFAULT_MAX_WAIT_MS = 60 * 1000L;
+
+    private static final JdbcConnectionPools INSTANCE = new JdbcConnectionPools();
+
+    // close the evicted pools after the borrowed connections are returned
+    private static final ScheduledExecutorService POOL_CLOSER =
+            Executors.newSingleThreadScheduledExecutor(
+                    new BasicThreadFactory.Builder()
+                            .namingPattern("jdbc-pool-closer-%d")
+                            .daemon(true)
+                            .build());
+    private static final long POOL_CLOSE_RETRY_MS = 30 * 1000L;
+
+    private int maxActive = DEFAULT_MAX_ACTIVE;
+    private long idleTimeoutMs = DEFAULT_IDLE_TIMEOUT_MS;
+    private long maxWaitMs = DEFAULT_MAX_WAIT_MS;
+
+    // ${jdbcUrl}\n${user} => the pool
+    private volatile Cache<String, PooledDataSource> pools =
+            buildPools(DEFAULT_MAX_POOLS, DEFAULT_IDLE_TIMEOUT_MS);
+
+    private static class PooledDataSource {
+        private final String password;
+        private final DruidDataSource dataSource;
+
+        private PooledDataSource(String password, DruidDataSource dataSource) {
+            this.password = password;
+            this.dataSource = dataSource;
+        }
+    }
+
+    private JdbcConnectionPools() {}
+
+    public static JdbcConnectionPools getInstance() {
+        return INSTANCE;
+    }
+
+    private static void closePool(DruidDataSource dataSource) {
+        // the long running query(e.g. the streaming export) is still using the connection
+        if (dataSource.getActiveCount() > 0) {
+            POOL_CLOSER.schedule(
+                    () -> closePool(dataSource), POOL_CLOSE_RETRY_MS, TimeUnit.MILLISECONDS);
+            return;
+        }
+        dataSource.close();
+        logger.info("close the jdbc connection pool, url: {}", dataSource.getUrl());
+    }
+
+    private static Cache<String, PooledDataSource> buildPools(int maxPools, long idleTimeoutMs) {
+        RemovalListener<String, PooledDataSource> closeListener =
+                notification -> {
+                    logger.info(
+                            "remove the jdbc connection pool, url: {}, cause: {}",
+                            notification.getValue().dataSource.getUrl(),
+                            notification.getCause());
+                    closePool(notification.getValue().dataSource);
+                };
+        return CacheBuilder.newBuilder()
+                .maximumSize(maxPools)
+                // the pool with no borrowed connections for a long time is closed
+                .expireAfterAccess(idleTimeoutMs, TimeUnit.MILLISECONDS)
+                .removalListener(closeListener)
+                .build();
+    }
+
+    public synchronized void configure(
+            int maxPools, int maxActive, long idleTimeoutMs, long maxWaitMs) {
+        this.maxActive = maxActive;
+        this.idleTimeoutMs = idleTimeoutMs;
+        this.maxWaitMs = maxWaitMs;
+        Cache<String, PooledDataSource> oldPools = this.pools;
+        this.pools = buildPools(maxPools, idleTimeoutMs);
+        oldPools.invalidateAll();
+        logger.info(
+                "configure the jdbc connection pools, maxPools: {}, maxActive: {}, idleTimeoutMs: {}, maxWaitMs: {}",
+                maxPools,
+                maxActive,
+                idleTimeoutMs,
+                maxWaitMs);
+    }
+
+    /**
+     * borrow the connection from the pool of (jdbcUrl, user), the connection is returned to the
+     * pool when closed
+     *
+     * @param jdbcUrl
+     * @param user
+     * @param password
+     * @return
+     * @throws SQLException
+     * @throws DatasetException
+     */
+    public Connection getConnection(String jdbcUrl, String user, String password)
+            throws SQLException, DatasetException {
+        String poolKey = jdbcUrl + "\n" + user;
+        PooledDataSource pooledDataSource = pools.getIfPresent(poolKey);
+        // the password has been changed
+        if (pooledDataSource != null && !Objects.equals(pooledDataSource.password, password)) {
+            pools.asMap().remove(poolKey, pooledDataSource);
+            pooledDataSource = null;
+        }
+        if (pooledDataSource == null) {
+            pooledDataSource = createPool(jdbcUrl, user, password);
+            PooledDataSource existedDataSource =
+                    pools.asMap().putIfAbsent(poolKey, pooledDataSource);
+            if (existedDataSource != null) {
+                pooledDataSource.dataSource.close();
+                pooledDataSource = existedDataSource;
+            }
+        }
+        try {
+            return pooledDataSource.dataSource.getConnection();
+        } catch (SQLException e) {
+            // drop the pool of the unreachable db or the invalid account
+            pools.asMap().remove(poolKey, pooledDataSource);
+            throw e;
+        }
+    }
+
+    /** the max parallelism of the export, which leaves the reserved connections of the pool */
+    public synchronized int getMaxExportParallelism() {
+        return Math.max(1, maxActive - RESERVED_CONNECTIONS);
+    }
+
+    public void close() {
+        pools.invalidateAll();
+    }
+
+    private synchronized PooledDataSource createPool(String jdbcUrl, String user, String password)
+            throws DatasetException {
+        String driverClassName;
+        try {
+            driverClassName = JdbcUtils.getDriverClassName(jdbcUrl);
+        } catch (SQLException e) {
+            throw new DatasetException("cannot find the driver class, url: " + jdbcUrl);
+        }
+        SQLExecutor.initializeJdbcDriver(jdbcUrl);
+
+        DruidDataSource dataSource = new DruidDataSource();
+        dataSource.setUrl(jdbcUrl);
+        dataSource.setUsername(user);
+        dataSource.setPassword(password);
+        dataSource.setDriverClassName(driverClassName);
+        dataSource.setInitialSize(0);
+        dataSource.setMinIdle(0);
+        dataSource.setMaxActive(maxActive);
+        dataSource.setMaxWait(maxWaitMs);
+        // evict the idle connections
+        dataSource.setTimeBetweenEvictionRunsMillis(Math.max(1000L, idleTimeoutMs / 2));
+        dataSource.setMinEvictableIdleTimeMillis(idleTimeoutMs);
+        dataSource.setMaxEvictableIdleTimeMillis(Math.max(idleTimeoutMs, 30 * 1000L) * 2);
+        // the connection may be closed by the server when idle
+        dataSource.setTestOnBorrow(true);
+        dataSource.setTestWhileIdle(false);
+        // report the connect failure to the caller immediately, the waiting callers fail fast
+        // instead of blocking for maxWait
+        dataSource.setConnectionErrorRetryAttempts(0);
+        dataSource.setBreakAfterAcquireFailure(true);
+        dataSource.setFailFast(true);
+        logger.info(
+                "create the jdbc connection pool, url: {}, user: {}, maxActive: {}",
+                jdbcUrl,
+                user,
+                maxActive);
+        return new PooledDataSource(password, dataSource);
+    }
+}
@@ -4,12 +4,13 @@ import com.alibaba.druid.util.JdbcUtils;
 import com.mysql.cj.jdbc.exceptions.CommunicationsException;
 import com.webank.wedpr.components.dataset.datasource.DBType;
 import com.webank.wedpr.components.db.mapper.dataset.exception.DatasetException;
+import java.math.BigDecimal;
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
 import java.sql.SQLSyntaxErrorException;
 import java.util.ArrayList;
 import java.util.List;
@@ -25,6 +26,19 @@ public class SQLExecutor {
     public static final String JDBC_URL_TEMPLATE =
             "jdbc:%s://%s:%d/%s?serverTimezone=GMT%%2B8&characterEncoding=UTF-8&connectTimeout=60000&socketTimeout=60000";
 
+    // the rows fetched from the server in one round trip when streaming the result set
+    public static final int DEFAULT_FETCH_SIZE = 1000;
+
+    private final int fetchSize;
+
+    public SQLExecutor() {
+        this(DEFAULT_FETCH_SIZE);
+    }
+
+    public SQLExecutor(int fetchSize) {
+        this.fetchSize = fetchSize;
+    }
+
     @FunctionalInterface
     public interface ExecutorCallback {
         void onReadRowData(List<String> fields, List<String> rowValues) throws DatasetException;
@@ -96,9 +110,8 @@ public class SQLExecutor {
 
         String explainSql = "EXPLAIN " + sql;
 
-        SQLExecutor.initializeJdbcDriver(jdbcUrl);
-
-        try (Connection connection = DriverManager.getConnection(jdbcUrl, user, password);
+        try (Connection connection =
+                        JdbcConnectionPools.getInstance().getConnection(jdbcUrl, user, password);
                 PreparedStatement preparedStatement = connection.prepareStatement(explainSql)) {
 
             /*
@@ -163,23 +176,100 @@ public class SQLExecutor {
         }
     }
 
+    /**
+     * stream the result set instead of buffering all the rows in the heap
+     *
+     * @param jdbcUrl
+     * @param connection
+     * @param preparedStatement
+     * @throws SQLException
+     */
+    private void enableStreamQuery(
+            String jdbcUrl, Connection connection, PreparedStatement preparedStatement)
+            throws SQLException {
+        if (jdbcUrl.startsWith("jdbc:mysql:")) {
+            // the mysql driver streams the rows one by one only with Integer.MIN_VALUE
+            preparedStatement.setFetchSize(Integer.MIN_VALUE);
+            return;
+        }
+        if (jdbcUrl.startsWith("jdbc:postgresql:") || jdbcUrl.startsWith("jdbc:kingbase8:")) {
+            // the postgresql driver uses the cursor to fetch only when not in auto commit
+            connection.setAutoCommit(false);
+        }
+        try {
+            preparedStatement.setFetchSize(fetchSize);
+        } catch (SQLFeatureNotSupportedException e) {
+            logger.warn("the jdbc driver does not support the fetch size, url: {}", jdbcUrl);
+        }
+    }
+
+    /**
+     * query the min and max value of the numeric key in the result of the sql
+     *
+     * @param jdbcUrl
+     * @param user
+     * @param password
+     * @param sql
+     * @param key
+     * @return the [min, max] of the key, null if the result is empty
+     * @throws DatasetException if the key is not numeric or has null values, the rows of null key
+     *     can't be split by range and the null field is not exported
+     */
+    public long[] queryKeyRange(
+            String jdbcUrl, String user, String password, String sql, String key)
+            throws DatasetException {
+        String rangeSql =
+                String.format(
+                        "SELECT MIN(%s), MAX(%s), COUNT(*) - COUNT(%s) FROM (%s) t_range",
+                        key, key, key, sql);
+        final long[][] keyRange = {null};
+        executeSQL(
+                jdbcUrl,
+                user,
+                password,
+                rangeSql,
+                (fields, rowValues) -> {
+                    if (rowValues == null) {
+                        return;
+                    }
+                    if (rowValues.get(2) != null && new BigDecimal(rowValues.get(2)).signum() > 0) {
+                        throw new DatasetException(
+                                "the split key has null values, key: "
+                                        + key
+                                        + ", count: "
+                                        + rowValues.get(2));
+                    }
+                    if (rowValues.get(0) == null) {
+                        return;
+                    }
+                    try {
+                        keyRange[0] =
+                                new long[] {
+                                    new BigDecimal(rowValues.get(0)).longValue(),
+                                    new BigDecimal(rowValues.get(1)).longValue()
+                                };
+                    } catch (NumberFormatException e) {
+                        throw new DatasetException("the split key is not numeric, key: " + key);
+                    }
+                });
+        return keyRange[0];
+    }
+
     public void executeSQL(
             String jdbcUrl, String user, String password, String sql, ExecutorCallback callback)
             throws DatasetException {
         long startTimeMillis = System.currentTimeMillis();
 
-        // load jdbc driver class
-        initializeJdbcDriver(jdbcUrl);
-
         logger.info("try to execute sql, url: {}, sql: {}", jdbcUrl, sql);
 
-        try (Connection connection = DriverManager.getConnection(jdbcUrl, user, password);
+        try (Connection connection =
+                        JdbcConnectionPools.getInstance().getConnection(jdbcUrl, user, password);
                 PreparedStatement preparedStatement =
                         connection.prepareStatement(
                                 sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
 
             // set stream query
-            //            preparedStatement.setFetchSize(Integer.MIN_VALUE);
+            enableStreamQuery(jdbcUrl, connection, preparedStatement);
 
             ResultSet resultSet = preparedStatement.executeQuery();
             ResultSetMetaData metaData = resultSet.getMetaData();
@@ -1,18 +1,39 @@
 package com.webank.wedpr.components.dataset.utils;
 
+import com.alibaba.druid.util.HexBin;
+import com.google.common.io.ByteStreams;
+import com.google.common.io.CountingInputStream;
 import com.opencsv.CSVReader;
+import com.webank.wedpr.components.dataset.dao.ColumnStats;
+import com.webank.wedpr.components.dataset.dao.CsvAnalysisResult;
 import com.webank.wedpr.components.dataset.sqlutils.SQLExecutor;
 import com.webank.wedpr.components.db.mapper.dataset.exception.DatasetException;
 import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
 import java.io.PrintWriter;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.regex.Pattern;
+import org.apache.commons.lang3.concurrent.BasicThreadFactory;
 import org.apache.poi.ss.usermodel.Cell;
 import org.apache.poi.ss.usermodel.Row;
 import org.apache.poi.ss.usermodel.Sheet;
@@ -27,6 +48,11 @@ public class CsvUtils {
 
     private static final String CSV_SEPARATOR = ",";
 
+    private static final String SEGMENT_FILE_SUFFIX = ".segment-";
+
+    // the split key must be a bare column name of the sql result, which is wrapped as a subquery
+    private static final Pattern SPLIT_KEY_PATTERN = Pattern.compile("^[A-Za-z_][A-Za-z0-9_]*$");
+
     private CsvUtils() {}
 
     /**
@@ -60,6 +86,108 @@ public class CsvUtils {
         }
     }
 
+    /**
+     * analyze the csv file in one streaming read: the header, record count, size, digest and the
+     * stats of each column
+     *
+     * @param csvPath
+     * @param hashAlgorithm the digest algorithm, null if the digest is not required
+     * @return
+     * @throws DatasetException
+     */
+    public static CsvAnalysisResult analyzeCsv(String csvPath, String hashAlgorithm)
+            throws DatasetException {
+
+        long startTimeMillis = System.currentTimeMillis();
+        MessageDigest messageDigest = null;
+        try {
+            if (hashAlgorithm != null) {
+                messageDigest = MessageDigest.getInstance(hashAlgorithm);
+            }
+        } catch (Exception e) {
+            logger.error("Unsupported hash algorithm type, algorithm: {}", hashAlgorithm);
+            throw new DatasetException(
+                    "Unsupported hash algorithm type, algorithm: " + hashAlgorithm);
+        }
+
+        try (CountingInputStream countingInputStream =
+                        new CountingInputStream(Files.newInputStream(Paths.get(csvPath)));
+                InputStream inputStream =
+                        messageDigest == null
+                                ? countingInputStream
+                                : new DigestInputStream(countingInputStream, messageDigest);
+                CSVReader csvReader =
+                        new CSVReader(
+                                new BufferedReader(
+                                        new InputStreamReader(
+                                                inputStream, StandardCharsets.UTF_8)))) {
+
+            String[] headers = csvReader.readNext();
+            if (headers == null) {
+                throw new DatasetException("Empty csv file");
+            }
+            int columnNum = headers.length;
+            long[] nullCounts = new long[columnNum];
+            HyperLogLog[] distinctCounters = new HyperLogLog[columnNum];
+            for (int i = 0; i < columnNum; ++i) {
+                distinctCounters[i] = new HyperLogLog();
+            }
+
+            int recordCount = 0;
+            String[] row;
+            while ((row = csvReader.readNext()) != null) {
+                // skip the blank lines
+                if (row.length == 1 && row[0].trim().isEmpty()) {
+                    continue;
+                }
+                recordCount++;
+                for (int i = 0; i < columnNum; ++i) {
+                    String value = i < row.length ? row[i].trim() : "";
+                    if (value.isEmpty()) {
+                        nullCounts[i]++;
+                    } else {
+                        distinctCounters[i].add(value);
+                    }
+                }
+            }
+            // the digest covers the whole file
+            ByteStreams.exhaust(inputStream);
+
+            List<ColumnStats> columnStats = new ArrayList<>(columnNum);
+            for (int i = 0; i < columnNum; ++i) {
+                columnStats.add(
+                        new ColumnStats(
+                                headers[i], nullCounts[i], distinctCounters[i].estimate()));
+            }
+            CsvAnalysisResult csvAnalysisResult =
+                    CsvAnalysisResult.builder()
+                            .fieldList(Arrays.asList(headers))
+                            .recordCount(recordCount)
+                            .datasetSize(countingInputStream.getCount())
+                            .datasetHash(
+                                    messageDigest == null
+                                            ? null
+                                            : HexBin.encode(messageDigest.digest(), false))
+                            .columnStats(columnStats)
+                            .build();
+
+            logger.info(
+                    "analyze csv success, csvPath: {}, fields count: {}, recordCount: {}, size: {}, cost(ms): {}",
+                    csvPath,
+                    columnNum,
+                    recordCount,
+                    csvAnalysisResult.getDatasetSize(),
+                    System.currentTimeMillis() - startTimeMillis);
+            return csvAnalysisResult;
+
+        } catch (DatasetException e) {
+            throw e;
+        } catch (Exception e) {
+            logger.error("analyze csv file exception, csvPath: {}, e: ", csvPath, e);
+            throw new DatasetException("Failed to analyze csv, e: " + e.getMessage());
+        }
+    }
+
     /**
      * convert excel file to csv
      *
@@ -166,6 +294,29 @@ public class CsvUtils {
     public static void convertDBDataToCsv(
             String jdbcUrl, String user, String passwd, String sql, String outputCsvFilePath)
             throws DatasetException {
+        convertDBDataToCsv(
+                jdbcUrl, user, passwd, sql, SQLExecutor.DEFAULT_FETCH_SIZE, outputCsvFilePath);
+    }
+
+    /**
+     * stream data from database and write to csv file
+     *
+     * @param jdbcUrl
+     * @param user
+     * @param passwd
+     * @param sql
+     * @param fetchSize
+     * @param outputCsvFilePath
+     * @throws DatasetException
+     */
+    public static void convertDBDataToCsv(
+            String jdbcUrl,
+            String user,
+            String passwd,
+            String sql,
+            int fetchSize,
+            String outputCsvFilePath)
+            throws DatasetException {
 
         long startTimeMillis = System.currentTimeMillis();
         logger.info(
@@ -175,74 +326,18 @@ public class CsvUtils {
                 sql,
                 outputCsvFilePath);
 
-        // trim ;
-        sql = sql.trim();
-        if (sql.endsWith(";")) {
-            sql = sql.substring(0, sql.length() - 1);
-        }
-
-        final boolean[] bFirst = {true};
+        sql = trimSql(sql);
 
         // Create an output stream for writing to a CSV file.
-        try (FileWriter fileWriter = new FileWriter(outputCsvFilePath);
-                PrintWriter csvWriter = new PrintWriter(fileWriter)) {
-
-            SQLExecutor sqlExecutor = new SQLExecutor();
-            String finalSql = sql;
+        try (PrintWriter csvWriter = newCsvWriter(outputCsvFilePath)) {
+            SQLExecutor sqlExecutor = new SQLExecutor(fetchSize);
             sqlExecutor.executeSQL(
                     jdbcUrl,
                     user,
                     passwd,
                     sql,
-                    (fields, rowValues) -> {
-                        if (bFirst[0]) {
-                            bFirst[0] = false;
-                            // write header
-                            for (int i = 0; i < fields.size(); ++i) {
-                                csvWriter.write(fields.get(i));
-
-                                if (i < fields.size() - 1) {
-                                    // add a comma separator after each cell.
-                                    csvWriter.print(CSV_SEPARATOR);
-                                }
-                            }
-
-                            // add a newline at the end of each row
-                            csvWriter.println();
-                        }
-
-                        if (rowValues == null) {
-                            return;
-                        }
-
-                        // write line values
-                        for (int i = 0; i < rowValues.size(); ++i) {
-
-                            String rowValue = rowValues.get(i);
-
-                            if (rowValue == null) {
-                                logger.error(
-                                        "table field value is null, jdbcUrl: {}, sql: {}",
-                                        jdbcUrl,
-                                        finalSql);
-                                throw new DatasetException(
-                                        "table field value is null, jdbcUrl: "
-                                                + jdbcUrl
-                                                + ", sql"
-                                                + finalSql);
-                            }
-
-                            csvWriter.write(rowValue);
-                            if (i < rowValues.size() - 1) {
-                                // add a comma separator after each cell.
-                                csvWriter.print(CSV_SEPARATOR);
-                            }
-                        }
-
-                        // add a newline at the end of each row
-                        csvWriter.println();
-                    });
-
+                    newCsvWriterCallback(csvWriter, true, jdbcUrl, sql));
+            checkCsvWriter(csvWriter);
         } catch (Exception e) {
             long endTimeMillis = System.currentTimeMillis();
             logger.error(
@@ -264,4 +359,270 @@ public class CsvUtils {
                 outputCsvFilePath,
                 (endTimeMillis - startTimeMillis));
     }
+
+    /**
+     * split the sql by the range of the numeric key, stream the segments with parallel
+     * connections into the ordered csv segment files, then stitch the segments together
+     *
+     * @param jdbcUrl
+     * @param user
+     * @param passwd
+     * @param sql
+     * @param fetchSize
+     * @param splitKey the numeric and non-null column of the sql result to split the sql
+     * @param parallelism the number of the segments and connections
+     * @param outputCsvFilePath
+     * @throws DatasetException
+     */
+    public static void convertDBDataToCsvInParallel(
+            String jdbcUrl,
+            String user,
+            String passwd,
+            String sql,
+            int fetchSize,
+            String splitKey,
+            int parallelism,
+            String outputCsvFilePath)
+            throws DatasetException {
+
+        if (!SPLIT_KEY_PATTERN.matcher(splitKey).matches()) {
+            throw new DatasetException("Invalid split key: " + splitKey);
+        }
+        sql = trimSql(sql);
+        SQLExecutor sqlExecutor = new SQLExecutor(fetchSize);
+        long[] keyRange = sqlExecutor.queryKeyRange(jdbcUrl, user, passwd, sql, splitKey);
+        if (parallelism <= 1 || keyRange == null) {
+            convertDBDataToCsv(jdbcUrl, user, passwd, sql, fetchSize, outputCsvFilePath);
+            return;
+        }
+
+        long startTimeMillis = System.currentTimeMillis();
+        List<String> segmentSqls = splitSqlByKeyRange(sql, splitKey, keyRange, parallelism);
+        logger.info(
+                "try to convert db data to csv in parallel, jdbcUrl: {}, user: {}, sql: {}, splitKey: {}, keyRange: [{}, {}], segments: {}, outputCsvFilePath: {}",
+                jdbcUrl,
+                user,
+                sql,
+                splitKey,
+                keyRange[0],
+                keyRange[1],
+                segmentSqls.size(),
+                outputCsvFilePath);
+
+        List<String> segmentFilePaths = new ArrayList<>(segmentSqls.size());
+        ExecutorService executorService =
+                Executors.newFixedThreadPool(
+                        Math.min(parallelism, segmentSqls.size()),
+                        new BasicThreadFactory.Builder()
+                                .namingPattern("db-export-%d")
+                                .daemon(true)
+                                .build());
+        try {
+            List<Future<List<String>>> segmentFutures = new ArrayList<>(segmentSqls.size());
+            for (int i = 0; i < segmentSqls.size(); ++i) {
+                String segmentSql = segmentSqls.get(i);
+                String segmentFilePath = outputCsvFilePath + SEGMENT_FILE_SUFFIX + i;
+                segmentFilePaths.add(segmentFilePath);
+                segmentFutures.add(
+                        executorService.submit(
+                                () ->
+                                        exportSegment(
+                                                sqlExecutor,
+                                                jdbcUrl,
+                                                user,
+                                                passwd,
+                                                segmentSql,
+                                                segmentFilePath)));
+            }
+            List<String> fields = null;
+            for (Future<List<String>> segmentFuture : segmentFutures) {
+                fields = segmentFuture.get();
+            }
+            stitchSegments(fields, segmentFilePaths, outputCsvFilePath);
+        } catch (Exception e) {
+            logger.error(
+                    "convert db data to csv in parallel exception, jdbcUrl: {}, sql: {}, outputCsvFilePath: {}, cost(ms)： {}, e",
+                    jdbcUrl,
+                    sql,
+                    outputCsvFilePath,
+                    System.currentTimeMillis() - startTimeMillis,
+                    e);
+            Throwable cause = e instanceof ExecutionException ? e.getCause() : e;
+            throw new DatasetException(
+                    "Failed to convert db data to csv, e: " + cause.getMessage());
+        } finally {
+            executorService.shutdownNow();
+            for (String segmentFilePath : segmentFilePaths) {
+                new File(segmentFilePath).delete();
+            }
+        }
+
+        logger.info(
+                "convert db data to csv in parallel success, jdbcUrl: {}, sql: {}, segments: {}, outputCsvFilePath: {}, cost(ms)： {}",
+                jdbcUrl,
+                sql,
+                segmentSqls.size(),
+                outputCsvFilePath,
+                System.currentTimeMillis() - startTimeMillis);
+    }
+
+    private static List<String> splitSqlByKeyRange(
+            String sql, String splitKey, long[] keyRange, int parallelism) {
+        long minKey = keyRange[0];
+        long maxKey = keyRange[1];
+        // the step is at least 1, so the segments never exceed the key range
+        long step =
+                Math.max(
+                        1,
+                        BigInteger.valueOf(maxKey)
+                                .subtract(BigInteger.valueOf(minKey))
+                                .add(BigInteger.ONE)
+                                .divide(BigInteger.valueOf(parallelism))
+                                .longValue());
+        String segmentSqlTemplate = "SELECT * FROM (" + sql + ") t_split WHERE %s";
+        List<String> segmentSqls = new ArrayList<>(parallelism + 1);
+        long lowerBound = minKey;
+        for (int i = 0; i < parallelism && lowerBound <= maxKey; ++i) {
+            boolean last = i == parallelism - 1 || maxKey - lowerBound < step;
+            String condition =
+                    last
+                            ? String.format("%s >= %d", splitKey, lowerBound)
+                            : String.format(
+                                    "%s >= %d AND %s < %d",
+                                    splitKey, lowerBound, splitKey, lowerBound + step);
+            segmentSqls.add(String.format(segmentSqlTemplate, condition));
+            if (last) {
+                break;
+            }
+            lowerBound += step;
+        }
+        return segmentSqls;
+    }
+
+    /** export the segment without header into the segment file, return the fields */
+    private static List<String> exportSegment(
+            SQLExecutor sqlExecutor,
+            String jdbcUrl,
+            String user,
+            String passwd,
+            String segmentSql,
+            String segmentFilePath)
+            throws Exception {
+        AtomicReference<List<String>> segmentFields = new AtomicReference<>();
+        try (PrintWriter csvWriter = newCsvWriter(segmentFilePath)) {
+            SQLExecutor.ExecutorCallback csvWriterCallback =
+                    newCsvWriterCallback(csvWriter, false, jdbcUrl, segmentSql);
+            sqlExecutor.executeSQL(
+                    jdbcUrl,
+                    user,
+                    passwd,
+                    segmentSql,
+                    (fields, rowValues) -> {
+                        segmentFields.set(fields);
+                        csvWriterCallback.onReadRowData(fields, rowValues);
+                    });
+            checkCsvWriter(csvWriter);
+        }
+        return segmentFields.get();
+    }
+
+    /** write the header and append the segment files in order */
+    private static void stitchSegments(
+            List<String> fields, List<String> segmentFilePaths, String outputCsvFilePath)
+            throws Exception {
+        try (FileChannel outputChannel =
+                FileChannel.open(
+                        Paths.get(outputCsvFilePath),
+                        StandardOpenOption.CREATE,
+                        StandardOpenOption.WRITE,
+                        StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer header =
+                    ByteBuffer.wrap(
+                            (String.join(CSV_SEPARATOR, fields) + System.lineSeparator())
+                                    .getBytes(StandardCharsets.UTF_8));
+            while (header.hasRemaining()) {
+                outputChannel.write(header);
+            }
+            for (String segmentFilePath : segmentFilePaths) {
+                try (FileChannel segmentChannel =
+                        FileChannel.open(Paths.get(segmentFilePath), StandardOpenOption.READ)) {
+                    long size = segmentChannel.size();
+                    long position = 0;
+                    while (position < size) {
+                        position +=
+                                segmentChannel.transferTo(
+                                        position, size - position, outputChannel);
+                    }
+                }
+            }
+        }
+    }
+
+    private static String trimSql(String sql) {
+        // trim ;
+        sql = sql.trim();
+        if (sql.endsWith(";")) {
+            sql = sql.substring(0, sql.length() - 1);
+        }
+        return sql;
+    }
+
+    private static PrintWriter newCsvWriter(String csvFilePath) throws IOException {
+        return new PrintWriter(
+                Files.newBufferedWriter(Paths.get(csvFilePath), StandardCharsets.UTF_8));
+    }
+
+    // PrintWriter swallows the IOException
+    private static void checkCsvWriter(PrintWriter csvWriter) throws IOException {
+        if (csvWriter.checkError()) {
+            throw new IOException("write csv file failed");
+        }
+    }
+
+    private static SQLExecutor.ExecutorCallback newCsvWriterCallback(
+            PrintWriter csvWriter, boolean writeHeader, String jdbcUrl, String sql) {
+        final boolean[] bFirst = {writeHeader};
+        return (fields, rowValues) -> {
+            if (bFirst[0]) {
+                bFirst[0] = false;
+                // write header
+                for (int i = 0; i < fields.size(); ++i) {
+                    csvWriter.write(fields.get(i));
+
+                    if (i < fields.size() - 1) {
+                        // add a comma separator after each cell.
+                        csvWriter.print(CSV_SEPARATOR);
+                    }
+                }
+
+                // add a newline at the end of each row
+                csvWriter.println();
+            }
+
+            if (rowValues == null) {
+                return;
+            }
+
+            // write line values
+            for (int i = 0; i < rowValues.size(); ++i) {
+
+                String rowValue = rowValues.get(i);
+
+                if (rowValue == null) {
+                    logger.error("table field value is null, jdbcUrl: {}, sql: {}", jdbcUrl, sql);
+                    throw new DatasetException(
+                            "table field value is null, jdbcUrl: " + jdbcUrl + ", sql" + sql);
+                }
+
+                csvWriter.write(rowValue);
+                if (i < rowValues.size() - 1) {
+                    // add a comma separator after each cell.
+                    csvWriter.print(CSV_SEPARATOR);
+                }
+            }
+
+            // add a newline at the end of each row
+            csvWriter.println();
+        };
+    }
 }
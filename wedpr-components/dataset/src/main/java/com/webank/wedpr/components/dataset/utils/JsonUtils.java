@@ -17,4 +17,12 @@ public class JsonUtils {
             throw new DatasetException("Invalid json object format, e: " + e.getMessage());
         }
     }
+
+    public static String object2JsonString(Object object) throws DatasetException {
+        try {
+            return ObjectMapperFactory.getObjectMapper().writeValueAsString(object);
+        } catch (JsonProcessingException e) {
+            throw new DatasetException("Invalid json object, e: " + e.getMessage());
+        }
+    }
 }
@@ -55,6 +55,10 @@ public class Dataset {
     @JsonProperty("columnCount")
     private Integer datasetColumnCount;
 
+    // the stats of each column(null count, distinct count), JSON string
+    @JsonDeserialize(using = Json2StringDeserializer.class)
+    private String datasetStats;
+
     private String datasetStorageType;
 
     private String datasetStoragePath;
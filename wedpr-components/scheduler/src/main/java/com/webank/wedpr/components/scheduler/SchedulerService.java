@@ -16,9 +16,18 @@
 package com.webank.wedpr.components.scheduler;
 
 import com.webank.wedpr.components.scheduler.impl.JobDetailRequest;
+import com.webank.wedpr.components.scheduler.impl.JobsStatusRequest;
+import com.webank.wedpr.components.scheduler.impl.TaskStatusNotifyRequest;
 
 public interface SchedulerService {
     // query the job detail
     public abstract Object queryJobDetail(
             String user, String agency, JobDetailRequest jobDetailRequest) throws Exception;
+
+    // query the status of multiple jobs in one round trip
+    public abstract Object queryJobsStatus(
+            String user, String agency, JobsStatusRequest jobsStatusRequest) throws Exception;
+
+    // the task status pushed by the executors
+    public abstract void notifyTaskStatus(TaskStatusNotifyRequest request) throws Exception;
 }
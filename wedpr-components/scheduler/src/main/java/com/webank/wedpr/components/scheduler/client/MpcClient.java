@@ -1,6 +1,5 @@
 package com.webank.wedpr.components.scheduler.client;
 
-import static com.webank.wedpr.components.scheduler.client.common.ClientCommon.DEFAULT_HTTP_POLL_TASK_INTERVAL_MILLI;
 import static com.webank.wedpr.components.scheduler.client.common.ClientCommon.DEFAULT_HTTP_REQUEST_MAX_RETRY_TIMES;
 import static com.webank.wedpr.components.scheduler.client.common.ClientCommon.DEFAULT_HTTP_REQUEST_RETRY_DELAY_MILLI;
 
@@ -9,18 +8,23 @@ import com.webank.wedpr.common.utils.WeDPRException;
 import com.webank.wedpr.components.http.client.JsonRpcClient;
 import com.webank.wedpr.components.http.client.model.JsonRpcResponse;
 import com.webank.wedpr.components.scheduler.dag.utils.WorkerUtils;
+import com.webank.wedpr.components.scheduler.executor.ExecuteResult;
+import com.webank.wedpr.components.scheduler.executor.StatusQueryResult;
+import com.webank.wedpr.components.scheduler.executor.callback.TaskStatus;
+import com.webank.wedpr.components.scheduler.executor.callback.TaskStatusDispatcher;
+import com.webank.wedpr.components.scheduler.executor.callback.TaskStatusQuerier;
 import com.webank.wedpr.components.scheduler.executor.impl.mpc.MPCExecutorConfig;
 import com.webank.wedpr.components.scheduler.executor.impl.mpc.request.MpcKillJobRequest;
 import com.webank.wedpr.components.scheduler.executor.impl.mpc.request.MpcQueryJobRequest;
 import com.webank.wedpr.components.scheduler.executor.impl.mpc.request.MpcRunJobRequest;
+import java.util.List;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-public class MpcClient {
+public class MpcClient implements TaskStatusQuerier {
 
     private static final Logger logger = LoggerFactory.getLogger(MpcClient.class);
 
-    private final int pollIntervalMilli = DEFAULT_HTTP_POLL_TASK_INTERVAL_MILLI;
     private final int httpRetryTimes = DEFAULT_HTTP_REQUEST_MAX_RETRY_TIMES;
     private final int httpRetryDelayMilli = DEFAULT_HTTP_REQUEST_RETRY_DELAY_MILLI;
 
@@ -33,9 +37,11 @@ public class MpcClient {
     private final Integer MpcDuplicatedTaskStatus = 1;
     private final Integer MpcFailedStatus = -1;
 
+    private final String url;
     private final JsonRpcClient jsonRpcClient;
 
     public MpcClient(String url) {
+        this.url = url;
         this.jsonRpcClient =
                 new JsonRpcClient(
                         url,
@@ -79,44 +85,68 @@ public class MpcClient {
                 "submit MPC job " + jobId + " failed for " + response.getResult().getMessage());
     }
 
-    public void pollTask(String taskId) throws WeDPRException {
+    /**
+     * wait until the task finished, polled in batch by the TaskStatusDispatcher
+     *
+     * <p>Note: the calling DAG worker thread is blocked without timeout until the task finished
+     */
+    public void pollTask(String taskId) throws Exception {
+        TaskStatusDispatcher.getInstance().awaitFinished(taskId, this);
+        logger.info("MPC task execute successfully, taskId: {}", taskId);
+    }
+
+    public TaskStatus queryTaskStatus(String taskId) throws WeDPRException {
         String mpcQueryTaskStatusMethod = MPCExecutorConfig.getMpcQueryTaskStatusMethod();
         String mpcToken = MPCExecutorConfig.getMpcToken();
         MpcQueryJobRequest mpcQueryJobRequest = new MpcQueryJobRequest();
         mpcQueryJobRequest.setJobId(taskId);
 
-        while (true) {
-            JsonRpcResponse response =
-                    sendRequestWithRetry(
-                            taskId, mpcQueryTaskStatusMethod, mpcToken, mpcQueryJobRequest);
-
-            // response error
-            if (!response.statusOk()) {
-                logger.warn("query MPC status error, taskId: {}, response: {}", taskId, response);
-                throw new WeDPRException(
-                        "query MPC task status error, taskId: "
-                                + taskId
-                                + " ,response: "
-                                + response);
-            }
+        JsonRpcResponse response =
+                sendRequestWithRetry(
+                        taskId, mpcQueryTaskStatusMethod, mpcToken, mpcQueryJobRequest);
+
+        // response error
+        if (!response.statusOk()) {
+            logger.warn("query MPC status error, taskId: {}, response: {}", taskId, response);
+            return new TaskStatus(
+                    taskId,
+                    "query MPC task status error, response: " + response,
+                    ExecuteResult.ResultStatus.FAILED);
+        }
 
-            // response finish
-            if (response.getResult().getStatus().compareToIgnoreCase(RUN_FINISHED_STATUS) == 0) {
-                logger.info(
-                        "MPC task execute successfully, taskId: {}, response: {}",
-                        taskId,
-                        response);
-                return;
-            }
+        // response finish
+        String status = response.getResult().getStatus();
+        if (status.compareToIgnoreCase(RUN_FINISHED_STATUS) == 0) {
+            return new TaskStatus(taskId, ExecuteResult.ResultStatus.SUCCESS);
+        }
 
-            if (response.getResult().getStatus().compareToIgnoreCase(RUN_RUNNING_STATUS) != 0) {
-                logger.error("MPC task execute failed, taskId: {}, response: {}", taskId, response);
-                throw new WeDPRException(
-                        "MPC task execute failed, taskId: " + taskId + " ,response: " + response);
-            }
+        if (status.compareToIgnoreCase(RUN_RUNNING_STATUS) != 0) {
+            logger.error("MPC task execute failed, taskId: {}, response: {}", taskId, response);
+            return new TaskStatus(
+                    taskId,
+                    "MPC task execute failed, response: " + response,
+                    ExecuteResult.ResultStatus.FAILED);
+        }
+        return new TaskStatus(taskId, ExecuteResult.ResultStatus.RUNNING);
+    }
 
-            WorkerUtils.sleep(pollIntervalMilli);
+    @Override
+    public String getQuerierKey() {
+        return "MPC|" + url;
+    }
+
+    @Override
+    public StatusQueryResult<TaskStatus> queryStatus(List<String> taskIDs) {
+        StatusQueryResult<TaskStatus> result = new StatusQueryResult<>();
+        for (String taskID : taskIDs) {
+            try {
+                result.setStatus(taskID, queryTaskStatus(taskID));
+            } catch (Exception e) {
+                logger.warn("query MPC task status failed, taskId: {}, e: ", taskID, e);
+                result.setError(taskID, e);
+            }
         }
+        return result;
     }
 
     public void killTask(String jobId) throws WeDPRException {
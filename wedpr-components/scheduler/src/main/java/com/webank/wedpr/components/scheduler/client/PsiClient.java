@@ -9,12 +9,18 @@ import com.webank.wedpr.common.utils.WeDPRException;
 import com.webank.wedpr.components.http.client.JsonRpcClient;
 import com.webank.wedpr.components.http.client.model.JsonRpcResponse;
 import com.webank.wedpr.components.scheduler.dag.utils.WorkerUtils;
+import com.webank.wedpr.components.scheduler.executor.ExecuteResult;
+import com.webank.wedpr.components.scheduler.executor.StatusQueryResult;
+import com.webank.wedpr.components.scheduler.executor.callback.TaskStatus;
+import com.webank.wedpr.components.scheduler.executor.callback.TaskStatusDispatcher;
+import com.webank.wedpr.components.scheduler.executor.callback.TaskStatusQuerier;
 import com.webank.wedpr.components.scheduler.executor.impl.psi.PSIExecutorConfig;
 import com.webank.wedpr.components.scheduler.executor.impl.psi.model.PSIRequest;
+import java.util.List;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-public class PsiClient {
+public class PsiClient implements TaskStatusQuerier {
 
     private static final Logger logger = LoggerFactory.getLogger(PsiClient.class);
 
@@ -41,14 +47,16 @@ public class PsiClient {
     }
 
     private static final String RUN_FINISHED_STATUS = "COMPLETED";
+    private static final String RUN_FAILED_STATUS = "FAILED";
 
-    private final int pollIntervalMilli = DEFAULT_HTTP_POLL_TASK_INTERVAL_MILLI;
     private final int httpRetryTimes = DEFAULT_HTTP_REQUEST_MAX_RETRY_TIMES;
     private final int httpRetryDelayMilli = DEFAULT_HTTP_REQUEST_RETRY_DELAY_MILLI;
 
+    private final String url;
     private final JsonRpcClient jsonRpcClient;
 
     public PsiClient(String url) {
+        this.url = url;
         this.jsonRpcClient =
                 new JsonRpcClient(
                         url,
@@ -96,35 +104,62 @@ public class PsiClient {
                 "submit PSI job " + taskId + " failed for " + response.getResult().getMessage());
     }
 
-    public void pollTask(String taskId) throws WeDPRException {
-        while (true) {
-            JsonRpcResponse response =
-                    sendRequestWithRetry(
-                            taskId,
-                            PSIExecutorConfig.getPsiGetTaskStatusMethod(),
-                            PSIExecutorConfig.getPsiToken(),
-                            new QueryTaskParam(taskId));
-
-            // response error
-            if (!response.statusOk()) {
-                logger.warn("query PSI status error, taskId: {}, response: {}", taskId, response);
-                throw new WeDPRException(
-                        "query PSI task status error, taskId: "
-                                + taskId
-                                + " ,response: "
-                                + response);
-            }
+    /**
+     * wait until the task finished, polled in batch by the TaskStatusDispatcher
+     *
+     * <p>Note: the calling DAG worker thread is blocked without timeout until the task finished
+     */
+    public void pollTask(String taskId) throws Exception {
+        TaskStatusDispatcher.getInstance().awaitFinished(taskId, this);
+        logger.info("PSI task execute successfully, taskId: {}", taskId);
+    }
 
-            if (response.getResult().getStatus().compareToIgnoreCase(RUN_FINISHED_STATUS) == 0) {
-                logger.info(
-                        "PSI task execute successfully, taskId: {}, response: {}",
+    public TaskStatus queryTaskStatus(String taskId) throws WeDPRException {
+        JsonRpcResponse response =
+                sendRequestWithRetry(
                         taskId,
-                        response);
-                return;
-            }
+                        PSIExecutorConfig.getPsiGetTaskStatusMethod(),
+                        PSIExecutorConfig.getPsiToken(),
+                        new QueryTaskParam(taskId));
+
+        // response error
+        if (!response.statusOk()) {
+            logger.warn("query PSI status error, taskId: {}, response: {}", taskId, response);
+            return new TaskStatus(
+                    taskId,
+                    "query PSI task status error, response: " + response,
+                    ExecuteResult.ResultStatus.FAILED);
+        }
+        String status = response.getResult().getStatus();
+        if (status.compareToIgnoreCase(RUN_FINISHED_STATUS) == 0) {
+            return new TaskStatus(taskId, ExecuteResult.ResultStatus.SUCCESS);
+        }
+        if (status.compareToIgnoreCase(RUN_FAILED_STATUS) == 0) {
+            return new TaskStatus(
+                    taskId,
+                    "PSI task execute failed, response: " + response,
+                    ExecuteResult.ResultStatus.FAILED);
+        }
+        return new TaskStatus(taskId, ExecuteResult.ResultStatus.RUNNING);
+    }
 
-            WorkerUtils.sleep(pollIntervalMilli);
+    @Override
+    public String getQuerierKey() {
+        return "PSI|" + url;
+    }
+
+    @Override
+    public StatusQueryResult<TaskStatus> queryStatus(List<String> taskIDs) {
+        StatusQueryResult<TaskStatus> result = new StatusQueryResult<>();
+        for (String taskID : taskIDs) {
+            try {
+                result.setStatus(taskID, queryTaskStatus(taskID));
+            } catch (Exception e) {
+                logger.warn("query PSI task status failed, taskId: {}, e: ", taskID, e);
+                result.setError(taskID, e);
+            }
         }
+        return result;
     }
 
     /**
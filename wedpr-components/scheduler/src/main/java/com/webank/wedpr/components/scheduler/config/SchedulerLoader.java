@@ -33,6 +33,8 @@ import com.webank.wedpr.components.scheduler.core.SchedulerTaskImpl;
 import com.webank.wedpr.components.scheduler.core.SpdzConnections;
 import com.webank.wedpr.components.scheduler.executor.ExecuteResult;
 import com.webank.wedpr.components.scheduler.executor.callback.TaskFinishedHandler;
+import com.webank.wedpr.components.scheduler.executor.callback.TaskStatus;
+import com.webank.wedpr.components.scheduler.executor.callback.TaskStatusDispatcher;
 import com.webank.wedpr.components.scheduler.executor.impl.ExecutiveContextBuilder;
 import com.webank.wedpr.components.scheduler.executor.impl.dag.DagSchedulerExecutor;
 import com.webank.wedpr.components.scheduler.executor.impl.model.FileMetaBuilder;
@@ -45,7 +47,9 @@ import com.webank.wedpr.components.storage.config.HdfsStorageConfig;
 import com.webank.wedpr.components.storage.config.LocalStorageConfig;
 import com.webank.wedpr.components.sync.ResourceSyncer;
 import com.webank.wedpr.components.sync.config.ResourceSyncerConfig;
+import com.webank.wedpr.sdk.jni.transport.IMessage;
 import com.webank.wedpr.sdk.jni.transport.WeDPRTransport;
+import com.webank.wedpr.sdk.jni.transport.handlers.MessageDispatcherCallback;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -119,10 +123,33 @@ public class SchedulerLoader {
                     fileMetaBuilder,
                     schedulerWorker);
         }
+        registerTaskStatusNotifier();
         schedulerTask.start();
         return schedulerTask;
     }
 
+    // the executors push the task status through the transport
+    protected void registerTaskStatusNotifier() {
+        String topic = SchedulerTaskConfig.getTaskStatusNotifyTopic();
+        this.weDPRTransport.registerTopicHandler(
+                topic,
+                new MessageDispatcherCallback() {
+                    @Override
+                    public void onMessage(IMessage message) {
+                        try {
+                            TaskStatusDispatcher.getInstance()
+                                    .notify(TaskStatus.deserialize(message.getPayload()));
+                        } catch (Exception e) {
+                            logger.warn(
+                                    "handle task status notification failed, msg: {}, error: ",
+                                    message,
+                                    e);
+                        }
+                    }
+                });
+        logger.info("register the task status notifier, topic: {}", topic);
+    }
+
     protected void registerExecutors(
             ExecutorManager executorManager,
             FileMetaBuilder fileMetaBuilder,
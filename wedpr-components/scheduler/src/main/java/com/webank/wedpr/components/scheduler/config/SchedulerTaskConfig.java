@@ -26,6 +26,26 @@ public class SchedulerTaskConfig {
             WeDPRConfig.apply("wedpr.scheduler.query.job.status.interval.ms", 30000);
     private static final Integer SCHEDULER_INTERVAL_MS =
             WeDPRConfig.apply("wedpr.scheduler.interval.ms", 30000);
+    // the max workers of all the dag jobs running concurrently
+    private static final Integer DAG_WORKER_CONCURRENCY =
+            WeDPRConfig.apply("wedpr.scheduler.dag.worker.concurrency", 16);
+    // the status polling interval of the tasks without notification grows from min to max
+    private static final Integer TASK_STATUS_MIN_POLL_INTERVAL_MS =
+            WeDPRConfig.apply("wedpr.scheduler.task.status.min.poll.interval.ms", 1000);
+    private static final Integer TASK_STATUS_MAX_POLL_INTERVAL_MS =
+            WeDPRConfig.apply("wedpr.scheduler.task.status.max.poll.interval.ms", 30000);
+    // the task fails after the status query failed so many times in a row
+    private static final Integer TASK_STATUS_MAX_QUERY_FAILURES =
+            WeDPRConfig.apply("wedpr.scheduler.task.status.max.query.failures", 10);
+    private static final Integer TASK_STATUS_POLL_WORKERS =
+            WeDPRConfig.apply("wedpr.scheduler.task.status.poll.workers", 4);
+    // the transport topic for the executors to push the task status
+    private static final String TASK_STATUS_NOTIFY_TOPIC =
+            WeDPRConfig.apply("wedpr.scheduler.task.status.notify.topic", "WEDPR_TASK_STATUS");
+    // the secret shared with the pushers to sign the task status, the pushes are refused when not
+    // configured; no executor in this tree pushes the status yet
+    private static final String TASK_STATUS_NOTIFY_TOKEN =
+            WeDPRConfig.apply("wedpr.scheduler.task.status.notify.token", "");
 
     public static Integer getWorkerQueueSize() {
         return WORKER_QUEUE_SIZE;
@@ -42,4 +62,32 @@ public class SchedulerTaskConfig {
     public static Integer getSchedulerIntervalMs() {
         return SCHEDULER_INTERVAL_MS;
     }
+
+    public static Integer getDagWorkerConcurrency() {
+        return DAG_WORKER_CONCURRENCY;
+    }
+
+    public static Integer getTaskStatusMinPollIntervalMs() {
+        return TASK_STATUS_MIN_POLL_INTERVAL_MS;
+    }
+
+    public static Integer getTaskStatusMaxPollIntervalMs() {
+        return TASK_STATUS_MAX_POLL_INTERVAL_MS;
+    }
+
+    public static Integer getTaskStatusMaxQueryFailures() {
+        return TASK_STATUS_MAX_QUERY_FAILURES;
+    }
+
+    public static Integer getTaskStatusPollWorkers() {
+        return TASK_STATUS_POLL_WORKERS;
+    }
+
+    public static String getTaskStatusNotifyTopic() {
+        return TASK_STATUS_NOTIFY_TOPIC;
+    }
+
+    public static String getTaskStatusNotifyToken() {
+        return TASK_STATUS_NOTIFY_TOKEN;
+    }
 }
@@ -2,14 +2,16 @@ package com.webank.wedpr.components.scheduler.dag;
 
 // import static com.webank.wedpr.components.scheduler.dag.utils.WorkerUtils.toJobWorker;
 
+import com.webank.wedpr.common.utils.ThreadPoolService;
 import com.webank.wedpr.common.utils.WeDPRException;
 import com.webank.wedpr.components.db.mapper.dataset.mapper.DatasetMapper;
 import com.webank.wedpr.components.loadbalancer.LoadBalancer;
 import com.webank.wedpr.components.project.dao.JobDO;
+import com.webank.wedpr.components.scheduler.config.SchedulerTaskConfig;
 import com.webank.wedpr.components.scheduler.core.SpdzConnections;
 import com.webank.wedpr.components.scheduler.dag.api.WorkFlowScheduler;
 import com.webank.wedpr.components.scheduler.dag.base.DAG;
-import com.webank.wedpr.components.scheduler.dag.base.DAGNode;
+import com.webank.wedpr.components.scheduler.dag.base.DAGExecutor;
 import com.webank.wedpr.components.scheduler.dag.entity.JobWorker;
 import com.webank.wedpr.components.scheduler.dag.utils.WorkerUtils;
 import com.webank.wedpr.components.scheduler.dag.worker.*;
@@ -21,7 +23,6 @@ import com.webank.wedpr.components.scheduler.workflow.WorkFlowUpstream;
 import com.webank.wedpr.components.storage.api.FileStorageInterface;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.function.Consumer;
 import lombok.SneakyThrows;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -40,6 +41,13 @@ public class DagWorkFlowSchedulerImpl implements WorkFlowScheduler {
     private final Integer workerRetryTimes = -1;
     private final Integer workerRetryDelayMillis = -1;
 
+    // the workers of the dag nodes, shared by all the jobs
+    private final ThreadPoolService dagWorkerPool =
+            new ThreadPoolService(
+                    "dag-worker-%d",
+                    SchedulerTaskConfig.getDagWorkerConcurrency(),
+                    SchedulerTaskConfig.getWorkerQueueSize());
+
     public DagWorkFlowSchedulerImpl(
             LoadBalancer loadBalancer,
             JobWorkerMapper jobWorkerMapper,
@@ -169,20 +177,17 @@ public class DagWorkFlowSchedulerImpl implements WorkFlowScheduler {
         return dag;
     }
 
+    /**
+     * execute the workers in topological order, the worker is dispatched once all its upstreams
+     * completed, the independent workers run concurrently
+     */
+    @SneakyThrows
     public void executeDag(String jobId, List<Worker> taskWorkers, DAG<Integer> dag) {
         List<Integer> execOrderList = new ArrayList<>();
 
         try {
-            dag.visit(
-                    new Consumer<DAGNode<Integer>>() {
-                        @SneakyThrows
-                        @Override
-                        public void accept(DAGNode<Integer> dagNode) {
-                            Integer index = dagNode.getObject();
-                            execOrderList.add(index);
-                            executeWorker(taskWorkers.get(index));
-                        }
-                    });
+            new DAGExecutor<Integer>(dagWorkerPool.getThreadPool())
+                    .execute(dag, index -> executeWorker(taskWorkers.get(index)), execOrderList);
 
             logger.info(
                     "dag executed successfully, jobId: {}, execOrder: {}", jobId, execOrderList);
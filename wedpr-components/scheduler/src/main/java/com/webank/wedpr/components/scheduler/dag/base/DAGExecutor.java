@@ -0,0 +1,95 @@
+package com.webank.wedpr.components.scheduler.dag.base;
+
+import java.util.*;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * Executes the nodes of a DAG in topological order on the given executor, every node is submitted
+ * as soon as all its parents completed, so the independent nodes run concurrently
+ */
+public class DAGExecutor<T> {
+
+    @FunctionalInterface
+    public interface NodeHandler<T> {
+        void handle(T object) throws Exception;
+    }
+
+    private final ExecutorService executor;
+
+    public DAGExecutor(ExecutorService executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * Executes the handler on every node, blocks until all nodes completed or one failed
+     *
+     * @param dag the updated dag
+     * @param handler the handler to be executed on nodes
+     * @param completedOrder the completed nodes in completion order
+     * @throws Exception the first failure, the downstream nodes of the failure are not executed
+     */
+    public void execute(DAG<T> dag, NodeHandler<T> handler, List<T> completedOrder)
+            throws Exception {
+        // the distinct parents not completed yet of every node
+        Map<DAGNode<T>, Integer> pendingParents = new HashMap<>();
+        List<DAGNode<T>> readyNodes = new ArrayList<>();
+        for (DAGNode<T> node : dag.getNodes()) {
+            int parents = new HashSet<>(node.getParents()).size();
+            pendingParents.put(node, parents);
+            if (parents == 0) {
+                readyNodes.add(node);
+            }
+        }
+
+        CompletionService<DAGNode<T>> completionService =
+                new ExecutorCompletionService<>(executor);
+        int runningNodes = 0;
+        Exception error = null;
+        while (true) {
+            // stop releasing the nodes after failure, wait for the running nodes
+            if (error == null) {
+                for (DAGNode<T> node : readyNodes) {
+                    completionService.submit(
+                            () -> {
+                                handler.handle(node.getObject());
+                                return node;
+                            });
+                    runningNodes++;
+                }
+            }
+            readyNodes.clear();
+            if (runningNodes == 0) {
+                break;
+            }
+            Future<DAGNode<T>> future = completionService.take();
+            runningNodes--;
+            DAGNode<T> completedNode;
+            try {
+                completedNode = future.get();
+            } catch (ExecutionException e) {
+                if (error == null) {
+                    error =
+                            (e.getCause() instanceof Exception)
+                                    ? (Exception) e.getCause()
+                                    : new RuntimeException(e.getCause());
+                }
+                continue;
+            }
+            completedOrder.add(completedNode.getObject());
+            for (DAGNode<T> child : new LinkedHashSet<>(completedNode.getChildren())) {
+                int parents = pendingParents.get(child) - 1;
+                pendingParents.put(child, parents);
+                if (parents == 0) {
+                    readyNodes.add(child);
+                }
+            }
+        }
+        if (error != null) {
+            throw error;
+        }
+    }
+}
@@ -1,12 +1,12 @@
 package com.webank.wedpr.components.scheduler.dag.utils;
 
 import com.webank.wedpr.common.utils.WeDPRException;
+import com.webank.wedpr.components.scheduler.executor.impl.mpc.utils.ExternalIntSorter;
 import java.io.BufferedReader;
+import java.io.BufferedWriter;
 import java.io.FileReader;
 import java.io.FileWriter;
 import java.io.IOException;
-import java.io.PrintWriter;
-import java.util.List;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -35,6 +35,8 @@ public class MpcResultFileResolver {
     public static final String BLANK_SEP = " ";
     public static final String MPC_ID_FIELD = "id";
 
+    private static final int IO_BUFFER_SIZE = 1024 * 1024;
+
     public MpcResult doParseMpcResultFile(String mpcOutputFile, boolean onlyField)
             throws IOException, WeDPRException {
 
@@ -102,77 +104,97 @@ public class MpcResultFileResolver {
         return mpcResult;
     }
 
+    /**
+     * resolve the mpc output file into the result csv in a single pass: the header is taken from
+     * the result_fields lines before the first result_values line, and the values are joined in
+     * lockstep with the ascending psi ids (idCursor, null if psi is not needed)
+     */
     public void transMpcOutputFile2ResultFile(
             String jobId,
             boolean needRunPsi,
-            List<Integer> idValues,
+            ExternalIntSorter.IntCursor idCursor,
             String mpcOutputFile,
             String mpcResultFile)
             throws IOException, WeDPRException {
 
         long startTimeMillis = System.currentTimeMillis();
         logger.info(
-                "trans mpc output file to mpc result file start, jobId: {}, needRunPsi: {}, idValues size: {}, mpcOutputFile: {}, mpcResultFile: {}",
+                "trans mpc output file to mpc result file start, jobId: {}, needRunPsi: {}, mpcOutputFile: {}, mpcResultFile: {}",
                 jobId,
                 needRunPsi,
-                idValues.size(),
                 mpcOutputFile,
                 mpcResultFile);
 
-        MpcResult mpcResult = doParseMpcResultFile(mpcOutputFile, true);
-
         int rowNumber = -1;
         try (BufferedReader mpcOutputBufferedReader =
-                        new BufferedReader(new FileReader(mpcOutputFile));
-                FileWriter mpcResultFileWriter = new FileWriter(mpcResultFile);
-                PrintWriter csvWriter = new PrintWriter(mpcResultFileWriter)) {
+                        new BufferedReader(new FileReader(mpcOutputFile), IO_BUFFER_SIZE);
+                BufferedWriter csvWriter =
+                        new BufferedWriter(new FileWriter(mpcResultFile), IO_BUFFER_SIZE)) {
 
-            if (logger.isTraceEnabled()) {
-                logger.trace("write mpc result file header: {}", mpcResult.getMpcResultFields());
-            }
-
-            // write header field
-            csvWriter.write(mpcResult.getMpcResultFields());
-            csvWriter.println();
+            String strResultFields = null;
+            boolean headerWritten = false;
+            // the last psi id, and the number of the rows exceeding the psi ids
+            int lastIdValue = 0;
+            int exceededRows = 0;
+            StringBuilder stringBuilder = new StringBuilder();
 
             String line;
             while ((line = mpcOutputBufferedReader.readLine()) != null) {
                 line = line.trim();
 
                 if (!line.startsWith(PPC_RESULT_VALUES_FLAG)) {
+                    if (!headerWritten && line.startsWith(PPC_RESULT_FIELDS_FLAG)) {
+                        strResultFields =
+                                (strResultFields == null ? MPC_ID_FIELD : strResultFields)
+                                        + CSV_SEP
+                                        + line.substring(line.indexOf('=') + 1)
+                                                .trim()
+                                                .replace(BLANK_SEP, CSV_SEP);
+                        logger.info("## {}:{}", PPC_RESULT_FIELDS_FLAG, strResultFields);
+                    } else if (line.startsWith(PPC_RESULT_TIME_FLAG)
+                            || line.startsWith(PPC_RESULT_DATA_SEND_FLAG)
+                            || line.startsWith(PPC_RESULT_GLOBAL_DATA_SEND_FLAG)) {
+                        logger.info("## {}", line);
+                    }
                     continue;
                 }
 
-                rowNumber++;
-
-                String[] valuesList = line.split("=")[1].trim().split(BLANK_SEP);
+                if (!headerWritten) {
+                    writeHeader(csvWriter, strResultFields, mpcOutputFile);
+                    headerWritten = true;
+                }
 
-                StringBuilder stringBuilder = new StringBuilder();
+                rowNumber++;
 
+                stringBuilder.setLength(0);
                 if (needRunPsi) {
-                    if (rowNumber >= idValues.size()) {
-                        Integer idValue = idValues.get(idValues.size() - 1);
-                        int row = idValue + rowNumber - idValues.size() + 1;
-                        stringBuilder.append(row);
+                    if (idCursor != null && idCursor.hasNext()) {
+                        lastIdValue = idCursor.next();
+                        stringBuilder.append(lastIdValue);
+                    } else if (rowNumber > 0) {
+                        exceededRows++;
+                        stringBuilder.append(lastIdValue + exceededRows);
                     } else {
-                        stringBuilder.append(idValues.get(rowNumber));
+                        throw new WeDPRException(
+                                "No psi id for the mpc result, mpcOutputFile: " + mpcOutputFile);
                     }
                 } else {
                     stringBuilder.append(rowNumber);
                 }
 
-                for (String value : valuesList) {
-                    stringBuilder.append(CSV_SEP).append(value);
-                }
-
-                csvWriter.write(stringBuilder.toString());
+                appendValues(stringBuilder, line);
 
                 if (logger.isTraceEnabled()) {
                     logger.trace("result values: {}, index: {}", stringBuilder, rowNumber);
                 }
 
+                csvWriter.append(stringBuilder);
                 // add a newline at the end of each row
-                csvWriter.println();
+                csvWriter.newLine();
+            }
+
+            if (!headerWritten) {
+                writeHeader(csvWriter, strResultFields, mpcOutputFile);
             }
         } finally {
             long endTimeMillis = System.currentTimeMillis();
@@ -186,4 +208,51 @@ public class MpcResultFileResolver {
                     endTimeMillis - startTimeMillis);
         }
     }
+
+    private void writeHeader(BufferedWriter csvWriter, String strResultFields, String mpcOutputFile)
+            throws IOException, WeDPRException {
+        if (strResultFields == null) {
+            logger.error(
+                    "Not found \"{}\" flag in mpc result file, mpcOutputFile: {}",
+                    PPC_RESULT_FIELDS_FLAG,
+                    mpcOutputFile);
+
+            throw new WeDPRException(
+                    "Not found \"" + PPC_RESULT_FIELDS_FLAG + "\" flag in mpc result file");
+        }
+
+        if (logger.isTraceEnabled()) {
+            logger.trace("write mpc result file header: {}", strResultFields);
+        }
+
+        // write header field
+        csvWriter.write(strResultFields);
+        csvWriter.newLine();
+    }
+
+    // append ",v0,v1..." of "result_values = v0 v1..." without the regex splits
+    private static void appendValues(StringBuilder stringBuilder, String line)
+            throws WeDPRException {
+        int start = line.indexOf('=');
+        if (start < 0) {
+            throw new WeDPRException("Invalid mpc result values line: " + line);
+        }
+        int end = line.indexOf('=', start + 1);
+        if (end < 0) {
+            end = line.length();
+        }
+        // trim the values
+        start++;
+        while (start < end && line.charAt(start) <= ' ') {
+            start++;
+        }
+        while (end > start && line.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        stringBuilder.append(CSV_SEP);
+        for (int i = start; i < end; i++) {
+            char c = line.charAt(i);
+            stringBuilder.append(c == ' ' ? ',' : c);
+        }
+    }
 }
@@ -18,14 +18,13 @@ import com.webank.wedpr.components.scheduler.executor.impl.model.FileMeta;
 import com.webank.wedpr.components.scheduler.executor.impl.model.FileMetaBuilder;
 import com.webank.wedpr.components.scheduler.executor.impl.mpc.MPCJobParam;
 import com.webank.wedpr.components.scheduler.executor.impl.mpc.request.MpcRunJobRequest;
+import com.webank.wedpr.components.scheduler.executor.impl.mpc.utils.ExternalIntSorter;
 import com.webank.wedpr.components.scheduler.executor.impl.mpc.utils.MpcUtils;
 import com.webank.wedpr.components.scheduler.mapper.JobWorkerMapper;
 import com.webank.wedpr.components.storage.api.FileStorageInterface;
 import com.webank.wedpr.components.storage.impl.hdfs.HDFSStoragePath;
 import com.webank.wedpr.sdk.jni.transport.model.ServiceMeta;
 import java.io.File;
-import java.util.ArrayList;
-import java.util.List;
 import lombok.SneakyThrows;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -209,32 +208,40 @@ public class MpcWorker extends Worker {
 
             logger.info("download the mpc output file successfully, jobId: {}", getJobId());
 
-            List<Integer> idValues = new ArrayList<>();
-            if (needRunPsi) {
-                FileMeta psiResultFileMeta = mpcJobParam.getPsiResultFileMeta();
-
+            // the psi ids are sorted within the memory budget and streamed into the result file
+            try (ExternalIntSorter idSorter =
+                    new ExternalIntSorter(
+                            new File(mpcResultFilePath).getAbsoluteFile().getParentFile(),
+                            getJobId() + ".psi_ids",
+                            ExecutorConfig.getMpcMergeMemoryBudgetBytes())) {
+                ExternalIntSorter.IntCursor idCursor = null;
+                if (needRunPsi) {
+                    FileMeta psiResultFileMeta = mpcJobParam.getPsiResultFileMeta();
+
+                    logger.info(
+                            "begin to download mpc psi result file from {}=>{}, jobId: {}",
+                            psiResultFileMeta.getPath(),
+                            psiResultFilePath,
+                            getJobId());
+
+                    getFileStorageInterface()
+                            .download(psiResultFileMeta.getStoragePath(), psiResultFilePath);
+                    MpcUtils.loadIdFieldValuesFromFile(getJobId(), psiResultFilePath, idSorter);
+                    idCursor = idSorter.sortedCursor();
+                }
+
+                // 2. trans mpc_result.txt to mpc_result.csv
                 logger.info(
-                        "begin to download mpc psi result file from {}=>{}, jobId: {}",
-                        psiResultFileMeta.getPath(),
-                        psiResultFilePath,
+                        "begin to trans mpc output file to mpc result file from {}=>{}, jobId: {}",
+                        mpcOutputFilePath,
+                        mpcResultFilePath,
                         getJobId());
 
-                getFileStorageInterface()
-                        .download(psiResultFileMeta.getStoragePath(), psiResultFilePath);
-                idValues = MpcUtils.loadIdFieldValuesFromFile(getJobId(), psiResultFilePath);
+                MpcResultFileResolver mpcResultFileResolver = new MpcResultFileResolver();
+                mpcResultFileResolver.transMpcOutputFile2ResultFile(
+                        getJobId(), needRunPsi, idCursor, mpcOutputFilePath, mpcResultFilePath);
             }
 
-            // 2. trans mpc_result.txt to mpc_result.csv
-            logger.info(
-                    "begin to trans mpc output file to mpc result file from {}=>{}, jobId: {}",
-                    mpcOutputFilePath,
-                    mpcResultFilePath,
-                    getJobId());
-
-            MpcResultFileResolver mpcResultFileResolver = new MpcResultFileResolver();
-            mpcResultFileResolver.transMpcOutputFile2ResultFile(
-                    getJobId(), needRunPsi, idValues, mpcOutputFilePath, mpcResultFilePath);
-
             logger.info(
                     "trans mpc output file to mpc result file successfully, jobId: {}", getJobId());
 
@@ -16,6 +16,7 @@
 package com.webank.wedpr.components.scheduler.executor;
 
 import com.webank.wedpr.components.project.dao.JobDO;
+import java.util.List;
 
 public interface Executor {
     // prepare for the job
@@ -26,4 +27,20 @@ public interface Executor {
     void kill(JobDO jobDO) throws Exception;
 
     ExecuteResult queryStatus(String jobID) throws Exception;
+
+    // query the status of multiple jobs in one round, a failed query only affects its own job
+    default StatusQueryResult<ExecuteResult> batchQueryStatus(List<String> jobIDs) {
+        StatusQueryResult<ExecuteResult> result = new StatusQueryResult<>();
+        for (String jobID : jobIDs) {
+            try {
+                ExecuteResult executeResult = queryStatus(jobID);
+                if (executeResult != null) {
+                    result.setStatus(jobID, executeResult);
+                }
+            } catch (Exception e) {
+                result.setError(jobID, e);
+            }
+        }
+        return result;
+    }
 }
@@ -0,0 +1,44 @@
+/*
+ * Copyright 2017-2025  [webank-wedpr]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+package com.webank.wedpr.components.scheduler.executor;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * the per-task result of a batch status query: the status of the queried tasks, or the error of
+ * the tasks failed to query; the tasks in neither are still running
+ */
+public class StatusQueryResult<T> {
+    private final Map<String, T> statuses = new HashMap<>();
+    private final Map<String, Exception> errors = new HashMap<>();
+
+    public void setStatus(String taskID, T status) {
+        statuses.put(taskID, status);
+    }
+
+    public void setError(String taskID, Exception error) {
+        errors.put(taskID, error);
+    }
+
+    public T getStatus(String taskID) {
+        return statuses.get(taskID);
+    }
+
+    public Exception getError(String taskID) {
+        return errors.get(taskID);
+    }
+}
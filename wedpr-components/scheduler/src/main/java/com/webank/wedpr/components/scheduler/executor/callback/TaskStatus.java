@@ -0,0 +1,111 @@
+/*
+ * Copyright 2017-2025  [webank-wedpr]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+package com.webank.wedpr.components.scheduler.executor.callback;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.webank.wedpr.common.utils.ObjectMapperFactory;
+import com.webank.wedpr.components.scheduler.executor.ExecuteResult;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Base64;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import lombok.SneakyThrows;
+
+/**
+ * the status of the task, fetched by the poller or pushed to the dispatcher
+ *
+ * <p>Note: only the receiving side is implemented here, no executor in this tree calls sign() or
+ * pushes the status yet; sign() is the contract for the engines that push it
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class TaskStatus extends ExecuteResult {
+    private static final String SIGNATURE_ALGORITHM = "HmacSHA256";
+
+    private String taskID;
+    // base64 HmacSHA256 of taskID|resultStatus|msg with the notify token, set by the pusher
+    private String signature;
+
+    public TaskStatus() {}
+
+    public TaskStatus(String taskID, ResultStatus resultStatus) {
+        super(resultStatus);
+        this.taskID = taskID;
+    }
+
+    public TaskStatus(String taskID, String msg, ResultStatus resultStatus) {
+        super(msg, resultStatus);
+        this.taskID = taskID;
+    }
+
+    public String getTaskID() {
+        return taskID;
+    }
+
+    public void setTaskID(String taskID) {
+        this.taskID = taskID;
+    }
+
+    public String getSignature() {
+        return signature;
+    }
+
+    public void setSignature(String signature) {
+        this.signature = signature;
+    }
+
+    @SneakyThrows(Exception.class)
+    public String computeSignature(String token) {
+        Mac mac = Mac.getInstance(SIGNATURE_ALGORITHM);
+        mac.init(new SecretKeySpec(token.getBytes(StandardCharsets.UTF_8), SIGNATURE_ALGORITHM));
+        String content =
+                taskID + "|" + getResultStatus() + "|" + (getMsg() == null ? "" : getMsg());
+        return Base64.getEncoder()
+                .encodeToString(mac.doFinal(content.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    public void sign(String token) {
+        this.signature = computeSignature(token);
+    }
+
+    public boolean verifySignature(String token) {
+        if (token == null || token.isEmpty() || signature == null) {
+            return false;
+        }
+        return MessageDigest.isEqual(
+                computeSignature(token).getBytes(StandardCharsets.UTF_8),
+                signature.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @SneakyThrows(Exception.class)
+    public static TaskStatus deserialize(byte[] data) {
+        return ObjectMapperFactory.getObjectMapper().readValue(data, TaskStatus.class);
+    }
+
+    @Override
+    public String toString() {
+        return "TaskStatus{"
+                + "taskID='"
+                + taskID
+                + '\''
+                + ", resultStatus="
+                + getResultStatus()
+                + ", msg='"
+                + getMsg()
+                + '\''
+                + '}';
+    }
+}
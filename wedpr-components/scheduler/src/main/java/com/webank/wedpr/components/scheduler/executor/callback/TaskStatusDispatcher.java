@@ -0,0 +1,249 @@
+/*
+ * Copyright 2017-2025  [webank-wedpr]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+package com.webank.wedpr.components.scheduler.executor.callback;
+
+import com.webank.wedpr.common.utils.ThreadPoolService;
+import com.webank.wedpr.common.utils.WeDPRException;
+import com.webank.wedpr.components.scheduler.config.SchedulerTaskConfig;
+import com.webank.wedpr.components.scheduler.executor.StatusQueryResult;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import org.apache.commons.lang3.concurrent.BasicThreadFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * the in-memory dispatcher of the task status: the tracked tasks are polled in batch with the
+ * adaptive backoff interval, and a signed status pushed through the transport or the http callback
+ * completes the task early
+ *
+ * <p>Note: nothing in this tree pushes the status yet, and the pushes are refused while
+ * wedpr.scheduler.task.status.notify.token is empty, so all the tasks are finished by the poller.
+ * The callers of awaitFinished still block one thread per task until it finished
+ */
+public class TaskStatusDispatcher {
+    private static final Logger logger = LoggerFactory.getLogger(TaskStatusDispatcher.class);
+
+    private static final TaskStatusDispatcher INSTANCE = new TaskStatusDispatcher();
+
+    private final long minPollIntervalMs = SchedulerTaskConfig.getTaskStatusMinPollIntervalMs();
+    private final long maxPollIntervalMs = SchedulerTaskConfig.getTaskStatusMaxPollIntervalMs();
+    private final int maxQueryFailures = SchedulerTaskConfig.getTaskStatusMaxQueryFailures();
+
+    // taskID => the waiting task
+    private final Map<String, TrackedTask> trackedTasks = new ConcurrentHashMap<>();
+    private final String notifyToken = SchedulerTaskConfig.getTaskStatusNotifyToken();
+
+    private final ScheduledExecutorService pollTimer =
+            Executors.newSingleThreadScheduledExecutor(
+                    new BasicThreadFactory.Builder()
+                            .namingPattern("task-status-poller-%d")
+                            .daemon(true)
+                            .build());
+    private final ThreadPoolService pollWorkers =
+            new ThreadPoolService(
+                    "task-status-query-%d",
+                    SchedulerTaskConfig.getTaskStatusPollWorkers(),
+                    SchedulerTaskConfig.getWorkerQueueSize());
+
+    private static class TrackedTask {
+        private final String taskID;
+        private final TaskStatusQuerier querier;
+        private final CompletableFuture<TaskStatus> future = new CompletableFuture<>();
+        // the backoff interval, reset after the task is notified running
+        private long pollIntervalMs;
+        private long nextPollTime;
+        // the status query failures in a row
+        private int queryFailures = 0;
+        private volatile boolean polling = false;
+
+        private TrackedTask(String taskID, TaskStatusQuerier querier, long pollIntervalMs) {
+            this.taskID = taskID;
+            this.querier = querier;
+            this.pollIntervalMs = pollIntervalMs;
+            this.nextPollTime = System.currentTimeMillis() + pollIntervalMs;
+        }
+    }
+
+    private TaskStatusDispatcher() {
+        pollTimer.scheduleWithFixedDelay(
+                this::pollDueTasks, minPollIntervalMs, minPollIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    public static TaskStatusDispatcher getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * track the task until finished
+     *
+     * @param taskID the task id
+     * @param querier the querier to poll the status, null means wait for the notification only
+     * @return completed with the finished status
+     */
+    public CompletableFuture<TaskStatus> track(String taskID, TaskStatusQuerier querier) {
+        TrackedTask trackedTask =
+                trackedTasks.computeIfAbsent(
+                        taskID, id -> new TrackedTask(id, querier, minPollIntervalMs));
+        return trackedTask.future;
+    }
+
+    /**
+     * wait for the task finished
+     *
+     * @return the success status
+     * @throws WeDPRException the task failed
+     */
+    public TaskStatus awaitFinished(String taskID, TaskStatusQuerier querier) throws Exception {
+        TaskStatus status;
+        try {
+            status = track(taskID, querier).get();
+        } catch (ExecutionException e) {
+            throw (e.getCause() instanceof Exception) ? (Exception) e.getCause() : e;
+        } catch (InterruptedException e) {
+            trackedTasks.remove(taskID);
+            Thread.currentThread().interrupt();
+            throw e;
+        }
+        if (status.getResultStatus().failed()) {
+            throw new WeDPRException(
+                    "The task " + taskID + " execute failed, status: " + status.getMsg());
+        }
+        return status;
+    }
+
+    /**
+     * the status pushed by the executor, only accepted for the tracked tasks and with the valid
+     * signature; the pushes for the tasks not tracked yet are dropped, the poller finds them
+     *
+     * @return accepted or not
+     */
+    public boolean notify(TaskStatus taskStatus) {
+        if (taskStatus == null
+                || taskStatus.getTaskID() == null
+                || taskStatus.getResultStatus() == null) {
+            return false;
+        }
+        if (!taskStatus.verifySignature(notifyToken)) {
+            logger.warn(
+                    "refuse the task status notification with invalid signature: {}", taskStatus);
+            return false;
+        }
+        TrackedTask trackedTask = trackedTasks.get(taskStatus.getTaskID());
+        if (trackedTask == null) {
+            logger.info("ignore the task status notification of untracked task: {}", taskStatus);
+            return false;
+        }
+        if (!taskStatus.finished()) {
+            // the task is alive, poll it later
+            synchronized (trackedTask) {
+                trackedTask.pollIntervalMs = maxPollIntervalMs;
+                trackedTask.nextPollTime = System.currentTimeMillis() + maxPollIntervalMs;
+            }
+            return true;
+        }
+        logger.info("receive the task finished notification: {}", taskStatus);
+        complete(trackedTask, taskStatus);
+        return true;
+    }
+
+    private void complete(TrackedTask trackedTask, TaskStatus taskStatus) {
+        trackedTasks.remove(trackedTask.taskID, trackedTask);
+        trackedTask.future.complete(taskStatus);
+    }
+
+    private void fail(TrackedTask trackedTask, Exception error) {
+        trackedTasks.remove(trackedTask.taskID, trackedTask);
+        trackedTask.future.completeExceptionally(error);
+    }
+
+    private void pollDueTasks() {
+        try {
+            long now = System.currentTimeMillis();
+            // querierKey => due tasks
+            Map<String, List<TrackedTask>> dueTasks = new HashMap<>();
+            for (TrackedTask trackedTask : trackedTasks.values()) {
+                if (trackedTask.querier == null || trackedTask.polling) {
+                    continue;
+                }
+                synchronized (trackedTask) {
+                    if (trackedTask.nextPollTime > now) {
+                        continue;
+                    }
+                    trackedTask.polling = true;
+                }
+                dueTasks.computeIfAbsent(
+                                trackedTask.querier.getQuerierKey(), k -> new ArrayList<>())
+                        .add(trackedTask);
+            }
+            for (List<TrackedTask> tasks : dueTasks.values()) {
+                pollWorkers.getThreadPool().execute(() -> pollTasks(tasks));
+            }
+        } catch (Exception e) {
+            logger.warn("pollDueTasks exception, error: ", e);
+        }
+    }
+
+    private void pollTasks(List<TrackedTask> tasks) {
+        List<String> taskIDs = new ArrayList<>();
+        for (TrackedTask trackedTask : tasks) {
+            taskIDs.add(trackedTask.taskID);
+        }
+        StatusQueryResult<TaskStatus> result = null;
+        Exception batchError = null;
+        try {
+            result = tasks.get(0).querier.queryStatus(taskIDs);
+        } catch (Exception e) {
+            logger.warn("query status failed, tasks: {}, error: ", taskIDs, e);
+            batchError = e;
+        }
+        for (TrackedTask trackedTask : tasks) {
+            Exception error = result == null ? batchError : result.getError(trackedTask.taskID);
+            TaskStatus taskStatus = result == null ? null : result.getStatus(trackedTask.taskID);
+            if (error == null && taskStatus != null && taskStatus.finished()) {
+                complete(trackedTask, taskStatus);
+                continue;
+            }
+            if (error != null && ++trackedTask.queryFailures >= maxQueryFailures) {
+                // only fail the task after the query keeps failing
+                fail(trackedTask, error);
+                continue;
+            }
+            synchronized (trackedTask) {
+                if (error == null) {
+                    trackedTask.queryFailures = 0;
+                }
+                // still running or transient query error, backoff
+                trackedTask.pollIntervalMs =
+                        Math.min(maxPollIntervalMs, trackedTask.pollIntervalMs * 2);
+                trackedTask.nextPollTime = System.currentTimeMillis() + trackedTask.pollIntervalMs;
+                trackedTask.polling = false;
+            }
+        }
+    }
+
+    public int getTrackedTaskCount() {
+        return trackedTasks.size();
+    }
+}
@@ -0,0 +1,29 @@
+/*
+ * Copyright 2017-2025  [webank-wedpr]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+package com.webank.wedpr.components.scheduler.executor.callback;
+
+import com.webank.wedpr.components.scheduler.executor.StatusQueryResult;
+import java.util.List;
+
+/** query the status of the tasks submitted to the same executor endpoint */
+public interface TaskStatusQuerier {
+    // the tasks with the same key are queried in one batch
+    String getQuerierKey();
+
+    // the status of the given tasks, the failure of querying one task is recorded for that task
+    // only; the missing tasks are still running
+    StatusQueryResult<TaskStatus> queryStatus(List<String> taskIDs);
+}
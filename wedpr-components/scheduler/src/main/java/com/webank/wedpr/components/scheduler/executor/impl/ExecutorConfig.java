@@ -46,6 +46,10 @@ public class ExecutorConfig {
     private static String MPC_PSI_OPTION_REGEX =
             WeDPRConfig.apply("wedpr.executor.mpc.psi.option.regex", "PSI_OPTION\\s*=\\s*True");
 
+    // the memory budget of merging the psi result with the dataset, spill to disk when exceeded
+    private static Integer MPC_MERGE_MEMORY_BUDGET_MB =
+            WeDPRConfig.apply("wedpr.executor.mpc.merge.memory.budget.mb", 256);
+
     private static String PIR_RESULT_FILE_NAME =
             WeDPRConfig.apply("wedpr.executor.pir.result.file.name", "pir_result");
 
@@ -108,6 +112,10 @@ public class ExecutorConfig {
         return MPC_PREPARE_FILE_NAME;
     }
 
+    public static long getMpcMergeMemoryBudgetBytes() {
+        return MPC_MERGE_MEMORY_BUDGET_MB * 1024L * 1024L;
+    }
+
     public static String getMpcFileName(String jobId) {
         return jobId + ".mpc";
     }
@@ -46,6 +46,19 @@ public class MPCExecutorConfig {
     private static final Integer MAX_TOTAL_CONNECTION =
             WeDPRConfig.apply("wedpr.executor.mpc.max.total.connection", 5);
 
+    // the sql => mpc code translator
+    private static final String MPC_TRANSLATOR_PYTHON =
+            WeDPRConfig.apply("wedpr.executor.mpc.translator.python", "python3");
+    // translate by a resident python worker instead of one python process per translation
+    private static final Boolean MPC_TRANSLATOR_RESIDENT_ENABLED =
+            WeDPRConfig.apply("wedpr.executor.mpc.translator.resident.enabled", true);
+    private static final Integer MPC_TRANSLATOR_TIMEOUT_MS =
+            WeDPRConfig.apply("wedpr.executor.mpc.translator.timeout.ms", 60000);
+    private static final Integer MPC_TRANSLATOR_HEALTH_CHECK_INTERVAL_MS =
+            WeDPRConfig.apply("wedpr.executor.mpc.translator.health.check.interval.ms", 30000);
+    private static final Integer MPC_TRANSLATOR_CACHE_SIZE =
+            WeDPRConfig.apply("wedpr.executor.mpc.translator.cache.size", 1024);
+
     public static RequestConfig buildConfig() {
         return RequestConfig.custom()
                 .setConnectionRequestTimeout(CONNECTION_REQUEST_TIME_OUT)
@@ -81,4 +94,24 @@ public class MPCExecutorConfig {
     public static Boolean getMpcIsMalicious() {
         return Boolean.valueOf(MPC_IS_MALICIOUS);
     }
+
+    public static String getMpcTranslatorPython() {
+        return MPC_TRANSLATOR_PYTHON;
+    }
+
+    public static Boolean getMpcTranslatorResidentEnabled() {
+        return MPC_TRANSLATOR_RESIDENT_ENABLED;
+    }
+
+    public static Integer getMpcTranslatorTimeoutMs() {
+        return MPC_TRANSLATOR_TIMEOUT_MS;
+    }
+
+    public static Integer getMpcTranslatorHealthCheckIntervalMs() {
+        return MPC_TRANSLATOR_HEALTH_CHECK_INTERVAL_MS;
+    }
+
+    public static Integer getMpcTranslatorCacheSize() {
+        return MPC_TRANSLATOR_CACHE_SIZE;
+    }
 }
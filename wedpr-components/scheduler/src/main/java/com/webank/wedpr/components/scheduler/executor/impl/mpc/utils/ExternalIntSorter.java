@@ -0,0 +1,268 @@
+package com.webank.wedpr.components.scheduler.executor.impl.mpc.utils;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * sort int values within a bounded memory budget: values are kept in a primitive int array, and
+ * sorted runs are spilled to disk and k-way merged once the budget is exhausted
+ */
+public class ExternalIntSorter implements Closeable {
+    private static final Logger logger = LoggerFactory.getLogger(ExternalIntSorter.class);
+
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final int IO_BUFFER_SIZE = 64 * 1024;
+
+    public interface IntCursor {
+        boolean hasNext() throws IOException;
+
+        int next() throws IOException;
+    }
+
+    private final File spillDir;
+    private final String spillPrefix;
+    private final int maxBufferedValues;
+
+    private int[] buffer;
+    private int size = 0;
+    private long count = 0;
+    private final List<File> runFiles = new ArrayList<>();
+    private final List<RunReader> openedRuns = new ArrayList<>();
+
+    public ExternalIntSorter(File spillDir, String spillPrefix, long memoryBudgetBytes) {
+        this.spillDir = spillDir;
+        this.spillPrefix = spillPrefix;
+        this.maxBufferedValues =
+                (int)
+                        Math.max(
+                                INITIAL_CAPACITY,
+                                Math.min(Integer.MAX_VALUE - 8, memoryBudgetBytes / 4));
+        this.buffer = new int[Math.min(INITIAL_CAPACITY, maxBufferedValues)];
+    }
+
+    public void add(int value) throws IOException {
+        if (size == buffer.length) {
+            if (size >= maxBufferedValues) {
+                spill();
+            } else {
+                buffer =
+                        Arrays.copyOf(
+                                buffer, (int) Math.min((long) size * 2, (long) maxBufferedValues));
+            }
+        }
+        buffer[size++] = value;
+        count++;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public boolean spilled() {
+        return !runFiles.isEmpty();
+    }
+
+    /** the bytes held by the in-memory buffer */
+    public long getMemoryBytes() {
+        return buffer.length * 4L;
+    }
+
+    /**
+     * the sorted distinct values when everything fits in memory, null when runs have been spilled
+     * (use sortedCursor instead)
+     */
+    public int[] sortedDistinctArray() {
+        if (spilled()) {
+            return null;
+        }
+        Arrays.sort(buffer, 0, size);
+        int distinct = 0;
+        for (int i = 0; i < size; i++) {
+            if (distinct == 0 || buffer[distinct - 1] != buffer[i]) {
+                buffer[distinct++] = buffer[i];
+            }
+        }
+        buffer = Arrays.copyOf(buffer, distinct);
+        size = distinct;
+        return buffer;
+    }
+
+    /** iterate all the values in ascending order, duplicated values are kept */
+    public IntCursor sortedCursor() throws IOException {
+        if (!spilled()) {
+            Arrays.sort(buffer, 0, size);
+            return new ArrayCursor(buffer, size);
+        }
+        if (size > 0) {
+            spill();
+        }
+        buffer = new int[0];
+        PriorityQueue<RunReader> queue =
+                new PriorityQueue<>(runFiles.size(), (l, r) -> Integer.compare(l.head, r.head));
+        for (File runFile : runFiles) {
+            RunReader reader = new RunReader(runFile);
+            openedRuns.add(reader);
+            if (reader.advance()) {
+                queue.add(reader);
+            }
+        }
+        return new MergeCursor(queue);
+    }
+
+    /** skip the duplicated values of a sorted cursor */
+    public static IntCursor distinct(IntCursor cursor) {
+        return new IntCursor() {
+            private boolean hasLast = false;
+            private int last;
+            private boolean hasPending = false;
+            private int pending;
+
+            @Override
+            public boolean hasNext() throws IOException {
+                while (!hasPending && cursor.hasNext()) {
+                    int value = cursor.next();
+                    if (!hasLast || value != last) {
+                        pending = value;
+                        hasPending = true;
+                    }
+                }
+                return hasPending;
+            }
+
+            @Override
+            public int next() throws IOException {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                hasPending = false;
+                hasLast = true;
+                last = pending;
+                return pending;
+            }
+        };
+    }
+
+    private void spill() throws IOException {
+        Arrays.sort(buffer, 0, size);
+        File runFile = File.createTempFile(spillPrefix + ".", ".run", spillDir);
+        runFiles.add(runFile);
+        try (DataOutputStream outputStream =
+                new DataOutputStream(
+                        new BufferedOutputStream(new FileOutputStream(runFile), IO_BUFFER_SIZE))) {
+            for (int i = 0; i < size; i++) {
+                outputStream.writeInt(buffer[i]);
+            }
+        }
+        logger.debug("spill sorted run, file: {}, values: {}", runFile, size);
+        size = 0;
+    }
+
+    @Override
+    public void close() {
+        for (RunReader reader : openedRuns) {
+            reader.close();
+        }
+        openedRuns.clear();
+        for (File runFile : runFiles) {
+            if (!runFile.delete() && runFile.exists()) {
+                logger.warn("remove spilled run failed, file: {}", runFile);
+            }
+        }
+        runFiles.clear();
+    }
+
+    private static class ArrayCursor implements IntCursor {
+        private final int[] values;
+        private final int size;
+        private int position = 0;
+
+        ArrayCursor(int[] values, int size) {
+            this.values = values;
+            this.size = size;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return position < size;
+        }
+
+        @Override
+        public int next() {
+            if (position >= size) {
+                throw new NoSuchElementException();
+            }
+            return values[position++];
+        }
+    }
+
+    private static class MergeCursor implements IntCursor {
+        private final PriorityQueue<RunReader> queue;
+
+        MergeCursor(PriorityQueue<RunReader> queue) {
+            this.queue = queue;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return !queue.isEmpty();
+        }
+
+        @Override
+        public int next() throws IOException {
+            RunReader reader = queue.poll();
+            if (reader == null) {
+                throw new NoSuchElementException();
+            }
+            int value = reader.head;
+            if (reader.advance()) {
+                queue.add(reader);
+            } else {
+                reader.close();
+            }
+            return value;
+        }
+    }
+
+    private static class RunReader {
+        private final DataInputStream inputStream;
+        private int head;
+
+        RunReader(File runFile) throws IOException {
+            this.inputStream =
+                    new DataInputStream(
+                            new BufferedInputStream(new FileInputStream(runFile), IO_BUFFER_SIZE));
+        }
+
+        boolean advance() throws IOException {
+            try {
+                head = inputStream.readInt();
+                return true;
+            } catch (EOFException e) {
+                return false;
+            }
+        }
+
+        void close() {
+            try {
+                inputStream.close();
+            } catch (IOException e) {
+                logger.warn("close spilled run exception, e: ", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,290 @@
+package com.webank.wedpr.components.scheduler.executor.impl.mpc.utils;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.PriorityQueue;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * sort csv rows by their int id within a bounded memory budget, rows with the same id keep their
+ * insertion order; sorted runs are spilled to disk and k-way merged once the budget is exhausted
+ */
+public class ExternalRowSorter implements Closeable {
+    private static final Logger logger = LoggerFactory.getLogger(ExternalRowSorter.class);
+
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final int IO_BUFFER_SIZE = 64 * 1024;
+    // rough per-object costs of a buffered row: the String[] and each String with its char[]
+    private static final long ROW_OVERHEAD_BYTES = 48;
+    private static final long FIELD_OVERHEAD_BYTES = 64;
+
+    public interface RowCursor {
+        /** move to the next row, return false when all rows are consumed */
+        boolean next() throws IOException;
+
+        int id();
+
+        String[] row();
+    }
+
+    private final File spillDir;
+    private final String spillPrefix;
+    private final long memoryBudgetBytes;
+
+    private int[] ids = new int[INITIAL_CAPACITY];
+    private String[][] rows = new String[INITIAL_CAPACITY][];
+    private int size = 0;
+    private long bufferedBytes = 0;
+    private long count = 0;
+    private final List<File> runFiles = new ArrayList<>();
+    private final List<RunReader> openedRuns = new ArrayList<>();
+
+    public ExternalRowSorter(File spillDir, String spillPrefix, long memoryBudgetBytes) {
+        this.spillDir = spillDir;
+        this.spillPrefix = spillPrefix;
+        this.memoryBudgetBytes = memoryBudgetBytes;
+    }
+
+    public void add(int id, String[] row) throws IOException {
+        long rowBytes = estimateBytes(row);
+        if (size > 0 && bufferedBytes + rowBytes > memoryBudgetBytes) {
+            spill();
+        }
+        if (size == ids.length) {
+            ids = Arrays.copyOf(ids, size * 2);
+            rows = Arrays.copyOf(rows, size * 2);
+        }
+        ids[size] = id;
+        rows[size] = row;
+        size++;
+        bufferedBytes += rowBytes;
+        count++;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public boolean spilled() {
+        return !runFiles.isEmpty();
+    }
+
+    /** iterate all the rows in ascending id order, this can only be called once */
+    public RowCursor sortedCursor() throws IOException {
+        if (!spilled()) {
+            return new BufferCursor(sortBuffer());
+        }
+        if (size > 0) {
+            spill();
+        }
+        ids = new int[0];
+        rows = new String[0][];
+        // the runs are in insertion order, so the run sequence breaks the ties of the same id
+        PriorityQueue<RunReader> queue =
+                new PriorityQueue<>(
+                        runFiles.size(),
+                        (l, r) ->
+                                l.id != r.id
+                                        ? Integer.compare(l.id, r.id)
+                                        : Integer.compare(l.sequence, r.sequence));
+        for (int i = 0; i < runFiles.size(); i++) {
+            RunReader reader = new RunReader(runFiles.get(i), i);
+            openedRuns.add(reader);
+            if (reader.advance()) {
+                queue.add(reader);
+            }
+        }
+        return new MergeCursor(queue);
+    }
+
+    private long[] sortBuffer() {
+        // the id in the high bits and the insertion position in the low bits: a primitive
+        // sort that keeps the insertion order of the same id
+        long[] keys = new long[size];
+        for (int i = 0; i < size; i++) {
+            keys[i] = ((long) ids[i] << 32) | i;
+        }
+        Arrays.sort(keys);
+        return keys;
+    }
+
+    private void spill() throws IOException {
+        long[] keys = sortBuffer();
+        File runFile = File.createTempFile(spillPrefix + ".", ".run", spillDir);
+        runFiles.add(runFile);
+        try (DataOutputStream outputStream =
+                new DataOutputStream(
+                        new BufferedOutputStream(new FileOutputStream(runFile), IO_BUFFER_SIZE))) {
+            for (long key : keys) {
+                int position = (int) key;
+                writeRow(outputStream, ids[position], rows[position]);
+            }
+        }
+        logger.debug(
+                "spill sorted run, file: {}, rows: {}, bufferedBytes: {}",
+                runFile,
+                size,
+                bufferedBytes);
+        Arrays.fill(rows, 0, size, null);
+        size = 0;
+        bufferedBytes = 0;
+    }
+
+    private static long estimateBytes(String[] row) {
+        long bytes = ROW_OVERHEAD_BYTES + 4L * row.length;
+        for (String field : row) {
+            bytes += FIELD_OVERHEAD_BYTES + (field == null ? 0 : 2L * field.length());
+        }
+        return bytes;
+    }
+
+    private static void writeRow(DataOutputStream outputStream, int id, String[] row)
+            throws IOException {
+        outputStream.writeInt(id);
+        outputStream.writeInt(row.length);
+        for (String field : row) {
+            if (field == null) {
+                outputStream.writeInt(-1);
+                continue;
+            }
+            byte[] data = field.getBytes(StandardCharsets.UTF_8);
+            outputStream.writeInt(data.length);
+            outputStream.write(data);
+        }
+    }
+
+    @Override
+    public void close() {
+        for (RunReader reader : openedRuns) {
+            reader.close();
+        }
+        openedRuns.clear();
+        for (File runFile : runFiles) {
+            if (!runFile.delete() && runFile.exists()) {
+                logger.warn("remove spilled run failed, file: {}", runFile);
+            }
+        }
+        runFiles.clear();
+    }
+
+    private class BufferCursor implements RowCursor {
+        private final long[] keys;
+        private int index = -1;
+        private int position;
+
+        BufferCursor(long[] keys) {
+            this.keys = keys;
+        }
+
+        @Override
+        public boolean next() {
+            if (index + 1 >= keys.length) {
+                return false;
+            }
+            index++;
+            position = (int) keys[index];
+            return true;
+        }
+
+        @Override
+        public int id() {
+            return ids[position];
+        }
+
+        @Override
+        public String[] row() {
+            return rows[position];
+        }
+    }
+
+    private static class MergeCursor implements RowCursor {
+        private final PriorityQueue<RunReader> queue;
+        private int id;
+        private String[] row;
+
+        MergeCursor(PriorityQueue<RunReader> queue) {
+            this.queue = queue;
+        }
+
+        @Override
+        public boolean next() throws IOException {
+            RunReader reader = queue.poll();
+            if (reader == null) {
+                return false;
+            }
+            id = reader.id;
+            row = reader.row;
+            if (reader.advance()) {
+                queue.add(reader);
+            } else {
+                reader.close();
+            }
+            return true;
+        }
+
+        @Override
+        public int id() {
+            return id;
+        }
+
+        @Override
+        public String[] row() {
+            return row;
+        }
+    }
+
+    private static class RunReader {
+        private final DataInputStream inputStream;
+        private final int sequence;
+        private int id;
+        private String[] row;
+
+        RunReader(File runFile, int sequence) throws IOException {
+            this.inputStream =
+                    new DataInputStream(
+                            new BufferedInputStream(new FileInputStream(runFile), IO_BUFFER_SIZE));
+            this.sequence = sequence;
+        }
+
+        boolean advance() throws IOException {
+            try {
+                id = inputStream.readInt();
+            } catch (EOFException e) {
+                return false;
+            }
+            String[] nextRow = new String[inputStream.readInt()];
+            for (int i = 0; i < nextRow.length; i++) {
+                int length = inputStream.readInt();
+                if (length < 0) {
+                    continue;
+                }
+                byte[] data = new byte[length];
+                inputStream.readFully(data);
+                nextRow[i] = new String(data, StandardCharsets.UTF_8);
+            }
+            row = nextRow;
+            return true;
+        }
+
+        void close() {
+            try {
+                inputStream.close();
+            } catch (IOException e) {
+                logger.warn("close spilled run exception, e: ", e);
+            }
+        }
+    }
+}
@@ -10,17 +10,13 @@ import com.webank.wedpr.components.scheduler.executor.impl.model.DatasetInfo;
 import com.webank.wedpr.components.scheduler.executor.impl.model.FileMeta;
 import java.io.BufferedReader;
 import java.io.BufferedWriter;
+import java.io.File;
 import java.io.FileReader;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Collections;
 import java.util.List;
-import java.util.Map;
-import java.util.Set;
-import java.util.TreeMap;
-import java.util.TreeSet;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import org.slf4j.Logger;
@@ -253,12 +249,9 @@ public class MpcUtils {
         return needRunPsi;
     }
 
-    public static List<Integer> loadIdFieldValuesFromFile(String jobId, String inputFilePath)
-            throws Exception {
-        List<Integer> idValues = new ArrayList<>();
-
-        long lineNum = 0;
-
+    /** load the id field values of the psi result file into the sorter */
+    public static void loadIdFieldValuesFromFile(
+            String jobId, String inputFilePath, ExternalIntSorter idSorter) throws Exception {
         // read the id field value of the psi result file
         try (BufferedReader bufferedReader = new BufferedReader(new FileReader(inputFilePath));
                 CSVReader psiResultReader = new CSVReader(bufferedReader)) {
@@ -269,7 +262,6 @@ public class MpcUtils {
             int idFieldIndex = getIdFieldIndex(inputFilePath, originalFieldNames);
 
             String[] nextLine;
-            // TODO: id值都放在内存,数据量大的时候会有较高的内存占用
             while ((nextLine = psiResultReader.readNext()) != null) {
 
                 String idFieldValue = nextLine[idFieldIndex];
@@ -281,23 +273,27 @@ public class MpcUtils {
                             Arrays.asList(nextLine));
                 }
 
-                lineNum++;
-
-                idValues.add(Integer.valueOf(idFieldValue));
+                idSorter.add(Integer.parseInt(idFieldValue));
             }
 
             logger.info(
-                    "load id field values, jobId: {}, fieldNames: {}, idFieldIndex: {}, lineNum: {}",
+                    "load id field values, jobId: {}, fieldNames: {}, idFieldIndex: {}, lineNum: {}, spilled: {}",
                     jobId,
                     fieldNames,
                     idFieldIndex,
-                    lineNum);
+                    idSorter.getCount(),
+                    idSorter.spilled());
         }
-
-        Collections.sort(idValues);
-        return idValues;
     }
 
+    /**
+     * select the dataset rows whose id is in the psi result, and write them sorted by id; of rows
+     * sharing an id only the last one is written. The ids and rows are sorted within
+     * ExecutorConfig.getMpcMergeMemoryBudgetBytes() and spilled to the directory of the result
+     * file beyond that
+     *
+     * @return the number of selected dataset rows
+     */
     public static long mergeAndSortById(
             String jobId,
             String datasetFilePath,
@@ -306,53 +302,69 @@ public class MpcUtils {
             int datasetCountNumber,
             boolean withHeader)
             throws Exception {
+        return mergeAndSortById(
+                jobId,
+                datasetFilePath,
+                psiResultFilePath,
+                resultFilePath,
+                datasetCountNumber,
+                withHeader,
+                ExecutorConfig.getMpcMergeMemoryBudgetBytes());
+    }
 
-        Set<Integer> psiIdMap = new TreeSet<>();
-
-        long psiResultFileLineNum = 0;
-
-        // read the id field value of the psi result file
-        try (BufferedReader bufferedReader = new BufferedReader(new FileReader(psiResultFilePath));
-                CSVReader psiResultReader = new CSVReader(bufferedReader)) {
-
-            String[] fieldNames = psiResultReader.readNextSilently();
-            List<String> originalFieldNames = Arrays.asList(fieldNames);
-
-            int idFieldIndex = getIdFieldIndex(psiResultFilePath, originalFieldNames);
-
-            String[] nextLine;
-            // TODO: id值都放在内存,数据量大的时候会有较高的内存占用
-            while ((nextLine = psiResultReader.readNext()) != null) {
-
-                String idFieldValue = nextLine[idFieldIndex];
-                if (logger.isTraceEnabled()) {
-                    logger.trace(
-                            "prepare step(psi), jobId: {}, idFieldValue: {}, next line: {}",
-                            jobId,
-                            idFieldValue,
-                            Arrays.asList(nextLine));
-                }
-
-                psiResultFileLineNum++;
-
-                psiIdMap.add(Integer.valueOf(idFieldValue));
+    /** mergeAndSortById within the given memory budget */
+    public static long mergeAndSortById(
+            String jobId,
+            String datasetFilePath,
+            String psiResultFilePath,
+            String resultFilePath,
+            int datasetCountNumber,
+            boolean withHeader,
+            long memoryBudgetBytes)
+            throws Exception {
+        File spillDir = new File(resultFilePath).getAbsoluteFile().getParentFile();
+
+        try (ExternalIntSorter psiIdSorter =
+                new ExternalIntSorter(spillDir, jobId + ".psi_ids", memoryBudgetBytes)) {
+
+            loadIdFieldValuesFromFile(jobId, psiResultFilePath, psiIdSorter);
+            // null if the psi ids have been spilled, then all the dataset rows are sorted and
+            // joined with the merged psi id runs
+            int[] psiIds = psiIdSorter.sortedDistinctArray();
+            ExternalIntSorter.IntCursor psiIdCursor =
+                    psiIds == null ? psiIdSorter.sortedCursor() : null;
+
+            // the rows share the budget with the in-memory psi ids
+            long rowMemoryBudgetBytes =
+                    Math.max(
+                            memoryBudgetBytes - psiIdSorter.getMemoryBytes(),
+                            memoryBudgetBytes / 4);
+            try (ExternalRowSorter rowSorter =
+                    new ExternalRowSorter(
+                            spillDir, jobId + ".dataset_rows", rowMemoryBudgetBytes)) {
+
+                List<String> csvFieldNames =
+                        loadDatasetRows(
+                                jobId, datasetFilePath, datasetCountNumber, psiIds, rowSorter);
+
+                return writeSortedRows(
+                        jobId,
+                        resultFilePath,
+                        withHeader ? csvFieldNames : null,
+                        psiIdCursor,
+                        rowSorter);
             }
-
-            logger.info(
-                    "prepare step(psi), psi result file, jobId: {}, fieldNames: {}, idFieldIndex: {}, lineNum: {}",
-                    jobId,
-                    fieldNames,
-                    idFieldIndex,
-                    psiResultFileLineNum);
         }
+    }
 
-        // id => line  sorted
-        List<String> csvFieldNames = null;
-        Map<Integer, String[]> csvId2Lines = new TreeMap<>();
-
-        long totalReadLineNum = 0;
+    private static List<String> loadDatasetRows(
+            String jobId,
+            String datasetFilePath,
+            int datasetCountNumber,
+            int[] psiIds,
+            ExternalRowSorter rowSorter)
+            throws Exception {
         long datasetFileLineNum = 0;
-        // read the id field value of the psi result file
         try (BufferedReader bufferedReader = new BufferedReader(new FileReader(datasetFilePath));
                 CSVReader datasetFileReader = new CSVReader(bufferedReader)) {
 
@@ -369,16 +381,13 @@ public class MpcUtils {
             List<Integer> selectFieldsIndex =
                     makeSelectFieldsIndex(selectFieldNames, normalizedFieldNames);
 
-            csvFieldNames = selectFieldNames;
-
             String[] nextLine;
             while ((nextLine = datasetFileReader.readNext()) != null) {
 
                 datasetFileLineNum++;
 
-                String strId = nextLine[idFieldIndex];
-                Integer id = Integer.valueOf(strId);
-                if (!psiIdMap.contains(id)) {
+                int id = Integer.parseInt(nextLine[idFieldIndex]);
+                if (psiIds != null && Arrays.binarySearch(psiIds, id) < 0) {
                     continue;
                 }
 
@@ -391,25 +400,37 @@ public class MpcUtils {
                             Arrays.asList(writeNextLine));
                 }
 
-                csvId2Lines.put(id, writeNextLine);
-                // resultFileWriter.writeNext(writeNextLine, false);
-                totalReadLineNum++;
+                rowSorter.add(id, writeNextLine);
             }
 
             logger.info(
-                    "prepare step(psi), jobId: {}, totalReadLineNum: {}, dataset original field names: {}, normalized field names: {}, idIndex: {}, select field names: {}, select field index: {}, datasetFileLineNum: {}",
+                    "prepare step(psi), jobId: {}, totalReadLineNum: {}, dataset original field names: {}, normalized field names: {}, idIndex: {}, select field names: {}, select field index: {}, datasetFileLineNum: {}, spilled: {}",
                     jobId,
-                    totalReadLineNum,
+                    rowSorter.getCount(),
                     originalFieldNames,
                     normalizedFieldNames,
                     idFieldIndex,
                     selectFieldNames,
                     selectFieldsIndex,
-                    datasetFileLineNum);
+                    datasetFileLineNum,
+                    rowSorter.spilled());
+            return selectFieldNames;
         }
+    }
 
+    // psiIdCursor is null if the rows have been filtered by the in-memory psi ids
+    private static long writeSortedRows(
+            String jobId,
+            String resultFilePath,
+            List<String> csvFieldNames,
+            ExternalIntSorter.IntCursor psiIdCursor,
+            ExternalRowSorter rowSorter)
+            throws Exception {
+        if (psiIdCursor != null) {
+            psiIdCursor = ExternalIntSorter.distinct(psiIdCursor);
+        }
+        long totalReadLineNum = 0;
         long totalWriteLineNum = 0;
-        // read the id field value of the psi result file
         try (BufferedWriter bufferedWriter = new BufferedWriter(new FileWriter(resultFilePath));
                 CSVWriter resultFileWriter =
                         new CSVWriter(
@@ -419,102 +440,54 @@ public class MpcUtils {
                                 ICSVWriter.DEFAULT_ESCAPE_CHARACTER,
                                 ICSVWriter.DEFAULT_LINE_END)) {
 
-            if (withHeader) {
+            if (csvFieldNames != null) {
                 // write in new column names
                 resultFileWriter.writeNext(csvFieldNames.toArray(new String[0]), false);
             }
 
-            for (Map.Entry<Integer, String[]> entry : csvId2Lines.entrySet()) {
-                Integer key = entry.getKey();
-                String[] value = entry.getValue();
-                resultFileWriter.writeNext(value, false);
-                totalWriteLineNum++;
-
-                if (logger.isTraceEnabled()) {
-                    logger.trace(
-                            "prepare step(psi), jobId: {}, id: {}, next line: {}",
-                            jobId,
-                            key,
-                            value);
+            ExternalRowSorter.RowCursor rowCursor = rowSorter.sortedCursor();
+            boolean hasPsiId = psiIdCursor != null && psiIdCursor.hasNext();
+            int psiId = hasPsiId ? psiIdCursor.next() : 0;
+            // the row pending to be written, replaced by the later rows with the same id
+            String[] pendingRow = null;
+            int pendingId = 0;
+            while (rowCursor.next()) {
+                int id = rowCursor.id();
+                if (psiIdCursor != null) {
+                    while (hasPsiId && psiId < id) {
+                        hasPsiId = psiIdCursor.hasNext();
+                        psiId = hasPsiId ? psiIdCursor.next() : 0;
+                    }
+                    if (!hasPsiId || psiId != id) {
+                        continue;
+                    }
                 }
+                totalReadLineNum++;
+                if (pendingRow != null && pendingId != id) {
+                    writeSortedRow(jobId, resultFileWriter, pendingId, pendingRow);
+                    totalWriteLineNum++;
+                }
+                pendingId = id;
+                pendingRow = rowCursor.row();
+            }
+            if (pendingRow != null) {
+                writeSortedRow(jobId, resultFileWriter, pendingId, pendingRow);
+                totalWriteLineNum++;
             }
 
             logger.info(
-                    "prepare step(psi), jobId: {}, totalWriteLineNum: {}",
+                    "prepare step(psi), jobId: {}, totalReadLineNum: {}, totalWriteLineNum: {}",
                     jobId,
+                    totalReadLineNum,
                     totalWriteLineNum);
         }
-
         return totalReadLineNum;
+    }
 
-        /*
-        long totalLineNum = 0;
-        long datasetFileLineNum = 0;
-        // read the id field value of the psi result file
-        try (BufferedReader bufferedReader = new BufferedReader(new FileReader(datasetFilePath));
-                CSVReader datasetFileReader = new CSVReader(bufferedReader);
-                BufferedWriter bufferedWriter = new BufferedWriter(new FileWriter(resultFilePath));
-                CSVWriter resultFileWriter =
-                        new CSVWriter(
-                                bufferedWriter,
-                                ' ',
-                                ICSVWriter.DEFAULT_QUOTE_CHARACTER,
-                                ICSVWriter.DEFAULT_ESCAPE_CHARACTER,
-                                ICSVWriter.DEFAULT_LINE_END)) {
-
-            String[] fieldNames = datasetFileReader.readNextSilently();
-            List<String> originalFieldNames = Arrays.asList(fieldNames);
-
-            List<String> normalizedFieldNames =
-                    makeFieldNamesNormalized(datasetFilePath, originalFieldNames);
-
-            int idFieldIndex = getIdFieldIndex(datasetFilePath, originalFieldNames);
-
-            List<String> selectFieldNames = makeSelectFields(datasetCountNumber);
-            List<Integer> selectFieldsIndex =
-                    makeSelectFieldsIndex(selectFieldNames, normalizedFieldNames);
-
-            if (withHeader) {
-                // write in new column names
-                resultFileWriter.writeNext(selectFieldNames.toArray(new String[0]), false);
-            }
-
-            String[] nextLine;
-            while ((nextLine = datasetFileReader.readNext()) != null) {
-
-                datasetFileLineNum++;
-
-                String strId = nextLine[idFieldIndex];
-                Integer id = Integer.valueOf(strId);
-                if (!psiIdMap.contains(id)) {
-                    continue;
-                }
-
-                String[] writeNextLine = makeNextLine(nextLine, selectFieldsIndex);
-
-                if (logger.isTraceEnabled()) {
-                    logger.trace(
-                            "prepare step(psi), jobId: {}, next line: {}",
-                            jobId,
-                            Arrays.asList(writeNextLine));
-                }
-
-                resultFileWriter.writeNext(writeNextLine, false);
-                totalLineNum++;
-            }
-
-            logger.info(
-                    "prepare step(psi), jobId: {}, totalLineNum: {}, dataset original field names: {}, normalized field names: {}, idIndex: {}, select field names: {}, select field index: {}, datasetFileLineNum: {}",
-                    jobId,
-                    totalLineNum,
-                    originalFieldNames,
-                    normalizedFieldNames,
-                    idFieldIndex,
-                    selectFieldNames,
-                    selectFieldsIndex,
-                    datasetFileLineNum);
+    private static void writeSortedRow(String jobId, CSVWriter writer, int id, String[] row) {
+        writer.writeNext(row, false);
+        if (logger.isTraceEnabled()) {
+            logger.trace("prepare step(psi), jobId: {}, id: {}, next line: {}", jobId, id, row);
         }
-
-        */
     }
 }
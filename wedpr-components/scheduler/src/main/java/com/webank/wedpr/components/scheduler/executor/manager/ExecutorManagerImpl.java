@@ -21,12 +21,17 @@ import com.webank.wedpr.common.utils.WeDPRException;
 import com.webank.wedpr.components.project.JobChecker;
 import com.webank.wedpr.components.project.dao.JobDO;
 import com.webank.wedpr.components.project.dao.ProjectMapperWrapper;
+import com.webank.wedpr.components.scheduler.config.SchedulerTaskConfig;
 import com.webank.wedpr.components.scheduler.executor.ExecuteResult;
 import com.webank.wedpr.components.scheduler.executor.Executor;
+import com.webank.wedpr.components.scheduler.executor.StatusQueryResult;
 import com.webank.wedpr.components.scheduler.executor.callback.TaskFinishedHandler;
 import com.webank.wedpr.components.scheduler.executor.impl.ExecutiveContext;
 import com.webank.wedpr.components.scheduler.executor.impl.model.FileMetaBuilder;
 import com.webank.wedpr.components.storage.api.FileStorageInterface;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.*;
 import lombok.SneakyThrows;
@@ -41,7 +46,13 @@ public class ExecutorManagerImpl implements ExecutorManager {
 
     protected Map<String, ExecutiveContext> proceedingJobs = new ConcurrentHashMap<>();
     protected ScheduledExecutorService queryStatusWorker = new ScheduledThreadPoolExecutor(1);
+    // jobId => {the backoff query interval, the next query time, the query failures in a row}
+    protected Map<String, long[]> queryIntervals = new ConcurrentHashMap<>();
 
+    // the query interval of every job grows from min to max
+    private final long minQueryStatusIntervalMs =
+            SchedulerTaskConfig.getTaskStatusMinPollIntervalMs();
+    private final int maxQueryFailures = SchedulerTaskConfig.getTaskStatusMaxQueryFailures();
     private final Integer queryStatusIntervalMs;
     private final ProjectMapperWrapper projectMapperWrapper;
 
@@ -57,7 +68,7 @@ public class ExecutorManagerImpl implements ExecutorManager {
     }
 
     public void start() {
-        this.queryStatusWorker.scheduleAtFixedRate(
+        this.queryStatusWorker.scheduleWithFixedDelay(
                 new Runnable() {
                     @Override
                     public void run() {
@@ -65,63 +76,107 @@ public class ExecutorManagerImpl implements ExecutorManager {
                     }
                 },
                 0,
-                queryStatusIntervalMs,
+                minQueryStatusIntervalMs,
                 TimeUnit.MILLISECONDS);
     }
 
-    protected void queryAllJobStatus() {
-        for (ExecutiveContext context : proceedingJobs.values()) {
-            querySingleJobStatus(context);
+    // the job may be killed concurrently, only finish the proceeding job
+    protected void finishJob(ExecutiveContext executiveContext, ExecuteResult result) {
+        String jobId = executiveContext.getJob().getId();
+        queryIntervals.remove(jobId);
+        if (proceedingJobs.remove(jobId, executiveContext) && result != null) {
+            executiveContext.onTaskFinished(result);
         }
     }
 
-    protected void querySingleJobStatus(ExecutiveContext executiveContext) {
-        String jobId = executiveContext.getJob().getId();
+    protected void queryAllJobStatus() {
         try {
-            Executor executor = getExecutor(executiveContext.getJob().getJobType());
-            // Note: unreachable here
-            if (executor == null) {
-                proceedingJobs.remove(jobId);
-                return;
-            }
-
-            JobDO.JobResult jobResult = executiveContext.getJob().getJobResult();
-            // the job has already been finished(the sync case)
-            if (jobResult != null
-                    && jobResult.getJobStatus() != null
-                    && jobResult.getJobStatus().finished()) {
-                proceedingJobs.remove(jobId);
-                return;
-            }
-            ExecuteResult result = executor.queryStatus(executiveContext.getTaskID());
-            if (result == null) {
-                return;
+            long now = System.currentTimeMillis();
+            // the due jobs of every executor are queried in one batch
+            Map<Executor, List<ExecutiveContext>> dueJobs = new HashMap<>();
+            for (ExecutiveContext context : proceedingJobs.values()) {
+                String jobId = context.getJob().getId();
+                long[] queryInterval =
+                        queryIntervals.computeIfAbsent(
+                                jobId, k -> new long[] {minQueryStatusIntervalMs, now, 0});
+                // wait for the backoff interval
+                if (queryInterval[1] > now) {
+                    continue;
+                }
+                Executor executor = getExecutor(context.getJob().getJobType());
+                // Note: unreachable here
+                if (executor == null) {
+                    finishJob(context, null);
+                    continue;
+                }
+                JobDO.JobResult jobResult = context.getJob().getJobResult();
+                // the job has already been finished(the sync case)
+                if (jobResult != null
+                        && jobResult.getJobStatus() != null
+                        && jobResult.getJobStatus().finished()) {
+                    finishJob(context, null);
+                    continue;
+                }
+                dueJobs.computeIfAbsent(executor, k -> new ArrayList<>()).add(context);
             }
-
-            if (result.finished()) {
-                executiveContext.onTaskFinished(result);
-                proceedingJobs.remove(jobId);
+            for (Map.Entry<Executor, List<ExecutiveContext>> entry : dueJobs.entrySet()) {
+                queryJobsStatus(entry.getKey(), entry.getValue());
             }
         } catch (Exception e) {
-            logger.error(
-                    "Query status for job failed, job: {}, error: ",
-                    executiveContext.getJob().toString(),
-                    e);
-            executiveContext.onTaskFinished(
-                    new ExecuteResult(
-                            "Job "
-                                    + executiveContext.getJob().getId()
-                                    + " failed for "
-                                    + e.getMessage(),
-                            ExecuteResult.ResultStatus.FAILED));
-            proceedingJobs.remove(jobId);
+            logger.warn("queryAllJobStatus exception, error: ", e);
         }
-
         int proceedingJobsSize = proceedingJobs.size();
         if (proceedingJobsSize > 0) {
-            logger.info("## query all jobs status, proceeding jobs number: {}", proceedingJobsSize);
-        } else {
-            logger.info("## query all jobs status, no jobs is proceeding");
+            logger.debug("## query all jobs status, proceeding jobs number: {}", proceedingJobsSize);
+        }
+    }
+
+    protected void queryJobsStatus(Executor executor, List<ExecutiveContext> contexts) {
+        List<String> taskIDs = new ArrayList<>();
+        for (ExecutiveContext context : contexts) {
+            taskIDs.add(context.getTaskID());
+        }
+        StatusQueryResult<ExecuteResult> results = null;
+        Exception batchError = null;
+        try {
+            results = executor.batchQueryStatus(taskIDs);
+        } catch (Exception e) {
+            logger.warn("Query status for jobs failed, tasks: {}, error: ", taskIDs, e);
+            batchError = e;
+        }
+        long now = System.currentTimeMillis();
+        for (ExecutiveContext context : contexts) {
+            Exception error = results == null ? batchError : results.getError(context.getTaskID());
+            ExecuteResult result = results == null ? null : results.getStatus(context.getTaskID());
+            if (error == null && result != null && result.finished()) {
+                finishJob(context, result);
+                continue;
+            }
+            long[] queryInterval = queryIntervals.get(context.getJob().getId());
+            if (queryInterval == null) {
+                continue;
+            }
+            if (error == null) {
+                queryInterval[2] = 0;
+            } else if (++queryInterval[2] >= maxQueryFailures) {
+                // only fail the job after the query keeps failing
+                logger.error(
+                        "Query status for job failed, job: {}, error: ",
+                        context.getJob().getId(),
+                        error);
+                finishJob(
+                        context,
+                        new ExecuteResult(
+                                "Job "
+                                        + context.getJob().getId()
+                                        + " failed for "
+                                        + error.getMessage(),
+                                ExecuteResult.ResultStatus.FAILED));
+                continue;
+            }
+            // still running or transient query error, backoff until the max interval
+            queryInterval[0] = Math.min(queryStatusIntervalMs, queryInterval[0] * 2);
+            queryInterval[1] = now + queryInterval[0];
         }
     }
 
@@ -193,6 +248,7 @@ public class ExecutorManagerImpl implements ExecutorManager {
             proceedingJobCtx.getJob().setKilled(true);
             logger.info("Remove job: {} from proceedingJobs", jobDO.getId());
             proceedingJobs.remove(jobDO.getId());
+            queryIntervals.remove(jobDO.getId());
         }
         logger.info("kill job: {}", jobDO.getId());
         executor.kill(jobDO);
@@ -24,6 +24,8 @@ import com.webank.wedpr.components.project.dao.JobDO;
 import com.webank.wedpr.components.project.dao.ProjectMapperWrapper;
 import com.webank.wedpr.components.scheduler.JobDetailResponse;
 import com.webank.wedpr.components.scheduler.SchedulerService;
+import com.webank.wedpr.components.scheduler.executor.callback.TaskStatus;
+import com.webank.wedpr.components.scheduler.executor.callback.TaskStatusDispatcher;
 import com.webank.wedpr.components.scheduler.executor.impl.ExecutorConfig;
 import com.webank.wedpr.components.scheduler.executor.impl.ml.MLExecutorClient;
 import com.webank.wedpr.components.scheduler.executor.impl.ml.model.ModelJobResult;
@@ -31,7 +33,10 @@ import com.webank.wedpr.components.scheduler.executor.impl.ml.request.GetTaskRes
 import com.webank.wedpr.components.scheduler.executor.impl.model.FileMetaBuilder;
 import com.webank.wedpr.components.scheduler.executor.impl.mpc.MPCJobParam;
 import com.webank.wedpr.components.scheduler.executor.impl.psi.model.PSIJobParam;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -49,6 +54,61 @@ public class SchedulerServiceImpl implements SchedulerService {
     @Qualifier("loadBalancer")
     private LoadBalancer loadBalancer;
 
+    @Override
+    public Object queryJobsStatus(String user, String agency, JobsStatusRequest jobsStatusRequest)
+            throws Exception {
+        List<String> jobIDs = jobsStatusRequest.getJobIDs();
+        if (jobIDs == null || jobIDs.isEmpty()) {
+            throw new WeDPRException("queryJobsStatus failed for no jobIDs specified!");
+        }
+        JobDO condition = new JobDO(true);
+        condition.setOwner(user);
+        condition.setOwnerAgency(agency);
+        // the meta of all the owned jobs in one query
+        List<JobDO> jobMetas = new ArrayList<>();
+        List<JobDO> ownedJobs =
+                this.projectMapperWrapper.getProjectMapper().queryJobs(true, condition, jobIDs);
+        if (ownedJobs != null) {
+            jobMetas.addAll(ownedJobs);
+        }
+        Set<String> foundJobIDs = new HashSet<>();
+        for (JobDO jobDO : jobMetas) {
+            foundJobIDs.add(jobDO.getId());
+        }
+        // the followed jobs
+        for (String jobID : jobIDs) {
+            if (foundJobIDs.contains(jobID)) {
+                continue;
+            }
+            List<JobDO> followedJobs =
+                    this.projectMapperWrapper.queryJobDetail(jobID, Boolean.TRUE, user, agency);
+            if (followedJobs != null && !followedJobs.isEmpty()) {
+                jobMetas.add(followedJobs.get(0));
+                foundJobIDs.add(jobID);
+            }
+        }
+        return jobMetas;
+    }
+
+    @Override
+    public void notifyTaskStatus(TaskStatusNotifyRequest request) throws Exception {
+        if (request.getTaskStatusList() == null) {
+            return;
+        }
+        List<String> refusedTaskIDs = new ArrayList<>();
+        for (TaskStatus taskStatus : request.getTaskStatusList()) {
+            if (!TaskStatusDispatcher.getInstance().notify(taskStatus)) {
+                refusedTaskIDs.add(taskStatus == null ? null : taskStatus.getTaskID());
+            }
+        }
+        if (!refusedTaskIDs.isEmpty()) {
+            throw new WeDPRException(
+                    "The task status of "
+                            + refusedTaskIDs
+                            + " is refused for invalid signature or untracked task");
+        }
+    }
+
     @Override
     public Object queryJobDetail(String user, String agency, JobDetailRequest jobDetailRequest)
             throws Exception {
@@ -1,6 +1,9 @@
 package com.webank.wedpr.components.scheduler.python;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.webank.wedpr.common.utils.WeDPRException;
+import com.webank.wedpr.components.scheduler.executor.impl.mpc.MPCExecutorConfig;
 import java.io.File;
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
@@ -53,10 +56,108 @@ public class MpcCodeTranslator {
                     + "    traceback.print_exc()\n"
                     + "    sys.exit(1)";
 
+    public static final String MPC_CODE_TRANSLATOR_RESIDENT_PYTHON_SCRIPT =
+            "# resident generator main\n"
+                    + "import os\n"
+                    + "import struct\n"
+                    + "import sys\n"
+                    + "import traceback\n"
+                    + "\n"
+                    + "current_file_path = os.path.abspath(__file__)\n"
+                    + "current_file_real_path = os.path.realpath(current_file_path)\n"
+                    + "current_dir = os.path.dirname(current_file_real_path)\n"
+                    + "\n"
+                    + "sys.path.append(current_dir)\n"
+                    + "\n"
+                    + "from mpc_generator.generator import CodeGenerator\n"
+                    + "\n"
+                    + "# the frames are written to the original stdout, anything printed goes to stderr\n"
+                    + "frame_out = os.fdopen(os.dup(1), 'wb')\n"
+                    + "os.dup2(2, 1)\n"
+                    + "sys.stdout = sys.stderr\n"
+                    + "frame_in = sys.stdin.buffer\n"
+                    + "\n"
+                    + "\n"
+                    + "def read_exactly(size):\n"
+                    + "    data = b''\n"
+                    + "    while len(data) < size:\n"
+                    + "        chunk = frame_in.read(size - len(data))\n"
+                    + "        if not chunk:\n"
+                    + "            return None\n"
+                    + "        data += chunk\n"
+                    + "    return data\n"
+                    + "\n"
+                    + "\n"
+                    + "def write_frame(frame_type, payload):\n"
+                    + "    data = payload.encode('utf-8')\n"
+                    + "    frame_out.write(frame_type + struct.pack('>I', len(data)) + data)\n"
+                    + "    frame_out.flush()\n"
+                    + "\n"
+                    + "\n"
+                    + "while True:\n"
+                    + "    header = read_exactly(5)\n"
+                    + "    if header is None:\n"
+                    + "        sys.exit(0)\n"
+                    + "    payload = read_exactly(struct.unpack('>I', header[1:5])[0])\n"
+                    + "    if payload is None:\n"
+                    + "        sys.exit(0)\n"
+                    + "    if header[0:1] == b'P':\n"
+                    + "        write_frame(b'O', '')\n"
+                    + "        continue\n"
+                    + "    try:\n"
+                    + "        code_gen = CodeGenerator(payload.decode('utf-8'))\n"
+                    + "        # keep the trailing newline printed by the one-shot script\n"
+                    + "        write_frame(b'O', code_gen.sql_to_mpc_code() + '\\n')\n"
+                    + "    except Exception:\n"
+                    + "        write_frame(b'E', traceback.format_exc())";
+
+    private static final byte FRAME_TRANSLATE = 'T';
+
+    private static final PythonWorkerProcess RESIDENT_TRANSLATOR =
+            MPCExecutorConfig.getMpcTranslatorResidentEnabled()
+                    ? new PythonWorkerProcess(
+                            "mpc-translator",
+                            MPCExecutorConfig.getMpcTranslatorPython(),
+                            MPC_CODE_TRANSLATOR_RESIDENT_PYTHON_SCRIPT,
+                            null,
+                            MPCExecutorConfig.getMpcTranslatorTimeoutMs(),
+                            MPCExecutorConfig.getMpcTranslatorHealthCheckIntervalMs())
+                    : null;
+
+    // normalized sql => mpc code, the translation only depends on the sql, the dataset
+    // information is filled into the mpc code afterwards
+    private static final Cache<String, String> TRANSLATION_CACHE =
+            CacheBuilder.newBuilder()
+                    .maximumSize(MPCExecutorConfig.getMpcTranslatorCacheSize())
+                    .build();
+
     public static String translateSqlToMpcCode(String sql)
             throws WeDPRException, IOException, InterruptedException {
+        String cacheKey = normalizeSql(sql);
+        String mpcCode = TRANSLATION_CACHE.getIfPresent(cacheKey);
+        if (mpcCode != null) {
+            logger.debug("hit the mpc translation cache, sql: {}", cacheKey);
+            return mpcCode;
+        }
+        long startT = System.currentTimeMillis();
+        if (RESIDENT_TRANSLATOR != null) {
+            mpcCode = normalizeLineBreaks(RESIDENT_TRANSLATOR.call(FRAME_TRANSLATE, sql));
+        } else {
+            mpcCode = translateByScript(sql);
+        }
+        TRANSLATION_CACHE.put(cacheKey, mpcCode);
+        logger.info(
+                "translate sql to mpc code success, resident: {}, timecost: {}ms",
+                RESIDENT_TRANSLATOR != null,
+                System.currentTimeMillis() - startT);
+        return mpcCode;
+    }
 
-        PythonScriptExecutor pythonScriptExecutor = new PythonScriptExecutor();
+    // one python process per translation
+    private static String translateByScript(String sql)
+            throws WeDPRException, IOException, InterruptedException {
+        PythonScriptExecutor pythonScriptExecutor =
+                new PythonScriptExecutor(MPCExecutorConfig.getMpcTranslatorPython(), null);
 
         String tempDirPath = System.getProperty("java.io.tmpdir");
         String pythonScriptFile = tempDirPath + File.separator + UUID.randomUUID() + ".py";
@@ -74,6 +175,49 @@ public class MpcCodeTranslator {
         }
     }
 
+    // collapse the whitespaces outside the quoted strings and the line comments, the line break
+    // that ends a line comment is kept
+    static String normalizeSql(String sql) {
+        StringBuilder normalized = new StringBuilder(sql.length());
+        char quote = 0;
+        boolean lineComment = false;
+        boolean pendingSpace = false;
+        for (int i = 0; i < sql.length(); i++) {
+            char c = sql.charAt(i);
+            if (lineComment) {
+                if (c == '\n' || c == '\r') {
+                    normalized.append('\n');
+                    lineComment = false;
+                } else {
+                    normalized.append(c);
+                }
+                continue;
+            }
+            if (quote == 0 && Character.isWhitespace(c)) {
+                pendingSpace = normalized.length() > 0;
+                continue;
+            }
+            if (pendingSpace) {
+                normalized.append(' ');
+                pendingSpace = false;
+            }
+            normalized.append(c);
+            if (quote == 0 && c == '-' && i + 1 < sql.length() && sql.charAt(i + 1) == '-') {
+                lineComment = true;
+            } else if (quote == 0 && (c == '\'' || c == '"' || c == '`')) {
+                quote = c;
+            } else if (quote != 0 && c == quote) {
+                quote = 0;
+            }
+        }
+        return normalized.toString();
+    }
+
+    // the same line breaks as reading the output of the one-shot script line by line
+    private static String normalizeLineBreaks(String output) {
+        return output.replace("\r\n", "\n").replace('\r', '\n');
+    }
+
     public static void main(String[] args)
             throws WeDPRException, IOException, InterruptedException {
 
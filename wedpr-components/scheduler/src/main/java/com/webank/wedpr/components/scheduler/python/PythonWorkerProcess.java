@@ -0,0 +1,304 @@
+package com.webank.wedpr.components.scheduler.python;
+
+import com.webank.wedpr.common.utils.WeDPRException;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.ReentrantLock;
+import org.apache.commons.lang3.concurrent.BasicThreadFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * a long-lived python process serving framed requests over stdin/stdout, restarted when it
+ * crashes or fails the health check
+ *
+ * <p>frame: 1 byte type + 4 bytes big-endian payload length + utf-8 payload; the worker replies
+ * FRAME_OK/FRAME_ERROR for a request and FRAME_OK for FRAME_PING, anything the script prints
+ * should go to stderr which is forwarded to the log
+ */
+public class PythonWorkerProcess implements Closeable {
+    private static final Logger logger = LoggerFactory.getLogger(PythonWorkerProcess.class);
+
+    public static final byte FRAME_PING = 'P';
+    public static final byte FRAME_OK = 'O';
+    public static final byte FRAME_ERROR = 'E';
+
+    private static final int MAX_FRAME_LENGTH = 64 * 1024 * 1024;
+
+    private final String name;
+    private final String pythonInterpreter;
+    private final String scriptContent;
+    private final Map<String, String> environmentVariables = new HashMap<>();
+    private final long requestTimeoutMs;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final ExecutorService ioExecutor;
+    private final ScheduledExecutorService healthChecker;
+
+    private Process process;
+    private Path scriptPath;
+    private DataInputStream inputStream;
+    private DataOutputStream outputStream;
+    private long startCount = 0;
+    private volatile boolean closed = false;
+
+    private static class Frame {
+        private final byte type;
+        private final String payload;
+
+        Frame(byte type, String payload) {
+            this.type = type;
+            this.payload = payload;
+        }
+    }
+
+    public PythonWorkerProcess(
+            String name,
+            String pythonInterpreter,
+            String scriptContent,
+            Map<String, String> environmentVariables,
+            long requestTimeoutMs,
+            long healthCheckIntervalMs) {
+        this.name = name;
+        this.pythonInterpreter = pythonInterpreter;
+        this.scriptContent = scriptContent;
+        this.environmentVariables.putAll(System.getenv());
+        if (environmentVariables != null) {
+            this.environmentVariables.putAll(environmentVariables);
+        }
+        this.requestTimeoutMs = requestTimeoutMs;
+        this.ioExecutor =
+                Executors.newSingleThreadExecutor(
+                        new BasicThreadFactory.Builder()
+                                .namingPattern(name + "-io-%d")
+                                .daemon(true)
+                                .build());
+        this.healthChecker =
+                Executors.newSingleThreadScheduledExecutor(
+                        new BasicThreadFactory.Builder()
+                                .namingPattern(name + "-health-%d")
+                                .daemon(true)
+                                .build());
+        this.healthChecker.scheduleWithFixedDelay(
+                this::checkHealth,
+                healthCheckIntervalMs,
+                healthCheckIntervalMs,
+                TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * send the request and wait for the reply, a worker that crashed is restarted and the request
+     * is retried once; a FRAME_ERROR reply is thrown as WeDPRException
+     */
+    public String call(byte frameType, String payload) throws WeDPRException {
+        lock.lock();
+        try {
+            Frame reply;
+            try {
+                reply = exchange(frameType, payload);
+            } catch (IOException e) {
+                logger.warn("python worker {} crashed, restart and retry, e: ", name, e);
+                destroy();
+                try {
+                    reply = exchange(frameType, payload);
+                } catch (IOException retryException) {
+                    destroy();
+                    throw new WeDPRException(
+                            "the python worker " + name + " crashed", retryException);
+                }
+            }
+            if (reply.type == FRAME_ERROR) {
+                throw new WeDPRException(
+                        "the python worker " + name + " execute failed, output: " + reply.payload);
+            }
+            return reply.payload;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public boolean isAlive() {
+        return process != null && process.isAlive();
+    }
+
+    // must be called with the lock held
+    private Frame exchange(byte frameType, String payload) throws IOException, WeDPRException {
+        if (closed) {
+            throw new WeDPRException("the python worker " + name + " has been closed");
+        }
+        ensureStarted();
+        Future<Frame> future =
+                ioExecutor.submit(
+                        () -> {
+                            writeFrame(frameType, payload);
+                            return readFrame();
+                        });
+        try {
+            return future.get(requestTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            // the stuck worker is killed, the next request starts a new one
+            future.cancel(true);
+            destroy();
+            throw new WeDPRException(
+                    "the python worker " + name + " timeout after " + requestTimeoutMs + "ms");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            future.cancel(true);
+            destroy();
+            throw new WeDPRException("interrupted while waiting for python worker " + name, e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new WeDPRException(
+                    "the python worker " + name + " exchange failed", e.getCause());
+        }
+    }
+
+    private void ensureStarted() throws IOException {
+        if (isAlive()) {
+            return;
+        }
+        destroy();
+        scriptPath =
+                Paths.get(
+                        System.getProperty("java.io.tmpdir")
+                                + File.separator
+                                + name
+                                + "-"
+                                + UUID.randomUUID()
+                                + ".py");
+        Files.write(scriptPath, scriptContent.getBytes(StandardCharsets.UTF_8));
+
+        ProcessBuilder processBuilder =
+                new ProcessBuilder(pythonInterpreter, "-u", scriptPath.toString());
+        processBuilder.environment().putAll(environmentVariables);
+        process = processBuilder.start();
+        startCount++;
+        inputStream = new DataInputStream(new BufferedInputStream(process.getInputStream()));
+        outputStream = new DataOutputStream(new BufferedOutputStream(process.getOutputStream()));
+        forwardStderr(process);
+        logger.info(
+                "start python worker {}, script: {}, startCount: {}",
+                name,
+                scriptPath,
+                startCount);
+    }
+
+    private void forwardStderr(Process workerProcess) {
+        Thread thread =
+                new Thread(
+                        () -> {
+                            try (BufferedReader reader =
+                                    new BufferedReader(
+                                            new InputStreamReader(
+                                                    workerProcess.getErrorStream(),
+                                                    StandardCharsets.UTF_8))) {
+                                String line;
+                                while ((line = reader.readLine()) != null) {
+                                    logger.info("[{}] {}", name, line);
+                                }
+                            } catch (IOException e) {
+                                logger.debug("python worker {} stderr closed", name);
+                            }
+                        },
+                        name + "-stderr");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private void writeFrame(byte frameType, String payload) throws IOException {
+        byte[] data = payload.getBytes(StandardCharsets.UTF_8);
+        outputStream.writeByte(frameType);
+        outputStream.writeInt(data.length);
+        outputStream.write(data);
+        outputStream.flush();
+    }
+
+    private Frame readFrame() throws IOException {
+        // EOFException (an IOException) when the worker exits
+        byte frameType = inputStream.readByte();
+        int length = inputStream.readInt();
+        if (length < 0 || length > MAX_FRAME_LENGTH) {
+            throw new IOException("invalid frame length " + length + " from python worker " + name);
+        }
+        byte[] data = new byte[length];
+        inputStream.readFully(data);
+        return new Frame(frameType, new String(data, StandardCharsets.UTF_8));
+    }
+
+    private void checkHealth() {
+        // skip the check when a request is in flight, the request itself detects the crash
+        if (closed || !lock.tryLock()) {
+            return;
+        }
+        try {
+            if (process == null) {
+                return;
+            }
+            try {
+                exchange(FRAME_PING, "");
+            } catch (Exception e) {
+                logger.warn("python worker {} health check failed, restart it, e: ", name, e);
+                destroy();
+                exchange(FRAME_PING, "");
+            }
+        } catch (Exception e) {
+            logger.warn("restart python worker {} failed, e: ", name, e);
+            destroy();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void destroy() {
+        if (process != null) {
+            process.destroyForcibly();
+            process = null;
+        }
+        inputStream = null;
+        outputStream = null;
+        if (scriptPath != null) {
+            try {
+                Files.deleteIfExists(scriptPath);
+            } catch (IOException e) {
+                logger.warn("remove python worker script {} failed, e: ", scriptPath, e);
+            }
+            scriptPath = null;
+        }
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        healthChecker.shutdownNow();
+        lock.lock();
+        try {
+            destroy();
+        } finally {
+            lock.unlock();
+        }
+        ioExecutor.shutdownNow();
+    }
+}
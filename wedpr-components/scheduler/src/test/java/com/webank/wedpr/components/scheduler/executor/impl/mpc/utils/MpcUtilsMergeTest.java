@@ -0,0 +1,267 @@
+package com.webank.wedpr.components.scheduler.executor.impl.mpc.utils;
+
+import com.opencsv.CSVReader;
+import com.opencsv.CSVWriter;
+import com.opencsv.ICSVWriter;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * compare the output of mergeAndSortById with the TreeSet/TreeMap merge it replaced, on the
+ * in-memory, the row-spill and the id-spill paths
+ *
+ * <p>the benchmark runs only when WEDPR_MPC_MERGE_BENCHMARK_ROWS is set, e.g.
+ * WEDPR_MPC_MERGE_BENCHMARK_ROWS=10000000 ./gradlew :wedpr-components-scheduler:test --tests
+ * '*MpcUtilsMergeTest.benchmark'; WEDPR_MPC_MERGE_BENCHMARK_BUDGET_MB sets the budget(default 256),
+ * and WEDPR_MPC_MERGE_BENCHMARK_REFERENCE=true also times the old merge and compares the output,
+ * which needs a test heap large enough for the old merge
+ */
+public class MpcUtilsMergeTest {
+    private static final int DATASET_COLUMN_COUNT = 2;
+
+    @Rule public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void testInMemoryMerge() throws Exception {
+        long memoryBudgetBytes = 64L * 1024 * 1024;
+        File dir = temporaryFolder.newFolder();
+        generateFiles(dir, 20000, 15000, 10000, 1);
+        Assert.assertFalse(spillsIds(dir, memoryBudgetBytes));
+        Assert.assertFalse(spillsRows(dir, memoryBudgetBytes));
+        checkSameOutput(dir, memoryBudgetBytes, true);
+        checkSameOutput(dir, memoryBudgetBytes, false);
+    }
+
+    @Test
+    public void testRowSpillMerge() throws Exception {
+        long memoryBudgetBytes = 256L * 1024;
+        File dir = temporaryFolder.newFolder();
+        generateFiles(dir, 20000, 15000, 10000, 2);
+        Assert.assertFalse(spillsIds(dir, memoryBudgetBytes));
+        Assert.assertTrue(spillsRows(dir, memoryBudgetBytes));
+        checkSameOutput(dir, memoryBudgetBytes, true);
+        checkSameOutput(dir, memoryBudgetBytes, false);
+    }
+
+    @Test
+    public void testIdSpillMerge() throws Exception {
+        long memoryBudgetBytes = 16L * 1024;
+        File dir = temporaryFolder.newFolder();
+        generateFiles(dir, 20000, 15000, 10000, 3);
+        Assert.assertTrue(spillsIds(dir, memoryBudgetBytes));
+        checkSameOutput(dir, memoryBudgetBytes, true);
+        checkSameOutput(dir, memoryBudgetBytes, false);
+    }
+
+    @Test
+    public void benchmark() throws Exception {
+        String rows = System.getenv("WEDPR_MPC_MERGE_BENCHMARK_ROWS");
+        Assume.assumeTrue(rows != null && !rows.isEmpty());
+        int rowCount = Integer.parseInt(rows);
+        String budget = System.getenv("WEDPR_MPC_MERGE_BENCHMARK_BUDGET_MB");
+        long memoryBudgetBytes =
+                (budget == null || budget.isEmpty() ? 256L : Long.parseLong(budget)) * 1024 * 1024;
+        File dir = temporaryFolder.newFolder();
+        // half of the ids are in the psi result
+        generateFiles(dir, rowCount, rowCount, rowCount / 2, 4);
+
+        long startTimeMillis = System.currentTimeMillis();
+        long count = merge(dir, "result.csv", memoryBudgetBytes, true);
+        long costMillis = Math.max(1, System.currentTimeMillis() - startTimeMillis);
+        System.out.println(
+                "mergeAndSortById, rows: "
+                        + rowCount
+                        + ", budget(MB): "
+                        + memoryBudgetBytes / 1024 / 1024
+                        + ", selected: "
+                        + count
+                        + ", cost(ms): "
+                        + costMillis
+                        + ", rows/s: "
+                        + rowCount * 1000L / costMillis);
+
+        if (!"true".equals(System.getenv("WEDPR_MPC_MERGE_BENCHMARK_REFERENCE"))) {
+            return;
+        }
+        startTimeMillis = System.currentTimeMillis();
+        long referenceCount = referenceMerge(dir, "reference.csv", true);
+        costMillis = Math.max(1, System.currentTimeMillis() - startTimeMillis);
+        System.out.println(
+                "reference merge, rows: "
+                        + rowCount
+                        + ", cost(ms): "
+                        + costMillis
+                        + ", rows/s: "
+                        + rowCount * 1000L / costMillis);
+        Assert.assertEquals(referenceCount, count);
+        assertSameBytes(new File(dir, "reference.csv"), new File(dir, "result.csv"));
+    }
+
+    private void checkSameOutput(File dir, long memoryBudgetBytes, boolean withHeader)
+            throws Exception {
+        long count = merge(dir, "result.csv", memoryBudgetBytes, withHeader);
+        long referenceCount = referenceMerge(dir, "reference.csv", withHeader);
+        Assert.assertEquals(referenceCount, count);
+        assertSameBytes(new File(dir, "reference.csv"), new File(dir, "result.csv"));
+        // the spilled runs are removed
+        String[] leftFiles = dir.list((d, name) -> name.endsWith(".run"));
+        Assert.assertEquals(0, leftFiles == null ? 0 : leftFiles.length);
+    }
+
+    private static void assertSameBytes(File expected, File actual) throws Exception {
+        Assert.assertTrue(expected.length() > 0);
+        Assert.assertArrayEquals(
+                Files.readAllBytes(expected.toPath()), Files.readAllBytes(actual.toPath()));
+    }
+
+    private static long merge(File dir, String resultFile, long memoryBudgetBytes, boolean header)
+            throws Exception {
+        return MpcUtils.mergeAndSortById(
+                "test",
+                new File(dir, "dataset.csv").getPath(),
+                new File(dir, "psi.csv").getPath(),
+                new File(dir, resultFile).getPath(),
+                DATASET_COLUMN_COUNT,
+                header,
+                memoryBudgetBytes);
+    }
+
+    /**
+     * the dataset has duplicated and negative ids, and values that need quoting; the psi result
+     * has duplicated ids and ids not in the dataset
+     */
+    private static void generateFiles(
+            File dir, int datasetRows, int idRange, int psiRows, long seed) throws Exception {
+        Random random = new Random(seed);
+        try (CSVWriter writer =
+                new CSVWriter(new BufferedWriter(new FileWriter(new File(dir, "dataset.csv"))))) {
+            writer.writeNext(new String[] {MpcUtils.MPC_FIELD_ID_NAME, "x", "y"}, false);
+            for (int i = 0; i < datasetRows; i++) {
+                int id = random.nextInt(idRange) - idRange / 4;
+                String value = random.nextInt(8) == 0 ? "a \"b\" " + i : String.valueOf(i);
+                writer.writeNext(
+                        new String[] {
+                            String.valueOf(id), value, String.valueOf(random.nextInt(1000))
+                        },
+                        false);
+            }
+        }
+        try (CSVWriter writer =
+                new CSVWriter(new BufferedWriter(new FileWriter(new File(dir, "psi.csv"))))) {
+            writer.writeNext(new String[] {MpcUtils.MPC_FIELD_ID_NAME}, false);
+            for (int i = 0; i < psiRows; i++) {
+                int id = random.nextInt(idRange + idRange / 10) - idRange / 4;
+                writer.writeNext(new String[] {String.valueOf(id)}, false);
+            }
+        }
+    }
+
+    // guard that the case takes the intended path: the psi ids exceed the budget or not
+    private static boolean spillsIds(File dir, long memoryBudgetBytes) throws Exception {
+        try (ExternalIntSorter sorter = new ExternalIntSorter(dir, "guard", memoryBudgetBytes)) {
+            MpcUtils.loadIdFieldValuesFromFile(
+                    "test", new File(dir, "psi.csv").getPath(), sorter);
+            return sorter.spilled();
+        }
+    }
+
+    // guard that the case takes the intended path: the selected rows exceed the budget or not
+    private static boolean spillsRows(File dir, long memoryBudgetBytes) throws Exception {
+        Set<Integer> psiIds = loadPsiIds(dir);
+        long idMemoryBytes;
+        try (ExternalIntSorter sorter = new ExternalIntSorter(dir, "guard", memoryBudgetBytes)) {
+            MpcUtils.loadIdFieldValuesFromFile(
+                    "test", new File(dir, "psi.csv").getPath(), sorter);
+            idMemoryBytes = sorter.getMemoryBytes();
+        }
+        long rowMemoryBudgetBytes =
+                Math.max(memoryBudgetBytes - idMemoryBytes, memoryBudgetBytes / 4);
+        try (ExternalRowSorter sorter = new ExternalRowSorter(dir, "guard", rowMemoryBudgetBytes);
+                CSVReader reader =
+                        new CSVReader(
+                                new BufferedReader(
+                                        new FileReader(new File(dir, "dataset.csv"))))) {
+            reader.readNextSilently();
+            String[] line;
+            while ((line = reader.readNext()) != null) {
+                int id = Integer.parseInt(line[0]);
+                if (psiIds.contains(id)) {
+                    sorter.add(id, Arrays.copyOfRange(line, 1, line.length));
+                }
+            }
+            return sorter.spilled();
+        }
+    }
+
+    private static Set<Integer> loadPsiIds(File dir) throws Exception {
+        Set<Integer> psiIds = new TreeSet<>();
+        try (CSVReader reader =
+                new CSVReader(new BufferedReader(new FileReader(new File(dir, "psi.csv"))))) {
+            reader.readNextSilently();
+            String[] line;
+            while ((line = reader.readNext()) != null) {
+                psiIds.add(Integer.valueOf(line[0]));
+            }
+        }
+        return psiIds;
+    }
+
+    /** the TreeSet/TreeMap merge replaced by the external sort */
+    private static long referenceMerge(File dir, String resultFile, boolean withHeader)
+            throws Exception {
+        Set<Integer> psiIds = loadPsiIds(dir);
+        String datasetFilePath = new File(dir, "dataset.csv").getPath();
+        List<String> selectFieldNames = MpcUtils.makeSelectFields(DATASET_COLUMN_COUNT);
+        Map<Integer, String[]> id2Lines = new TreeMap<>();
+        long totalReadLineNum = 0;
+        try (CSVReader reader =
+                new CSVReader(new BufferedReader(new FileReader(datasetFilePath)))) {
+            List<String> originalFieldNames = Arrays.asList(reader.readNextSilently());
+            List<String> normalizedFieldNames =
+                    MpcUtils.makeFieldNamesNormalized(datasetFilePath, originalFieldNames);
+            int idFieldIndex = MpcUtils.getIdFieldIndex(datasetFilePath, originalFieldNames);
+            List<Integer> selectFieldsIndex =
+                    MpcUtils.makeSelectFieldsIndex(selectFieldNames, normalizedFieldNames);
+            String[] line;
+            while ((line = reader.readNext()) != null) {
+                Integer id = Integer.valueOf(line[idFieldIndex]);
+                if (!psiIds.contains(id)) {
+                    continue;
+                }
+                id2Lines.put(id, MpcUtils.makeNextLine(line, selectFieldsIndex));
+                totalReadLineNum++;
+            }
+        }
+        try (CSVWriter writer =
+                new CSVWriter(
+                        new BufferedWriter(new FileWriter(new File(dir, resultFile))),
+                        ' ',
+                        ICSVWriter.DEFAULT_QUOTE_CHARACTER,
+                        ICSVWriter.DEFAULT_ESCAPE_CHARACTER,
+                        ICSVWriter.DEFAULT_LINE_END)) {
+            if (withHeader) {
+                writer.writeNext(selectFieldNames.toArray(new String[0]), false);
+            }
+            for (String[] value : id2Lines.values()) {
+                writer.writeNext(value, false);
+            }
+        }
+        return totalReadLineNum;
+    }
+}
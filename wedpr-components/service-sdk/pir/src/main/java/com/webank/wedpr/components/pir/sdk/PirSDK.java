@@ -19,10 +19,23 @@ import com.webank.wedpr.common.utils.WeDPRResponse;
 import com.webank.wedpr.components.api.credential.core.impl.CredentialInfo;
 import com.webank.wedpr.components.pir.sdk.model.PirQueryParam;
 import com.webank.wedpr.components.pir.sdk.model.PirResult;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import org.apache.commons.lang3.tuple.Pair;
 
 public interface PirSDK {
 
     public abstract Pair<WeDPRResponse, PirResult> query(
             CredentialInfo credentialInfo, PirQueryParam queryParam) throws Exception;
+
+    /** query without blocking the caller, the future completes when all chunks are decrypted */
+    public abstract CompletableFuture<Pair<WeDPRResponse, PirResult>> queryAsync(
+            CredentialInfo credentialInfo, PirQueryParam queryParam);
+
+    /**
+     * pipeline the queries over the transport, the failed query is returned as a failed response
+     * at the same position of the queryParams
+     */
+    public abstract CompletableFuture<List<Pair<WeDPRResponse, PirResult>>> batchQueryAsync(
+            CredentialInfo credentialInfo, List<PirQueryParam> queryParams);
 }
@@ -29,8 +29,27 @@ public class PirSDKConfig {
     private static Integer PIR_THREAD_POOL_QUEUE_SIZE_LIMIT =
             WeDPRConfig.apply("wedpr.pir.threadpool.queue.size.limit", 10000);
 
+    // negotiate the binary wire encoding with the pir service or not
+    private static Boolean PIR_BINARY_WIRE_ENABLED =
+            WeDPRConfig.apply("wedpr.pir.wire.binary.enabled", true);
+
+    // the searchIDs queried and decrypted per round trip, <= 0 means query all in one request
+    private static Integer PIR_QUERY_CHUNK_SIZE =
+            WeDPRConfig.apply("wedpr.pir.query.chunk_size", 100);
+
+    // the max in-flight chunk requests of one query
+    private static Integer PIR_QUERY_CHUNK_MAX_INFLIGHT =
+            WeDPRConfig.apply("wedpr.pir.query.chunk.max_inflight", 4);
+
+    // the max in-flight queries of one batch query
+    private static Integer PIR_QUERY_MAX_INFLIGHT =
+            WeDPRConfig.apply("wedpr.pir.query.max_inflight", 1024);
+
     private static final ThreadPoolService threadPoolService =
             new ThreadPoolService("pir-workers", PirSDKConfig.getPirThreadPoolQueueSizeLimit());
+    // decode and decrypt the query results of the sdk
+    private static final ThreadPoolService sdkThreadPoolService =
+            new ThreadPoolService("pir-sdk-workers", PirSDKConfig.getPirThreadPoolQueueSizeLimit());
 
     public static Integer getPirThreadPoolQueueSizeLimit() {
         return PIR_THREAD_POOL_QUEUE_SIZE_LIMIT;
@@ -40,6 +59,10 @@ public class PirSDKConfig {
         return threadPoolService;
     }
 
+    public static ThreadPoolService getSdkThreadPoolService() {
+        return sdkThreadPoolService;
+    }
+
     public static String getPirComponent(String serviceID) {
         return PIR_COMPONENT_PREFIX + "_" + serviceID;
     }
@@ -55,4 +78,20 @@ public class PirSDKConfig {
     public static String getPirCacheDir() {
         return PIR_CACHE_DIR;
     }
+
+    public static Boolean getPirBinaryWireEnabled() {
+        return PIR_BINARY_WIRE_ENABLED;
+    }
+
+    public static Integer getPirQueryChunkSize() {
+        return PIR_QUERY_CHUNK_SIZE;
+    }
+
+    public static Integer getPirQueryChunkMaxInflight() {
+        return Math.max(1, PIR_QUERY_CHUNK_MAX_INFLIGHT);
+    }
+
+    public static Integer getPirQueryMaxInflight() {
+        return PIR_QUERY_MAX_INFLIGHT;
+    }
 }
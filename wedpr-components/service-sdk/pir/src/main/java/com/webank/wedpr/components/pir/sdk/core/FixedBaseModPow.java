@@ -0,0 +1,99 @@
+/*
+ * Copyright 2017-2025  [webank-wedpr]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+package com.webank.wedpr.components.pir.sdk.core;
+
+import java.math.BigInteger;
+
+/**
+ * the fixed-base windowed modular exponentiation: table[i][j] = base^(j * 2^(i * window)) mod N is
+ * precomputed, so base^e mod N only costs one multiplication per non-zero window of e and no
+ * squaring; the products are reduced with the Barrett reduction to avoid the long division of
+ * BigInteger.mod
+ */
+public class FixedBaseModPow {
+    private final BigInteger base;
+    private final BigInteger modulus;
+    private final int window;
+    private final int maxExponentBits;
+    private final BigInteger[][] table;
+    // for barrett reduction: mu = floor(2^(2k) / N)
+    private final int modulusBits;
+    private final BigInteger mu;
+
+    public FixedBaseModPow(BigInteger base, BigInteger modulus, int window) {
+        this(base, modulus, window, modulus.bitLength());
+    }
+
+    public FixedBaseModPow(BigInteger base, BigInteger modulus, int window, int maxExponentBits) {
+        this.base = base;
+        this.modulus = modulus;
+        this.window = window;
+        this.maxExponentBits = maxExponentBits;
+        this.modulusBits = modulus.bitLength();
+        this.mu = BigInteger.ONE.shiftLeft(2 * modulusBits).divide(modulus);
+        int windows = (maxExponentBits + window - 1) / window;
+        int windowSize = 1 << window;
+        this.table = new BigInteger[windows][windowSize];
+        BigInteger windowBase = base.mod(modulus);
+        for (int i = 0; i < windows; i++) {
+            table[i][0] = BigInteger.ONE;
+            for (int j = 1; j < windowSize; j++) {
+                table[i][j] = reduce(table[i][j - 1].multiply(windowBase));
+            }
+            // base^(2^((i + 1) * window))
+            windowBase = reduce(table[i][windowSize - 1].multiply(windowBase));
+        }
+    }
+
+    // x mod N for 0 <= x < N^2
+    private BigInteger reduce(BigInteger x) {
+        BigInteger q = x.shiftRight(modulusBits - 1).multiply(mu).shiftRight(modulusBits + 1);
+        BigInteger r = x.subtract(q.multiply(modulus));
+        while (r.compareTo(modulus) >= 0) {
+            r = r.subtract(modulus);
+        }
+        return r;
+    }
+
+    /** base^exponent mod N, the same result as base.modPow(exponent, N) */
+    public BigInteger pow(BigInteger exponent) {
+        if (exponent.signum() < 0) {
+            return pow(exponent.negate()).modInverse(modulus);
+        }
+        if (exponent.bitLength() > maxExponentBits) {
+            return base.modPow(exponent, modulus);
+        }
+        BigInteger result = BigInteger.ONE;
+        int windows = (exponent.bitLength() + window - 1) / window;
+        for (int i = 0; i < windows; i++) {
+            int digit = 0;
+            for (int bit = 0; bit < window; bit++) {
+                if (exponent.testBit(i * window + bit)) {
+                    digit |= (1 << bit);
+                }
+            }
+            if (digit != 0) {
+                result = reduce(result.multiply(table[i][digit]));
+            }
+        }
+        // Note: the modulus 1 case
+        return result.mod(modulus);
+    }
+
+    public BigInteger getBase() {
+        return base;
+    }
+}
@@ -51,4 +51,9 @@ public class ObfuscateData {
         setY(y);
         setObfuscateDataItems(obfuscateDataItems);
     }
+
+    /** the obfuscate data of the items in [fromIndex, toIndex) */
+    public ObfuscateData slice(int fromIndex, int toIndex) {
+        return new ObfuscateData(b, x, y, obfuscateDataItems.subList(fromIndex, toIndex), params);
+    }
 }
@@ -35,7 +35,11 @@ public class ObfuscateQueryResult {
         this.algorithmType = algorithmType;
     }
 
-    public static ObfuscateQueryResult deserialize(Object data) throws Exception {
+    public static ObfuscateQueryResult deserialize(Object data) {
+        // decoded from the binary wire
+        if (data instanceof ObfuscateQueryResult) {
+            return (ObfuscateQueryResult) data;
+        }
         return ObjectMapperFactory.getObjectMapper().convertValue(data, ObfuscateQueryResult.class);
     }
 }
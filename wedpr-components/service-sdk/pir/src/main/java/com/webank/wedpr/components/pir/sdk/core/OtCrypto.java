@@ -134,7 +134,7 @@ public class OtCrypto {
                 String key =
                         new String(Common.bigIntegerToBytes(w1.xor(e)), StandardCharsets.UTF_8);
                 SymmetricCrypto symmetricCrypto =
-                        CryptoToolkitFactory.buildAESSymmetricCrypto(
+                        CryptoToolkitFactory.buildOneTimeAESSymmetricCrypto(
                                 key, Constant.DEFAULT_IV.getBytes(StandardCharsets.UTF_8));
                 String decryptedText = symmetricCrypto.decrypt(cipherStr);
                 if (result.getPirKey().equalsIgnoreCase(searchID)) {
@@ -161,6 +161,23 @@ public class OtCrypto {
             List<String> seachIDList,
             List<OtResult> otResultList) {
         List<PirResult.PirResultItem> pirResultItemList = new ArrayList<>();
+        decryptResultChunk(searchType, blindingB, seachIDList, otResultList, pirResultItemList);
+        return new PirResult(searchType.getValue(), pirResultItemList);
+    }
+
+    /**
+     * decrypt the otResults of one chunk and append the found items into pirResultItemList, the
+     * otResults are no longer referenced after return
+     *
+     * @param seachIDList the searchIDs of the chunk
+     * @param otResultList the otResults of the chunk, one for each searchID
+     */
+    public static void decryptResultChunk(
+            PirSearchType searchType,
+            BigInteger blindingB,
+            List<String> seachIDList,
+            List<OtResult> otResultList,
+            List<PirResult.PirResultItem> pirResultItemList) {
         for (int i = 0; i < seachIDList.size(); i++) {
             // not exist case, and search value
             if (otResultList.get(i).hasNoResults() && searchType == PirSearchType.SearchValue) {
@@ -185,6 +202,5 @@ public class OtCrypto {
             }
             pirResultItemList.add(pirResultItem);
         }
-        return new PirResult(searchType.getValue(), pirResultItemList);
     }
 }
@@ -34,6 +34,12 @@ public class OtHelper {
                     "102724610959913950919762303151320427896415051258714708724768326174083057407299433043362228762657118029566890747043004760241559786931866234640457856691885192126363163670343672910761259882348623401714459980712242233796355982147797162316532450768783823909695360736554767341443201861573989081253763975895939627220");
 
     private static final SecureRandom RANDOM = new SecureRandom();
+    // the window(bits) of the fixed-base table for DEFAULT_G, which is built once at class init
+    private static final int DEFAULT_G_WINDOW = 8;
+    private static final FixedBaseModPow DEFAULT_G_POW =
+            new FixedBaseModPow(DEFAULT_G, DEFAULT_N, DEFAULT_G_WINDOW);
+    // the window(bits) of the fixed-base table built for the bases reused within one query
+    private static final int QUERY_BASE_WINDOW = 4;
 
     /** 生成随机数 * */
     public static BigInteger getRandomInt() {
@@ -46,7 +52,7 @@ public class OtHelper {
 
     /** b*G mod N */
     public static BigInteger powMod(BigInteger b) {
-        return DEFAULT_G.modPow(b, DEFAULT_N);
+        return DEFAULT_G_POW.pow(b);
     }
 
     /** a^b mod N */
@@ -54,6 +60,26 @@ public class OtHelper {
         return a.modPow(b, DEFAULT_N);
     }
 
+    /**
+     * build the fixed-base table for the base raised many times within one query, the table costs
+     * about 4000 multiplications, only worth for dozens of OTPow on the base
+     */
+    public static FixedBaseModPow buildFixedBasePow(BigInteger base) {
+        return new FixedBaseModPow(base, DEFAULT_N, QUERY_BASE_WINDOW);
+    }
+
+    /** a^b mod N, use the fixed-base table if exists, the table must be built for the base a */
+    public static BigInteger OTPow(FixedBaseModPow fixedBasePow, BigInteger a, BigInteger b) {
+        if (fixedBasePow == null) {
+            return OTPow(a, b);
+        }
+        if (!fixedBasePow.getBase().equals(a)) {
+            throw new IllegalArgumentException(
+                    "the fixed-base table mismatch with the base of OTPow");
+        }
+        return fixedBasePow.pow(b);
+    }
+
     /** a*b mod FI */
     public static BigInteger mulMod(BigInteger a, BigInteger b) {
         return a.multiply(b).mod(DEFAULT_FI);
@@ -0,0 +1,370 @@
+/*
+ * Copyright 2017-2025  [webank-wedpr]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+package com.webank.wedpr.components.pir.sdk.core;
+
+import com.webank.wedpr.common.utils.ObjectMapperFactory;
+import com.webank.wedpr.common.utils.WeDPRException;
+import com.webank.wedpr.common.utils.WeDPRResponse;
+import com.webank.wedpr.components.pir.sdk.model.PirQueryParam;
+import com.webank.wedpr.components.pir.sdk.model.PirQueryRequest;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * the compact binary encoding of the pir request/response
+ *
+ * <p>frame: MAGIC(4 bytes) | version(1 byte) | frameType(1 byte) | body, all the integers are
+ * big-endian, the BigIntegers are encoded as length-prefixed two's-complement bytes, and the
+ * strings/ciphertexts are length-prefixed(-1 means null). The json payload always starts with '{',
+ * so the binary frame can be detected by the magic and the json encoding stays as the fallback for
+ * the old peers.
+ */
+public class PirWireCodec {
+    public static final int WIRE_VERSION = 1;
+
+    private static final byte[] MAGIC = new byte[] {'W', 'P', 'I', 'R'};
+    private static final byte FRAME_TYPE_REQUEST = 1;
+    private static final byte FRAME_TYPE_RESPONSE = 2;
+    private static final int NULL_LENGTH = -1;
+
+    // the ciphertext is encoded as raw bytes when it is base64, otherwise as utf8 string
+    private static final byte CIPHER_RAW = 0;
+    private static final byte CIPHER_STRING = 1;
+
+    public static boolean isBinary(byte[] payload) {
+        if (payload == null || payload.length < MAGIC.length + 2) {
+            return false;
+        }
+        for (int i = 0; i < MAGIC.length; i++) {
+            if (payload[i] != MAGIC[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public static byte[] encodeRequest(PirQueryRequest request) throws Exception {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        DataOutputStream output = new DataOutputStream(buffer);
+        writeHeader(output, FRAME_TYPE_REQUEST);
+        // the queryParam is small, keep it json to follow the model changes
+        writeBytes(
+                output,
+                request.getQueryParam() == null
+                        ? null
+                        : ObjectMapperFactory.getObjectMapper()
+                                .writeValueAsBytes(request.getQueryParam()));
+        ObfuscateData obfuscateData = request.getObfuscateData();
+        output.writeBoolean(obfuscateData != null);
+        if (obfuscateData != null) {
+            writeObfuscateData(output, obfuscateData);
+        }
+        output.flush();
+        return buffer.toByteArray();
+    }
+
+    public static PirQueryRequest decodeRequest(byte[] payload) throws Exception {
+        DataInputStream input = new DataInputStream(new ByteArrayInputStream(payload));
+        readHeader(input, FRAME_TYPE_REQUEST);
+        PirQueryRequest request = new PirQueryRequest();
+        byte[] queryParamData = readBytes(input);
+        if (queryParamData != null) {
+            request.setQueryParam(
+                    ObjectMapperFactory.getObjectMapper()
+                            .readValue(queryParamData, PirQueryParam.class));
+        }
+        if (input.readBoolean()) {
+            request.setObfuscateData(readObfuscateData(input));
+        }
+        return request;
+    }
+
+    /** encode the response, the data should be null or ObfuscateQueryResult */
+    public static byte[] encodeResponse(WeDPRResponse response) throws Exception {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        DataOutputStream output = new DataOutputStream(buffer);
+        writeHeader(output, FRAME_TYPE_RESPONSE);
+        output.writeBoolean(response.getCode() != null);
+        if (response.getCode() != null) {
+            output.writeInt(response.getCode());
+        }
+        writeString(output, response.getMsg());
+        ObfuscateQueryResult result = ObfuscateQueryResult.deserialize(response.getData());
+        output.writeBoolean(result != null);
+        if (result != null) {
+            writeObfuscateQueryResult(output, result);
+        }
+        output.flush();
+        return buffer.toByteArray();
+    }
+
+    public static WeDPRResponse decodeResponse(byte[] payload) throws Exception {
+        DataInputStream input = new DataInputStream(new ByteArrayInputStream(payload));
+        readHeader(input, FRAME_TYPE_RESPONSE);
+        WeDPRResponse response = new WeDPRResponse();
+        if (input.readBoolean()) {
+            response.setCode(input.readInt());
+        }
+        response.setMsg(readString(input));
+        if (input.readBoolean()) {
+            response.setData(readObfuscateQueryResult(input));
+        }
+        return response;
+    }
+
+    private static void writeHeader(DataOutputStream output, byte frameType) throws IOException {
+        output.write(MAGIC);
+        output.writeByte(WIRE_VERSION);
+        output.writeByte(frameType);
+    }
+
+    private static void readHeader(DataInputStream input, byte expectedFrameType)
+            throws Exception {
+        byte[] magic = new byte[MAGIC.length];
+        input.readFully(magic);
+        if (!Arrays.equals(magic, MAGIC)) {
+            throw new WeDPRException("Invalid pir frame magic: " + Arrays.toString(magic));
+        }
+        int version = input.readUnsignedByte();
+        if (version > WIRE_VERSION) {
+            throw new WeDPRException("Unsupported pir wire version: " + version);
+        }
+        byte frameType = input.readByte();
+        if (frameType != expectedFrameType) {
+            throw new WeDPRException(
+                    "Invalid pir frame type, expected: "
+                            + expectedFrameType
+                            + ", actual: "
+                            + frameType);
+        }
+    }
+
+    private static void writeObfuscateData(DataOutputStream output, ObfuscateData obfuscateData)
+            throws IOException {
+        writeBigInteger(output, obfuscateData.getB());
+        writeBigInteger(output, obfuscateData.getX());
+        writeBigInteger(output, obfuscateData.getY());
+        List<ObfuscateData.ObfuscateDataItem> items = obfuscateData.getObfuscateDataItems();
+        output.writeInt(items == null ? NULL_LENGTH : items.size());
+        if (items != null) {
+            for (ObfuscateData.ObfuscateDataItem item : items) {
+                writeBigInteger(output, item.getZ0());
+                writeString(output, item.getFilter());
+                output.writeInt(item.getIdIndex());
+                writeStringList(output, item.getIdHashList());
+            }
+        }
+        String[] params = obfuscateData.getParams();
+        output.writeInt(params == null ? NULL_LENGTH : params.length);
+        if (params != null) {
+            for (String param : params) {
+                writeString(output, param);
+            }
+        }
+    }
+
+    private static ObfuscateData readObfuscateData(DataInputStream input) throws IOException {
+        ObfuscateData obfuscateData = new ObfuscateData();
+        obfuscateData.setB(readBigInteger(input));
+        obfuscateData.setX(readBigInteger(input));
+        obfuscateData.setY(readBigInteger(input));
+        int itemCount = input.readInt();
+        if (itemCount != NULL_LENGTH) {
+            List<ObfuscateData.ObfuscateDataItem> items = new ArrayList<>(itemCount);
+            for (int i = 0; i < itemCount; i++) {
+                ObfuscateData.ObfuscateDataItem item = new ObfuscateData.ObfuscateDataItem();
+                item.setZ0(readBigInteger(input));
+                item.setFilter(readString(input));
+                item.setIdIndex(input.readInt());
+                item.setIdHashList(readStringList(input));
+                items.add(item);
+            }
+            obfuscateData.setObfuscateDataItems(items);
+        }
+        int paramCount = input.readInt();
+        if (paramCount != NULL_LENGTH) {
+            String[] params = new String[paramCount];
+            for (int i = 0; i < paramCount; i++) {
+                params[i] = readString(input);
+            }
+            obfuscateData.setParams(params);
+        }
+        return obfuscateData;
+    }
+
+    private static void writeObfuscateQueryResult(
+            DataOutputStream output, ObfuscateQueryResult result) throws IOException {
+        writeString(output, result.getDatasetID());
+        writeString(output, result.getAlgorithmType());
+        List<OtResult> otResultList = result.getOtResultList();
+        output.writeInt(otResultList == null ? NULL_LENGTH : otResultList.size());
+        if (otResultList == null) {
+            return;
+        }
+        for (OtResult otResult : otResultList) {
+            writeOtResult(output, otResult);
+        }
+    }
+
+    private static ObfuscateQueryResult readObfuscateQueryResult(DataInputStream input)
+            throws IOException {
+        ObfuscateQueryResult result =
+                new ObfuscateQueryResult(readString(input), readString(input));
+        int resultCount = input.readInt();
+        if (resultCount == NULL_LENGTH) {
+            result.setOtResultList(null);
+            return result;
+        }
+        List<OtResult> otResultList = new ArrayList<>(resultCount);
+        for (int i = 0; i < resultCount; i++) {
+            otResultList.add(readOtResult(input));
+        }
+        result.setOtResultList(otResultList);
+        return result;
+    }
+
+    private static void writeOtResult(DataOutputStream output, OtResult otResult)
+            throws IOException {
+        List<OtResult.OtResultItem> items = otResult == null ? null : otResult.getOtResultItems();
+        output.writeInt(items == null ? NULL_LENGTH : items.size());
+        if (items == null) {
+            return;
+        }
+        for (OtResult.OtResultItem item : items) {
+            writeString(output, item.getPirKey());
+            writeBigInteger(output, item.getE());
+            writeBigInteger(output, item.getW());
+            writeCipher(output, item.getC());
+        }
+    }
+
+    private static OtResult readOtResult(DataInputStream input) throws IOException {
+        int itemCount = input.readInt();
+        if (itemCount == NULL_LENGTH) {
+            return new OtResult();
+        }
+        List<OtResult.OtResultItem> items = new ArrayList<>(itemCount);
+        for (int i = 0; i < itemCount; i++) {
+            OtResult.OtResultItem item = new OtResult.OtResultItem();
+            item.setPirKey(readString(input));
+            item.setE(readBigInteger(input));
+            item.setW(readBigInteger(input));
+            item.setC(readCipher(input));
+            items.add(item);
+        }
+        return new OtResult(items);
+    }
+
+    private static void writeCipher(DataOutputStream output, String cipher) throws IOException {
+        if (cipher != null) {
+            byte[] rawCipher = null;
+            try {
+                rawCipher = Base64.getDecoder().decode(cipher);
+            } catch (IllegalArgumentException ignored) {
+            }
+            // only the canonical base64 can be restored exactly
+            if (rawCipher != null
+                    && Base64.getEncoder().encodeToString(rawCipher).equals(cipher)) {
+                output.writeByte(CIPHER_RAW);
+                writeBytes(output, rawCipher);
+                return;
+            }
+        }
+        output.writeByte(CIPHER_STRING);
+        writeString(output, cipher);
+    }
+
+    private static String readCipher(DataInputStream input) throws IOException {
+        byte cipherType = input.readByte();
+        if (cipherType == CIPHER_RAW) {
+            return Base64.getEncoder().encodeToString(readBytes(input));
+        }
+        return readString(input);
+    }
+
+    private static void writeStringList(DataOutputStream output, List<String> values)
+            throws IOException {
+        output.writeInt(values == null ? NULL_LENGTH : values.size());
+        if (values == null) {
+            return;
+        }
+        for (String value : values) {
+            writeString(output, value);
+        }
+    }
+
+    private static List<String> readStringList(DataInputStream input) throws IOException {
+        int size = input.readInt();
+        if (size == NULL_LENGTH) {
+            return null;
+        }
+        List<String> values = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            values.add(readString(input));
+        }
+        return values;
+    }
+
+    private static void writeBigInteger(DataOutputStream output, BigInteger value)
+            throws IOException {
+        writeBytes(output, value == null ? null : value.toByteArray());
+    }
+
+    private static BigInteger readBigInteger(DataInputStream input) throws IOException {
+        byte[] data = readBytes(input);
+        return data == null ? null : new BigInteger(data);
+    }
+
+    private static void writeString(DataOutputStream output, String value) throws IOException {
+        writeBytes(output, value == null ? null : value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String readString(DataInputStream input) throws IOException {
+        byte[] data = readBytes(input);
+        return data == null ? null : new String(data, StandardCharsets.UTF_8);
+    }
+
+    private static void writeBytes(DataOutputStream output, byte[] value) throws IOException {
+        if (value == null) {
+            output.writeInt(NULL_LENGTH);
+            return;
+        }
+        output.writeInt(value.length);
+        output.write(value);
+    }
+
+    private static byte[] readBytes(DataInputStream input) throws IOException {
+        int length = input.readInt();
+        if (length == NULL_LENGTH) {
+            return null;
+        }
+        if (length < 0 || length > input.available()) {
+            throw new IOException("Invalid pir wire length: " + length);
+        }
+        byte[] data = new byte[length];
+        input.readFully(data);
+        return data;
+    }
+}
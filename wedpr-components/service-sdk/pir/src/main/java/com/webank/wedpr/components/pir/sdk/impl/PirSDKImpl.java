@@ -16,6 +16,7 @@
 package com.webank.wedpr.components.pir.sdk.impl;
 
 import com.webank.wedpr.common.utils.Constant;
+import com.webank.wedpr.common.utils.WeDPRException;
 import com.webank.wedpr.common.utils.WeDPRResponse;
 import com.webank.wedpr.components.api.credential.core.impl.CredentialInfo;
 import com.webank.wedpr.components.pir.sdk.PirSDK;
@@ -23,6 +24,8 @@ import com.webank.wedpr.components.pir.sdk.config.PirSDKConfig;
 import com.webank.wedpr.components.pir.sdk.core.ObfuscateData;
 import com.webank.wedpr.components.pir.sdk.core.ObfuscateQueryResult;
 import com.webank.wedpr.components.pir.sdk.core.OtCrypto;
+import com.webank.wedpr.components.pir.sdk.core.OtResult;
+import com.webank.wedpr.components.pir.sdk.core.PirWireCodec;
 import com.webank.wedpr.components.pir.sdk.model.PirQueryParam;
 import com.webank.wedpr.components.pir.sdk.model.PirQueryRequest;
 import com.webank.wedpr.components.pir.sdk.model.PirResult;
@@ -32,8 +35,17 @@ import com.webank.wedpr.sdk.jni.transport.IMessage;
 import com.webank.wedpr.sdk.jni.transport.WeDPRTransport;
 import com.webank.wedpr.sdk.jni.transport.handlers.MessageCallback;
 import com.webank.wedpr.sdk.jni.transport.handlers.MessageErrorCallback;
-import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
 import org.apache.commons.lang3.tuple.ImmutablePair;
 import org.apache.commons.lang3.tuple.Pair;
 import org.slf4j.Logger;
@@ -42,6 +54,46 @@ import org.slf4j.LoggerFactory;
 public class PirSDKImpl implements PirSDK {
     private static final Logger logger = LoggerFactory.getLogger(PirSDKImpl.class);
     private final WeDPRTransport transport;
+    // decrypt the results and send the next chunk, separated from the pir-workers that may block
+    // on the query
+    private final ExecutorService executor = PirSDKConfig.getSdkThreadPoolService().getThreadPool();
+    // serviceId => the service replied with the binary wire encoding or not
+    private final Map<String, Boolean> binaryWireServices = new ConcurrentHashMap<>();
+
+    /** the state of one query that is sent chunk by chunk */
+    private static class QueryContext {
+        private final PirQueryParam queryParam;
+        private final PirQueryParam nonSensitiveQueryParam;
+        private final ObfuscateData obfuscateData;
+        private final int chunkSize;
+        private final int chunkCount;
+        // the decrypted items of every chunk, joined in the searchID order once all received
+        private final List<List<PirResult.PirResultItem>> chunkResults;
+        private final AtomicInteger nextChunk = new AtomicInteger(0);
+        private final AtomicInteger pendingChunks;
+        private final CompletableFuture<Pair<WeDPRResponse, PirResult>> result =
+                new CompletableFuture<>();
+
+        public QueryContext(
+                PirQueryParam queryParam,
+                PirQueryParam nonSensitiveQueryParam,
+                ObfuscateData obfuscateData) {
+            this.queryParam = queryParam;
+            this.nonSensitiveQueryParam = nonSensitiveQueryParam;
+            this.obfuscateData = obfuscateData;
+            this.chunkSize =
+                    PirSDKConfig.getPirQueryChunkSize() > 0
+                            ? PirSDKConfig.getPirQueryChunkSize()
+                            : queryParam.getSearchIdList().size();
+            this.chunkCount = (getSearchIdCount() + chunkSize - 1) / chunkSize;
+            this.chunkResults = new ArrayList<>(Collections.nCopies(chunkCount, null));
+            this.pendingChunks = new AtomicInteger(chunkCount);
+        }
+
+        public int getSearchIdCount() {
+            return queryParam.getSearchIdList().size();
+        }
+    }
 
     public PirSDKImpl(WeDPRTransport transport) {
         this.transport = transport;
@@ -50,84 +102,245 @@ public class PirSDKImpl implements PirSDK {
     @Override
     public Pair<WeDPRResponse, PirResult> query(
             CredentialInfo credentialInfo, PirQueryParam queryParam) throws Exception {
-        queryParam.check(true);
-        logger.debug("Generate the obfuscate param");
-        ObfuscateData obfuscateData =
-                OtCrypto.generateOtParam(queryParam.getAlgorithmType(), queryParam);
-        logger.debug("Generate the obfuscate param success");
-        // Note: the searchIdList is sensitive that should not been passed to the pir-service
-        PirQueryParam nonSensitiveQueryParam = queryParam.clone();
-        nonSensitiveQueryParam.setSearchIdList(null);
-        // the api verify information
-        nonSensitiveQueryParam.setCredentialInfo(credentialInfo);
+        try {
+            return queryAsync(credentialInfo, queryParam).get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof Exception) {
+                throw (Exception) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    @Override
+    public CompletableFuture<Pair<WeDPRResponse, PirResult>> queryAsync(
+            CredentialInfo credentialInfo, PirQueryParam queryParam) {
+        try {
+            queryParam.check(true);
+            logger.debug("Generate the obfuscate param");
+            ObfuscateData obfuscateData =
+                    OtCrypto.generateOtParam(queryParam.getAlgorithmType(), queryParam);
+            logger.debug("Generate the obfuscate param success");
+            // Note: the searchIdList is sensitive that should not been passed to the pir-service
+            PirQueryParam nonSensitiveQueryParam = queryParam.clone();
+            nonSensitiveQueryParam.setSearchIdList(null);
+            // the api verify information
+            nonSensitiveQueryParam.setCredentialInfo(credentialInfo);
+            // advertise the binary wire encoding, the old service ignores it and replies with json
+            if (PirSDKConfig.getPirBinaryWireEnabled()) {
+                nonSensitiveQueryParam.setWireVersion(PirWireCodec.WIRE_VERSION);
+            }
+            return queryByChunk(
+                    new QueryContext(queryParam, nonSensitiveQueryParam, obfuscateData));
+        } catch (Exception e) {
+            CompletableFuture<Pair<WeDPRResponse, PirResult>> result = new CompletableFuture<>();
+            result.completeExceptionally(e);
+            return result;
+        }
+    }
+
+    @Override
+    public CompletableFuture<List<Pair<WeDPRResponse, PirResult>>> batchQueryAsync(
+            CredentialInfo credentialInfo, List<PirQueryParam> queryParams) {
+        List<CompletableFuture<Pair<WeDPRResponse, PirResult>>> results =
+                new ArrayList<>(queryParams.size());
+        for (int i = 0; i < queryParams.size(); i++) {
+            results.add(new CompletableFuture<>());
+        }
+        // keep at most maxInflight queries on the wire, the next query is sent once one finished
+        AtomicInteger cursor = new AtomicInteger(0);
+        int window = Math.min(PirSDKConfig.getPirQueryMaxInflight(), queryParams.size());
+        for (int i = 0; i < window; i++) {
+            sendNextQuery(credentialInfo, queryParams, results, cursor);
+        }
+        return CompletableFuture.allOf(results.toArray(new CompletableFuture[0]))
+                .thenApply(
+                        ignored ->
+                                results.stream()
+                                        .map(CompletableFuture::join)
+                                        .collect(Collectors.toList()));
+    }
+
+    private void sendNextQuery(
+            CredentialInfo credentialInfo,
+            List<PirQueryParam> queryParams,
+            List<CompletableFuture<Pair<WeDPRResponse, PirResult>>> results,
+            AtomicInteger cursor) {
+        int index = cursor.getAndIncrement();
+        if (index >= queryParams.size()) {
+            return;
+        }
+        // Note: the async callback avoids the deep recursion when the query fails immediately
+        queryAsync(credentialInfo, queryParams.get(index))
+                .whenCompleteAsync(
+                        (result, error) -> {
+                            if (error == null) {
+                                results.get(index).complete(result);
+                            } else {
+                                Throwable cause =
+                                        error instanceof CompletionException
+                                                        && error.getCause() != null
+                                                ? error.getCause()
+                                                : error;
+                                logger.warn(
+                                        "batchQueryAsync: query {} failed, service: {}, error: ",
+                                        index,
+                                        queryParams.get(index).getServiceId(),
+                                        cause);
+                                results.get(index)
+                                        .complete(
+                                                new ImmutablePair<>(
+                                                        new WeDPRResponse(
+                                                                Constant.WEDPR_FAILED,
+                                                                "pir query failed for "
+                                                                        + cause.getMessage()),
+                                                        null));
+                            }
+                            sendNextQuery(credentialInfo, queryParams, results, cursor);
+                        },
+                        executor);
+    }
+
+    /**
+     * query the searchIDs chunk by chunk, every chunk is an independent request that can be served
+     * by any pir service instance; at most chunk.max_inflight chunks are pipelined on the wire and
+     * every chunk is decrypted once received, so neither the service nor the client holds all the
+     * otResults in memory
+     */
+    protected CompletableFuture<Pair<WeDPRResponse, PirResult>> queryByChunk(QueryContext context) {
+        int window = Math.min(PirSDKConfig.getPirQueryChunkMaxInflight(), context.chunkCount);
+        for (int i = 0; i < window; i++) {
+            sendNextChunk(context);
+        }
+        return context.result;
+    }
+
+    private void sendNextChunk(QueryContext context) {
+        int chunkIndex = context.nextChunk.getAndIncrement();
+        if (chunkIndex >= context.chunkCount || context.result.isDone()) {
+            return;
+        }
+        int offset = chunkIndex * context.chunkSize;
+        int end = Math.min(offset + context.chunkSize, context.getSearchIdCount());
+        // Note: every chunk is an independent request, the service records one invocation for each
         PirQueryRequest pirQueryRequest =
-                new PirQueryRequest(nonSensitiveQueryParam, obfuscateData);
-        Pair<WeDPRResponse, ObfuscateQueryResult> result = submitQuery(pirQueryRequest);
-        if (result.getRight() == null) {
-            return new ImmutablePair<>(result.getLeft(), null);
-        }
-        // decrypt the result
-        PirResult pirResult =
-                OtCrypto.decryptAndGetResult(
-                        obfuscateData, queryParam, result.getRight().getOtResultList());
-        return new ImmutablePair<>(result.getLeft(), pirResult);
+                new PirQueryRequest(
+                        context.nonSensitiveQueryParam, context.obfuscateData.slice(offset, end));
+        submitQueryAsync(pirQueryRequest)
+                .whenCompleteAsync(
+                        (response, error) -> {
+                            try {
+                                if (error != null) {
+                                    context.result.completeExceptionally(error);
+                                    return;
+                                }
+                                ObfuscateQueryResult queryResult = toQueryResult(response);
+                                if (queryResult == null) {
+                                    context.result.complete(new ImmutablePair<>(response, null));
+                                    return;
+                                }
+                                context.chunkResults.set(
+                                        chunkIndex,
+                                        decryptChunk(context, offset, end, queryResult));
+                                if (context.pendingChunks.decrementAndGet() == 0) {
+                                    context.result.complete(
+                                            new ImmutablePair<>(response, mergeResult(context)));
+                                    return;
+                                }
+                                sendNextChunk(context);
+                            } catch (Exception e) {
+                                context.result.completeExceptionally(e);
+                            }
+                        },
+                        executor);
+    }
+
+    private PirResult mergeResult(QueryContext context) {
+        List<PirResult.PirResultItem> pirResultItems = new ArrayList<>();
+        for (List<PirResult.PirResultItem> chunkResult : context.chunkResults) {
+            pirResultItems.addAll(chunkResult);
+        }
+        return new PirResult(context.queryParam.getSearchTypeObject().getValue(), pirResultItems);
+    }
+
+    private List<PirResult.PirResultItem> decryptChunk(
+            QueryContext context, int offset, int end, ObfuscateQueryResult queryResult)
+            throws WeDPRException {
+        List<OtResult> otResultList = queryResult.getOtResultList();
+        if (otResultList == null || otResultList.size() != end - offset) {
+            throw new WeDPRException(
+                    "Invalid pir response for service "
+                            + context.queryParam.getServiceId()
+                            + ", expected results: "
+                            + (end - offset)
+                            + ", actual: "
+                            + (otResultList == null ? 0 : otResultList.size()));
+        }
+        List<PirResult.PirResultItem> pirResultItems = new ArrayList<>();
+        OtCrypto.decryptResultChunk(
+                context.queryParam.getSearchTypeObject(),
+                context.obfuscateData.getB(),
+                context.queryParam.getSearchIdList().subList(offset, end),
+                otResultList,
+                pirResultItems);
+        logger.debug(
+                "queryByChunk, service: {}, chunk: [{}, {}), total: {}",
+                context.queryParam.getServiceId(),
+                offset,
+                end,
+                context.getSearchIdCount());
+        return pirResultItems;
     }
 
-    protected Pair<WeDPRResponse, ObfuscateQueryResult> submitQuery(
-            PirQueryRequest pirQueryRequest) {
+    private ObfuscateQueryResult toQueryResult(WeDPRResponse response) {
+        if (response == null || !response.statusOk()) {
+            return null;
+        }
+        try {
+            return ObfuscateQueryResult.deserialize(response.getData());
+        } catch (Exception e) {
+            logger.warn("parse the pir query result exception: ", e);
+            response.setCode(Constant.WEDPR_FAILED);
+            response.setMsg("parse the pir query result exception for " + e.getMessage());
+            return null;
+        }
+    }
+
+    /** send the request, the returned future is completed with the decoded response */
+    protected CompletableFuture<WeDPRResponse> submitQueryAsync(PirQueryRequest pirQueryRequest) {
+        CompletableFuture<WeDPRResponse> queriedResult = new CompletableFuture<>();
+        String serviceId = pirQueryRequest.getQueryParam().getServiceId();
         try {
-            logger.debug(
-                    "submitQuery, targetService: {}",
-                    pirQueryRequest.getQueryParam().getServiceId());
-            CompletableFuture<WeDPRResponse> queriedResult = new CompletableFuture<>();
+            // send the binary request only after the service has replied with binary encoding
+            boolean binaryWire =
+                    pirQueryRequest.acceptBinaryWire()
+                            && binaryWireServices.getOrDefault(serviceId, false);
+            logger.debug("submitQuery, targetService: {}, binaryWire: {}", serviceId, binaryWire);
             // Note: the dstInst is unknown
             this.transport.asyncSendMessageByComponent(
-                    PirSDKConfig.getPirTopic(pirQueryRequest.getQueryParam().getServiceId()),
+                    PirSDKConfig.getPirTopic(serviceId),
                     null,
-                    PirSDKConfig.getPirComponent(pirQueryRequest.getQueryParam().getServiceId()),
-                    pirQueryRequest.serialize().getBytes(StandardCharsets.UTF_8),
+                    PirSDKConfig.getPirComponent(serviceId),
+                    pirQueryRequest.serializeToBytes(binaryWire),
                     0,
                     PirSDKConfig.getPirQueryTimeoutMs(),
                     new MessageErrorCallback() {
                         @Override
                         public void onErrorResult(Error error) {
-                            PirSDKConfig.getThreadPoolService()
-                                    .getThreadPool()
-                                    .execute(
-                                            new Runnable() {
-                                                @Override
-                                                public void run() {
-                                                    try {
-                                                        if (error == null
-                                                                || error.errorCode() == 0) {
-                                                            logger.debug(
-                                                                    "submitQuery: sendPirRequest success, targetService: {}",
-                                                                    pirQueryRequest
-                                                                            .getQueryParam()
-                                                                            .getServiceId());
-                                                            return;
-                                                        }
-                                                        logger.error(
-                                                                "submitQuery: sendPirRequest failed, targetService: {}, code: {}, msg: {}",
-                                                                pirQueryRequest
-                                                                        .getQueryParam()
-                                                                        .getServiceId(),
-                                                                error.errorCode(),
-                                                                error.errorMessage());
-                                                        queriedResult.complete(
-                                                                new WeDPRResponse(
-                                                                        (int) error.errorCode(),
-                                                                        error.errorMessage()));
-                                                    } catch (Exception e) {
-                                                        logger.warn(
-                                                                "submitQuery threadPool exception, service: {}, error: ",
-                                                                pirQueryRequest
-                                                                        .getQueryParam()
-                                                                        .getServiceId(),
-                                                                e);
-                                                    }
-                                                }
-                                            });
+                            if (error == null || error.errorCode() == 0) {
+                                logger.debug(
+                                        "submitQuery: sendPirRequest success, targetService: {}",
+                                        serviceId);
+                                return;
+                            }
+                            logger.error(
+                                    "submitQuery: sendPirRequest failed, targetService: {}, code: {}, msg: {}",
+                                    serviceId,
+                                    error.errorCode(),
+                                    error.errorMessage());
+                            queriedResult.complete(
+                                    new WeDPRResponse(
+                                            (int) error.errorCode(), error.errorMessage()));
                         }
                     },
                     new MessageCallback() {
@@ -136,63 +349,57 @@ public class PirSDKImpl implements PirSDK {
                                 Error error,
                                 IMessage message,
                                 SendResponseHandler sendResponseHandler) {
-                            PirSDKConfig.getThreadPoolService()
-                                    .getThreadPool()
-                                    .execute(
-                                            new Runnable() {
-                                                @Override
-                                                public void run() {
-                                                    try {
-                                                        if (error != null
-                                                                && error.errorCode() != 0) {
-                                                            logger.error(
-                                                                    "PirQuery failed, queryParam: {}, code: {}, msg: {}",
-                                                                    pirQueryRequest
-                                                                            .getQueryParam()
-                                                                            .toString(),
-                                                                    error.errorCode(),
-                                                                    error.errorMessage());
-                                                            queriedResult.complete(
-                                                                    new WeDPRResponse(
-                                                                            (int) error.errorCode(),
-                                                                            error.errorMessage()));
-                                                            return;
-                                                        }
-                                                        logger.debug(
-                                                                "PirQuery, get response from the server, msg: {}, payload: {}",
-                                                                message.toString(),
-                                                                new String(message.getPayload()));
-                                                        queriedResult.complete(
-                                                                WeDPRResponse.deserialize(
-                                                                        message.getPayload()));
-                                                    } catch (Exception e) {
-                                                        logger.warn(
-                                                                "PirQuery error, targetService: {}, parse the response message exception for ",
-                                                                pirQueryRequest
-                                                                        .getQueryParam()
-                                                                        .getServiceId(),
-                                                                e);
-                                                        queriedResult.complete(
-                                                                new WeDPRResponse(
-                                                                        Constant.WEDPR_FAILED,
-                                                                        e.getMessage()));
-                                                    }
-                                                }
-                                            });
+                            try {
+                                if (error != null && error.errorCode() != 0) {
+                                    logger.error(
+                                            "PirQuery failed, queryParam: {}, code: {}, msg: {}",
+                                            pirQueryRequest.getQueryParam().toString(),
+                                            error.errorCode(),
+                                            error.errorMessage());
+                                    queriedResult.complete(
+                                            new WeDPRResponse(
+                                                    (int) error.errorCode(),
+                                                    error.errorMessage()));
+                                    return;
+                                }
+                                logger.debug(
+                                        "PirQuery, get response from the server, msg: {}, payloadSize: {}",
+                                        message.toString(),
+                                        message.getPayload() == null
+                                                ? 0
+                                                : message.getPayload().length);
+                                queriedResult.complete(
+                                        decodeResponse(pirQueryRequest, message.getPayload()));
+                            } catch (Exception e) {
+                                logger.warn(
+                                        "PirQuery error, targetService: {}, parse the response message exception for ",
+                                        serviceId,
+                                        e);
+                                queriedResult.complete(
+                                        new WeDPRResponse(Constant.WEDPR_FAILED, e.getMessage()));
+                            }
                         }
                     });
-            WeDPRResponse queriedResponse = queriedResult.get();
-            if (!queriedResponse.statusOk()) {
-                return new ImmutablePair<>(queriedResponse, null);
-            }
-            return new ImmutablePair<>(
-                    queriedResponse, ObfuscateQueryResult.deserialize(queriedResponse.getData()));
         } catch (Exception e) {
             logger.warn("submitQuery exception: ", e);
-            return new ImmutablePair<>(
+            queriedResult.complete(
                     new WeDPRResponse(
-                            Constant.WEDPR_FAILED, "submitQuery exception for " + e.getMessage()),
-                    null);
+                            Constant.WEDPR_FAILED, "submitQuery exception for " + e.getMessage()));
+        }
+        return queriedResult;
+    }
+
+    protected WeDPRResponse decodeResponse(PirQueryRequest pirQueryRequest, byte[] payload)
+            throws Exception {
+        boolean binaryResponse = PirWireCodec.isBinary(payload);
+        if (pirQueryRequest.acceptBinaryWire()) {
+            // the service may be upgraded or downgraded, follow the latest response encoding
+            binaryWireServices.put(
+                    pirQueryRequest.getQueryParam().getServiceId(), binaryResponse);
+        }
+        if (binaryResponse) {
+            return PirWireCodec.decodeResponse(payload);
         }
+        return WeDPRResponse.deserialize(payload);
     }
 }
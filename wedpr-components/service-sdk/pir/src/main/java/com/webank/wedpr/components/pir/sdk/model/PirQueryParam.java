@@ -52,6 +52,8 @@ public class PirQueryParam implements Cloneable {
     private Integer obfuscationOrder = 9;
     // the filter length
     private Integer filterLength = 4;
+    // the max wire version accepted by the client, null means only the json encoding is accepted
+    private Integer wireVersion;
 
     public void generateCredentialInfo() {
         this.credentialInfo = new CredentialInfo();
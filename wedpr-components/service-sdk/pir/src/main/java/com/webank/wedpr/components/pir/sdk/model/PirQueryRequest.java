@@ -21,6 +21,8 @@ import com.webank.wedpr.common.utils.WeDPRException;
 import com.webank.wedpr.components.db.mapper.service.publish.model.PirSearchType;
 import com.webank.wedpr.components.db.mapper.service.publish.model.PirServiceSetting;
 import com.webank.wedpr.components.pir.sdk.core.ObfuscateData;
+import com.webank.wedpr.components.pir.sdk.core.PirWireCodec;
+import java.nio.charset.StandardCharsets;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -38,13 +40,30 @@ public class PirQueryRequest {
         return ObjectMapperFactory.getObjectMapper().writeValueAsString(this);
     }
 
+    public byte[] serializeToBytes(boolean binaryWire) throws Exception {
+        if (binaryWire) {
+            return PirWireCodec.encodeRequest(this);
+        }
+        return serialize().getBytes(StandardCharsets.UTF_8);
+    }
+
     public static PirQueryRequest deserialize(byte[] data) throws Exception {
         if (data == null) {
             return null;
         }
+        if (PirWireCodec.isBinary(data)) {
+            return PirWireCodec.decodeRequest(data);
+        }
         return ObjectMapperFactory.getObjectMapper().readValue(data, PirQueryRequest.class);
     }
 
+    /** the client accepts the binary encoded response or not */
+    public boolean acceptBinaryWire() {
+        return queryParam != null
+                && queryParam.getWireVersion() != null
+                && queryParam.getWireVersion() >= PirWireCodec.WIRE_VERSION;
+    }
+
     public void check(boolean requireSearchIdList) throws Exception {
         Common.requireNonNull("queryParam", queryParam);
         Common.requireNonNull("obfuscateData", obfuscateData);
@@ -8,11 +8,24 @@ public interface StorageStreamApi extends Closeable {
 
     InputStream stream();
 
+    /** @return the length of the file from the storage metadata */
     long length() throws IOException;
 
     long skip(long length) throws IOException;
 
     int read(byte[] buffer) throws IOException;
 
+    /**
+     * read up to length bytes of the file from the position, without reading the preceding data
+     * or changing the position of the stream
+     *
+     * @param position the position in the file
+     * @param buffer
+     * @param offset the offset in the buffer
+     * @param length
+     * @return the number of bytes read, -1 if the position is at the end of the file
+     */
+    int read(long position, byte[] buffer, int offset, int length) throws IOException;
+
     void close() throws IOException;
 }
@@ -23,6 +23,18 @@ public class HdfsStorageConfig {
     // the keytab path
     private String krb5KeytabPath = "hdfs-wedpr.keytab";
 
+    // close the pooled FileSystem after idle for the given time
+    private Long fsIdleTimeoutMs = 30 * 60 * 1000L;
+    // the interval to check and renew the kerberos ticket
+    private Long krb5RenewIntervalMs = 5 * 60 * 1000L;
+
+    // the concurrent ranges to upload/download a large file, disabled if no more than 1
+    private Integer transferParallelism = 4;
+    // the files smaller than the threshold are transferred sequentially
+    private Long parallelTransferThreshold = 256 * 1024 * 1024L;
+    // verify the parallel transferred file with the composite crc
+    private Boolean transferChecksumEnabled = true;
+
     public String getAbsPathInHdfs(String path) {
         return getBaseDir() + File.separator + path;
     }
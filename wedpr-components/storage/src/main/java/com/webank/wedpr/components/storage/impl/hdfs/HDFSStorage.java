@@ -23,17 +23,14 @@ import com.webank.wedpr.components.storage.api.StorageMeta;
 import com.webank.wedpr.components.storage.api.StoragePath;
 import com.webank.wedpr.components.storage.config.HdfsStorageConfig;
 import com.webank.wedpr.components.storage.stream.HdfsStorageStream;
-import java.io.Closeable;
 import java.io.IOException;
-import java.security.PrivilegedAction;
+import javax.annotation.PreDestroy;
 import lombok.SneakyThrows;
 import org.apache.commons.lang3.StringUtils;
-import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.fs.FSDataInputStream;
 import org.apache.hadoop.fs.FileStatus;
 import org.apache.hadoop.fs.FileSystem;
 import org.apache.hadoop.fs.Path;
-import org.apache.hadoop.security.UserGroupInformation;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -46,72 +43,52 @@ public class HDFSStorage implements FileStorageInterface {
 
     private static final Logger logger = LoggerFactory.getLogger(HDFSStorage.class);
 
-    @Autowired private HdfsStorageConfig hdfsConfig;
+    // the IOException message of DFSClient after the FileSystem closed
+    private static final String FILESYSTEM_CLOSED_MSG = "Filesystem closed";
 
-    static class FsHandlerArgs implements Closeable {
-        private final FileSystem fileSystem;
-        private final HdfsStorageConfig hdfsConfig;
+    @Autowired private HdfsStorageConfig hdfsConfig;
 
-        @SneakyThrows
-        public FsHandlerArgs(HdfsStorageConfig hdfsConfig) {
-            try {
-                hdfsConfig.check();
-                Configuration hadoopConf = new Configuration();
-                hadoopConf.set(StorageConstant.FS_URI_CONFIG_KEY, hdfsConfig.getUrl());
-                // enable the kerberos auth
-                if (hdfsConfig.getEnableKrb5Auth()) {
-
-                    hadoopConf.set(
-                            StorageConstant.FS_AUTH_CONFIG_KEY, StorageConstant.FS_Krb5_AUTH);
-                    // specify the jaas configuration
-                    hadoopConf.set(StorageConstant.Krb5_CONFIG_KEY, hdfsConfig.getKrb5ConfigPath());
-                    System.setProperty(
-                            StorageConstant.Krb5_CONFIG_KEY, hdfsConfig.getKrb5ConfigPath());
-                    // specify the user-group-information
-                    UserGroupInformation.setConfiguration(hadoopConf);
-                    UserGroupInformation.loginUserFromKeytab(
-                            hdfsConfig.getKrb5Principal(), hdfsConfig.getKrb5KeytabPath());
-                    this.fileSystem = FileSystem.get(hadoopConf);
-                } else {
-                    UserGroupInformation userGroupInformation =
-                            UserGroupInformation.createRemoteUser(hdfsConfig.getUser());
-                    this.fileSystem =
-                            userGroupInformation.doAs(
-                                    new PrivilegedAction<FileSystem>() {
-
-                                        @SneakyThrows(Exception.class)
-                                        @Override
-                                        public FileSystem run() {
-                                            return FileSystem.get(hadoopConf);
-                                        }
-                                    });
+    // the long-lived FileSystem handles shared by all the actions and streams
+    private volatile HdfsFileSystemPool fileSystemPool;
+
+    private HdfsFileSystemPool getFileSystemPool() {
+        if (fileSystemPool == null) {
+            synchronized (this) {
+                if (fileSystemPool == null) {
+                    fileSystemPool =
+                            new HdfsFileSystemPool(
+                                    hdfsConfig.getFsIdleTimeoutMs(),
+                                    hdfsConfig.getKrb5RenewIntervalMs());
                 }
-                this.hdfsConfig = hdfsConfig;
-                logger.info("connect to hdfs success, hdfsConfig: {}", hdfsConfig);
-            } catch (Exception e) {
-                logger.info("connect to hdfs failed, hdfsConfig: {}, error: ", hdfsConfig, e);
-                throw new WeDPRException(
-                        "connect to hdfs " + hdfsConfig + " failed, error: " + e.getMessage(), e);
             }
         }
+        return fileSystemPool;
+    }
 
-        @Override
-        public void close() {
-            try {
-                this.fileSystem.close();
-            } catch (Exception e) {
-                logger.error("close fs: {} failed, error: ", this.hdfsConfig, e);
-                //                throw new WeDPRException(
-                //                        "close fs "
-                //                                + this.hdfsConfig
-                //                                + " failed, error: "
-                //                                + e.getMessage(),
-                //                        e);
+    private volatile HdfsParallelTransfer parallelTransfer;
+
+    private HdfsParallelTransfer getParallelTransfer() {
+        if (parallelTransfer == null) {
+            synchronized (this) {
+                if (parallelTransfer == null) {
+                    parallelTransfer =
+                            new HdfsParallelTransfer(
+                                    hdfsConfig.getTransferParallelism(),
+                                    hdfsConfig.getParallelTransferThreshold(),
+                                    hdfsConfig.getTransferChecksumEnabled());
+                }
             }
         }
+        return parallelTransfer;
+    }
 
-        public FileSystem getFileSystem() {
-            return this.fileSystem;
+    @PreDestroy
+    public void close() {
+        if (parallelTransfer != null) {
+            parallelTransfer.close();
+        }
+        if (fileSystemPool != null) {
+            fileSystemPool.close();
         }
     }
 
@@ -139,13 +116,21 @@ public class HDFSStorage implements FileStorageInterface {
 
     @FunctionalInterface
     interface FSHandler {
-        void call(FsHandlerArgs args, FsActionResult result) throws IOException;
+        void call(FileSystem fileSystem, FsActionResult result) throws Exception;
     }
 
     @SneakyThrows
     private void handleFsAction(FsActionResult result, String actionDesc, FSHandler fsHandler) {
-        try (FsHandlerArgs fsHandlerArgs = new FsHandlerArgs(this.hdfsConfig)) {
-            fsHandler.call(fsHandlerArgs, result);
+        try (HdfsFileSystemPool.Lease lease = getFileSystemPool().acquire(this.hdfsConfig)) {
+            try {
+                fsHandler.call(lease.getFileSystem(), result);
+            } catch (IOException e) {
+                // the handle may be broken(e.g. closed by others), reconnect at the next action
+                if (FILESYSTEM_CLOSED_MSG.equals(e.getMessage())) {
+                    getFileSystemPool().invalidate(lease);
+                }
+                throw e;
+            }
         } catch (Exception e) {
             String errorMsg =
                     "handleFsAction for method " + actionDesc + " failed, error: " + e.getMessage();
@@ -163,9 +148,8 @@ public class HDFSStorage implements FileStorageInterface {
         handleFsAction(
                 result,
                 "exists",
-                (fsHandlerArgs, fsActionResult) ->
-                        fsActionResult.setFileExisted(
-                                fsHandlerArgs.getFileSystem().exists(new Path(filePath))));
+                (fileSystem, fsActionResult) ->
+                        fsActionResult.setFileExisted(fileSystem.exists(new Path(filePath))));
         return result.isFileExisted();
     }
 
@@ -175,9 +159,8 @@ public class HDFSStorage implements FileStorageInterface {
         handleFsAction(
                 result,
                 "getMetaInfo",
-                (fsHandlerArgs, fsActionResult) ->
-                        fsActionResult.setFileStatus(
-                                fsHandlerArgs.getFileSystem().getFileStatus(new Path(path))));
+                (fileSystem, fsActionResult) ->
+                        fsActionResult.setFileStatus(fileSystem.getFileStatus(new Path(path))));
         return result.getFileStatus();
     }
 
@@ -208,11 +191,17 @@ public class HDFSStorage implements FileStorageInterface {
         handleFsAction(
                 null,
                 "upload",
-                (fsHandlerArgs, fsActionResult) -> {
-                    fsHandlerArgs
-                            .getFileSystem()
-                            .copyFromLocalFile(
-                                    enforceOverwrite, new Path(localPath), new Path(remoteAbsPath));
+                (fileSystem, fsActionResult) -> {
+                    // the large file is uploaded with multiple part files concurrently
+                    if (!getParallelTransfer()
+                            .upload(
+                                    fileSystem,
+                                    localPath,
+                                    new Path(remoteAbsPath),
+                                    enforceOverwrite)) {
+                        fileSystem.copyFromLocalFile(
+                                enforceOverwrite, new Path(localPath), new Path(remoteAbsPath));
+                    }
                     if (filePermissionInfo == null) {
                         return;
                     }
@@ -226,10 +215,8 @@ public class HDFSStorage implements FileStorageInterface {
                             filePermissionInfo.getOwner(),
                             group);
                     // set the permission
-                    fsHandlerArgs
-                            .getFileSystem()
-                            .setOwner(
-                                    new Path(remoteAbsPath), filePermissionInfo.getOwner(), group);
+                    fileSystem.setOwner(
+                            new Path(remoteAbsPath), filePermissionInfo.getOwner(), group);
                 });
 
         HDFSStoragePath hdfsStoragePath = new HDFSStoragePath();
@@ -253,10 +240,12 @@ public class HDFSStorage implements FileStorageInterface {
         handleFsAction(
                 null,
                 "download",
-                (fsHandlerArgs, fsActionResult) ->
-                        fsHandlerArgs
-                                .getFileSystem()
-                                .copyToLocalFile(new Path(filePath), new Path(localPath)));
+                (fileSystem, fsActionResult) -> {
+                    // the large file is downloaded with multiple ranges concurrently
+                    if (!getParallelTransfer().download(fileSystem, new Path(filePath), localPath)) {
+                        fileSystem.copyToLocalFile(new Path(filePath), new Path(localPath));
+                    }
+                });
     }
 
     /**
@@ -274,8 +263,7 @@ public class HDFSStorage implements FileStorageInterface {
         handleFsAction(
                 null,
                 "delete",
-                (fsHandlerArgs, fsActionResult) ->
-                        fsHandlerArgs.getFileSystem().delete(new Path(filePath), true));
+                (fileSystem, fsActionResult) -> fileSystem.delete(new Path(filePath), true));
     }
 
     /**
@@ -297,10 +285,8 @@ public class HDFSStorage implements FileStorageInterface {
         handleFsAction(
                 null,
                 "download",
-                (fsHandlerArgs, fsActionResult) ->
-                        fsHandlerArgs
-                                .getFileSystem()
-                                .rename(new Path(sourceFilePath), new Path(destFilePath)));
+                (fileSystem, fsActionResult) ->
+                        fileSystem.rename(new Path(sourceFilePath), new Path(destFilePath)));
     }
 
     @Override
@@ -329,14 +315,21 @@ public class HDFSStorage implements FileStorageInterface {
         HDFSStoragePath hdfsStoragePath = (HDFSStoragePath) storagePath;
         String filePath = hdfsStoragePath.getFilePath();
 
-        Configuration hadoopConf = new Configuration();
-        hadoopConf.set(StorageConstant.FS_URI_CONFIG_KEY, hdfsConfig.getUrl());
-
-        FileSystem fileSystem = FileSystem.get(hadoopConf);
-        FSDataInputStream fsDataInputStream = fileSystem.open(new Path(filePath));
-
-        logger.info("open hdfs storage stream, filePath: {}, ", filePath);
-        return new HdfsStorageStream(fileSystem, fsDataInputStream);
+        // the stream holds the lease until closed
+        HdfsFileSystemPool.Lease lease = getFileSystemPool().acquire(this.hdfsConfig);
+        try {
+            FileSystem fileSystem = lease.getFileSystem();
+            Path path = new Path(filePath);
+            long fileLength = fileSystem.getFileStatus(path).getLen();
+            FSDataInputStream fsDataInputStream = fileSystem.open(path);
+
+            logger.info(
+                    "open hdfs storage stream, filePath: {}, fileLength: {}", filePath, fileLength);
+            return new HdfsStorageStream(lease, fsDataInputStream, fileLength);
+        } catch (Exception e) {
+            lease.close();
+            throw e;
+        }
     }
 
     @Override
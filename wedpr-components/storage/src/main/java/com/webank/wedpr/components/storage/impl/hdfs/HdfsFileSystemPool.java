@@ -0,0 +1,280 @@
+/*
+ * Copyright 2017-2025  [webank-wedpr]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+package com.webank.wedpr.components.storage.impl.hdfs;
+
+import com.webank.wedpr.common.utils.WeDPRException;
+import com.webank.wedpr.components.storage.config.HdfsStorageConfig;
+import java.io.Closeable;
+import java.security.PrivilegedExceptionAction;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.apache.commons.lang3.concurrent.BasicThreadFactory;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.security.UserGroupInformation;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * the reference-counted long-lived FileSystem handles, one handle per (url, user, principal), the
+ * kerberos tickets are renewed in background and the idle handles are closed
+ */
+public class HdfsFileSystemPool implements Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(HdfsFileSystemPool.class);
+
+    private final long idleTimeoutMs;
+    // ${url}|${user}|${principal} => the handle
+    private final Map<String, PooledFileSystem> fileSystems = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService maintainer;
+
+    static class PooledFileSystem {
+        private final String key;
+        private final FileSystem fileSystem;
+        private final UserGroupInformation ugi;
+        private final boolean enableKrb5Auth;
+        // the leased count, -1 means the handle is closed
+        private int refCount = 0;
+        // removed from the pool, closed after the last lease returned
+        private boolean invalidated = false;
+        private long lastReleaseTime = System.currentTimeMillis();
+
+        private PooledFileSystem(
+                String key, FileSystem fileSystem, UserGroupInformation ugi, boolean krb5Auth) {
+            this.key = key;
+            this.fileSystem = fileSystem;
+            this.ugi = ugi;
+            this.enableKrb5Auth = krb5Auth;
+        }
+
+        private synchronized boolean retain() {
+            if (refCount < 0) {
+                return false;
+            }
+            refCount++;
+            return true;
+        }
+
+        private void release() {
+            synchronized (this) {
+                refCount--;
+                lastReleaseTime = System.currentTimeMillis();
+                if (!invalidated || refCount != 0) {
+                    return;
+                }
+                refCount = -1;
+            }
+            close();
+        }
+
+        private void invalidate() {
+            synchronized (this) {
+                invalidated = true;
+                if (refCount != 0) {
+                    return;
+                }
+                refCount = -1;
+            }
+            close();
+        }
+
+        // mark the idle handle closed, the closed handle can't be leased any more
+        private synchronized boolean retire(long idleTimeoutMs) {
+            if (refCount != 0 || System.currentTimeMillis() - lastReleaseTime < idleTimeoutMs) {
+                return false;
+            }
+            refCount = -1;
+            return true;
+        }
+
+        private void close() {
+            try {
+                fileSystem.close();
+                logger.info("close the hdfs fileSystem: {}", key);
+            } catch (Exception e) {
+                logger.warn("close the hdfs fileSystem {} failed, error: ", key, e);
+            }
+        }
+    }
+
+    /** the leased FileSystem, close to return the handle to the pool */
+    public static class Lease implements Closeable {
+        private final PooledFileSystem pooledFileSystem;
+        private final AtomicBoolean released = new AtomicBoolean(false);
+
+        private Lease(PooledFileSystem pooledFileSystem) {
+            this.pooledFileSystem = pooledFileSystem;
+        }
+
+        public FileSystem getFileSystem() {
+            return pooledFileSystem.fileSystem;
+        }
+
+        @Override
+        public void close() {
+            if (released.compareAndSet(false, true)) {
+                pooledFileSystem.release();
+            }
+        }
+    }
+
+    public HdfsFileSystemPool(long idleTimeoutMs, long krb5RenewIntervalMs) {
+        this.idleTimeoutMs = idleTimeoutMs;
+        this.maintainer =
+                Executors.newSingleThreadScheduledExecutor(
+                        new BasicThreadFactory.Builder()
+                                .namingPattern("hdfs-fs-pool-%d")
+                                .daemon(true)
+                                .build());
+        this.maintainer.scheduleWithFixedDelay(
+                this::evictIdleFileSystems,
+                idleTimeoutMs,
+                Math.max(1000L, idleTimeoutMs / 2),
+                TimeUnit.MILLISECONDS);
+        this.maintainer.scheduleWithFixedDelay(
+                this::renewKrb5Tickets,
+                krb5RenewIntervalMs,
+                krb5RenewIntervalMs,
+                TimeUnit.MILLISECONDS);
+    }
+
+    private static String getKey(HdfsStorageConfig hdfsConfig) {
+        String principal = hdfsConfig.getEnableKrb5Auth() ? hdfsConfig.getKrb5Principal() : "";
+        return hdfsConfig.getUrl() + "|" + hdfsConfig.getUser() + "|" + principal;
+    }
+
+    /**
+     * lease the FileSystem of the given config, the FileSystem is created at the first time
+     *
+     * @param hdfsConfig the hdfs config
+     * @return the lease, must be closed after used
+     */
+    public Lease acquire(HdfsStorageConfig hdfsConfig) throws Exception {
+        String key = getKey(hdfsConfig);
+        while (true) {
+            PooledFileSystem pooledFileSystem = fileSystems.get(key);
+            if (pooledFileSystem == null) {
+                synchronized (this) {
+                    pooledFileSystem = fileSystems.get(key);
+                    if (pooledFileSystem == null) {
+                        pooledFileSystem = connect(key, hdfsConfig);
+                        fileSystems.put(key, pooledFileSystem);
+                    }
+                }
+            }
+            if (pooledFileSystem.retain()) {
+                return new Lease(pooledFileSystem);
+            }
+            // retired by the maintainer concurrently, remove and reconnect
+            fileSystems.remove(key, pooledFileSystem);
+        }
+    }
+
+    private PooledFileSystem connect(String key, HdfsStorageConfig hdfsConfig) throws Exception {
+        try {
+            hdfsConfig.check();
+            Configuration hadoopConf = new Configuration();
+            hadoopConf.set(StorageConstant.FS_URI_CONFIG_KEY, hdfsConfig.getUrl());
+            hadoopConf.set(
+                    StorageConstant.DFS_CHECKSUM_COMBINE_MODE_CONFIG_KEY,
+                    StorageConstant.DFS_COMPOSITE_CRC);
+            UserGroupInformation ugi;
+            // enable the kerberos auth
+            if (hdfsConfig.getEnableKrb5Auth()) {
+                hadoopConf.set(StorageConstant.FS_AUTH_CONFIG_KEY, StorageConstant.FS_Krb5_AUTH);
+                // specify the jaas configuration
+                hadoopConf.set(StorageConstant.Krb5_CONFIG_KEY, hdfsConfig.getKrb5ConfigPath());
+                System.setProperty(StorageConstant.Krb5_CONFIG_KEY, hdfsConfig.getKrb5ConfigPath());
+                // specify the user-group-information
+                UserGroupInformation.setConfiguration(hadoopConf);
+                ugi =
+                        UserGroupInformation.loginUserFromKeytabAndReturnUGI(
+                                hdfsConfig.getKrb5Principal(), hdfsConfig.getKrb5KeytabPath());
+            } else {
+                ugi = UserGroupInformation.createRemoteUser(hdfsConfig.getUser());
+            }
+            // newInstance rather than get: the handle is owned and closed by the pool only
+            FileSystem fileSystem =
+                    ugi.doAs(
+                            (PrivilegedExceptionAction<FileSystem>)
+                                    () -> FileSystem.newInstance(hadoopConf));
+            logger.info("connect to hdfs success, hdfsConfig: {}", hdfsConfig);
+            return new PooledFileSystem(key, fileSystem, ugi, hdfsConfig.getEnableKrb5Auth());
+        } catch (Exception e) {
+            logger.info("connect to hdfs failed, hdfsConfig: {}, error: ", hdfsConfig, e);
+            throw new WeDPRException(
+                    "connect to hdfs " + hdfsConfig + " failed, error: " + e.getMessage(), e);
+        }
+    }
+
+    /** drop the broken handle, the leased streams keep using it until they are closed */
+    public void invalidate(Lease lease) {
+        PooledFileSystem pooledFileSystem = lease.pooledFileSystem;
+        if (fileSystems.remove(pooledFileSystem.key, pooledFileSystem)) {
+            logger.info("invalidate the hdfs fileSystem: {}", pooledFileSystem.key);
+            pooledFileSystem.invalidate();
+        }
+    }
+
+    private void evictIdleFileSystems() {
+        try {
+            Iterator<PooledFileSystem> it = fileSystems.values().iterator();
+            while (it.hasNext()) {
+                PooledFileSystem pooledFileSystem = it.next();
+                if (pooledFileSystem.retire(idleTimeoutMs)) {
+                    it.remove();
+                    pooledFileSystem.close();
+                }
+            }
+        } catch (Exception e) {
+            logger.warn("evictIdleFileSystems failed, error: ", e);
+        }
+    }
+
+    private void renewKrb5Tickets() {
+        for (PooledFileSystem pooledFileSystem : fileSystems.values()) {
+            if (!pooledFileSystem.enableKrb5Auth) {
+                continue;
+            }
+            try {
+                // relogin only when the TGT is close to expire
+                pooledFileSystem.ugi.checkTGTAndReloginFromKeytab();
+            } catch (Exception e) {
+                logger.warn(
+                        "renew the kerberos ticket for {} failed, error: ",
+                        pooledFileSystem.key,
+                        e);
+            }
+        }
+    }
+
+    public int size() {
+        return fileSystems.size();
+    }
+
+    @Override
+    public void close() {
+        maintainer.shutdownNow();
+        for (PooledFileSystem pooledFileSystem : fileSystems.values()) {
+            pooledFileSystem.close();
+        }
+        fileSystems.clear();
+    }
+}
@@ -0,0 +1,435 @@
+/*
+ * Copyright 2017-2025  [webank-wedpr]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+package com.webank.wedpr.components.storage.impl.hdfs;
+
+import com.webank.wedpr.common.utils.WeDPRException;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.Checksum;
+import org.apache.commons.lang3.concurrent.BasicThreadFactory;
+import org.apache.hadoop.fs.CompositeCrcFileChecksum;
+import org.apache.hadoop.fs.FSDataInputStream;
+import org.apache.hadoop.fs.FSDataOutputStream;
+import org.apache.hadoop.fs.FileChecksum;
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.apache.hadoop.io.IOUtils;
+import org.apache.hadoop.util.CrcComposer;
+import org.apache.hadoop.util.DataChecksum;
+import org.apache.hadoop.util.PureJavaCrc32;
+import org.apache.hadoop.util.PureJavaCrc32C;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * transfer the large file between the local disk and hdfs with multiple block-aligned ranges
+ * concurrently: download by the positional reads, upload by the part files concatenated with
+ * FileSystem.concat(or copied sequentially if concat is not supported), the transferred file is
+ * verified with the composite crc of hdfs at the end
+ */
+public class HdfsParallelTransfer implements Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(HdfsParallelTransfer.class);
+
+    private static final int TRANSFER_BUFFER_SIZE = 4 * 1024 * 1024;
+    private static final String DOWNLOADING_FILE_POSTFIX = ".downloading";
+    private static final String PART_FILE_POSTFIX = "._part_";
+    private static final String CONCAT_FILE_POSTFIX = "._concat";
+
+    private final int parallelism;
+    private final long threshold;
+    private final boolean checksumEnabled;
+    private final ExecutorService transferWorkers;
+
+    // the transferred range of the file
+    static class Range {
+        private final int index;
+        private final long offset;
+        private final long length;
+        // the crc of the range content
+        private int crc;
+
+        Range(int index, long offset, long length) {
+            this.index = index;
+            this.offset = offset;
+            this.length = length;
+        }
+    }
+
+    @FunctionalInterface
+    interface RangeHandler {
+        void call(Range range) throws Exception;
+    }
+
+    public HdfsParallelTransfer(int parallelism, long threshold, boolean checksumEnabled) {
+        this.parallelism = parallelism;
+        this.threshold = threshold;
+        this.checksumEnabled = checksumEnabled;
+        this.transferWorkers =
+                Executors.newFixedThreadPool(
+                        Math.max(1, parallelism),
+                        new BasicThreadFactory.Builder()
+                                .namingPattern("hdfs-transfer-%d")
+                                .daemon(true)
+                                .build());
+    }
+
+    /**
+     * split the file into the block-aligned ranges
+     *
+     * @return the ranges, less than two ranges means the file should be transferred sequentially
+     */
+    List<Range> splitRanges(long fileLength, long blockSize) {
+        List<Range> ranges = new ArrayList<>();
+        if (parallelism <= 1 || fileLength < threshold || blockSize <= 0) {
+            return ranges;
+        }
+        long rangeSize = (fileLength + parallelism - 1) / parallelism;
+        // round up to the block size
+        rangeSize = (rangeSize + blockSize - 1) / blockSize * blockSize;
+        for (long offset = 0; offset < fileLength; offset += rangeSize) {
+            ranges.add(new Range(ranges.size(), offset, Math.min(rangeSize, fileLength - offset)));
+        }
+        return ranges;
+    }
+
+    private void runConcurrently(List<Range> ranges, RangeHandler handler) throws Exception {
+        List<Future<?>> futures = new ArrayList<>();
+        for (Range range : ranges) {
+            futures.add(
+                    transferWorkers.submit(
+                            () -> {
+                                handler.call(range);
+                                return null;
+                            }));
+        }
+        Exception error = null;
+        // wait for all the ranges before cleaning up the files
+        for (Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (ExecutionException e) {
+                if (error == null) {
+                    error =
+                            (e.getCause() instanceof Exception)
+                                    ? (Exception) e.getCause()
+                                    : new WeDPRException(e.getCause());
+                }
+            }
+        }
+        if (error != null) {
+            throw error;
+        }
+    }
+
+    private static Checksum newCrc(DataChecksum.Type crcType) {
+        if (crcType == DataChecksum.Type.CRC32) {
+            return new PureJavaCrc32();
+        }
+        return new PureJavaCrc32C();
+    }
+
+    /**
+     * download the remote file with multiple ranges concurrently
+     *
+     * @return false if the file should be downloaded sequentially
+     */
+    public boolean download(FileSystem fileSystem, Path remotePath, String localPath)
+            throws Exception {
+        File localFile = new File(localPath);
+        if (localFile.isDirectory()) {
+            return false;
+        }
+        FileStatus fileStatus = fileSystem.getFileStatus(remotePath);
+        List<Range> ranges = splitRanges(fileStatus.getLen(), fileStatus.getBlockSize());
+        if (ranges.size() < 2) {
+            return false;
+        }
+        // the expected checksum, the crc type of the file is required to compute the local crc
+        CompositeCrcFileChecksum expectedChecksum = getCompositeCrc(fileSystem, remotePath);
+        DataChecksum.Type crcType = getCrcType(expectedChecksum);
+
+        long startT = System.currentTimeMillis();
+        java.nio.file.Path tempPath = Paths.get(localPath + DOWNLOADING_FILE_POSTFIX);
+        if (tempPath.getParent() != null) {
+            Files.createDirectories(tempPath.getParent());
+        }
+        try {
+            try (RandomAccessFile file = new RandomAccessFile(tempPath.toFile(), "rw")) {
+                file.setLength(fileStatus.getLen());
+            }
+            try (FileChannel channel = FileChannel.open(tempPath, StandardOpenOption.WRITE)) {
+                runConcurrently(
+                        ranges,
+                        range -> downloadRange(fileSystem, remotePath, channel, range, crcType));
+            }
+            verifyChecksum(remotePath, expectedChecksum, ranges, crcType);
+            Files.move(tempPath, localFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        } catch (Exception e) {
+            Files.deleteIfExists(tempPath);
+            throw e;
+        }
+        logger.info(
+                "parallel download success, remotePath: {}, localPath: {}, length: {}, ranges: {}, timecost: {}ms",
+                remotePath,
+                localPath,
+                fileStatus.getLen(),
+                ranges.size(),
+                System.currentTimeMillis() - startT);
+        return true;
+    }
+
+    private void downloadRange(
+            FileSystem fileSystem,
+            Path remotePath,
+            FileChannel channel,
+            Range range,
+            DataChecksum.Type crcType)
+            throws IOException {
+        Checksum crc = newCrc(crcType);
+        byte[] buffer = new byte[(int) Math.min(TRANSFER_BUFFER_SIZE, range.length)];
+        try (FSDataInputStream inputStream = fileSystem.open(remotePath)) {
+            long transferred = 0;
+            while (transferred < range.length) {
+                int size = (int) Math.min(buffer.length, range.length - transferred);
+                // pread, the ranges share no stream state
+                inputStream.readFully(range.offset + transferred, buffer, 0, size);
+                crc.update(buffer, 0, size);
+                ByteBuffer byteBuffer = ByteBuffer.wrap(buffer, 0, size);
+                long position = range.offset + transferred;
+                while (byteBuffer.hasRemaining()) {
+                    position += channel.write(byteBuffer, position);
+                }
+                transferred += size;
+            }
+        }
+        range.crc = (int) crc.getValue();
+    }
+
+    /**
+     * upload the local file with multiple part files concurrently, the part files are concatenated
+     * into the remote file
+     *
+     * @return false if the file should be uploaded sequentially
+     */
+    public boolean upload(
+            FileSystem fileSystem, String localPath, Path remotePath, boolean overwrite)
+            throws Exception {
+        File localFile = new File(localPath);
+        if (!localFile.isFile()) {
+            return false;
+        }
+        List<Range> ranges =
+                splitRanges(localFile.length(), fileSystem.getDefaultBlockSize(remotePath));
+        if (ranges.size() < 2) {
+            return false;
+        }
+        if (!overwrite && fileSystem.exists(remotePath)) {
+            throw new WeDPRException("The remote file " + remotePath + " already exists!");
+        }
+        DataChecksum.Type crcType =
+                DataChecksum.Type.valueOf(
+                        fileSystem
+                                .getConf()
+                                .get(
+                                        StorageConstant.DFS_CHECKSUM_TYPE_CONFIG_KEY,
+                                        DataChecksum.Type.CRC32C.name()));
+
+        long startT = System.currentTimeMillis();
+        Path[] partPaths = new Path[ranges.size()];
+        for (Range range : ranges) {
+            partPaths[range.index] =
+                    new Path(remotePath.toString() + PART_FILE_POSTFIX + range.index);
+        }
+        Path concatPath = new Path(remotePath.toString() + CONCAT_FILE_POSTFIX);
+        try {
+            try (FileChannel channel = FileChannel.open(localFile.toPath())) {
+                runConcurrently(
+                        ranges,
+                        range ->
+                                uploadRange(
+                                        fileSystem,
+                                        channel,
+                                        partPaths[range.index],
+                                        range,
+                                        crcType));
+            }
+            Path concatenatedPath = concatParts(fileSystem, partPaths, concatPath);
+            if (overwrite) {
+                fileSystem.delete(remotePath, false);
+            }
+            if (!fileSystem.rename(concatenatedPath, remotePath)) {
+                throw new WeDPRException(
+                        "Rename the concatenated file " + concatenatedPath + " failed!");
+            }
+        } catch (Exception e) {
+            for (Path partPath : partPaths) {
+                fileSystem.delete(partPath, false);
+            }
+            fileSystem.delete(concatPath, false);
+            throw e;
+        }
+        try {
+            verifyChecksum(remotePath, getCompositeCrc(fileSystem, remotePath), ranges, crcType);
+        } catch (Exception e) {
+            fileSystem.delete(remotePath, false);
+            throw e;
+        }
+        logger.info(
+                "parallel upload success, localPath: {}, remotePath: {}, length: {}, ranges: {}, timecost: {}ms",
+                localPath,
+                remotePath,
+                localFile.length(),
+                ranges.size(),
+                System.currentTimeMillis() - startT);
+        return true;
+    }
+
+    /**
+     * concatenate the part files by FileSystem.concat, or copy them into the concatPath one by one
+     * if the file system doesn't support concat
+     *
+     * @return the concatenated file
+     */
+    private static Path concatParts(FileSystem fileSystem, Path[] partPaths, Path concatPath)
+            throws IOException {
+        try {
+            // concat requires the target and the sources under the same directory
+            fileSystem.concat(partPaths[0], Arrays.copyOfRange(partPaths, 1, partPaths.length));
+            return partPaths[0];
+        } catch (UnsupportedOperationException e) {
+            logger.info(
+                    "{} doesn't support concat, copy the part files sequentially, target: {}",
+                    fileSystem.getScheme(),
+                    concatPath);
+        }
+        try (FSDataOutputStream outputStream = fileSystem.create(concatPath, true)) {
+            for (Path partPath : partPaths) {
+                try (FSDataInputStream inputStream = fileSystem.open(partPath)) {
+                    IOUtils.copyBytes(inputStream, outputStream, TRANSFER_BUFFER_SIZE, false);
+                }
+            }
+        }
+        for (Path partPath : partPaths) {
+            fileSystem.delete(partPath, false);
+        }
+        return concatPath;
+    }
+
+    private void uploadRange(
+            FileSystem fileSystem,
+            FileChannel channel,
+            Path partPath,
+            Range range,
+            DataChecksum.Type crcType)
+            throws IOException {
+        Checksum crc = newCrc(crcType);
+        byte[] buffer = new byte[(int) Math.min(TRANSFER_BUFFER_SIZE, range.length)];
+        try (FSDataOutputStream outputStream = fileSystem.create(partPath, true)) {
+            long transferred = 0;
+            while (transferred < range.length) {
+                int size = (int) Math.min(buffer.length, range.length - transferred);
+                ByteBuffer byteBuffer = ByteBuffer.wrap(buffer, 0, size);
+                while (byteBuffer.hasRemaining()) {
+                    long position = range.offset + transferred + byteBuffer.position();
+                    if (channel.read(byteBuffer, position) < 0) {
+                        throw new IOException("Unexpected end of the local file at " + partPath);
+                    }
+                }
+                crc.update(buffer, 0, size);
+                outputStream.write(buffer, 0, size);
+                transferred += size;
+            }
+        }
+        range.crc = (int) crc.getValue();
+    }
+
+    private CompositeCrcFileChecksum getCompositeCrc(FileSystem fileSystem, Path remotePath)
+            throws IOException {
+        if (!checksumEnabled) {
+            return null;
+        }
+        FileChecksum checksum = fileSystem.getFileChecksum(remotePath);
+        if (checksum instanceof CompositeCrcFileChecksum) {
+            return (CompositeCrcFileChecksum) checksum;
+        }
+        // the block-size dependent checksum can't be computed locally
+        logger.warn(
+                "Skip the checksum verification for {} without composite crc, checksum: {}",
+                remotePath,
+                checksum);
+        return null;
+    }
+
+    private static DataChecksum.Type getCrcType(CompositeCrcFileChecksum checksum) {
+        if (checksum == null || checksum.getChecksumOpt() == null) {
+            return DataChecksum.Type.CRC32C;
+        }
+        return checksum.getChecksumOpt().getChecksumType();
+    }
+
+    private static void verifyChecksum(
+            Path remotePath,
+            CompositeCrcFileChecksum expectedChecksum,
+            List<Range> ranges,
+            DataChecksum.Type crcType)
+            throws WeDPRException {
+        if (expectedChecksum == null) {
+            return;
+        }
+        if (getCrcType(expectedChecksum) != crcType) {
+            logger.warn(
+                    "Skip the checksum verification for {} with crc type {}, local crc type: {}",
+                    remotePath,
+                    getCrcType(expectedChecksum),
+                    crcType);
+            return;
+        }
+        // compose the crc of the whole file from the crc of the ranges
+        CrcComposer crcComposer = CrcComposer.newCrcComposer(crcType, TRANSFER_BUFFER_SIZE);
+        for (Range range : ranges) {
+            crcComposer.update(range.crc, range.length);
+        }
+        byte[] localCrc = crcComposer.digest();
+        if (!Arrays.equals(localCrc, expectedChecksum.getBytes())) {
+            throw new WeDPRException(
+                    "Checksum mismatch for "
+                            + remotePath
+                            + ", the remote checksum: "
+                            + expectedChecksum);
+        }
+    }
+
+    @Override
+    public void close() {
+        transferWorkers.shutdownNow();
+    }
+}
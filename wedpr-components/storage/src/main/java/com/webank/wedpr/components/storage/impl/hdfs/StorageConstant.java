@@ -19,4 +19,8 @@ public class StorageConstant {
     public static final String FS_AUTH_CONFIG_KEY = "hadoop.security.authentication";
     public static final String FS_Krb5_AUTH = "Kerberos";
     public static final String Krb5_CONFIG_KEY = "java.security.krb5.conf";
+    public static final String DFS_CHECKSUM_TYPE_CONFIG_KEY = "dfs.checksum.type";
+    // the block-size independent file checksum, comparable with the local crc
+    public static final String DFS_CHECKSUM_COMBINE_MODE_CONFIG_KEY = "dfs.checksum.combine.mode";
+    public static final String DFS_COMPOSITE_CRC = "COMPOSITE_CRC";
 }
@@ -8,13 +8,14 @@ import com.webank.wedpr.components.storage.api.StorageMeta;
 import com.webank.wedpr.components.storage.api.StoragePath;
 import com.webank.wedpr.components.storage.config.LocalStorageConfig;
 import com.webank.wedpr.components.storage.stream.LocalStorageStream;
-import java.io.BufferedInputStream;
 import java.io.File;
 import java.io.IOException;
+import java.nio.channels.FileChannel;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import lombok.Data;
 import lombok.SneakyThrows;
 import org.slf4j.Logger;
@@ -186,9 +187,8 @@ public class LocalFileStorage implements FileStorageInterface {
 
         logger.info("open local storage stream, filePath: {}", filePath);
 
-        BufferedInputStream bufferedInputStream =
-                new BufferedInputStream(Files.newInputStream(Paths.get(filePath)));
-        return new LocalStorageStream(bufferedInputStream);
+        FileChannel fileChannel = FileChannel.open(Paths.get(filePath), StandardOpenOption.READ);
+        return new LocalStorageStream(fileChannel);
     }
 
     @Override
@@ -1,10 +1,10 @@
 package com.webank.wedpr.components.storage.stream;
 
 import com.webank.wedpr.components.storage.api.StorageStreamApi;
+import java.io.Closeable;
 import java.io.IOException;
 import java.io.InputStream;
 import org.apache.hadoop.fs.FSDataInputStream;
-import org.apache.hadoop.fs.FileSystem;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -12,15 +12,21 @@ public class HdfsStorageStream implements StorageStreamApi {
 
     private static final Logger logger = LoggerFactory.getLogger(HdfsStorageStream.class);
 
-    public HdfsStorageStream(FileSystem fileSystem, FSDataInputStream fsDataInputStream) {
-        this.fileSystem = fileSystem;
+    public HdfsStorageStream(
+            Closeable fileSystemLease, FSDataInputStream fsDataInputStream, long fileLength) {
+        this.fileSystemLease = fileSystemLease;
         this.fsDataInputStream = fsDataInputStream;
+        this.fileLength = fileLength;
     }
 
-    private FileSystem fileSystem;
+    // the leased FileSystem shared with others, returned to the pool on close
+    private Closeable fileSystemLease;
 
     private FSDataInputStream fsDataInputStream;
 
+    // the file length from the FileStatus
+    private final long fileLength;
+
     @Override
     public InputStream stream() {
         return fsDataInputStream;
@@ -28,7 +34,7 @@ public class HdfsStorageStream implements StorageStreamApi {
 
     @Override
     public long length() throws IOException {
-        return fsDataInputStream.available();
+        return fileLength;
     }
 
     @Override
@@ -41,6 +47,12 @@ public class HdfsStorageStream implements StorageStreamApi {
         return fsDataInputStream.read(buffer);
     }
 
+    @Override
+    public int read(long position, byte[] buffer, int offset, int length) throws IOException {
+        // pread from the block holding the position, no seek over the preceding blocks
+        return fsDataInputStream.read(position, buffer, offset, length);
+    }
+
     @Override
     public void close() throws IOException {
 
@@ -51,9 +63,9 @@ public class HdfsStorageStream implements StorageStreamApi {
             fsDataInputStream = null;
         }
 
-        if (fileSystem != null) {
-            fileSystem.close();
-            fileSystem = null;
+        if (fileSystemLease != null) {
+            fileSystemLease.close();
+            fileSystemLease = null;
         }
     }
 }
@@ -1,8 +1,12 @@
 package com.webank.wedpr.components.storage.stream;
 
 import com.webank.wedpr.components.storage.api.StorageStreamApi;
+import java.io.BufferedInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
 import lombok.Data;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -12,10 +16,13 @@ public class LocalStorageStream implements StorageStreamApi {
 
     private static final Logger logger = LoggerFactory.getLogger(LocalStorageStream.class);
 
-    public LocalStorageStream(InputStream inputStream) {
-        this.inputStream = inputStream;
+    public LocalStorageStream(FileChannel fileChannel) {
+        this.fileChannel = fileChannel;
+        this.inputStream = new BufferedInputStream(Channels.newInputStream(fileChannel));
     }
 
+    private FileChannel fileChannel;
+
     private InputStream inputStream;
 
     @Override
@@ -25,7 +32,7 @@ public class LocalStorageStream implements StorageStreamApi {
 
     @Override
     public long length() throws IOException {
-        return inputStream.available();
+        return fileChannel.size();
     }
 
     @Override
@@ -38,14 +45,21 @@ public class LocalStorageStream implements StorageStreamApi {
         return inputStream.read(buffer);
     }
 
+    @Override
+    public int read(long position, byte[] buffer, int offset, int length) throws IOException {
+        return fileChannel.read(ByteBuffer.wrap(buffer, offset, length), position);
+    }
+
     @Override
     public void close() throws IOException {
 
         logger.info("close local storage stream: {}", inputStream);
 
+        // close the channel together
         if (inputStream != null) {
             inputStream.close();
             inputStream = null;
+            fileChannel = null;
         }
     }
 }
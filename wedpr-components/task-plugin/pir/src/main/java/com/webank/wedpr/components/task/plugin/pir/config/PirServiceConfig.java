@@ -19,8 +19,106 @@ import com.webank.wedpr.common.config.WeDPRConfig;
 
 public class PirServiceConfig {
     private static String PIR_CACHE_DIR = WeDPRConfig.apply("wedpr.pir.cache.dir", ".cache");
+    // the number of rows packed into one multi-row INSERT statement when publishing
+    private static Integer PIR_PUBLISH_ROWS_PER_STATEMENT =
+            WeDPRConfig.apply("wedpr.pir.publish.rows_per_statement", 100);
+    // the number of INSERT statements sent to the database in one jdbc batch
+    private static Integer PIR_PUBLISH_BATCH_SIZE =
+            WeDPRConfig.apply("wedpr.pir.publish.batch_size", 50);
+    // Note: the LOAD DATA LOCAL INFILE requires allowLoadLocalInfile=true in the jdbc url, and
+    // local_infile=1 on the mysql server
+    private static Boolean PIR_PUBLISH_LOAD_DATA_ENABLED =
+            WeDPRConfig.apply("wedpr.pir.publish.load_data.enabled", false);
+    // the pipelined publisher: reader -> hash workers -> writers(one connection per writer)
+    private static Integer PIR_PUBLISH_HASH_WORKERS =
+            WeDPRConfig.apply(
+                    "wedpr.pir.publish.hash_workers", Runtime.getRuntime().availableProcessors());
+    private static Integer PIR_PUBLISH_WRITERS = WeDPRConfig.apply("wedpr.pir.publish.writers", 4);
+    // the capacity(in chunks) of the queues between the stages
+    private static Integer PIR_PUBLISH_QUEUE_SIZE =
+            WeDPRConfig.apply("wedpr.pir.publish.queue_size", 64);
+    private static Integer PIR_PUBLISH_CHUNK_ROWS =
+            WeDPRConfig.apply("wedpr.pir.publish.chunk_rows", 1000);
+    // the max id hashes in one batched idObfuscation query
+    private static Integer PIR_QUERY_BATCH_SIZE =
+            WeDPRConfig.apply("wedpr.pir.query.batch_size", 2000);
+    // build the id_hash index into the cache dir when publishing, and serve the queries from it
+    private static Boolean PIR_INDEX_ENABLED = WeDPRConfig.apply("wedpr.pir.index.enabled", false);
+    // the max index entries(16 bytes each) buffered in memory when building, the sorted entries
+    // beyond it are spilled into the run files and merged
+    private static Integer PIR_INDEX_BUILD_BUFFERED_ENTRIES =
+            WeDPRConfig.apply("wedpr.pir.index.build.buffered_entries", 4 * 1024 * 1024);
+    // the parallelism of the dedicated obfuscation pool shared by all the queries
+    private static Integer PIR_OBFUSCATE_PARALLELISM =
+            WeDPRConfig.apply(
+                    "wedpr.pir.obfuscate.parallelism", Runtime.getRuntime().availableProcessors());
+    // the max concurrent obfuscation tasks of one query
+    private static Integer PIR_OBFUSCATE_REQUEST_PARALLELISM =
+            WeDPRConfig.apply("wedpr.pir.obfuscate.request_parallelism", 4);
+    // the min matched rows handled by one obfuscation task
+    private static Integer PIR_OBFUSCATE_TASK_ROWS =
+            WeDPRConfig.apply("wedpr.pir.obfuscate.task_rows", 16);
+    // build the fixed-base tables of x and y when the matched rows reach the threshold
+    private static Integer PIR_OBFUSCATE_FIXED_BASE_ROWS =
+            WeDPRConfig.apply("wedpr.pir.obfuscate.fixed_base_rows", 64);
 
     public static String getPirCacheDir() {
         return PIR_CACHE_DIR;
     }
+
+    public static Integer getPirPublishRowsPerStatement() {
+        return PIR_PUBLISH_ROWS_PER_STATEMENT;
+    }
+
+    public static Integer getPirPublishBatchSize() {
+        return PIR_PUBLISH_BATCH_SIZE;
+    }
+
+    public static Boolean getPirPublishLoadDataEnabled() {
+        return PIR_PUBLISH_LOAD_DATA_ENABLED;
+    }
+
+    public static Integer getPirPublishHashWorkers() {
+        return PIR_PUBLISH_HASH_WORKERS;
+    }
+
+    public static Integer getPirPublishWriters() {
+        return PIR_PUBLISH_WRITERS;
+    }
+
+    public static Integer getPirPublishQueueSize() {
+        return PIR_PUBLISH_QUEUE_SIZE;
+    }
+
+    public static Integer getPirPublishChunkRows() {
+        return PIR_PUBLISH_CHUNK_ROWS;
+    }
+
+    public static Integer getPirQueryBatchSize() {
+        return PIR_QUERY_BATCH_SIZE;
+    }
+
+    public static Boolean getPirIndexEnabled() {
+        return PIR_INDEX_ENABLED;
+    }
+
+    public static Integer getPirIndexBuildBufferedEntries() {
+        return PIR_INDEX_BUILD_BUFFERED_ENTRIES;
+    }
+
+    public static Integer getPirObfuscateParallelism() {
+        return PIR_OBFUSCATE_PARALLELISM;
+    }
+
+    public static Integer getPirObfuscateRequestParallelism() {
+        return PIR_OBFUSCATE_REQUEST_PARALLELISM;
+    }
+
+    public static Integer getPirObfuscateTaskRows() {
+        return PIR_OBFUSCATE_TASK_ROWS;
+    }
+
+    public static Integer getPirObfuscateFixedBaseRows() {
+        return PIR_OBFUSCATE_FIXED_BASE_ROWS;
+    }
 }
@@ -0,0 +1,29 @@
+/*
+ * Copyright 2017-2025  [webank-wedpr]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+package com.webank.wedpr.components.task.plugin.pir.core;
+
+import java.util.List;
+
+/** write the published rows(with the pir id and id_hash appended) into the pir table */
+public interface PirTableWriter extends AutoCloseable {
+    public abstract void write(List<String> rowContent) throws Exception;
+
+    // flush all the buffered rows into the table
+    public abstract void flush() throws Exception;
+
+    // the rows written into the table
+    public abstract long getWrittenRows();
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright 2017-2025  [webank-wedpr]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+package com.webank.wedpr.components.task.plugin.pir.core.impl;
+
+import com.webank.wedpr.components.task.plugin.pir.core.PirTableWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * insert the rows with prepared multi-row INSERT statements, and send batchSize statements to the
+ * database in one jdbc batch
+ */
+public class BatchPirTableWriter implements PirTableWriter {
+    private static final Logger logger = LoggerFactory.getLogger(BatchPirTableWriter.class);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String tableId;
+    private final List<String> tableFields;
+    private final int rowsPerStatement;
+    private final int batchSize;
+    private final String batchInsertSql;
+
+    private final List<Object[]> pendingStatements = new ArrayList<>();
+    private Object[] currentStatementArgs;
+    private int currentStatementRows = 0;
+    private long writtenRows = 0L;
+
+    public BatchPirTableWriter(
+            JdbcTemplate jdbcTemplate,
+            String tableId,
+            List<String> tableFields,
+            int rowsPerStatement,
+            int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.tableId = tableId;
+        this.tableFields = tableFields;
+        this.rowsPerStatement = Math.max(1, rowsPerStatement);
+        this.batchSize = Math.max(1, batchSize);
+        this.batchInsertSql = generateInsertSql(this.rowsPerStatement);
+        this.currentStatementArgs = new Object[this.rowsPerStatement * tableFields.size()];
+        logger.info(
+                "Create BatchPirTableWriter, table: {}, rowsPerStatement: {}, batchSize: {}",
+                tableId,
+                this.rowsPerStatement,
+                this.batchSize);
+    }
+
+    private String generateInsertSql(int rows) {
+        String rowPlaceholder =
+                "(" + String.join(",", Collections.nCopies(tableFields.size(), "?")) + ")";
+        return String.format(
+                "INSERT INTO %s (%s) VALUES %s",
+                tableId,
+                String.join(",", tableFields),
+                String.join(",", Collections.nCopies(rows, rowPlaceholder)));
+    }
+
+    @Override
+    public void write(List<String> rowContent) throws Exception {
+        int offset = currentStatementRows * tableFields.size();
+        for (int i = 0; i < tableFields.size(); i++) {
+            currentStatementArgs[offset + i] = rowContent.get(i);
+        }
+        currentStatementRows++;
+        if (currentStatementRows < rowsPerStatement) {
+            return;
+        }
+        pendingStatements.add(currentStatementArgs);
+        currentStatementArgs = new Object[rowsPerStatement * tableFields.size()];
+        currentStatementRows = 0;
+        if (pendingStatements.size() >= batchSize) {
+            flushPendingStatements();
+        }
+    }
+
+    private void flushPendingStatements() {
+        if (pendingStatements.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(batchInsertSql, pendingStatements);
+        writtenRows += (long) pendingStatements.size() * rowsPerStatement;
+        pendingStatements.clear();
+    }
+
+    @Override
+    public void flush() throws Exception {
+        flushPendingStatements();
+        if (currentStatementRows == 0) {
+            return;
+        }
+        // the tail rows that can't fill a whole statement
+        jdbcTemplate.update(
+                generateInsertSql(currentStatementRows),
+                Arrays.copyOf(currentStatementArgs, currentStatementRows * tableFields.size()));
+        writtenRows += currentStatementRows;
+        currentStatementRows = 0;
+    }
+
+    @Override
+    public long getWrittenRows() {
+        return writtenRows;
+    }
+
+    @Override
+    public void close() throws Exception {
+        pendingStatements.clear();
+        currentStatementRows = 0;
+    }
+}
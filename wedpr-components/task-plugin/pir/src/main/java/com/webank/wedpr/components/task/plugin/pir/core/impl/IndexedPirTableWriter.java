@@ -0,0 +1,52 @@
+/*
+ * Copyright 2017-2025  [webank-wedpr]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+package com.webank.wedpr.components.task.plugin.pir.core.impl;
+
+import com.webank.wedpr.components.task.plugin.pir.core.PirTableWriter;
+import com.webank.wedpr.components.task.plugin.pir.index.PirDatasetIndexBuilder;
+import java.util.List;
+
+/** write the rows into the pir table, and append them into the id_hash index at the same time */
+public class IndexedPirTableWriter implements PirTableWriter {
+    private final PirTableWriter tableWriter;
+    private final PirDatasetIndexBuilder indexBuilder;
+
+    public IndexedPirTableWriter(PirTableWriter tableWriter, PirDatasetIndexBuilder indexBuilder) {
+        this.tableWriter = tableWriter;
+        this.indexBuilder = indexBuilder;
+    }
+
+    @Override
+    public void write(List<String> rowContent) throws Exception {
+        tableWriter.write(rowContent);
+        indexBuilder.append(rowContent);
+    }
+
+    @Override
+    public void flush() throws Exception {
+        tableWriter.flush();
+    }
+
+    @Override
+    public long getWrittenRows() {
+        return tableWriter.getWrittenRows();
+    }
+
+    @Override
+    public void close() throws Exception {
+        tableWriter.close();
+    }
+}
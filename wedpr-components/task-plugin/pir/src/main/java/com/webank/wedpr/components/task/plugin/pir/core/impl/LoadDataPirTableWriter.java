@@ -0,0 +1,171 @@
+/*
+ * Copyright 2017-2025  [webank-wedpr]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+package com.webank.wedpr.components.task.plugin.pir.core.impl;
+
+import com.webank.wedpr.common.config.WeDPRCommonConfig;
+import com.webank.wedpr.common.utils.FileUtils;
+import com.webank.wedpr.components.task.plugin.pir.core.PirTableWriter;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * write the rows into a tab-separated staging file, and load the staging file into the table with
+ * one LOAD DATA LOCAL INFILE statement when flush
+ */
+public class LoadDataPirTableWriter implements PirTableWriter {
+    private static final Logger logger = LoggerFactory.getLogger(LoadDataPirTableWriter.class);
+    private static final String FIELD_TERMINATOR = "\t";
+    private static final String LINE_TERMINATOR = "\n";
+    private static final String NULL_VALUE = "\\N";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String tableId;
+    private final List<String> tableFields;
+    private final String stagingFilePath;
+    private Writer writer;
+    private long stagedRows = 0L;
+    private long writtenRows = 0L;
+
+    public LoadDataPirTableWriter(
+            JdbcTemplate jdbcTemplate,
+            String tableId,
+            List<String> tableFields,
+            String stagingFilePath)
+            throws Exception {
+        this.jdbcTemplate = jdbcTemplate;
+        this.tableId = tableId;
+        this.tableFields = tableFields;
+        this.stagingFilePath = stagingFilePath;
+        FileUtils.createParentDirectory(Paths.get(stagingFilePath));
+        this.writer =
+                new BufferedWriter(
+                        new OutputStreamWriter(
+                                Files.newOutputStream(Paths.get(stagingFilePath)),
+                                StandardCharsets.UTF_8),
+                        WeDPRCommonConfig.getWriteChunkSize());
+        logger.info(
+                "Create LoadDataPirTableWriter, table: {}, stagingFile: {}",
+                tableId,
+                stagingFilePath);
+    }
+
+    // escape the value according to the default ESCAPED BY '\\' of LOAD DATA
+    private static String escape(String value) {
+        if (value == null) {
+            return NULL_VALUE;
+        }
+        StringBuilder sb = null;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            String escaped = null;
+            switch (c) {
+                case '\\':
+                    escaped = "\\\\";
+                    break;
+                case '\t':
+                    escaped = "\\t";
+                    break;
+                case '\n':
+                    escaped = "\\n";
+                    break;
+                case '\r':
+                    escaped = "\\r";
+                    break;
+                case '\0':
+                    escaped = "\\0";
+                    break;
+                default:
+                    break;
+            }
+            if (escaped == null) {
+                if (sb != null) {
+                    sb.append(c);
+                }
+                continue;
+            }
+            if (sb == null) {
+                sb = new StringBuilder(value.length() + 8);
+                sb.append(value, 0, i);
+            }
+            sb.append(escaped);
+        }
+        return sb == null ? value : sb.toString();
+    }
+
+    @Override
+    public void write(List<String> rowContent) throws Exception {
+        for (int i = 0; i < tableFields.size(); i++) {
+            if (i > 0) {
+                writer.write(FIELD_TERMINATOR);
+            }
+            writer.write(escape(rowContent.get(i)));
+        }
+        writer.write(LINE_TERMINATOR);
+        stagedRows++;
+    }
+
+    @Override
+    public void flush() throws Exception {
+        if (writer == null) {
+            return;
+        }
+        writer.close();
+        writer = null;
+        long startT = System.currentTimeMillis();
+        String sql =
+                String.format(
+                        "LOAD DATA LOCAL INFILE '%s' INTO TABLE %s CHARACTER SET utf8mb4 "
+                                + "FIELDS TERMINATED BY '\\t' ESCAPED BY '\\\\' "
+                                + "LINES TERMINATED BY '\\n' (%s)",
+                        new File(stagingFilePath)
+                                .getAbsolutePath()
+                                .replace("\\", "\\\\")
+                                .replace("'", "\\'"),
+                        tableId,
+                        String.join(",", tableFields));
+        logger.info("Load staging file into table {}, sql: {}", tableId, sql);
+        jdbcTemplate.execute(sql);
+        writtenRows = stagedRows;
+        logger.info(
+                "Load staging file into table {} success, rows: {}, timecost: {}ms",
+                tableId,
+                writtenRows,
+                System.currentTimeMillis() - startT);
+    }
+
+    @Override
+    public long getWrittenRows() {
+        return writtenRows;
+    }
+
+    @Override
+    public void close() throws Exception {
+        if (writer != null) {
+            writer.close();
+            writer = null;
+        }
+        Files.deleteIfExists(Paths.get(stagingFilePath));
+    }
+}
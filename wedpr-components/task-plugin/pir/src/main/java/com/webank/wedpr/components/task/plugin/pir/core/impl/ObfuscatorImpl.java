@@ -22,6 +22,7 @@ import com.webank.wedpr.components.crypto.SymmetricCrypto;
 import com.webank.wedpr.components.pir.sdk.core.ObfuscateData;
 import com.webank.wedpr.components.pir.sdk.core.OtHelper;
 import com.webank.wedpr.components.pir.sdk.core.OtResult;
+import com.webank.wedpr.components.task.plugin.pir.config.PirServiceConfig;
 import com.webank.wedpr.components.task.plugin.pir.core.Obfuscator;
 import com.webank.wedpr.components.task.plugin.pir.model.ObfuscationParam;
 import com.webank.wedpr.components.task.plugin.pir.model.PirDataItem;
@@ -41,6 +42,7 @@ public class ObfuscatorImpl implements Obfuscator {
             List<PirDataItem> pirDataItems,
             ObfuscateData.ObfuscateDataItem obfuscateDataItem)
             throws Exception {
+        prepareFixedBasePow(param, pirDataItems.size());
         List<OtResult.OtResultItem> resultItems = new ArrayList<>();
         for (PirDataItem pirDataItem : pirDataItems) {
             param.setPirDataItem(pirDataItem);
@@ -49,6 +51,14 @@ public class ObfuscatorImpl implements Obfuscator {
         return resultItems;
     }
 
+    // the x and y are raised once per matched row, build the fixed-base tables for large results
+    protected void prepareFixedBasePow(ObfuscationParam param, int rows) {
+        if (rows < PirServiceConfig.getPirObfuscateFixedBaseRows()) {
+            return;
+        }
+        param.buildFixedBasePow();
+    }
+
     @Override
     public OtResult.OtResultItem obfuscate(
             ObfuscationParam param, ObfuscateData.ObfuscateDataItem obfuscateDataItem)
@@ -61,20 +71,23 @@ public class ObfuscatorImpl implements Obfuscator {
         BigInteger blindingR = OtHelper.getRandomInt();
         BigInteger blindingS = OtHelper.getRandomInt();
         BigInteger w =
-                OtHelper.OTMul(OtHelper.OTPow(param.getX(), blindingS), OtHelper.powMod(blindingR));
+                OtHelper.OTMul(
+                        OtHelper.OTPow(param.getXPow(), param.getX(), blindingS),
+                        OtHelper.powMod(blindingR));
         BigInteger z1 =
                 OtHelper.OTMul(
                         obfuscateDataItem.getZ0(), OtHelper.powMod(param.getObfuscationValue()));
         BigInteger key =
                 OtHelper.OTMul(
-                        OtHelper.OTPow(z1, blindingS), OtHelper.OTPow(param.getY(), blindingR));
+                        OtHelper.OTPow(z1, blindingS),
+                        OtHelper.OTPow(param.getYPow(), param.getY(), blindingR));
 
         String aesKey = CryptoToolkitFactory.generateRandomKey();
         BigInteger aesNum = Common.bytesToBigInteger(aesKey.getBytes(StandardCharsets.UTF_8));
         BigInteger messageCipherNum = key.xor(aesNum);
 
         SymmetricCrypto symmetricCrypto =
-                CryptoToolkitFactory.buildAESSymmetricCrypto(
+                CryptoToolkitFactory.buildOneTimeAESSymmetricCrypto(
                         aesKey, Constant.DEFAULT_IV.getBytes(StandardCharsets.UTF_8));
         OtResult.OtResultItem otResultItem =
                 new OtResult.OtResultItem(messageCipherNum, w, symmetricCrypto.encrypt(message));
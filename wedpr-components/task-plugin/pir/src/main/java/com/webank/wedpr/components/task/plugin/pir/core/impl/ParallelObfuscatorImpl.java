@@ -0,0 +1,115 @@
+/*
+ * Copyright 2017-2025  [webank-wedpr]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+package com.webank.wedpr.components.task.plugin.pir.core.impl;
+
+import com.webank.wedpr.components.pir.sdk.core.ObfuscateData;
+import com.webank.wedpr.components.pir.sdk.core.OtResult;
+import com.webank.wedpr.components.task.plugin.pir.model.ObfuscationParam;
+import com.webank.wedpr.components.task.plugin.pir.model.PirDataItem;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.Future;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * obfuscate the matched rows of one query concurrently in a dedicated ForkJoinPool, the rows are
+ * split into at most requestParallelism tasks, and the result keeps the order of the rows
+ */
+public class ParallelObfuscatorImpl extends ObfuscatorImpl {
+    private static final Logger logger = LoggerFactory.getLogger(ParallelObfuscatorImpl.class);
+
+    private final ForkJoinPool obfuscatePool;
+    private final int requestParallelism;
+    private final int taskRows;
+
+    public ParallelObfuscatorImpl(int parallelism, int requestParallelism, int taskRows) {
+        this.obfuscatePool =
+                new ForkJoinPool(
+                        Math.max(1, parallelism),
+                        pool -> {
+                            ForkJoinWorkerThread thread =
+                                    ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+                            thread.setName("pir-obfuscate-" + thread.getPoolIndex());
+                            return thread;
+                        },
+                        null,
+                        false);
+        this.requestParallelism = Math.max(1, requestParallelism);
+        this.taskRows = Math.max(1, taskRows);
+        logger.info(
+                "Create ParallelObfuscatorImpl, parallelism: {}, requestParallelism: {}, taskRows: {}",
+                parallelism,
+                this.requestParallelism,
+                this.taskRows);
+    }
+
+    @Override
+    public List<OtResult.OtResultItem> obfuscate(
+            ObfuscationParam param,
+            List<PirDataItem> pirDataItems,
+            ObfuscateData.ObfuscateDataItem obfuscateDataItem)
+            throws Exception {
+        int tasks =
+                Math.min(requestParallelism, (pirDataItems.size() + taskRows - 1) / taskRows);
+        if (tasks <= 1) {
+            return super.obfuscate(param, pirDataItems, obfuscateDataItem);
+        }
+        prepareFixedBasePow(param, pirDataItems.size());
+        // Note: the pirDataItems maybe LinkedList
+        PirDataItem[] dataItems = pirDataItems.toArray(new PirDataItem[0]);
+        OtResult.OtResultItem[] resultItems = new OtResult.OtResultItem[dataItems.length];
+        int rowsPerTask = (dataItems.length + tasks - 1) / tasks;
+        List<Future<?>> futures = new ArrayList<>(tasks);
+        for (int start = 0; start < dataItems.length; start += rowsPerTask) {
+            final int from = start;
+            final int to = Math.min(start + rowsPerTask, dataItems.length);
+            futures.add(
+                    obfuscatePool.submit(
+                            () -> {
+                                for (int i = from; i < to; i++) {
+                                    resultItems[i] =
+                                            obfuscate(
+                                                    new ObfuscationParam(param, dataItems[i]),
+                                                    obfuscateDataItem);
+                                }
+                                return null;
+                            }));
+        }
+        try {
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (ExecutionException e) {
+            for (Future<?> future : futures) {
+                future.cancel(true);
+            }
+            if (e.getCause() instanceof Exception) {
+                throw (Exception) e.getCause();
+            }
+            throw e;
+        }
+        return new ArrayList<>(Arrays.asList(resultItems));
+    }
+
+    public void stop() {
+        obfuscatePool.shutdown();
+    }
+}
@@ -19,7 +19,6 @@ import com.webank.wedpr.common.utils.CSVFileParser;
 import com.webank.wedpr.common.utils.Common;
 import com.webank.wedpr.common.utils.Constant;
 import com.webank.wedpr.common.utils.WeDPRException;
-import com.webank.wedpr.components.crypto.CryptoToolkitFactory;
 import com.webank.wedpr.components.db.mapper.dataset.dao.Dataset;
 import com.webank.wedpr.components.db.mapper.dataset.datasource.DataSourceType;
 import com.webank.wedpr.components.db.mapper.dataset.mapper.DatasetMapper;
@@ -29,7 +28,9 @@ import com.webank.wedpr.components.storage.api.StoragePath;
 import com.webank.wedpr.components.storage.builder.StoragePathBuilder;
 import com.webank.wedpr.components.task.plugin.pir.config.PirServiceConfig;
 import com.webank.wedpr.components.task.plugin.pir.core.PirDatasetConstructor;
-import com.webank.wedpr.components.uuid.generator.WeDPRUuidGenerator;
+import com.webank.wedpr.components.task.plugin.pir.core.PirTableWriter;
+import com.webank.wedpr.components.task.plugin.pir.index.PirDatasetIndexBuilder;
+import com.webank.wedpr.components.task.plugin.pir.index.PirIndexManager;
 import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -47,16 +48,19 @@ public class PirDatasetConstructorImpl implements PirDatasetConstructor {
     private final DatasetMapper datasetMapper;
     private final FileStorageInterface fileStorageInterface;
     private final JdbcTemplate jdbcTemplate;
+    private final PirIndexManager pirIndexManager;
     private final String dbName;
 
     public PirDatasetConstructorImpl(
             DatasetMapper datasetMapper,
             FileStorageInterface fileStorageInterface,
-            JdbcTemplate jdbcTemplate)
+            JdbcTemplate jdbcTemplate,
+            PirIndexManager pirIndexManager)
             throws SQLException {
         this.datasetMapper = datasetMapper;
         this.fileStorageInterface = fileStorageInterface;
         this.jdbcTemplate = jdbcTemplate;
+        this.pirIndexManager = pirIndexManager;
         this.dbName = this.jdbcTemplate.getDataSource().getConnection().getCatalog();
         logger.info("Current database name: {}", this.dbName);
     }
@@ -98,6 +102,7 @@ public class PirDatasetConstructorImpl implements PirDatasetConstructor {
             if (StringUtils.isNotBlank(tableId)) {
                 logger.info("Revert the created table: {}", tableId);
                 this.jdbcTemplate.execute("drop table if exists " + tableId);
+                this.pirIndexManager.remove(tableId);
             }
             throw e;
         }
@@ -179,45 +184,124 @@ public class PirDatasetConstructorImpl implements PirDatasetConstructor {
                 createPirTableForDataset(tableId, idField, datasetFields);
         Integer idFieldIndex = tableInfo.getRight();
 
+        long startTime = System.currentTimeMillis();
+        long publishedRecorders;
+        try (PirDatasetIndexBuilder indexBuilder =
+                pirIndexManager.createIndexBuilder(
+                        tableId, tableInfo.getLeft(), tableInfo.getLeft().size() - 1)) {
+            publishedRecorders =
+                    publishRows(
+                            tableId,
+                            dataset,
+                            localFilePath,
+                            datasetFields,
+                            tableInfo.getLeft(),
+                            idFieldIndex,
+                            indexBuilder);
+            if (indexBuilder != null) {
+                indexBuilder.build();
+                // swap in the new index, the old one loaded while publishing is closed once the
+                // queries using it are done
+                pirIndexManager.unload(tableId);
+            }
+        }
+        long timecost = System.currentTimeMillis() - startTime;
+        logger.info(
+                "Publish pir success, table: {}, dataset: {}, publishedRecorders: {}, timecost: {}ms, rows/sec: {}",
+                tableId,
+                dataset.getDatasetId(),
+                publishedRecorders,
+                timecost,
+                calculateRowsPerSecond(publishedRecorders, timecost));
+    }
+
+    private long publishRows(
+            String tableId,
+            Dataset dataset,
+            String localFilePath,
+            String[] datasetFields,
+            List<String> tableFields,
+            int idFieldIndex,
+            PirDatasetIndexBuilder indexBuilder)
+            throws Exception {
         long startTime = System.currentTimeMillis();
         final Long[] publishedRecorders = {0L};
         final Long reportRecorders = 10000L;
-        CSVFileParser.processCsvContent(
-                datasetFields,
-                localFilePath,
-                new CSVFileParser.RowContentHandler() {
-                    @Override
-                    public void handle(List<String> rowContent) throws Exception {
-                        StringBuilder sb = new StringBuilder();
-                        // the id field
-                        rowContent.add(WeDPRUuidGenerator.generateID());
-                        // add hash for the idField
-                        rowContent.add(CryptoToolkitFactory.hash(rowContent.get(idFieldIndex)));
-                        sb.append("(")
-                                .append(Common.joinAndAddDoubleQuotes(rowContent))
-                                .append(")");
-                        // insert the row-content into sql
-                        String sql =
-                                String.format(
-                                        "INSERT INTO %s (%s) VALUES %s ",
-                                        tableId, String.join(",", tableInfo.getLeft()), sb);
-                        publishedRecorders[0] += 1;
-                        if (publishedRecorders[0] % reportRecorders == 0) {
-                            logger.info(
-                                    "table: {}, dataset: {} publishing, publishedRecorders: {}, timecost: {}ms",
-                                    tableId,
-                                    dataset.getDatasetId(),
-                                    publishedRecorders[0],
-                                    (System.currentTimeMillis() - startTime));
+        PirPublishPipeline pipeline =
+                new PirPublishPipeline(
+                        tableId,
+                        idFieldIndex,
+                        PirServiceConfig.getPirPublishHashWorkers(),
+                        PirServiceConfig.getPirPublishWriters(),
+                        PirServiceConfig.getPirPublishQueueSize(),
+                        PirServiceConfig.getPirPublishChunkRows(),
+                        writerIndex ->
+                                createTableWriter(tableId, tableFields, writerIndex, indexBuilder));
+        pipeline.start();
+        try {
+            CSVFileParser.processCsvContent(
+                    datasetFields,
+                    localFilePath,
+                    new CSVFileParser.RowContentHandler() {
+                        @Override
+                        public void handle(List<String> rowContent) throws Exception {
+                            pipeline.submit(rowContent);
+                            publishedRecorders[0] += 1;
+                            if (publishedRecorders[0] % reportRecorders == 0) {
+                                long timecost = System.currentTimeMillis() - startTime;
+                                logger.info(
+                                        "table: {}, dataset: {} publishing, publishedRecorders: {}, writtenRecorders: {}, timecost: {}ms, rows/sec: {}",
+                                        tableId,
+                                        dataset.getDatasetId(),
+                                        publishedRecorders[0],
+                                        pipeline.getWrittenRows(),
+                                        timecost,
+                                        calculateRowsPerSecond(publishedRecorders[0], timecost));
+                            }
                         }
-                        jdbcTemplate.execute(sql);
-                    }
-                });
-        logger.info(
-                "Publish pir success, table: {}, dataset: {}, publishedRecorders: {}, timecost: {}ms",
+                    });
+        } catch (Exception e) {
+            // wait for all the workers to exit before the table is dropped
+            pipeline.abort(e);
+            throw e;
+        }
+        pipeline.finish();
+        return publishedRecorders[0];
+    }
+
+    private PirTableWriter createTableWriter(
+            String tableId,
+            List<String> tableFields,
+            int writerIndex,
+            PirDatasetIndexBuilder indexBuilder)
+            throws Exception {
+        PirTableWriter tableWriter = createTableWriter(tableId, tableFields, writerIndex);
+        if (indexBuilder == null) {
+            return tableWriter;
+        }
+        return new IndexedPirTableWriter(tableWriter, indexBuilder);
+    }
+
+    private PirTableWriter createTableWriter(
+            String tableId, List<String> tableFields, int writerIndex) throws Exception {
+        if (PirServiceConfig.getPirPublishLoadDataEnabled()) {
+            return new LoadDataPirTableWriter(
+                    jdbcTemplate,
+                    tableId,
+                    tableFields,
+                    Common.joinPath(
+                            PirServiceConfig.getPirCacheDir(),
+                            tableId + ".staging." + writerIndex));
+        }
+        return new BatchPirTableWriter(
+                jdbcTemplate,
                 tableId,
-                dataset.getDatasetId(),
-                publishedRecorders[0],
-                (System.currentTimeMillis() - startTime));
+                tableFields,
+                PirServiceConfig.getPirPublishRowsPerStatement(),
+                PirServiceConfig.getPirPublishBatchSize());
+    }
+
+    private static long calculateRowsPerSecond(long rows, long timecostMs) {
+        return rows * 1000 / Math.max(1L, timecostMs);
     }
 }
@@ -0,0 +1,253 @@
+/*
+ * Copyright 2017-2025  [webank-wedpr]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+package com.webank.wedpr.components.task.plugin.pir.core.impl;
+
+import com.webank.wedpr.common.utils.ThreadPoolService;
+import com.webank.wedpr.common.utils.WeDPRException;
+import com.webank.wedpr.components.crypto.CryptoToolkitFactory;
+import com.webank.wedpr.components.task.plugin.pir.core.PirTableWriter;
+import com.webank.wedpr.components.uuid.generator.WeDPRUuidGenerator;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * the pipelined pir table publisher: the reader stage(the caller of submit) groups rows into
+ * chunks, the hashing workers append the pir id and the id_hash to every row, and each writer
+ * worker inserts the hashed rows through its own PirTableWriter(connection); the stages are
+ * connected by bounded queues.
+ *
+ * <p>Note: once any stage fails, all the stages stop, and finish/abort only return after every
+ * worker exits, so the caller can safely drop the table without racing a writer.
+ */
+public class PirPublishPipeline {
+    private static final Logger logger = LoggerFactory.getLogger(PirPublishPipeline.class);
+    private static final long QUEUE_POLL_INTERVAL_MS = 100L;
+    // the end-of-stream marker
+    private static final List<List<String>> END_OF_STREAM = new ArrayList<>();
+
+    public interface TableWriterFactory {
+        PirTableWriter create(int writerIndex) throws Exception;
+    }
+
+    private final String tableId;
+    private final int idFieldIndex;
+    private final int hashWorkers;
+    private final int writers;
+    private final int chunkRows;
+    private final TableWriterFactory tableWriterFactory;
+
+    private final BlockingQueue<List<List<String>>> hashQueue;
+    private final BlockingQueue<List<List<String>>> writeQueue;
+    private final AtomicReference<Exception> failure = new AtomicReference<>();
+    private final AtomicInteger runningHashWorkers = new AtomicInteger(0);
+    private final AtomicLong writtenRows = new AtomicLong(0L);
+    private final List<Future<?>> workerFutures = new ArrayList<>();
+    private ThreadPoolService threadPoolService;
+    private List<List<String>> currentChunk;
+
+    public PirPublishPipeline(
+            String tableId,
+            int idFieldIndex,
+            int hashWorkers,
+            int writers,
+            int queueSize,
+            int chunkRows,
+            TableWriterFactory tableWriterFactory) {
+        this.tableId = tableId;
+        this.idFieldIndex = idFieldIndex;
+        this.hashWorkers = Math.max(1, hashWorkers);
+        this.writers = Math.max(1, writers);
+        this.chunkRows = Math.max(1, chunkRows);
+        this.tableWriterFactory = tableWriterFactory;
+        this.hashQueue = new ArrayBlockingQueue<>(Math.max(1, queueSize));
+        // the writeQueue must be able to hold all the end-of-stream markers
+        this.writeQueue = new ArrayBlockingQueue<>(Math.max(this.writers, queueSize));
+        this.currentChunk = new ArrayList<>(this.chunkRows);
+    }
+
+    public void start() {
+        logger.info(
+                "Start PirPublishPipeline, table: {}, hashWorkers: {}, writers: {}, chunkRows: {}",
+                tableId,
+                hashWorkers,
+                writers,
+                chunkRows);
+        this.threadPoolService =
+                new ThreadPoolService("pir-publish-" + tableId, hashWorkers + writers, writers);
+        runningHashWorkers.set(hashWorkers);
+        for (int i = 0; i < hashWorkers; i++) {
+            workerFutures.add(threadPoolService.getThreadPool().submit(this::runHashWorker));
+        }
+        for (int i = 0; i < writers; i++) {
+            final int writerIndex = i;
+            workerFutures.add(
+                    threadPoolService.getThreadPool().submit(() -> runWriter(writerIndex)));
+        }
+    }
+
+    // the reader stage
+    public void submit(List<String> rowContent) throws Exception {
+        checkFailure();
+        currentChunk.add(rowContent);
+        if (currentChunk.size() < chunkRows) {
+            return;
+        }
+        put(hashQueue, currentChunk);
+        currentChunk = new ArrayList<>(chunkRows);
+    }
+
+    /**
+     * wait for all the rows to be written into the table
+     *
+     * @return the written rows
+     */
+    public long finish() throws Exception {
+        try {
+            if (!currentChunk.isEmpty()) {
+                put(hashQueue, currentChunk);
+                currentChunk = new ArrayList<>();
+            }
+            for (int i = 0; i < hashWorkers; i++) {
+                put(hashQueue, END_OF_STREAM);
+            }
+        } catch (Exception e) {
+            onFailure(e);
+        }
+        awaitWorkers();
+        checkFailure();
+        logger.info("PirPublishPipeline finished, table: {}, rows: {}", tableId, writtenRows);
+        return writtenRows.get();
+    }
+
+    // stop all the stages for the reader stage failed
+    public void abort(Exception e) {
+        onFailure(e);
+        awaitWorkers();
+    }
+
+    public long getWrittenRows() {
+        return writtenRows.get();
+    }
+
+    private void runHashWorker() {
+        try {
+            List<List<String>> chunk;
+            while ((chunk = take(hashQueue)) != null && chunk != END_OF_STREAM) {
+                for (List<String> rowContent : chunk) {
+                    // the id field
+                    rowContent.add(WeDPRUuidGenerator.generateID());
+                    // add hash for the idField
+                    rowContent.add(CryptoToolkitFactory.hash(rowContent.get(idFieldIndex)));
+                }
+                put(writeQueue, chunk);
+            }
+        } catch (Exception e) {
+            onFailure(e);
+        } finally {
+            // the last exited hash worker notify all the writers to finish
+            if (runningHashWorkers.decrementAndGet() == 0 && failure.get() == null) {
+                try {
+                    for (int i = 0; i < writers; i++) {
+                        put(writeQueue, END_OF_STREAM);
+                    }
+                } catch (Exception e) {
+                    onFailure(e);
+                }
+            }
+        }
+    }
+
+    private void runWriter(int writerIndex) {
+        try (PirTableWriter tableWriter = tableWriterFactory.create(writerIndex)) {
+            List<List<String>> chunk;
+            while ((chunk = take(writeQueue)) != null) {
+                long writtenBefore = tableWriter.getWrittenRows();
+                if (chunk == END_OF_STREAM) {
+                    tableWriter.flush();
+                    writtenRows.addAndGet(tableWriter.getWrittenRows() - writtenBefore);
+                    return;
+                }
+                for (List<String> rowContent : chunk) {
+                    tableWriter.write(rowContent);
+                }
+                writtenRows.addAndGet(tableWriter.getWrittenRows() - writtenBefore);
+            }
+        } catch (Exception e) {
+            onFailure(e);
+        }
+    }
+
+    private void put(BlockingQueue<List<List<String>>> queue, List<List<String>> chunk)
+            throws Exception {
+        while (!queue.offer(chunk, QUEUE_POLL_INTERVAL_MS, TimeUnit.MILLISECONDS)) {
+            checkFailure();
+        }
+    }
+
+    // return null when the pipeline failed
+    private List<List<String>> take(BlockingQueue<List<List<String>>> queue)
+            throws InterruptedException {
+        List<List<String>> chunk = null;
+        while (chunk == null && failure.get() == null) {
+            chunk = queue.poll(QUEUE_POLL_INTERVAL_MS, TimeUnit.MILLISECONDS);
+        }
+        return chunk;
+    }
+
+    private void onFailure(Exception e) {
+        if (failure.compareAndSet(null, e)) {
+            logger.warn("PirPublishPipeline failed, table: {}, error: ", tableId, e);
+        }
+    }
+
+    private void checkFailure() throws Exception {
+        Exception e = failure.get();
+        if (e == null) {
+            return;
+        }
+        if (e instanceof WeDPRException) {
+            throw e;
+        }
+        throw new WeDPRException("Publish pir table " + tableId + " failed: " + e.getMessage(), e);
+    }
+
+    private void awaitWorkers() {
+        for (Future<?> future : workerFutures) {
+            try {
+                future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                onFailure(e);
+            } catch (Exception e) {
+                onFailure(e);
+            }
+        }
+        workerFutures.clear();
+        if (threadPoolService != null) {
+            threadPoolService.stop();
+            threadPoolService = null;
+        }
+    }
+}
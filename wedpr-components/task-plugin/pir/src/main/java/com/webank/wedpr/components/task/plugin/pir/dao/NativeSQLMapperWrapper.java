@@ -23,14 +23,21 @@ import com.webank.wedpr.components.db.mapper.service.publish.model.PirServiceSet
 import com.webank.wedpr.components.pir.sdk.core.ObfuscateData;
 import com.webank.wedpr.components.pir.sdk.model.PirParamEnum;
 import com.webank.wedpr.components.pir.sdk.model.PirQueryParam;
+import com.webank.wedpr.components.task.plugin.pir.config.PirServiceConfig;
+import com.webank.wedpr.components.task.plugin.pir.index.PirDatasetIndex;
+import com.webank.wedpr.components.task.plugin.pir.index.PirIndexManager;
 import com.webank.wedpr.components.task.plugin.pir.model.PirDataItem;
 import java.sql.ResultSet;
 import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -40,9 +47,11 @@ import org.springframework.jdbc.core.RowMapper;
 public class NativeSQLMapperWrapper {
     private static final Logger logger = LoggerFactory.getLogger(NativeSQLMapperWrapper.class);
     private final JdbcTemplate jdbcTemplate;
+    private final PirIndexManager pirIndexManager;
 
-    public NativeSQLMapperWrapper(JdbcTemplate jdbcTemplate) {
+    public NativeSQLMapperWrapper(JdbcTemplate jdbcTemplate, PirIndexManager pirIndexManager) {
         this.jdbcTemplate = jdbcTemplate;
+        this.pirIndexManager = pirIndexManager;
     }
 
     public class GeneralRowMapper implements RowMapper<Map<String, String>> {
@@ -87,12 +96,114 @@ public class NativeSQLMapperWrapper {
                         + queryParam.getAlgorithmType().getValue());
     }
 
+    /**
+     * query all the obfuscateDataItems of the idObfuscation request in batch: the id hashes of all
+     * the items are collected and queried in chunked IN statements, and the queried rows are fanned
+     * out to each item by the id hash
+     *
+     * @return the queried result of each obfuscateDataItem(null if no recorder matched)
+     */
+    public List<List<PirDataItem>> batchQuery(
+            PirServiceSetting serviceSetting,
+            PirQueryParam queryParam,
+            List<ObfuscateData.ObfuscateDataItem> obfuscateDataItems)
+            throws Exception {
+        if (queryParam.getAlgorithmType() != PirParamEnum.AlgorithmType.idObfuscation) {
+            throw new WeDPRException(
+                    "batchQuery "
+                            + serviceSetting.getDatasetId()
+                            + " failed for only support "
+                            + PirParamEnum.AlgorithmType.idObfuscation.getValue()
+                            + ", current algorithmType: "
+                            + queryParam.getAlgorithmType().getValue());
+        }
+        List<String> queriedFields =
+                serviceSetting.obtainQueriedFields(
+                        queryParam.getSearchTypeObject(), queryParam.getQueriedFields());
+        String tableName =
+                com.webank.wedpr.components.task.plugin.pir.utils.Constant.datasetId2tableId(
+                        serviceSetting.getDatasetId());
+        Set<String> idHashSet = new LinkedHashSet<>();
+        for (ObfuscateData.ObfuscateDataItem dataItem : obfuscateDataItems) {
+            if (dataItem.getIdHashList() != null) {
+                idHashSet.addAll(dataItem.getIdHashList());
+            }
+        }
+        // query the rows in chunks, and group the rows by id hash
+        Map<String, List<Map<String, String>>> idHashToRows = new HashMap<>();
+        List<String> idHashes = new ArrayList<>(idHashSet);
+        int batchSize = Math.max(1, PirServiceConfig.getPirQueryBatchSize());
+        for (int offset = 0; offset < idHashes.size(); offset += batchSize) {
+            List<String> batchIdHashes =
+                    idHashes.subList(offset, Math.min(offset + batchSize, idHashes.size()));
+            for (Map<String, String> row :
+                    queryRowsByIdHash(tableName, queriedFields, batchIdHashes)) {
+                idHashToRows
+                        .computeIfAbsent(
+                                row.get(Constant.PIR_ID_HASH_FIELD_NAME), k -> new ArrayList<>())
+                        .add(row);
+            }
+        }
+        logger.debug(
+                "batchQuery, dataset: {}, items: {}, idHashes: {}, matchedIdHashes: {}",
+                serviceSetting.getDatasetId(),
+                obfuscateDataItems.size(),
+                idHashes.size(),
+                idHashToRows.size());
+        // fan the rows back out to each item
+        List<List<PirDataItem>> result = new ArrayList<>(obfuscateDataItems.size());
+        for (ObfuscateData.ObfuscateDataItem dataItem : obfuscateDataItems) {
+            List<Map<String, String>> itemRows = new ArrayList<>();
+            if (dataItem.getIdHashList() != null) {
+                for (String idHash : new LinkedHashSet<>(dataItem.getIdHashList())) {
+                    List<Map<String, String>> rows = idHashToRows.get(idHash);
+                    if (rows != null) {
+                        itemRows.addAll(rows);
+                    }
+                }
+            }
+            result.add(toPirDataList(serviceSetting, itemRows));
+        }
+        return result;
+    }
+
+    private List<Map<String, String>> queryRowsByIdHash(
+            String tableName, List<String> queriedFields, List<String> idHashes)
+            throws Exception {
+        PirDatasetIndex index = pirIndexManager.acquireIndex(tableName);
+        if (index != null) {
+            try {
+                return index.queryByIdHash(idHashes, queriedFields);
+            } finally {
+                index.release();
+            }
+        }
+        String sql =
+                String.format(
+                        "select t.%s, %s from %s t where t.%s in (%s)",
+                        Constant.PIR_ID_HASH_FIELD_NAME,
+                        StringUtils.join(queriedFields, ","),
+                        tableName,
+                        Constant.PIR_ID_HASH_FIELD_NAME,
+                        String.join(",", Collections.nCopies(idHashes.size(), "?")));
+        logger.trace("queryRowsByIdHash: {}, idHashes: {}", sql, idHashes.size());
+        return this.jdbcTemplate.query(sql, new GeneralRowMapper(), idHashes.toArray());
+    }
+
     public List<PirDataItem> executeQuery(
             String tableName,
             PirServiceSetting serviceSetting,
             List<String> queriedFields,
             List<String> filters)
             throws Exception {
+        PirDatasetIndex index = pirIndexManager.acquireIndex(tableName);
+        if (index != null) {
+            try {
+                return toPirDataList(serviceSetting, index.queryByIdHash(filters, queriedFields));
+            } finally {
+                index.release();
+            }
+        }
         String condition =
                 String.format(
                         "where t.%s in (%s)",
@@ -114,6 +225,15 @@ public class NativeSQLMapperWrapper {
             List<String> queriedFields,
             String filter)
             throws Exception {
+        PirDatasetIndex index = pirIndexManager.acquireIndex(tableName);
+        if (index != null) {
+            try {
+                return toPirDataList(
+                        serviceSetting, index.queryByIdHashPrefix(filter, queriedFields));
+            } finally {
+                index.release();
+            }
+        }
         String condition =
                 String.format(
                         "where t.%s like concat('%s', '%%')",
@@ -39,6 +39,7 @@ public class PirServiceHook {
                 ServiceType.PIR.getType(), new ServiceInvokeCallback(serviceInvokeMapper));
     }
 
+    /** record every request, a query sent chunk by chunk is recorded once per chunk */
     public void onInvoke(PirQueryRequest request, ServiceInvokeStatus invokeStatus) {
         if (request == null
                 || request.getQueryParam() == null
@@ -0,0 +1,316 @@
+/*
+ * Copyright 2017-2025  [webank-wedpr]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+package com.webank.wedpr.components.task.plugin.pir.index;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.webank.wedpr.common.utils.Constant;
+import com.webank.wedpr.common.utils.ObjectMapperFactory;
+import com.webank.wedpr.common.utils.WeDPRException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * the read-only id_hash index of the published pir dataset: the sorted (id_hash prefix, row
+ * offset) entries are memory-mapped off-heap, the rows are read with positional reads; since the
+ * entries are sorted by id_hash, all the rows matching an id_hash prefix(the idFilter) are in one
+ * contiguous bucket of entries
+ *
+ * <p>the index is reference counted: the loader holds one reference released by close, and each
+ * query retains the index and releases it when done, the files are closed after all released
+ */
+public class PirDatasetIndex implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(PirDatasetIndex.class);
+
+    public static final String ROWS_FILE_NAME = "rows.data";
+    public static final String HASH_INDEX_FILE_NAME = "hash.index";
+    public static final String FIELDS_FILE_NAME = "fields.json";
+    public static final int MAGIC = 0x50495249;
+    public static final int VERSION = 1;
+    public static final int IO_BUFFER_SIZE = 1024 * 1024;
+
+    // the id_hash prefix(hex chars) stored in the entry
+    private static final int PREFIX_HEX_LENGTH = 16;
+    private static final int HEADER_SIZE = Integer.BYTES * 2 + Long.BYTES;
+    private static final int ENTRY_SIZE = Long.BYTES * 2;
+    // map the entries with multiple segments since one mapping can't exceed 2GB
+    private static final int ENTRIES_PER_SEGMENT_SHIFT = 26;
+    private static final long ENTRIES_PER_SEGMENT = 1L << ENTRIES_PER_SEGMENT_SHIFT;
+
+    private final String indexDir;
+    private final List<String> tableFields;
+    private final Map<String, Integer> fieldIndexes = new HashMap<>();
+    private final int idHashFieldIndex;
+    private final FileChannel indexChannel;
+    private final FileChannel rowsChannel;
+    private final MappedByteBuffer[] segments;
+    private final long entryCount;
+    private final AtomicInteger references = new AtomicInteger(1);
+    private final AtomicBoolean closed = new AtomicBoolean(false);
+
+    private PirDatasetIndex(String indexDir) throws Exception {
+        this.indexDir = indexDir;
+        Path dir = Paths.get(indexDir);
+        this.tableFields =
+                ObjectMapperFactory.getObjectMapper()
+                        .readValue(
+                                dir.resolve(FIELDS_FILE_NAME).toFile(),
+                                new TypeReference<List<String>>() {});
+        for (int i = 0; i < tableFields.size(); i++) {
+            fieldIndexes.put(tableFields.get(i).toLowerCase(), i);
+        }
+        Integer idHashIndex = fieldIndexes.get(Constant.PIR_ID_HASH_FIELD_NAME.toLowerCase());
+        if (idHashIndex == null) {
+            throw new WeDPRException("Invalid pir index " + indexDir + " for no id_hash field");
+        }
+        this.idHashFieldIndex = idHashIndex;
+        this.indexChannel =
+                FileChannel.open(dir.resolve(HASH_INDEX_FILE_NAME), StandardOpenOption.READ);
+        this.rowsChannel = FileChannel.open(dir.resolve(ROWS_FILE_NAME), StandardOpenOption.READ);
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        readFully(indexChannel, header, 0);
+        header.flip();
+        if (header.getInt() != MAGIC || header.getInt() != VERSION) {
+            closeFiles();
+            throw new WeDPRException("Invalid pir index " + indexDir + " for mismatched version");
+        }
+        this.entryCount = header.getLong();
+        int segmentCount = (int) ((entryCount + ENTRIES_PER_SEGMENT - 1) / ENTRIES_PER_SEGMENT);
+        this.segments = new MappedByteBuffer[segmentCount];
+        for (int i = 0; i < segmentCount; i++) {
+            long entries = Math.min(ENTRIES_PER_SEGMENT, entryCount - i * ENTRIES_PER_SEGMENT);
+            segments[i] =
+                    indexChannel.map(
+                            FileChannel.MapMode.READ_ONLY,
+                            HEADER_SIZE + i * ENTRIES_PER_SEGMENT * ENTRY_SIZE,
+                            entries * ENTRY_SIZE);
+        }
+    }
+
+    public static PirDatasetIndex load(String indexDir) throws Exception {
+        long startT = System.currentTimeMillis();
+        PirDatasetIndex index = new PirDatasetIndex(indexDir);
+        logger.info(
+                "Load pir index success, indexDir: {}, entries: {}, timecost: {}ms",
+                indexDir,
+                index.entryCount,
+                System.currentTimeMillis() - startT);
+        return index;
+    }
+
+    public static long parseIdHashPrefix(String idHash) {
+        String prefix =
+                idHash.length() > PREFIX_HEX_LENGTH
+                        ? idHash.substring(0, PREFIX_HEX_LENGTH)
+                        : idHash;
+        return Long.parseUnsignedLong(prefix, 16) << (4 * (PREFIX_HEX_LENGTH - prefix.length()));
+    }
+
+    // flip the sign bit so that the signed compare keeps the order of the hex id_hash
+    public static long toSortableKey(long idHashPrefix) {
+        return idHashPrefix ^ Long.MIN_VALUE;
+    }
+
+    private long entryKey(long entryIndex) {
+        return segments[(int) (entryIndex >>> ENTRIES_PER_SEGMENT_SHIFT)].getLong(
+                (int) ((entryIndex & (ENTRIES_PER_SEGMENT - 1)) * ENTRY_SIZE));
+    }
+
+    private long entryOffset(long entryIndex) {
+        return segments[(int) (entryIndex >>> ENTRIES_PER_SEGMENT_SHIFT)].getLong(
+                (int) ((entryIndex & (ENTRIES_PER_SEGMENT - 1)) * ENTRY_SIZE + Long.BYTES));
+    }
+
+    // the first entry whose key is not less than the given key
+    private long lowerBound(long key) {
+        long low = 0;
+        long high = entryCount;
+        while (low < high) {
+            long mid = (low + high) >>> 1;
+            if (entryKey(mid) < key) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private String[] readRow(long offset) throws IOException {
+        ByteBuffer lengthBuffer = ByteBuffer.allocate(Integer.BYTES);
+        readFully(rowsChannel, lengthBuffer, offset);
+        lengthBuffer.flip();
+        ByteBuffer recordBuffer = ByteBuffer.allocate(lengthBuffer.getInt());
+        readFully(rowsChannel, recordBuffer, offset + Integer.BYTES);
+        recordBuffer.flip();
+        String[] row = new String[tableFields.size()];
+        for (int i = 0; i < row.length; i++) {
+            int length = recordBuffer.getInt();
+            if (length < 0) {
+                continue;
+            }
+            row[i] =
+                    new String(
+                            recordBuffer.array(),
+                            recordBuffer.position(),
+                            length,
+                            StandardCharsets.UTF_8);
+            recordBuffer.position(recordBuffer.position() + length);
+        }
+        return row;
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position)
+            throws IOException {
+        while (buffer.hasRemaining()) {
+            int readBytes = channel.read(buffer, position);
+            if (readBytes < 0) {
+                throw new IOException("Unexpected end of the pir index file");
+            }
+            position += readBytes;
+        }
+    }
+
+    private int[] toFieldIndexes(List<String> queriedFields) throws WeDPRException {
+        int[] result = new int[queriedFields.size()];
+        for (int i = 0; i < queriedFields.size(); i++) {
+            Integer fieldIndex = fieldIndexes.get(queriedFields.get(i).trim().toLowerCase());
+            if (fieldIndex == null) {
+                throw new WeDPRException(
+                        "The field " + queriedFields.get(i) + " not exists in " + indexDir);
+            }
+            result[i] = fieldIndex;
+        }
+        return result;
+    }
+
+    // the same columns with the sql query: the id_hash field and the queried fields
+    private Map<String, String> toResultRow(String[] row, int[] queriedFieldIndexes) {
+        Map<String, String> result = new HashMap<>();
+        result.put(tableFields.get(idHashFieldIndex), row[idHashFieldIndex]);
+        for (int fieldIndex : queriedFieldIndexes) {
+            result.put(tableFields.get(fieldIndex), row[fieldIndex]);
+        }
+        return result;
+    }
+
+    private void collectRows(
+            String idHashPrefix,
+            boolean exactMatch,
+            int[] queriedFieldIndexes,
+            List<Map<String, String>> result)
+            throws IOException {
+        String normalizedPrefix = idHashPrefix.trim().toLowerCase();
+        if (normalizedPrefix.isEmpty()) {
+            return;
+        }
+        long prefix;
+        try {
+            prefix = parseIdHashPrefix(normalizedPrefix);
+        } catch (NumberFormatException e) {
+            // the non-hex id_hash matches nothing
+            return;
+        }
+        int prefixBits = 4 * Math.min(normalizedPrefix.length(), PREFIX_HEX_LENGTH);
+        long startKey = toSortableKey(prefix);
+        long endKey =
+                toSortableKey(prefixBits == Long.SIZE ? prefix : prefix | (-1L >>> prefixBits));
+        for (long i = lowerBound(startKey); i < entryCount && entryKey(i) <= endKey; i++) {
+            String[] row = readRow(entryOffset(i));
+            String idHash = row[idHashFieldIndex];
+            boolean matched =
+                    exactMatch
+                            ? normalizedPrefix.equalsIgnoreCase(idHash)
+                            : idHash != null && idHash.toLowerCase().startsWith(normalizedPrefix);
+            if (matched) {
+                result.add(toResultRow(row, queriedFieldIndexes));
+            }
+        }
+    }
+
+    public List<Map<String, String>> queryByIdHash(
+            Collection<String> idHashes, List<String> queriedFields) throws Exception {
+        int[] queriedFieldIndexes = toFieldIndexes(queriedFields);
+        List<Map<String, String>> result = new ArrayList<>();
+        for (String idHash : new LinkedHashSet<>(idHashes)) {
+            collectRows(idHash, true, queriedFieldIndexes, result);
+        }
+        return result;
+    }
+
+    public List<Map<String, String>> queryByIdHashPrefix(
+            String idHashPrefix, List<String> queriedFields) throws Exception {
+        List<Map<String, String>> result = new ArrayList<>();
+        collectRows(idHashPrefix, false, toFieldIndexes(queriedFields), result);
+        return result;
+    }
+
+    public long getEntryCount() {
+        return entryCount;
+    }
+
+    /** @return false if the index has been closed, the caller should reload the index */
+    public boolean retain() {
+        while (true) {
+            int count = references.get();
+            if (count <= 0) {
+                return false;
+            }
+            if (references.compareAndSet(count, count + 1)) {
+                return true;
+            }
+        }
+    }
+
+    public void release() {
+        if (references.decrementAndGet() == 0) {
+            closeFiles();
+        }
+    }
+
+    private void closeFiles() {
+        try {
+            indexChannel.close();
+            rowsChannel.close();
+        } catch (IOException e) {
+            logger.warn("Close pir index {} failed, error: ", indexDir, e);
+        }
+        logger.info("Close pir index {}", indexDir);
+    }
+
+    /** release the reference of the loader, the files are closed after the queries released */
+    @Override
+    public void close() {
+        if (closed.compareAndSet(false, true)) {
+            release();
+        }
+    }
+}
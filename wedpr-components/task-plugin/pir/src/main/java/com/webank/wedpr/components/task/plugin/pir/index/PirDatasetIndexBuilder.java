@@ -0,0 +1,331 @@
+/*
+ * Copyright 2017-2025  [webank-wedpr]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+package com.webank.wedpr.components.task.plugin.pir.index;
+
+import com.webank.wedpr.common.utils.ObjectMapperFactory;
+import com.webank.wedpr.common.utils.WeDPRException;
+import com.webank.wedpr.components.task.plugin.pir.config.PirServiceConfig;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.stream.Stream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * build the id_hash index of the published pir dataset: the rows are appended into the rows file
+ * (thread-safe), and when build, the (id_hash prefix, row offset) entries are sorted and persisted
+ * into the hash index file, the index directory becomes visible only after built successfully;
+ * at most maxBufferedEntries entries are kept in memory, the sorted runs beyond that are spilled
+ * into the temp directory and merged when build
+ */
+public class PirDatasetIndexBuilder implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(PirDatasetIndexBuilder.class);
+    private static final int INIT_CAPACITY = 1024;
+    private static final int INSERTION_SORT_THRESHOLD = 16;
+    private static final String RUN_FILE_PREFIX = "entries.run.";
+
+    private final String indexDir;
+    private final Path tmpIndexDir;
+    private final List<String> tableFields;
+    private final int idHashFieldIndex;
+    private final DataOutputStream rowsOutput;
+    private final int maxBufferedEntries;
+
+    private long rowsFileOffset = 0L;
+    // the sortable id_hash prefix and the row offset of each buffered entry
+    private long[] entryKeys = new long[INIT_CAPACITY];
+    private long[] entryOffsets = new long[INIT_CAPACITY];
+    private int entryCount = 0;
+    private long totalEntryCount = 0L;
+    // the sorted runs spilled from the buffer
+    private final List<Path> runFiles = new ArrayList<>();
+    private boolean built = false;
+
+    public PirDatasetIndexBuilder(String indexDir, List<String> tableFields, int idHashFieldIndex)
+            throws Exception {
+        this(
+                indexDir,
+                tableFields,
+                idHashFieldIndex,
+                PirServiceConfig.getPirIndexBuildBufferedEntries());
+    }
+
+    public PirDatasetIndexBuilder(
+            String indexDir,
+            List<String> tableFields,
+            int idHashFieldIndex,
+            int maxBufferedEntries)
+            throws Exception {
+        this.indexDir = indexDir;
+        this.maxBufferedEntries = Math.max(INIT_CAPACITY, maxBufferedEntries);
+        this.tmpIndexDir = Paths.get(indexDir + ".tmp");
+        this.tableFields = tableFields;
+        this.idHashFieldIndex = idHashFieldIndex;
+        deleteDirectory(tmpIndexDir);
+        Files.createDirectories(tmpIndexDir);
+        this.rowsOutput =
+                new DataOutputStream(
+                        new BufferedOutputStream(
+                                Files.newOutputStream(
+                                        tmpIndexDir.resolve(PirDatasetIndex.ROWS_FILE_NAME)),
+                                PirDatasetIndex.IO_BUFFER_SIZE));
+    }
+
+    public synchronized void append(List<String> rowContent) throws Exception {
+        if (built) {
+            throw new WeDPRException("The index " + indexDir + " has already been built");
+        }
+        byte[][] values = new byte[tableFields.size()][];
+        int recordLength = 0;
+        for (int i = 0; i < tableFields.size(); i++) {
+            String value = rowContent.get(i);
+            values[i] = (value == null ? null : value.getBytes(StandardCharsets.UTF_8));
+            recordLength += Integer.BYTES + (values[i] == null ? 0 : values[i].length);
+        }
+        ensureCapacity();
+        entryKeys[entryCount] =
+                PirDatasetIndex.toSortableKey(
+                        PirDatasetIndex.parseIdHashPrefix(rowContent.get(idHashFieldIndex)));
+        entryOffsets[entryCount] = rowsFileOffset;
+        entryCount++;
+        totalEntryCount++;
+        // record: length | (value length | value bytes) * fields, the null value length is -1
+        rowsOutput.writeInt(recordLength);
+        for (byte[] value : values) {
+            if (value == null) {
+                rowsOutput.writeInt(-1);
+                continue;
+            }
+            rowsOutput.writeInt(value.length);
+            rowsOutput.write(value);
+        }
+        rowsFileOffset += Integer.BYTES + recordLength;
+    }
+
+    private void ensureCapacity() throws IOException {
+        if (entryCount < entryKeys.length) {
+            return;
+        }
+        if (entryCount >= maxBufferedEntries) {
+            spill();
+            return;
+        }
+        int newCapacity = (int) Math.min((long) entryKeys.length << 1, maxBufferedEntries);
+        entryKeys = Arrays.copyOf(entryKeys, newCapacity);
+        entryOffsets = Arrays.copyOf(entryOffsets, newCapacity);
+    }
+
+    // sort the buffered entries and spill them into a run file
+    private void spill() throws IOException {
+        sort(0, entryCount - 1);
+        Path runFile = tmpIndexDir.resolve(RUN_FILE_PREFIX + runFiles.size());
+        runFiles.add(runFile);
+        try (DataOutputStream runOutput = newOutputStream(runFile)) {
+            writeBufferedEntries(runOutput);
+        }
+        logger.debug("Spill pir index entries, run: {}, entries: {}", runFile, entryCount);
+        entryCount = 0;
+    }
+
+    private static DataOutputStream newOutputStream(Path path) throws IOException {
+        return new DataOutputStream(
+                new BufferedOutputStream(
+                        Files.newOutputStream(path), PirDatasetIndex.IO_BUFFER_SIZE));
+    }
+
+    private void writeBufferedEntries(DataOutputStream output) throws IOException {
+        for (int i = 0; i < entryCount; i++) {
+            output.writeLong(entryKeys[i]);
+            output.writeLong(entryOffsets[i]);
+        }
+    }
+
+    public synchronized void build() throws Exception {
+        long startT = System.currentTimeMillis();
+        rowsOutput.close();
+        if (!runFiles.isEmpty()) {
+            if (entryCount > 0) {
+                spill();
+            }
+            // release the memory before merging
+            entryKeys = new long[0];
+            entryOffsets = new long[0];
+        }
+        try (DataOutputStream indexOutput =
+                newOutputStream(tmpIndexDir.resolve(PirDatasetIndex.HASH_INDEX_FILE_NAME))) {
+            indexOutput.writeInt(PirDatasetIndex.MAGIC);
+            indexOutput.writeInt(PirDatasetIndex.VERSION);
+            indexOutput.writeLong(totalEntryCount);
+            if (runFiles.isEmpty()) {
+                sort(0, entryCount - 1);
+                writeBufferedEntries(indexOutput);
+            } else {
+                mergeRuns(indexOutput);
+            }
+        }
+        ObjectMapperFactory.getObjectMapper()
+                .writeValue(
+                        tmpIndexDir.resolve(PirDatasetIndex.FIELDS_FILE_NAME).toFile(),
+                        tableFields);
+        // release the memory
+        entryKeys = new long[0];
+        entryOffsets = new long[0];
+        deleteDirectory(Paths.get(indexDir));
+        Files.move(tmpIndexDir, Paths.get(indexDir), StandardCopyOption.ATOMIC_MOVE);
+        built = true;
+        logger.info(
+                "Build pir index success, indexDir: {}, entries: {}, runs: {}, rowsFileSize: {}, timecost: {}ms",
+                indexDir,
+                totalEntryCount,
+                runFiles.size(),
+                rowsFileOffset,
+                System.currentTimeMillis() - startT);
+    }
+
+    // k-way merge the sorted runs into the index, the run files are removed after merged
+    private void mergeRuns(DataOutputStream indexOutput) throws IOException {
+        PriorityQueue<RunReader> queue =
+                new PriorityQueue<>(runFiles.size(), (l, r) -> Long.compare(l.key, r.key));
+        List<RunReader> readers = new ArrayList<>(runFiles.size());
+        try {
+            for (Path runFile : runFiles) {
+                RunReader reader = new RunReader(runFile);
+                readers.add(reader);
+                if (reader.advance()) {
+                    queue.add(reader);
+                }
+            }
+            RunReader reader;
+            while ((reader = queue.poll()) != null) {
+                indexOutput.writeLong(reader.key);
+                indexOutput.writeLong(reader.offset);
+                if (reader.advance()) {
+                    queue.add(reader);
+                }
+            }
+        } finally {
+            for (RunReader runReader : readers) {
+                runReader.close();
+            }
+        }
+        for (Path runFile : runFiles) {
+            Files.deleteIfExists(runFile);
+        }
+    }
+
+    private static class RunReader {
+        private final DataInputStream inputStream;
+        private long key;
+        private long offset;
+
+        RunReader(Path runFile) throws IOException {
+            this.inputStream =
+                    new DataInputStream(
+                            new BufferedInputStream(
+                                    Files.newInputStream(runFile), PirDatasetIndex.IO_BUFFER_SIZE));
+        }
+
+        boolean advance() throws IOException {
+            try {
+                key = inputStream.readLong();
+            } catch (EOFException e) {
+                return false;
+            }
+            offset = inputStream.readLong();
+            return true;
+        }
+
+        void close() throws IOException {
+            inputStream.close();
+        }
+    }
+
+    // quick sort the entries by key
+    private void sort(int low, int high) {
+        while (high - low > INSERTION_SORT_THRESHOLD) {
+            long pivot = entryKeys[(low + high) >>> 1];
+            int i = low;
+            int j = high;
+            while (i <= j) {
+                while (entryKeys[i] < pivot) {
+                    i++;
+                }
+                while (entryKeys[j] > pivot) {
+                    j--;
+                }
+                if (i <= j) {
+                    swap(i, j);
+                    i++;
+                    j--;
+                }
+            }
+            // recurse into the smaller part to bound the stack depth
+            if (j - low < high - i) {
+                sort(low, j);
+                low = i;
+            } else {
+                sort(i, high);
+                high = j;
+            }
+        }
+        for (int i = low + 1; i <= high; i++) {
+            for (int j = i; j > low && entryKeys[j - 1] > entryKeys[j]; j--) {
+                swap(j - 1, j);
+            }
+        }
+    }
+
+    private void swap(int i, int j) {
+        long key = entryKeys[i];
+        entryKeys[i] = entryKeys[j];
+        entryKeys[j] = key;
+        long offset = entryOffsets[i];
+        entryOffsets[i] = entryOffsets[j];
+        entryOffsets[j] = offset;
+    }
+
+    @Override
+    public synchronized void close() throws Exception {
+        rowsOutput.close();
+        if (!built) {
+            deleteDirectory(tmpIndexDir);
+        }
+    }
+
+    public static void deleteDirectory(Path dir) throws IOException {
+        if (!Files.exists(dir)) {
+            return;
+        }
+        try (Stream<Path> paths = Files.walk(dir)) {
+            paths.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+        }
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright 2017-2025  [webank-wedpr]
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+package com.webank.wedpr.components.task.plugin.pir.index;
+
+import com.webank.wedpr.common.utils.Common;
+import com.webank.wedpr.components.task.plugin.pir.config.PirServiceConfig;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/** manage the id_hash indexes of the published pir datasets persisted in the pir cache dir */
+public class PirIndexManager {
+    private static final Logger logger = LoggerFactory.getLogger(PirIndexManager.class);
+    private static final String INDEX_DIR_POSTFIX = ".index";
+
+    private final boolean enabled;
+    private final Map<String, PirDatasetIndex> indexes = new ConcurrentHashMap<>();
+
+    public PirIndexManager(boolean enabled) {
+        this.enabled = enabled;
+        logger.info("Create PirIndexManager, enabled: {}", enabled);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public static String getIndexDir(String tableId) {
+        return Common.joinPath(PirServiceConfig.getPirCacheDir(), tableId + INDEX_DIR_POSTFIX);
+    }
+
+    public PirDatasetIndexBuilder createIndexBuilder(
+            String tableId, List<String> tableFields, int idHashFieldIndex) throws Exception {
+        if (!enabled) {
+            return null;
+        }
+        unload(tableId);
+        return new PirDatasetIndexBuilder(getIndexDir(tableId), tableFields, idHashFieldIndex);
+    }
+
+    /**
+     * acquire the index of the given table, the caller must release the index after the query,
+     * so the index unloaded concurrently is closed only after the query finished
+     *
+     * @return null if the index is disabled or not built, then the query should go through the
+     *     database
+     */
+    public PirDatasetIndex acquireIndex(String tableId) {
+        if (!enabled) {
+            return null;
+        }
+        while (true) {
+            PirDatasetIndex index = indexes.get(tableId);
+            if (index == null) {
+                index = indexes.computeIfAbsent(tableId, this::loadIndex);
+            }
+            if (index == null || index.retain()) {
+                return index;
+            }
+            // closed by the concurrent unload
+            indexes.remove(tableId, index);
+        }
+    }
+
+    private PirDatasetIndex loadIndex(String tableId) {
+        String indexDir = getIndexDir(tableId);
+        if (!Files.isDirectory(Paths.get(indexDir))) {
+            return null;
+        }
+        try {
+            return PirDatasetIndex.load(indexDir);
+        } catch (Exception e) {
+            logger.warn("Load pir index {} failed, fallback to database, error: ", indexDir, e);
+            return null;
+        }
+    }
+
+    /** unload the index, the in-flight queries keep using it until they release the index */
+    public void unload(String tableId) {
+        PirDatasetIndex index = indexes.remove(tableId);
+        if (index != null) {
+            index.close();
+        }
+    }
+
+    public void remove(String tableId) throws Exception {
+        unload(tableId);
+        PirDatasetIndexBuilder.deleteDirectory(Paths.get(getIndexDir(tableId)));
+    }
+}
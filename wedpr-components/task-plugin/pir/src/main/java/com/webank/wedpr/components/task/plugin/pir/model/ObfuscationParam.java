@@ -17,7 +17,9 @@ package com.webank.wedpr.components.task.plugin.pir.model;
 
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.webank.wedpr.common.utils.Common;
+import com.webank.wedpr.components.pir.sdk.core.FixedBaseModPow;
 import com.webank.wedpr.components.pir.sdk.core.ObfuscateData;
+import com.webank.wedpr.components.pir.sdk.core.OtHelper;
 import com.webank.wedpr.components.pir.sdk.model.PirParamEnum;
 import java.math.BigInteger;
 import java.nio.charset.StandardCharsets;
@@ -31,6 +33,9 @@ public class ObfuscationParam {
     int index;
     PirParamEnum.AlgorithmType algorithmType;
     PirDataItem pirDataItem;
+    // the fixed-base tables for x and y, which are raised once for every matched row of the query
+    FixedBaseModPow xPow;
+    FixedBaseModPow yPow;
 
     public ObfuscationParam(ObfuscateData obfuscateData, PirParamEnum.AlgorithmType algorithmType) {
         setX(obfuscateData.getX());
@@ -38,6 +43,26 @@ public class ObfuscationParam {
         setAlgorithmType(algorithmType);
     }
 
+    // copy the param for the given pirDataItem, so the pirDataItems can be obfuscated concurrently
+    public ObfuscationParam(ObfuscationParam param, PirDataItem pirDataItem) {
+        setX(param.getX());
+        setY(param.getY());
+        setIndex(param.getIndex());
+        setAlgorithmType(param.getAlgorithmType());
+        setPirDataItem(pirDataItem);
+        setXPow(param.getXPow());
+        setYPow(param.getYPow());
+    }
+
+    public void buildFixedBasePow() {
+        if (xPow == null) {
+            xPow = OtHelper.buildFixedBasePow(x);
+        }
+        if (yPow == null) {
+            yPow = OtHelper.buildFixedBasePow(y);
+        }
+    }
+
     public BigInteger getObfuscationValue() {
         if (algorithmType == PirParamEnum.AlgorithmType.idFilter) {
             return Common.bytesToBigInteger(
@@ -30,17 +30,20 @@ import com.webank.wedpr.components.pir.sdk.config.PirSDKConfig;
 import com.webank.wedpr.components.pir.sdk.core.ObfuscateData;
 import com.webank.wedpr.components.pir.sdk.core.ObfuscateQueryResult;
 import com.webank.wedpr.components.pir.sdk.core.OtResult;
+import com.webank.wedpr.components.pir.sdk.model.PirParamEnum;
 import com.webank.wedpr.components.pir.sdk.model.PirQueryParam;
 import com.webank.wedpr.components.pir.sdk.model.PirQueryRequest;
 import com.webank.wedpr.components.storage.api.FileStorageInterface;
 import com.webank.wedpr.components.storage.config.HdfsStorageConfig;
 import com.webank.wedpr.components.storage.config.LocalStorageConfig;
+import com.webank.wedpr.components.task.plugin.pir.config.PirServiceConfig;
 import com.webank.wedpr.components.task.plugin.pir.core.Obfuscator;
 import com.webank.wedpr.components.task.plugin.pir.core.PirDatasetConstructor;
-import com.webank.wedpr.components.task.plugin.pir.core.impl.ObfuscatorImpl;
+import com.webank.wedpr.components.task.plugin.pir.core.impl.ParallelObfuscatorImpl;
 import com.webank.wedpr.components.task.plugin.pir.core.impl.PirDatasetConstructorImpl;
 import com.webank.wedpr.components.task.plugin.pir.dao.NativeSQLMapperWrapper;
 import com.webank.wedpr.components.task.plugin.pir.handler.PirServiceHook;
+import com.webank.wedpr.components.task.plugin.pir.index.PirIndexManager;
 import com.webank.wedpr.components.task.plugin.pir.model.ObfuscationParam;
 import com.webank.wedpr.components.task.plugin.pir.model.PirDataItem;
 import com.webank.wedpr.components.task.plugin.pir.service.PirService;
@@ -50,6 +53,7 @@ import com.webank.wedpr.sdk.jni.transport.TransportConfig;
 import com.webank.wedpr.sdk.jni.transport.WeDPRTransport;
 import java.util.List;
 import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -95,10 +99,17 @@ public class PirServiceImpl implements PirService {
 
     @PostConstruct
     public void init() throws Exception {
-        this.obfuscator = new ObfuscatorImpl();
-        this.nativeSQLMapperWrapper = new NativeSQLMapperWrapper(jdbcTemplate);
+        this.obfuscator =
+                new ParallelObfuscatorImpl(
+                        PirServiceConfig.getPirObfuscateParallelism(),
+                        PirServiceConfig.getPirObfuscateRequestParallelism(),
+                        PirServiceConfig.getPirObfuscateTaskRows());
+        PirIndexManager pirIndexManager =
+                new PirIndexManager(PirServiceConfig.getPirIndexEnabled());
+        this.nativeSQLMapperWrapper = new NativeSQLMapperWrapper(jdbcTemplate, pirIndexManager);
         this.pirDatasetConstructor =
-                new PirDatasetConstructorImpl(datasetMapper, fileStorage, jdbcTemplate);
+                new PirDatasetConstructorImpl(
+                        datasetMapper, fileStorage, jdbcTemplate, pirIndexManager);
         this.pirServiceHook = new PirServiceHook(serviceHook, serviceInvokeMapper);
         this.pirTopicSubscriber =
                 new PirTopicSubscriberImpl(
@@ -122,6 +133,13 @@ public class PirServiceImpl implements PirService {
         this.serviceAuthVerifier = new ServiceAuthVerifierImpl(serviceAuthMapper);
     }
 
+    @PreDestroy
+    public void close() {
+        if (obfuscator instanceof ParallelObfuscatorImpl) {
+            ((ParallelObfuscatorImpl) obfuscator).stop();
+        }
+    }
+
     protected void registerPublishedServices() throws Exception {
         logger.info("registerPublishedService");
         PublishedServiceInfo condition = new PublishedServiceInfo("");
@@ -208,9 +226,22 @@ public class PirServiceImpl implements PirService {
                     new ObfuscateQueryResult(
                             serviceSetting.getDatasetId(),
                             pirQueryParam.getAlgorithmType().toString());
-            for (ObfuscateData.ObfuscateDataItem dataItem : obfuscateData.getObfuscateDataItems()) {
+            List<ObfuscateData.ObfuscateDataItem> dataItems =
+                    obfuscateData.getObfuscateDataItems();
+            // the idObfuscation query all the items with a few batched sql
+            List<List<PirDataItem>> batchQueriedResult = null;
+            if (pirQueryParam.getAlgorithmType() == PirParamEnum.AlgorithmType.idObfuscation) {
+                batchQueriedResult =
+                        this.nativeSQLMapperWrapper.batchQuery(
+                                serviceSetting, pirQueryParam, dataItems);
+            }
+            for (int i = 0; i < dataItems.size(); i++) {
+                ObfuscateData.ObfuscateDataItem dataItem = dataItems.get(i);
                 List<PirDataItem> queriedResult =
-                        this.nativeSQLMapperWrapper.query(serviceSetting, pirQueryParam, dataItem);
+                        batchQueriedResult != null
+                                ? batchQueriedResult.get(i)
+                                : this.nativeSQLMapperWrapper.query(
+                                        serviceSetting, pirQueryParam, dataItem);
                 // without recorder
                 if (queriedResult == null || queriedResult.isEmpty()) {
                     obfuscateQueryResult.getOtResultList().add(new OtResult());
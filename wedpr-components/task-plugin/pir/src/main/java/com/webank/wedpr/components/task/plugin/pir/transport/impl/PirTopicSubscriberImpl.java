@@ -24,6 +24,7 @@ import com.webank.wedpr.components.api.credential.core.impl.CredentialInfo;
 import com.webank.wedpr.components.db.mapper.service.publish.model.ServiceInvokeStatus;
 import com.webank.wedpr.components.pir.sdk.config.PirSDKConfig;
 import com.webank.wedpr.components.pir.sdk.core.PirMsgErrorCallback;
+import com.webank.wedpr.components.pir.sdk.core.PirWireCodec;
 import com.webank.wedpr.components.pir.sdk.model.PirQueryRequest;
 import com.webank.wedpr.components.task.plugin.pir.handler.PirServiceHook;
 import com.webank.wedpr.components.task.plugin.pir.transport.PirTopicSubscriber;
@@ -111,7 +112,7 @@ public class PirTopicSubscriberImpl implements PirTopicSubscriber {
                                                 transport.asyncSendResponse(
                                                         message.getHeader().getSrcNode(),
                                                         message.getHeader().getTraceID(),
-                                                        response.serializeToBytes(),
+                                                        encodeResponse(request, response),
                                                         0,
                                                         new PirMsgErrorCallback(
                                                                 "asyncSendResponseForQuery"));
@@ -120,4 +121,17 @@ public class PirTopicSubscriberImpl implements PirTopicSubscriber {
                     }
                 });
     }
+
+    /** reply with the binary encoding only when the client has advertised it */
+    protected byte[] encodeResponse(PirQueryRequest request, WeDPRResponse response) {
+        if (request == null || !request.acceptBinaryWire()) {
+            return response.serializeToBytes();
+        }
+        try {
+            return PirWireCodec.encodeResponse(response);
+        } catch (Exception e) {
+            logger.warn("encode the binary pir response failed, fallback to json, error: ", e);
+            return response.serializeToBytes();
+        }
+    }
 }
@@ -20,6 +20,8 @@ import com.webank.wedpr.common.utils.Constant;
 import com.webank.wedpr.common.utils.WeDPRResponse;
 import com.webank.wedpr.components.scheduler.SchedulerService;
 import com.webank.wedpr.components.scheduler.impl.JobDetailRequest;
+import com.webank.wedpr.components.scheduler.impl.JobsStatusRequest;
+import com.webank.wedpr.components.scheduler.impl.TaskStatusNotifyRequest;
 import com.webank.wedpr.components.token.auth.TokenUtils;
 import javax.servlet.http.HttpServletRequest;
 import org.slf4j.Logger;
@@ -61,4 +63,45 @@ public class SchedulerController {
                             + e.getMessage());
         }
     }
+
+    // query the status of multiple jobs in one request
+    @PostMapping("/queryJobsStatus")
+    public WeDPRResponse queryJobsStatus(
+            @RequestBody JobsStatusRequest jobsStatusRequest, HttpServletRequest request) {
+        try {
+            WeDPRResponse response =
+                    new WeDPRResponse(Constant.WEDPR_SUCCESS, Constant.WEDPR_SUCCESS_MSG);
+            response.setData(
+                    this.schedulerService.queryJobsStatus(
+                            TokenUtils.getLoginUser(request).getUsername(),
+                            WeDPRCommonConfig.getAgency(),
+                            jobsStatusRequest));
+            return response;
+        } catch (Exception e) {
+            logger.warn(
+                    "queryJobsStatus exception, jobs: {}, error: ",
+                    jobsStatusRequest.getJobIDs(),
+                    e);
+            return new WeDPRResponse(
+                    Constant.WEDPR_FAILED, "queryJobsStatus failed for " + e.getMessage());
+        }
+    }
+
+    // the executors push the task status changes
+    @PostMapping("/notifyTaskStatus")
+    public WeDPRResponse notifyTaskStatus(
+            @RequestBody TaskStatusNotifyRequest taskStatusNotifyRequest,
+            HttpServletRequest request) {
+        try {
+            this.schedulerService.notifyTaskStatus(taskStatusNotifyRequest);
+            return new WeDPRResponse(Constant.WEDPR_SUCCESS, Constant.WEDPR_SUCCESS_MSG);
+        } catch (Exception e) {
+            logger.warn(
+                    "notifyTaskStatus exception, request: {}, error: ",
+                    taskStatusNotifyRequest,
+                    e);
+            return new WeDPRResponse(
+                    Constant.WEDPR_FAILED, "notifyTaskStatus failed for " + e.getMessage());
+        }
+    }
 }